@@ -1,9 +1,12 @@
 package com.microservicio.autenticarusuario.client;
 
+import java.util.Optional;
+
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import com.microservicio.autenticarusuario.dto.CambiosUsuariosDTO;
 import com.microservicio.autenticarusuario.model.Usuario;
 
 import reactor.core.publisher.Mono;
@@ -40,4 +43,17 @@ public class UsuarioClient {
         .bodyToMono(Usuario.class);
     }
 
+    // Long-poll al feed de cambios: responde apenas hay cambios después de 'desde' o al pasar 'esperaMs'.
+    public Mono<CambiosUsuariosDTO> cambiosDesde(Long desde, long esperaMs) {
+    return webClient.get()
+        .uri(uri -> uri.path("/interno/cambios")
+            .queryParamIfPresent("desde", Optional.ofNullable(desde))
+            .queryParam("esperaMs", esperaMs)
+            .build())
+        .retrieve()
+        .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
+            response -> response.bodyToMono(String.class)
+                .flatMap(error -> Mono.error(new RuntimeException("Error al leer cambios de usuarios: " + error))))
+        .bodyToMono(CambiosUsuariosDTO.class);
+    }
 }
@@ -0,0 +1,17 @@
+package com.microservicio.autenticarusuario.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Un cambio del feed de registrousuario (/usuarios/interno/cambios); solo los campos que usa la caché.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CambioUsuarioDTO {
+    private Long secuencia;
+    private Long usuarioId;
+    private String tipo;
+    private String correo;
+    private String correoAnterior;
+}
@@ -0,0 +1,18 @@
+package com.microservicio.autenticarusuario.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CambiosUsuariosDTO {
+    private Long desde;
+    private Long hasta;
+    private Boolean reiniciar;
+    private Boolean hayMas;
+    private List<CambioUsuarioDTO> cambios;
+}
@@ -15,11 +15,14 @@ public class AuthService {
     private final UsuarioClient usuarioClient;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final CacheCredenciales cacheCredenciales;
 
-    public AuthService(UsuarioClient usuarioClient, PasswordEncoder passwordEncoder, JwtUtil jwtUtil) {
+    public AuthService(UsuarioClient usuarioClient, PasswordEncoder passwordEncoder, JwtUtil jwtUtil,
+            CacheCredenciales cacheCredenciales) {
         this.usuarioClient = usuarioClient;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
+        this.cacheCredenciales = cacheCredenciales;
     }
 
     public Mono<Object> autenticar(String email, String clave) {
@@ -27,30 +30,24 @@ public class AuthService {
         System.out.println(">>> [DEBUG] 1. Intento de login para: " + email);
         System.out.println(">>> [DEBUG] 1. Clave recibida (raw): '" + clave + "'");
 
-        return usuarioClient.obtenerUsuarioPorEmail(email)
-                .doOnNext(u -> System.out.println(">>> [DEBUG] 2. Usuario encontrado en MS 8020: " + u.getNickname()))
-                .flatMap(usuario -> {
-
-                    
-                    String hashEnBd = usuario.getClave();
-                    System.out.println(">>> [DEBUG] 3. Hash recuperado de la BD: '" + hashEnBd + "'");
+        CacheCredenciales.Entrada enCache = cacheCredenciales.obtener(email);
+        Mono<Usuario> usuarioMono;
+        if (enCache == null) {
+            usuarioMono = buscarYCachear(email);
+        } else {
+            System.out.println(">>> [DEBUG] 2. Credenciales tomadas de la caché para: " + email);
+            usuarioMono = Mono.justOrEmpty(enCache.usuario());
+        }
 
-                  
-                    boolean coincide = passwordEncoder.matches(clave, hashEnBd);
-                    System.out.println(">>> [DEBUG] 4. Resultado de passwordEncoder.matches(): " + coincide);
-
-                    if (coincide) {
-                       
-                        String token = jwtUtil.generateToken(usuario);
-                        System.out.println(">>> [DEBUG] 5. Login EXITOSO. Token generado.");
-                        return Mono.just(new LoginResponseDTO(token, usuario));
-                    } else {
-                        System.out.println(">>> [DEBUG] 5. Login FALLIDO. Contraseña no coincide.");
-                       
-                        System.out.println(">>> [DEBUG]    (Referencia) La clave '" + clave + "' generaría este hash: "
-                                + passwordEncoder.encode(clave));
-                        return Mono.just("Contraseña incorrecta.");
+        return usuarioMono
+                .flatMap(usuario -> {
+                    Object resultado = verificar(usuario, clave);
+                    // La clave pudo cambiar sin que el aviso del feed haya llegado: se confirma con el MS 8020.
+                    if (enCache != null && !(resultado instanceof LoginResponseDTO)) {
+                        cacheCredenciales.invalidar(email);
+                        return buscarYCachear(email).map(fresco -> verificar(fresco, clave));
                     }
+                    return Mono.just(resultado);
                 })
                 .defaultIfEmpty("El email no está registrado.")
                 .doOnSuccess(result -> {
@@ -66,6 +63,33 @@ public class AuthService {
                 });
     }
 
+    // Vacío si el email no existe; lo que responda el MS 8020 (usuario o "no registrado") queda en la caché.
+    private Mono<Usuario> buscarYCachear(String email) {
+        long generacion = cacheCredenciales.generacion();
+        return usuarioClient.obtenerUsuarioPorEmail(email)
+                .doOnNext(u -> System.out.println(">>> [DEBUG] 2. Usuario encontrado en MS 8020: " + u.getNickname()))
+                .doOnNext(u -> cacheCredenciales.guardar(email, u, generacion))
+                .switchIfEmpty(Mono.fromRunnable(() -> cacheCredenciales.guardar(email, null, generacion)));
+    }
+
+    private Object verificar(Usuario usuario, String clave) {
+        String hashEnBd = usuario.getClave();
+        System.out.println(">>> [DEBUG] 3. Hash recuperado de la BD: '" + hashEnBd + "'");
+
+        boolean coincide = passwordEncoder.matches(clave, hashEnBd);
+        System.out.println(">>> [DEBUG] 4. Resultado de passwordEncoder.matches(): " + coincide);
+
+        if (coincide) {
+            String token = jwtUtil.generateToken(usuario);
+            System.out.println(">>> [DEBUG] 5. Login EXITOSO. Token generado.");
+            return new LoginResponseDTO(token, usuario);
+        }
+        System.out.println(">>> [DEBUG] 5. Login FALLIDO. Contraseña no coincide.");
+        System.out.println(">>> [DEBUG]    (Referencia) La clave '" + clave + "' generaría este hash: "
+                + passwordEncoder.encode(clave));
+        return "Contraseña incorrecta.";
+    }
+
     public Mono<Usuario> findUserByEmail(String email) {
         return usuarioClient.obtenerUsuarioPorEmail(email);
     }
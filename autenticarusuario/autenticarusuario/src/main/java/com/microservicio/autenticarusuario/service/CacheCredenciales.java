@@ -0,0 +1,150 @@
+package com.microservicio.autenticarusuario.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.microservicio.autenticarusuario.client.UsuarioClient;
+import com.microservicio.autenticarusuario.dto.CambioUsuarioDTO;
+import com.microservicio.autenticarusuario.dto.CambiosUsuariosDTO;
+import com.microservicio.autenticarusuario.model.Usuario;
+import com.microservicio.autenticarusuario.util.Normalizador;
+
+import jakarta.annotation.PreDestroy;
+
+// Credenciales de registrousuario (hash, id, rol, nickname) por correo normalizado, para que un login repetido
+// no pague el viaje HTTP. LRU acotada y con TTL; los correos desconocidos también se guardan, con un TTL corto.
+// Un hilo sigue el feed de cambios de registrousuario (long-poll) e invalida el correo de cada cambio; si el
+// feed pide reiniciar, se vacía todo. Si registrousuario no responde, lo cacheado sigue valiendo hasta su TTL.
+@Service
+public class CacheCredenciales {
+    private static final long REINTENTO_MS = 5_000;
+
+    private final UsuarioClient usuarioClient;
+    private final int capacidad;
+    private final long ttlMs;
+    private final long ttlNegativoMs;
+    private final long esperaMs;
+    private final ScheduledExecutorService sincronizador = Executors.newSingleThreadScheduledExecutor();
+
+    private final Map<String, Entrada> entradas;
+    // Cambia con cada invalidación: una respuesta pedida antes de un cambio no se guarda después de él.
+    private long generacion;
+    private Long marca;
+    // Reemplazable en pruebas para controlar los vencimientos.
+    LongSupplier reloj = System::currentTimeMillis;
+
+    public CacheCredenciales(UsuarioClient usuarioClient,
+            @Value("${auth.credenciales.capacidad:10000}") int capacidad,
+            @Value("${auth.credenciales.ttl-segundos:300}") long ttlSegundos,
+            @Value("${auth.credenciales.ttl-negativo-segundos:30}") long ttlNegativoSegundos,
+            @Value("${auth.credenciales.espera-ms:25000}") long esperaMs) {
+        this.usuarioClient = usuarioClient;
+        this.capacidad = Math.max(1, capacidad);
+        this.ttlMs = ttlSegundos * 1000;
+        this.ttlNegativoMs = ttlNegativoSegundos * 1000;
+        this.esperaMs = esperaMs;
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> mayor) {
+                return size() > CacheCredenciales.this.capacidad;
+            }
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        sincronizador.execute(this::cicloSeguro);
+    }
+
+    // null si no hay entrada vigente; una entrada con usuario null significa "correo no registrado".
+    public synchronized Entrada obtener(String correo) {
+        String clave = Normalizador.normalizar(correo);
+        Entrada entrada = entradas.get(clave);
+        if (entrada != null && entrada.venceMs() <= reloj.getAsLong()) {
+            entradas.remove(clave);
+            return null;
+        }
+        return entrada;
+    }
+
+    public synchronized long generacion() {
+        return generacion;
+    }
+
+    // usuario null guarda el correo como no registrado. Se descarta si hubo invalidaciones desde 'generacionLeida'.
+    public synchronized void guardar(String correo, Usuario usuario, long generacionLeida) {
+        if (generacionLeida != generacion) {
+            return;
+        }
+        long vence = reloj.getAsLong() + (usuario == null ? ttlNegativoMs : ttlMs);
+        entradas.put(Normalizador.normalizar(correo), new Entrada(usuario, vence));
+    }
+
+    public synchronized void invalidar(String correo) {
+        if (correo != null) {
+            entradas.remove(Normalizador.normalizar(correo));
+        }
+        generacion++;
+    }
+
+    public synchronized void limpiar() {
+        entradas.clear();
+        generacion++;
+    }
+
+    synchronized int tamano() {
+        return entradas.size();
+    }
+
+    private void cicloSeguro() {
+        long siguienteMs = 0;
+        try {
+            sincronizar();
+        } catch (Exception e) {
+            System.out.println(">>> Error al leer cambios de usuarios para la caché de credenciales: " + e.getMessage());
+            siguienteMs = REINTENTO_MS;
+        }
+        if (!sincronizador.isShutdown()) {
+            sincronizador.schedule(this::cicloSeguro, siguienteMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    void sincronizar() {
+        CambiosUsuariosDTO respuesta = usuarioClient.cambiosDesde(marca, marca == null ? 0 : esperaMs).block();
+        if (respuesta == null || respuesta.getHasta() == null) {
+            throw new IllegalStateException("Respuesta vacía del feed de cambios");
+        }
+        if (marca == null || Boolean.TRUE.equals(respuesta.getReiniciar())) {
+            // Sin marca no se sabe qué cambió antes de empezar a seguir el feed.
+            limpiar();
+        } else if (respuesta.getCambios() != null) {
+            for (CambioUsuarioDTO cambio : respuesta.getCambios()) {
+                invalidar(cambio.getCorreo());
+                invalidar(cambio.getCorreoAnterior());
+            }
+        }
+        marca = respuesta.getHasta();
+    }
+
+    Long getMarca() {
+        return marca;
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        sincronizador.shutdownNow();
+    }
+
+    public record Entrada(Usuario usuario, long venceMs) {
+    }
+
+}
@@ -26,6 +26,7 @@ public class JwtUtil {
        
         claims.put("userId", usuario.getId());
         claims.put("rol", usuario.getRol().getNombre()); 
+        claims.put("permisos", Permiso.deRol(usuario.getRol().getNombre()));
         
         return createToken(claims, usuario.getNickname());
     }
@@ -0,0 +1,23 @@
+package com.microservicio.autenticarusuario.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// Misma forma canónica que usa registrousuario en sus columnas normalizadas: "Admin@Correo.cl " y
+// "admin@correo.cl" son el mismo correo y comparten entrada en la caché de credenciales.
+public final class Normalizador {
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+
+    private Normalizador() {
+    }
+
+    public static String normalizar(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        String sinTildes = MARCAS.matcher(Normalizer.normalize(valor.trim(), Normalizer.Form.NFKD)).replaceAll("");
+        return sinTildes.toLowerCase(Locale.ROOT);
+    }
+
+}
@@ -32,6 +32,9 @@ public class AuthServiceTest {
     @Mock
     private JwtUtil jwtUtil;
 
+    @Mock
+    private CacheCredenciales cacheCredenciales;
+
     @InjectMocks
     private AuthService authService;
 
@@ -117,4 +120,58 @@ public class AuthServiceTest {
                 .expectNextMatches(msg -> msg.toString().startsWith("Error al autenticar:"))
                 .verifyComplete();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testAutenticar_CredencialesEnCache_NoConsultaRegistro() {
+        when(cacheCredenciales.obtener(EMAIL)).thenReturn(new CacheCredenciales.Entrada(usuarioCliente, Long.MAX_VALUE));
+        when(passwordEncoder.matches(CLAVE_SIN_ENCRIPTAR, CLAVE_ENCRIPTADA)).thenReturn(true);
+        when(jwtUtil.generateToken(usuarioCliente)).thenReturn(TOKEN_GENERADO);
+
+        StepVerifier.create(authService.autenticar(EMAIL, CLAVE_SIN_ENCRIPTAR))
+                .expectNextMatches(result -> result instanceof LoginResponseDTO)
+                .verifyComplete();
+
+        verify(usuarioClient, never()).obtenerUsuarioPorEmail(anyString());
+    }
+
+    @Test
+    void testAutenticar_CorreoNoRegistradoEnCache_NoConsultaRegistro() {
+        when(cacheCredenciales.obtener(EMAIL)).thenReturn(new CacheCredenciales.Entrada(null, Long.MAX_VALUE));
+
+        StepVerifier.create(authService.autenticar(EMAIL, CLAVE_SIN_ENCRIPTAR))
+                .expectNext("El email no está registrado.")
+                .verifyComplete();
+
+        verify(usuarioClient, never()).obtenerUsuarioPorEmail(anyString());
+    }
+
+    @Test
+    void testAutenticar_ClaveCambiadaConCacheVieja_ConfirmaConRegistro() {
+        Usuario conClaveNueva = new Usuario(1L, "cliente1", "$2a$10$nuevohash", EMAIL, new Rol(1L, "CLIENTE"));
+        when(cacheCredenciales.obtener(EMAIL)).thenReturn(new CacheCredenciales.Entrada(usuarioCliente, Long.MAX_VALUE));
+        when(cacheCredenciales.generacion()).thenReturn(3L);
+        when(passwordEncoder.matches(CLAVE_SIN_ENCRIPTAR, CLAVE_ENCRIPTADA)).thenReturn(false);
+        when(passwordEncoder.matches(CLAVE_SIN_ENCRIPTAR, "$2a$10$nuevohash")).thenReturn(true);
+        when(usuarioClient.obtenerUsuarioPorEmail(EMAIL)).thenReturn(Mono.just(conClaveNueva));
+        when(jwtUtil.generateToken(conClaveNueva)).thenReturn(TOKEN_GENERADO);
+
+        StepVerifier.create(authService.autenticar(EMAIL, CLAVE_SIN_ENCRIPTAR))
+                .expectNextMatches(result -> result instanceof LoginResponseDTO)
+                .verifyComplete();
+
+        verify(cacheCredenciales).invalidar(EMAIL);
+        verify(cacheCredenciales).guardar(EMAIL, conClaveNueva, 3L);
+    }
+
+    @Test
+    void testAutenticar_UsuarioNoEncontrado_GuardaCorreoComoNoRegistrado() {
+        when(cacheCredenciales.generacion()).thenReturn(5L);
+        when(usuarioClient.obtenerUsuarioPorEmail(EMAIL)).thenReturn(Mono.empty());
+
+        StepVerifier.create(authService.autenticar(EMAIL, CLAVE_SIN_ENCRIPTAR))
+                .expectNext("El email no está registrado.")
+                .verifyComplete();
+
+        verify(cacheCredenciales).guardar(EMAIL, null, 5L);
+    }
+}
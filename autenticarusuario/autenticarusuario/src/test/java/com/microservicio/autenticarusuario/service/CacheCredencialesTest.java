@@ -0,0 +1,112 @@
+package com.microservicio.autenticarusuario.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.microservicio.autenticarusuario.client.UsuarioClient;
+import com.microservicio.autenticarusuario.dto.CambioUsuarioDTO;
+import com.microservicio.autenticarusuario.dto.CambiosUsuariosDTO;
+import com.microservicio.autenticarusuario.model.Rol;
+import com.microservicio.autenticarusuario.model.Usuario;
+
+import reactor.core.publisher.Mono;
+
+@ExtendWith(MockitoExtension.class)
+public class CacheCredencialesTest {
+    @Mock
+    private UsuarioClient usuarioClient;
+
+    private final AtomicLong ahora = new AtomicLong(1_000);
+    private CacheCredenciales cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CacheCredenciales(usuarioClient, 2, 300, 30, 25_000);
+        cache.reloj = ahora::get;
+    }
+
+    @AfterEach
+    void cerrar() {
+        cache.cerrar();
+    }
+
+    private static Usuario usuario(String correo) {
+        return new Usuario(1L, "ana", "$2a$10$hash", correo, new Rol(1L, "CLIENTE"));
+    }
+
+    @Test
+    void testObtener_ClaveNormalizadaYVencimientoPorTipo() {
+        cache.guardar("Ana@Mail.com ", usuario("ana@mail.com"), cache.generacion());
+        cache.guardar("nadie@mail.com", null, cache.generacion());
+
+        assertNotNull(cache.obtener("ana@mail.com").usuario());
+        assertNull(cache.obtener("NADIE@mail.com").usuario());
+
+        ahora.addAndGet(30_000);
+        assertNull(cache.obtener("nadie@mail.com"));
+        assertNotNull(cache.obtener("ana@mail.com"));
+
+        ahora.addAndGet(270_000);
+        assertNull(cache.obtener("ana@mail.com"));
+    }
+
+    @Test
+    void testGuardar_RespuestaPedidaAntesDeUnaInvalidacion_SeDescarta() {
+        long generacion = cache.generacion();
+        cache.invalidar("ana@mail.com");
+
+        cache.guardar("ana@mail.com", usuario("ana@mail.com"), generacion);
+
+        assertNull(cache.obtener("ana@mail.com"));
+    }
+
+    @Test
+    void testGuardar_SuperaCapacidad_SacaElMenosUsado() {
+        cache.guardar("a@mail.com", usuario("a@mail.com"), cache.generacion());
+        cache.guardar("b@mail.com", usuario("b@mail.com"), cache.generacion());
+        cache.obtener("a@mail.com");
+        cache.guardar("c@mail.com", usuario("c@mail.com"), cache.generacion());
+
+        assertEquals(2, cache.tamano());
+        assertNull(cache.obtener("b@mail.com"));
+        assertNotNull(cache.obtener("a@mail.com"));
+    }
+
+    @Test
+    void testSincronizar_InvalidaCorreosDelFeedYVaciaAlReiniciar() {
+        when(usuarioClient.cambiosDesde(null, 0)).thenReturn(Mono.just(new CambiosUsuariosDTO(null, 10L, false, false, List.of())));
+        cache.sincronizar();
+        assertEquals(10L, cache.getMarca());
+
+        cache.guardar("ana@mail.com", usuario("ana@mail.com"), cache.generacion());
+        cache.guardar("beto@mail.com", usuario("beto@mail.com"), cache.generacion());
+        CambioUsuarioDTO cambioCorreo = new CambioUsuarioDTO(11L, 1L, "ACTUALIZADO", "ana.nueva@mail.com", "Ana@mail.com");
+        when(usuarioClient.cambiosDesde(10L, 25_000)).thenReturn(
+                Mono.just(new CambiosUsuariosDTO(10L, 11L, false, false, List.of(cambioCorreo))));
+        cache.sincronizar();
+
+        assertNull(cache.obtener("ana@mail.com"));
+        assertNotNull(cache.obtener("beto@mail.com"));
+        assertEquals(11L, cache.getMarca());
+
+        when(usuarioClient.cambiosDesde(11L, 25_000)).thenReturn(
+                Mono.just(new CambiosUsuariosDTO(11L, 40L, true, false, List.of())));
+        cache.sincronizar();
+
+        assertEquals(0, cache.tamano());
+        assertEquals(40L, cache.getMarca());
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.microservicio.direcciones.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.microservicio.direcciones.util.JwtUtil;
+
+@Configuration
+public class PermisosConfig implements WebMvcConfigurer {
+    private final JwtUtil jwtUtil;
+
+    public PermisosConfig(JwtUtil jwtUtil) {
+        this.jwtUtil = jwtUtil;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new PermisoInterceptor(jwtUtil));
+    }
+
+}
@@ -17,6 +17,8 @@ import com.microservicio.direcciones.model.Comuna;
 import com.microservicio.direcciones.model.Direccion;
 import com.microservicio.direcciones.service.DireccionService;
 import com.microservicio.direcciones.util.JwtUtil;
+import com.microservicio.direcciones.util.Permiso;
+import com.microservicio.direcciones.util.RequierePermiso;
 
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -79,27 +81,18 @@ public class DireccionController {
         @ApiResponse(responseCode = "403", description = "Acceso denegado (Rol incorrecto)")
     })
     @PostMapping
+    @RequierePermiso(Permiso.DIRECCIONES_REGISTRAR)
     public ResponseEntity<?> guardar(
         @RequestBody Map<String, Object> payload,
         @RequestHeader("Authorization") String authorizationHeader 
     ) {
-        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Token JWT no proporcionado o formato inválido.");
-        }
-
+        // El token ya lo validó PermisoInterceptor; aquí solo se necesita el usuario.
         Long usuarioId = jwtUtil.extractUserId(authorizationHeader);
-        String rol = jwtUtil.extractRole(authorizationHeader);
-
-        if (usuarioId == null || rol == null) {
+        if (usuarioId == null) {
              return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Token JWT inválido o expirado.");
         }
 
         try {
-            if (!rol.equalsIgnoreCase("CLIENTE")) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body("Acceso denegado: solo usuarios con rol CLIENTE pueden registrar direcciones.");
-            }
-
             Direccion direccion = new Direccion();
             direccion.setCalle((String) payload.get("calle"));
             direccion.setCodigoPostal((String) payload.get("codigoPostal"));
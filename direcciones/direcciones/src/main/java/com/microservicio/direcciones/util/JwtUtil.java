@@ -40,4 +40,16 @@ public class JwtUtil {
         return (String) claims.get("rol");
     }
 
+    // Permisos del token (bits de Permiso). Los tokens emitidos antes de agregar el claim "permisos" se
+    // resuelven por su rol.
+    public Integer extractPermisos(String token) {
+        Claims claims = extractAllClaims(token);
+        if (claims == null) return null;
+        Object permisos = claims.get("permisos");
+        if (permisos instanceof Number numero) {
+            return numero.intValue();
+        }
+        return Permiso.deRol((String) claims.get("rol"));
+    }
+
 }
@@ -0,0 +1,44 @@
+package com.microservicio.direcciones.util;
+
+import java.util.Locale;
+
+// Permisos como bits de un int: el JWT lleva la suma en el claim "permisos" y cada endpoint se valida con un
+// solo AND. Los bits son fijos y se comparten entre microservicios: agregar permisos al final, nunca reordenar.
+public enum Permiso {
+    USUARIOS_LEER(1),
+    USUARIOS_ADMINISTRAR(1 << 1),
+    DIRECCIONES_REGISTRAR(1 << 2),
+    VENTAS_COMPRAR(1 << 3);
+
+    private final int bit;
+
+    Permiso(int bit) {
+        this.bit = bit;
+    }
+
+    public int bit() {
+        return bit;
+    }
+
+    public static int mascara(Permiso... permisos) {
+        int mascara = 0;
+        for (Permiso permiso : permisos) {
+            mascara |= permiso.bit;
+        }
+        return mascara;
+    }
+
+    // Misma tabla que usa autenticarusuario al emitir el token; aquí solo sirve para tokens sin el claim.
+    public static int deRol(String rol) {
+        if (rol == null) {
+            return 0;
+        }
+        return switch (rol.toUpperCase(Locale.ROOT)) {
+            case "CLIENTE" -> mascara(DIRECCIONES_REGISTRAR, VENTAS_COMPRAR);
+            case "DELIVERY" -> mascara(USUARIOS_LEER);
+            case "ADMINISTRADOR" -> mascara(USUARIOS_LEER, USUARIOS_ADMINISTRAR);
+            default -> 0;
+        };
+    }
+
+}
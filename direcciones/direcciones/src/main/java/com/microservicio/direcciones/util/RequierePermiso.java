@@ -0,0 +1,14 @@
+package com.microservicio.direcciones.util;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// El endpoint exige un JWT que incluya todos estos permisos. Lo valida PermisoInterceptor antes de entrar
+// al método: 401 sin token o con token inválido, 403 si falta algún permiso.
+@Target({ ElementType.METHOD, ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RequierePermiso {
+    Permiso[] value();
+}
@@ -21,6 +21,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microservicio.direcciones.model.Comuna;
 import com.microservicio.direcciones.model.Region;
 import com.microservicio.direcciones.service.ComunaService;
+import com.microservicio.direcciones.util.JwtUtil;
 
 @WebMvcTest(ComunaController.class)
 @AutoConfigureMockMvc(addFilters = false) 
@@ -35,6 +36,9 @@ public class ComunaControllerTest {
     @MockBean
     private ComunaService comunaService;
 
+    @MockBean
+    private JwtUtil jwtUtil;
+
     private Comuna comuna;
     private String comunaJson;
     private final Long REGION_ID = 1L;
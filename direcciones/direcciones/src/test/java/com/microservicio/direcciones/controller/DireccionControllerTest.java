@@ -25,6 +25,7 @@ import com.microservicio.direcciones.model.Comuna;
 import com.microservicio.direcciones.model.Direccion;
 import com.microservicio.direcciones.service.DireccionService;
 import com.microservicio.direcciones.util.JwtUtil;
+import com.microservicio.direcciones.util.Permiso;
 
 @WebMvcTest(DireccionController.class)
 @AutoConfigureMockMvc(addFilters = false) 
@@ -73,13 +74,13 @@ public class DireccionControllerTest {
         
        
         when(jwtUtil.extractUserId(CLIENTE_TOKEN)).thenReturn(CLIENTE_ID);
-        when(jwtUtil.extractRole(CLIENTE_TOKEN)).thenReturn("CLIENTE");
+        when(jwtUtil.extractPermisos(CLIENTE_TOKEN)).thenReturn(Permiso.deRol("CLIENTE"));
         
         when(jwtUtil.extractUserId(ADMIN_TOKEN)).thenReturn(10L); 
-        when(jwtUtil.extractRole(ADMIN_TOKEN)).thenReturn("ADMINISTRADOR");
+        when(jwtUtil.extractPermisos(ADMIN_TOKEN)).thenReturn(Permiso.deRol("ADMINISTRADOR"));
         
         when(jwtUtil.extractUserId(INVALID_TOKEN)).thenReturn(null);
-        when(jwtUtil.extractRole(INVALID_TOKEN)).thenReturn(null);
+        when(jwtUtil.extractPermisos(INVALID_TOKEN)).thenReturn(null);
     }
 
    
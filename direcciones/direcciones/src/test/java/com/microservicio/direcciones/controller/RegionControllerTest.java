@@ -19,6 +19,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microservicio.direcciones.model.Region;
 import com.microservicio.direcciones.service.RegionService;
+import com.microservicio.direcciones.util.JwtUtil;
 
 @WebMvcTest(RegionController.class)
 @AutoConfigureMockMvc(addFilters = false)
@@ -30,6 +31,9 @@ public class RegionControllerTest {
     @MockBean
     private RegionService regionService;
 
+    @MockBean
+    private JwtUtil jwtUtil;
+
     private Region region;
     private String regionJson;
 
@@ -0,0 +1,30 @@
+package com.microservicio.productostienda.client;
+
+import java.util.List;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.microservicio.productostienda.dto.DetalleVendidoDTO;
+
+import reactor.core.publisher.Mono;
+
+@Component
+public class VentaClient {
+    private final WebClient webClient;
+
+    public VentaClient(WebClient.Builder builder) {
+        this.webClient = builder
+                .baseUrl("http://localhost:8023/api/ventas")
+                .build();
+    }
+
+    public Mono<List<DetalleVendidoDTO>> detallesDesde(Long desde, int limite) {
+        return webClient.get()
+                .uri(uri -> uri.path("/detalles/desde").queryParam("desde", desde).queryParam("limite", limite).build())
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<List<DetalleVendidoDTO>>() {});
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.microservicio.productostienda.config;
+
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.microservicio.productostienda.service.ImagenProductoService;
+
+@Configuration
+public class ImagenesConfig implements WebMvcConfigurer {
+    @Value("${productos.imagenes.dir:imagenes}")
+    private String directorio;
+
+    // Las rutas incluyen el hash del contenido, por eso pueden marcarse como inmutables.
+    // ResourceHttpRequestHandler ya atiende Range, Last-Modified y HEAD.
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler(ImagenProductoService.RUTA_PUBLICA + "**")
+                .addResourceLocations(Paths.get(directorio).toAbsolutePath().toUri().toString())
+                .setCacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable());
+    }
+
+}
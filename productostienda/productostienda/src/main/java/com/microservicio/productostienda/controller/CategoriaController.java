@@ -2,11 +2,13 @@ package com.microservicio.productostienda.controller;
 
 import java.util.List;
 
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.microservicio.productostienda.model.Categoria;
 import com.microservicio.productostienda.service.CategoriaService;
@@ -29,15 +31,20 @@ public class CategoriaController {
         this.categoriaService = categoriaService;
     }
 
-    @Operation(summary = "Listar todas las categorías", description = "Obtiene la lista completa de categorías disponibles para clasificar productos.")
+    @Operation(summary = "Listar todas las categorías", description = "Obtiene la lista completa de categorías disponibles para clasificar productos. Se sirve desde memoria e incluye ETag para validar con If-None-Match.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Lista de categorías obtenida correctamente",
                      content = @Content(mediaType = "application/json", schema = @Schema(implementation = Categoria.class))),
+        @ApiResponse(responseCode = "304", description = "La lista no cambió desde el ETag enviado"),
         @ApiResponse(responseCode = "500", description = "Error interno del servidor")
     })
     @GetMapping
-    public List<Categoria> listar() {
-        return categoriaService.listarCategorias();
+    public ResponseEntity<List<Categoria>> listar(WebRequest request) {
+        String etag = categoriaService.etagCategorias();
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(categoriaService.listarCategorias());
     }
 
     @Operation(summary = "Crear una nueva categoría", description = "Registra una nueva categoría en el sistema.")
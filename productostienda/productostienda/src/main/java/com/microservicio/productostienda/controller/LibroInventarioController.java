@@ -0,0 +1,79 @@
+package com.microservicio.productostienda.controller;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.microservicio.productostienda.dto.MovimientoInventarioDTO;
+import com.microservicio.productostienda.inventario.LibroInventario;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@RestController
+@RequestMapping("/api/productos/{id}")
+@Tag(name = "Libro de inventario", description = "Auditoría de movimientos de stock por producto")
+public class LibroInventarioController {
+    private static final int LIMITE_MAXIMO = 1000;
+
+    private final LibroInventario libroInventario;
+
+    public LibroInventarioController(LibroInventario libroInventario) {
+        this.libroInventario = libroInventario;
+    }
+
+    @Operation(summary = "Historial de movimientos de stock", description = "Devuelve los movimientos del producto, del más reciente al más antiguo, dentro del rango de fechas indicado.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Historial obtenido correctamente",
+                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = MovimientoInventarioDTO.class)))
+    })
+    @GetMapping("/movimientos")
+    public ResponseEntity<List<MovimientoInventarioDTO>> movimientos(
+            @Parameter(description = "ID del producto", example = "1")
+            @PathVariable Long id,
+            @Parameter(description = "Desde (ISO-8601)", example = "2025-11-01T00:00:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant desde,
+            @Parameter(description = "Hasta (ISO-8601)", example = "2025-11-30T23:59:59Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant hasta,
+            @Parameter(description = "Cantidad máxima de movimientos", example = "100")
+            @RequestParam(defaultValue = "100") int limite) {
+        List<MovimientoInventarioDTO> movimientos = libroInventario
+                .historial(id, desde, hasta, Math.max(1, Math.min(limite, LIMITE_MAXIMO)))
+                .stream()
+                .map(m -> new MovimientoInventarioDTO(m.secuencia(), m.fecha(), m.motivo().name(), m.delta(), m.stock()))
+                .toList();
+        return ResponseEntity.ok(movimientos);
+    }
+
+    @Operation(summary = "Stock en una fecha", description = "Reconstruye el stock que tenía el producto en el instante indicado.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stock encontrado"),
+        @ApiResponse(responseCode = "404", description = "El producto no existía en esa fecha o la fecha está fuera de la retención del libro")
+    })
+    @GetMapping("/stock-historico")
+    public ResponseEntity<?> stockEn(
+            @Parameter(description = "ID del producto", example = "1")
+            @PathVariable Long id,
+            @Parameter(description = "Instante a consultar (ISO-8601)", example = "2025-11-15T12:00:00Z")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant fecha) {
+        OptionalInt stock = libroInventario.stockEn(id, fecha);
+        if (stock.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(Map.of("productoId", id, "fecha", fecha, "stock", stock.getAsInt()));
+    }
+}
@@ -1,9 +1,14 @@
 package com.microservicio.productostienda.controller;
 
+import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,11 +18,24 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.microservicio.productostienda.dto.ActualizacionMasivaDTO;
+import com.microservicio.productostienda.dto.CambiosCatalogoDTO;
+import com.microservicio.productostienda.dto.ReservaStockDTO;
 import com.microservicio.productostienda.model.Categoria;
 import com.microservicio.productostienda.model.Producto;
+import com.microservicio.productostienda.service.CatalogoSnapshotService;
+import com.microservicio.productostienda.service.ImagenProductoService;
+import com.microservicio.productostienda.service.InventarioStreamService;
+import com.microservicio.productostienda.service.PopularidadService;
+import com.microservicio.productostienda.service.ProductoCambioService;
 import com.microservicio.productostienda.service.ProductoService;
+import com.microservicio.productostienda.service.VentaFlashService;
 
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -33,33 +51,148 @@ import io.swagger.v3.oas.annotations.media.Schema;
 @Tag(name = "Productos", description = "Gestión del catálogo de productos y stock")
 public class ProductoController {
     private final ProductoService productoService;
+    private final InventarioStreamService inventarioStreamService;
+    private final CatalogoSnapshotService catalogoSnapshotService;
+    private final ImagenProductoService imagenProductoService;
+    private final VentaFlashService ventaFlashService;
+    private final ProductoCambioService productoCambioService;
+    private final PopularidadService popularidadService;
 
-    public ProductoController(ProductoService productoService) {
+    public ProductoController(ProductoService productoService, InventarioStreamService inventarioStreamService,
+            CatalogoSnapshotService catalogoSnapshotService, ImagenProductoService imagenProductoService,
+            VentaFlashService ventaFlashService, ProductoCambioService productoCambioService,
+            PopularidadService popularidadService) {
         this.productoService = productoService;
+        this.inventarioStreamService = inventarioStreamService;
+        this.catalogoSnapshotService = catalogoSnapshotService;
+        this.imagenProductoService = imagenProductoService;
+        this.ventaFlashService = ventaFlashService;
+        this.productoCambioService = productoCambioService;
+        this.popularidadService = popularidadService;
     }
 
-    @Operation(summary = "Listar todos los productos", description = "Devuelve el catálogo completo de productos con su stock e imagen.")
+    @Operation(summary = "Listar todos los productos", description = "Devuelve el catálogo completo de productos con su stock e imagen, o solo los de una categoría. Se sirve desde una instantánea en memoria ya serializada y comprimida (gzip si el cliente lo acepta), con ETag. Con 'fields' solo se consultan y devuelven esas propiedades (el ID siempre se incluye). Con sort=popularidad se ordena por ventas recientes, más vendidos primero.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Lista obtenida correctamente", 
                      content = @Content(mediaType = "application/json", schema = @Schema(implementation = Producto.class))),
+        @ApiResponse(responseCode = "304", description = "El catálogo no cambió desde el ETag enviado"),
+        @ApiResponse(responseCode = "400", description = "Campo desconocido en 'fields' u orden no soportado"),
         @ApiResponse(responseCode = "500", description = "Error interno del servidor")
     })
     @GetMapping
-    public List<Producto> listar() {
-        return productoService.listarProductos();
+    public ResponseEntity<?> listar(
+            @Parameter(description = "Filtrar por ID de categoría", example = "1")
+            @RequestParam(required = false) Long categoriaId,
+            @Parameter(description = "Propiedades a devolver, separadas por coma", example = "id,nombre,precio,stock,imagenUri")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Orden del listado; solo se admite 'popularidad'", example = "popularidad")
+            @RequestParam(required = false) String sort,
+            @Parameter(hidden = true)
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request) {
+        if (sort != null && !sort.equals("popularidad")) {
+            return ResponseEntity.badRequest().body("Orden no soportado: " + sort + ". Use 'popularidad'.");
+        }
+        boolean porPopularidad = sort != null;
+        if (fields != null) {
+            try {
+                List<Map<String, Object>> filas = productoService.listarCampos(fields, categoriaId);
+                return ResponseEntity.ok(porPopularidad
+                        ? popularidadService.ordenar(filas, fila -> (Long) fila.get("id"))
+                        : filas);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        }
+        if (porPopularidad) {
+            List<Producto> productos = categoriaId == null
+                    ? productoService.listarProductos()
+                    : productoService.listarPorCategoria(categoriaId);
+            return ResponseEntity.ok(popularidadService.ordenar(productos, Producto::getId));
+        }
+        CatalogoSnapshotService.Representacion catalogo = catalogoSnapshotService.obtener(categoriaId);
+        if (catalogo == null) {
+            List<Producto> productos = categoriaId == null
+                    ? productoService.listarProductos()
+                    : productoService.listarPorCategoria(categoriaId);
+            return ResponseEntity.ok(productos);
+        }
+
+        boolean gzip = aceptaGzip(acceptEncoding);
+        String etag = gzip ? catalogo.etagGzip() : catalogo.etag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(catalogo.gzip());
+        }
+        return respuesta.body(catalogo.json());
+    }
+
+    private boolean aceptaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String codificacion : acceptEncoding.split(",")) {
+            String[] partes = codificacion.trim().split(";");
+            if (partes[0].trim().equalsIgnoreCase("gzip")) {
+                return partes.length == 1 || !partes[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    @Operation(summary = "Cambios del catálogo desde una secuencia", description = "Sincronización incremental: devuelve los productos creados o modificados y los IDs eliminados desde la secuencia 'desde', junto con la nueva marca de agua 'hasta'. Sin 'desde' (o con 0) devuelve el catálogo completo.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Cambios obtenidos correctamente",
+                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = CambiosCatalogoDTO.class)))
+    })
+    @GetMapping("/cambios")
+    public ResponseEntity<CambiosCatalogoDTO> cambios(
+            @Parameter(description = "Marca de agua de la sincronización anterior", example = "1000")
+            @RequestParam(required = false) Long desde,
+            @Parameter(description = "Cantidad máxima de cambios por respuesta", example = "500")
+            @RequestParam(defaultValue = "500") int limite) {
+        return ResponseEntity.ok(productoCambioService.cambiosDesde(desde, limite));
+    }
+
+    @Operation(summary = "Stream de cambios de inventario", description = "Canal Server-Sent Events que envía eventos 'inventario' con listas compactas {id, stock, precio} cada vez que un producto cambia. Reemplaza el polling del catálogo completo.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Suscripción abierta", content = @Content(mediaType = "text/event-stream"))
+    })
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return inventarioStreamService.suscribir();
     }
 
     @Operation(summary = "Obtener producto por ID", description = "Busca y devuelve los detalles de un producto específico.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Producto encontrado", 
                      content = @Content(mediaType = "application/json", schema = @Schema(implementation = Producto.class))),
+        @ApiResponse(responseCode = "400", description = "Campo desconocido en 'fields'"),
         @ApiResponse(responseCode = "404", description = "Producto no encontrado"),
         @ApiResponse(responseCode = "500", description = "Error interno del servidor")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<Producto> obtener(
+    public ResponseEntity<?> obtener(
             @Parameter(description = "ID único del producto", example = "1") 
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            @Parameter(description = "Propiedades a devolver, separadas por coma", example = "id,nombre,precio")
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            try {
+                return productoService.obtenerCampos(id, fields)
+                        .map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        }
         return productoService.obtenerPorId(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
@@ -168,4 +301,147 @@ public class ProductoController {
                     .body("Error al eliminar producto: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "Actualización masiva de precios y stock", description = "Aplica en una sola transacción una lista de operaciones {id, precio?, stockDelta?} y/o un ajuste porcentual de precio para toda una categoría.")
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(
+        description = "Operaciones a aplicar",
+        required = true,
+        content = @Content(
+            mediaType = "application/json",
+            schema = @Schema(example = "{\n  \"operaciones\": [\n    { \"id\": 1, \"precio\": 17990 },\n    { \"id\": 2, \"stockDelta\": 40 }\n  ],\n  \"categoriaId\": 1,\n  \"porcentaje\": -10\n}")
+        )
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Actualización aplicada correctamente"),
+        @ApiResponse(responseCode = "400", description = "Operación inválida (producto inexistente, stock insuficiente o porcentaje inválido); no se aplica ningún cambio"),
+        @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+    })
+    @PostMapping("/masivo")
+    public ResponseEntity<?> actualizarMasivo(
+        @RequestBody ActualizacionMasivaDTO solicitud,
+        @Parameter(hidden = true)
+        @RequestHeader(value = "Authorization", required = false) String authorizationHeader
+    ) {
+        try {
+            List<Producto> actualizados = productoService.actualizarMasivo(solicitud);
+            return ResponseEntity.ok(Map.of("productosActualizados", actualizados.size()));
+
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Error en la actualización masiva: " + e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Subir imagen de producto", description = "Guarda la imagen original en el almacenamiento local y genera en segundo plano las variantes thumbnail (160px), card (480px) y detail (1080px). Las imágenes se sirven desde /imagenes/** con caché inmutable.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Imagen recibida; las variantes estarán disponibles en breve"),
+        @ApiResponse(responseCode = "400", description = "Archivo vacío o formato no soportado (jpeg, png, gif)"),
+        @ApiResponse(responseCode = "404", description = "Producto no encontrado"),
+        @ApiResponse(responseCode = "503", description = "Procesador de imágenes saturado; reintentar más tarde"),
+        @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+    })
+    @PostMapping(path = "/{id}/imagen", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> subirImagen(
+        @Parameter(description = "ID del producto", example = "1")
+        @PathVariable Long id,
+        @RequestParam("archivo") MultipartFile archivo,
+        @Parameter(hidden = true)
+        @RequestHeader(value = "Authorization", required = false) String authorizationHeader
+    ) {
+        if (archivo.isEmpty()) {
+            return ResponseEntity.badRequest().body("Error al subir imagen: el archivo está vacío.");
+        }
+        if (productoService.obtenerPorId(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        try {
+            String imagenUri = imagenProductoService.guardarImagen(id, archivo);
+            productoService.actualizarImagen(id, imagenUri);
+
+            Map<String, Object> respuesta = new LinkedHashMap<>();
+            respuesta.put("imagenUri", imagenUri);
+            respuesta.put("variantes", imagenProductoService.rutasVariantes(imagenUri));
+            return ResponseEntity.status(HttpStatus.CREATED).body(respuesta);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error al subir imagen: " + e.getMessage());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body("Error al subir imagen: el procesador de imágenes está saturado.");
+        } catch (IOException | RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error al subir imagen: " + e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Reservar stock", description = "Descuenta unidades del stock de un producto. Si el producto está en modo caliente se descuenta en memoria y se confirma al quedar registrado en el diario; si no, con un UPDATE condicional.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stock reservado; devuelve el producto con el stock restante",
+                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = Producto.class))),
+        @ApiResponse(responseCode = "400", description = "Cantidad inválida"),
+        @ApiResponse(responseCode = "409", description = "Stock insuficiente, producto no encontrado o producto en venta flash (requiere token de compra)"),
+        @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+    })
+    @PostMapping("/{id}/reservar")
+    public ResponseEntity<?> reservar(
+        @Parameter(description = "ID del producto", example = "1")
+        @PathVariable Long id,
+        @RequestBody ReservaStockDTO solicitud
+    ) {
+        if (ventaFlashService.estaActiva(id)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("Error al reservar stock: el producto está en venta flash, use /api/productos/" + id + "/flash.");
+        }
+        try {
+            return ResponseEntity.ok(productoService.reservarStock(id, solicitud.getCantidad()));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error al reservar stock: " + e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("Error al reservar stock: " + e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Activar modo caliente", description = "Pasa el stock del producto a contadores en memoria con diario y escritura agrupada, para promociones con muchas compras concurrentes.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Modo caliente activo",
+                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = Producto.class))),
+        @ApiResponse(responseCode = "404", description = "Producto no encontrado")
+    })
+    @PutMapping("/{id}/caliente")
+    public ResponseEntity<?> activarCaliente(
+        @Parameter(description = "ID del producto", example = "1")
+        @PathVariable Long id,
+        @Parameter(hidden = true)
+        @RequestHeader(value = "Authorization", required = false) String authorizationHeader
+    ) {
+        try {
+            return ResponseEntity.ok(productoService.activarModoCaliente(id));
+
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body("Error al activar modo caliente: " + e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Desactivar modo caliente", description = "Vacía el diario pendiente a la base de datos y devuelve el producto al camino SQL normal.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Modo caliente desactivado"),
+        @ApiResponse(responseCode = "404", description = "El producto no estaba en modo caliente")
+    })
+    @DeleteMapping("/{id}/caliente")
+    public ResponseEntity<?> desactivarCaliente(
+        @Parameter(description = "ID del producto", example = "1")
+        @PathVariable Long id,
+        @Parameter(hidden = true)
+        @RequestHeader(value = "Authorization", required = false) String authorizationHeader
+    ) {
+        if (!productoService.desactivarModoCaliente(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,47 @@
+package com.microservicio.productostienda.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.microservicio.productostienda.model.Producto;
+import com.microservicio.productostienda.service.RecomendacionService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@RestController
+@RequestMapping("/api/productos/{id}")
+@Tag(name = "Recomendaciones", description = "Productos comprados frecuentemente junto a otro")
+public class RecomendacionController {
+    private final RecomendacionService recomendacionService;
+
+    public RecomendacionController(RecomendacionService recomendacionService) {
+        this.recomendacionService = recomendacionService;
+    }
+
+    @Operation(summary = "Productos relacionados", description = "Devuelve los productos que más veces se compraron en la misma venta que el indicado, del más frecuente al menos frecuente. Lista vacía si aún no hay datos.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Relacionados obtenidos correctamente",
+                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = Producto.class)))
+    })
+    @GetMapping("/relacionados")
+    public ResponseEntity<List<Producto>> relacionados(
+            @Parameter(description = "ID del producto", example = "1")
+            @PathVariable Long id,
+            @Parameter(description = "Cantidad máxima de productos", example = "10")
+            @RequestParam(defaultValue = "10") int limite) {
+        return ResponseEntity.ok(recomendacionService.relacionados(id, Math.max(1, limite)));
+    }
+
+}
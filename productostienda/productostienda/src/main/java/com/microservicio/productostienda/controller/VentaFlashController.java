@@ -0,0 +1,219 @@
+package com.microservicio.productostienda.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.microservicio.productostienda.dto.CanjeFlashDTO;
+import com.microservicio.productostienda.dto.ConfiguracionFlashDTO;
+import com.microservicio.productostienda.dto.TurnoFlashDTO;
+import com.microservicio.productostienda.inventario.SalaEsperaFlash;
+import com.microservicio.productostienda.model.Producto;
+import com.microservicio.productostienda.service.VentaFlashService;
+
+import io.swagger.v3.oas.annotations.Hidden;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@RestController
+@RequestMapping("/api/productos")
+@Tag(name = "Ventas flash", description = "Lanzamientos con stock limitado: sala de espera FIFO y tokens de compra")
+public class VentaFlashController {
+    private final VentaFlashService ventaFlashService;
+
+    public VentaFlashController(VentaFlashService ventaFlashService) {
+        this.ventaFlashService = ventaFlashService;
+    }
+
+    @Operation(summary = "Activar venta flash", description = "Reserva tantos tokens de compra como unidades en stock y abre la sala de espera, que admite compradores en orden de llegada a la tasa indicada.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Venta flash activa"),
+        @ApiResponse(responseCode = "400", description = "Configuración inválida"),
+        @ApiResponse(responseCode = "404", description = "Producto no encontrado")
+    })
+    @PutMapping("/{id}/flash")
+    public ResponseEntity<?> activar(
+        @Parameter(description = "ID del producto", example = "1")
+        @PathVariable Long id,
+        @RequestBody ConfiguracionFlashDTO configuracion,
+        @Parameter(hidden = true)
+        @RequestHeader(value = "Authorization", required = false) String authorizationHeader
+    ) {
+        try {
+            return ResponseEntity.ok(estado(ventaFlashService.activar(id, configuracion)));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error al activar venta flash: " + e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body("Error al activar venta flash: " + e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Estado de la venta flash", description = "Tokens aún sin asignar y compradores en espera.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Venta flash activa"),
+        @ApiResponse(responseCode = "404", description = "No hay venta flash activa para el producto")
+    })
+    @GetMapping("/{id}/flash")
+    public ResponseEntity<?> consultar(
+        @Parameter(description = "ID del producto", example = "1")
+        @PathVariable Long id) {
+        return ventaFlashService.obtenerSala(id)
+                .<ResponseEntity<?>>map(sala -> ResponseEntity.ok(estado(sala)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Finalizar venta flash", description = "Cierra la sala de espera y devuelve el producto al inventario normal.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Venta flash finalizada"),
+        @ApiResponse(responseCode = "404", description = "No hay venta flash activa para el producto")
+    })
+    @DeleteMapping("/{id}/flash")
+    public ResponseEntity<?> desactivar(
+        @Parameter(description = "ID del producto", example = "1")
+        @PathVariable Long id,
+        @Parameter(hidden = true)
+        @RequestHeader(value = "Authorization", required = false) String authorizationHeader
+    ) {
+        if (!ventaFlashService.desactivar(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Tomar turno", description = "Ingresa a la sala de espera. Si ya no quedan tokens por asignar se rechaza de inmediato con estado AGOTADO.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Turno asignado; consultar su estado tras Retry-After segundos",
+                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = TurnoFlashDTO.class))),
+        @ApiResponse(responseCode = "404", description = "No hay venta flash activa para el producto"),
+        @ApiResponse(responseCode = "409", description = "Agotado: todos los tokens ya fueron asignados")
+    })
+    @PostMapping("/{id}/flash/turno")
+    public ResponseEntity<?> tomarTurno(
+        @Parameter(description = "ID del producto", example = "1")
+        @PathVariable Long id) {
+        if (!ventaFlashService.estaActiva(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        TurnoFlashDTO turno = ventaFlashService.tomarTurno(id);
+        if (SalaEsperaFlash.Estado.AGOTADO.name().equals(turno.getEstado())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(turno);
+        }
+        return conReintento(ResponseEntity.status(HttpStatus.ACCEPTED), turno);
+    }
+
+    @Operation(summary = "Consultar turno", description = "Devuelve la posición en la cola, o el token de compra cuando el turno fue admitido.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Estado del turno",
+                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = TurnoFlashDTO.class))),
+        @ApiResponse(responseCode = "404", description = "No hay venta flash activa para el producto")
+    })
+    @GetMapping("/{id}/flash/turno/{turno}")
+    public ResponseEntity<?> consultarTurno(
+        @Parameter(description = "ID del producto", example = "1")
+        @PathVariable Long id,
+        @Parameter(description = "Número de turno", example = "154")
+        @PathVariable Long turno) {
+        if (!ventaFlashService.estaActiva(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return conReintento(ResponseEntity.ok(), ventaFlashService.consultarTurno(id, turno));
+    }
+
+    @Operation(summary = "Canjear token de compra", description = "Toma el token y descuenta una unidad del stock. El canje queda pendiente hasta que ventas registre la compra.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Unidad reservada",
+                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = Producto.class))),
+        @ApiResponse(responseCode = "404", description = "No hay venta flash activa para el producto"),
+        @ApiResponse(responseCode = "409", description = "Token inválido, vencido o ya utilizado")
+    })
+    @PostMapping("/{id}/flash/canjear")
+    public ResponseEntity<?> canjear(
+        @Parameter(description = "ID del producto", example = "1")
+        @PathVariable Long id,
+        @RequestBody CanjeFlashDTO canje) {
+        if (!ventaFlashService.estaActiva(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(ventaFlashService.canjear(id, canje.getTokenCompra()));
+
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("Error al canjear token: " + e.getMessage());
+        }
+    }
+
+    // Solo para ventas: fuera de la documentación pública, como el resto de rutas /interno.
+    @Hidden
+    @Operation(summary = "Confirmar canje (Interno)", description = "Lo usa ventas al registrar una compra con token: el token queda usado y ya no se puede liberar.")
+    @PostMapping("/interno/{id}/flash/confirmar")
+    public ResponseEntity<?> confirmar(
+        @PathVariable Long id,
+        @RequestBody CanjeFlashDTO canje) {
+        if (!ventaFlashService.estaActiva(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            ventaFlashService.confirmar(id, canje.getTokenCompra());
+            return ResponseEntity.noContent().build();
+
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("Error al confirmar token: " + e.getMessage());
+        }
+    }
+
+    @Hidden
+    @Operation(summary = "Liberar canje pendiente (Interno)", description = "Lo usa ventas cuando una compra con token no llegó a registrarse: devuelve la unidad al stock y el token vuelve a quedar vigente hasta su vencimiento. Un token confirmado no se libera.")
+    @PostMapping("/interno/{id}/flash/liberar")
+    public ResponseEntity<?> liberar(
+        @Parameter(description = "ID del producto", example = "1")
+        @PathVariable Long id,
+        @RequestBody CanjeFlashDTO canje) {
+        if (!ventaFlashService.estaActiva(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(ventaFlashService.liberar(id, canje.getTokenCompra()));
+
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("Error al liberar token: " + e.getMessage());
+        }
+    }
+
+    private ResponseEntity<?> conReintento(ResponseEntity.BodyBuilder respuesta, TurnoFlashDTO turno) {
+        if (turno.getReintentarEnSegundos() != null) {
+            respuesta.header(HttpHeaders.RETRY_AFTER, String.valueOf(turno.getReintentarEnSegundos()));
+        }
+        return respuesta.body(turno);
+    }
+
+    private Map<String, Object> estado(SalaEsperaFlash sala) {
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("productoId", sala.getProductoId());
+        estado.put("tokensDisponibles", sala.cuposLibres());
+        estado.put("enEspera", sala.enEspera());
+        estado.put("admisionesPorSegundo", sala.getAdmisionesPorSegundo());
+        return estado;
+    }
+}
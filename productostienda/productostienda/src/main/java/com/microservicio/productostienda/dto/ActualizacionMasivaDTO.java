@@ -0,0 +1,22 @@
+package com.microservicio.productostienda.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Solicitud de actualización masiva de precios y stock")
+public class ActualizacionMasivaDTO {
+    @Schema(description = "Operaciones por producto")
+    private List<OperacionProductoDTO> operaciones;
+    @Schema(description = "Categoría a la que se aplica el ajuste porcentual (opcional)", example = "1")
+    private Long categoriaId;
+    @Schema(description = "Ajuste porcentual de precio para la categoría", example = "-10")
+    private Double porcentaje;
+
+}
@@ -0,0 +1,28 @@
+package com.microservicio.productostienda.dto;
+
+import java.util.List;
+
+import com.microservicio.productostienda.model.Producto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Cambios del catálogo desde una secuencia dada")
+public class CambiosCatalogoDTO {
+    @Schema(description = "Secuencia enviada por el cliente", example = "1000")
+    private Long desde;
+    @Schema(description = "Nueva marca de agua: enviarla como 'desde' en la próxima sincronización", example = "1024")
+    private Long hasta;
+    @Schema(description = "true si quedan cambios por descargar a partir de 'hasta'")
+    private Boolean hayMas;
+    @Schema(description = "Productos creados o modificados, con su estado actual")
+    private List<Producto> productos;
+    @Schema(description = "IDs de productos eliminados")
+    private List<Long> eliminados;
+
+}
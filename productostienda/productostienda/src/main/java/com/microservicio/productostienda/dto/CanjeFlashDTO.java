@@ -0,0 +1,16 @@
+package com.microservicio.productostienda.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Canje de un token de compra de venta flash")
+public class CanjeFlashDTO {
+    @Schema(description = "Token entregado al ser admitido desde la sala de espera")
+    private String tokenCompra;
+
+}
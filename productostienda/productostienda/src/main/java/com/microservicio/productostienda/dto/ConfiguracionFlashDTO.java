@@ -0,0 +1,18 @@
+package com.microservicio.productostienda.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Configuración de una venta flash")
+public class ConfiguracionFlashDTO {
+    @Schema(description = "Compradores admitidos desde la sala de espera por segundo", example = "20")
+    private Double admisionesPorSegundo;
+    @Schema(description = "Segundos que tiene un comprador admitido para canjear su token", example = "120")
+    private Integer segundosCanje;
+
+}
@@ -0,0 +1,25 @@
+package com.microservicio.productostienda.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Cambio compacto de inventario enviado por el stream SSE")
+public class DeltaInventarioDTO {
+    @Schema(description = "ID del producto", example = "1")
+    private Long id;
+    @Schema(description = "Stock actual", example = "8")
+    private Integer stock;
+    @Schema(description = "Precio actual", example = "19990.0")
+    private Double precio;
+    @Schema(description = "Presente y en true cuando el producto fue eliminado")
+    private Boolean eliminado;
+
+}
@@ -0,0 +1,19 @@
+package com.microservicio.productostienda.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DetalleVendidoDTO {
+    private Long detalleId;
+    private Long ventaId;
+    private Long productoId;
+    private Integer cantidad;
+    private LocalDate fecha;
+
+}
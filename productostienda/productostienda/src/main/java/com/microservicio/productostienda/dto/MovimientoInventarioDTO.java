@@ -0,0 +1,26 @@
+package com.microservicio.productostienda.dto;
+
+import java.time.Instant;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Movimiento de stock registrado en el libro de inventario")
+public class MovimientoInventarioDTO {
+    @Schema(description = "Posición del movimiento en el libro", example = "1532")
+    private Long secuencia;
+    @Schema(description = "Fecha del movimiento", example = "2025-11-28T14:03:11.512Z")
+    private Instant fecha;
+    @Schema(description = "CREACION, EDICION, RESERVA, AJUSTE_MASIVO o ELIMINACION", example = "RESERVA")
+    private String motivo;
+    @Schema(description = "Variación de stock", example = "-1")
+    private Integer delta;
+    @Schema(description = "Stock resultante", example = "3")
+    private Integer stock;
+
+}
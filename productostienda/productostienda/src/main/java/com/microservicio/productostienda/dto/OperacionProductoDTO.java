@@ -0,0 +1,20 @@
+package com.microservicio.productostienda.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Operación individual dentro de una actualización masiva")
+public class OperacionProductoDTO {
+    @Schema(description = "ID del producto a modificar", example = "1")
+    private Long id;
+    @Schema(description = "Nuevo precio (opcional)", example = "17990.0")
+    private Double precio;
+    @Schema(description = "Variación de stock, positiva o negativa (opcional)", example = "-2")
+    private Integer stockDelta;
+
+}
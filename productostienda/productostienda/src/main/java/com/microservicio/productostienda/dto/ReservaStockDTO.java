@@ -0,0 +1,16 @@
+package com.microservicio.productostienda.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Solicitud de reserva (descuento) de stock de un producto")
+public class ReservaStockDTO {
+    @Schema(description = "Unidades a descontar", example = "1")
+    private Integer cantidad;
+
+}
@@ -0,0 +1,29 @@
+package com.microservicio.productostienda.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Estado de un turno en la sala de espera de una venta flash")
+public class TurnoFlashDTO {
+    @Schema(description = "Número de turno", example = "154")
+    private Long turno;
+    @Schema(description = "EN_ESPERA, ADMITIDO, CANJEADO, EXPIRADO, AGOTADO o DESCONOCIDO", example = "EN_ESPERA")
+    private String estado;
+    @Schema(description = "Posición en la cola (solo EN_ESPERA)", example = "37")
+    private Long posicion;
+    @Schema(description = "Segundos sugeridos antes de volver a consultar (solo EN_ESPERA)", example = "2")
+    private Long reintentarEnSegundos;
+    @Schema(description = "Token de compra de una unidad (solo ADMITIDO)")
+    private String tokenCompra;
+    @Schema(description = "Vencimiento del token en milisegundos epoch (solo ADMITIDO)")
+    private Long expiraEn;
+
+}
@@ -0,0 +1,18 @@
+package com.microservicio.productostienda.event;
+
+import java.util.List;
+
+import com.microservicio.productostienda.model.Producto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Se publica una sola vez por operación de escritura (incluida una actualización masiva completa)
+// para que los cachés del catálogo se invaliden al final y no por cada fila.
+@Getter
+@AllArgsConstructor
+public class ProductosModificadosEvent {
+    private final List<Producto> productos;
+    private final List<Long> eliminados;
+
+}
@@ -0,0 +1,98 @@
+package com.microservicio.productostienda.inventario;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Stock de un producto repartido en franjas independientes. Cada hilo descuenta con CAS sobre su propia
+// franja, así los compradores concurrentes no compiten por la misma celda; solo cuando su franja se agota
+// toma unidades de las demás.
+public class ContadorStock {
+    // 16 ints = 64 bytes: cada franja ocupa su propia línea de caché.
+    private static final int SEPARACION = 16;
+
+    private final AtomicIntegerArray celdas;
+    private final int mascara;
+
+    public ContadorStock(int stockInicial, int franjas) {
+        if (stockInicial < 0) {
+            throw new IllegalArgumentException("El stock inicial no puede ser negativo.");
+        }
+        int cantidad = Integer.highestOneBit(Math.max(1, franjas));
+        this.celdas = new AtomicIntegerArray(cantidad * SEPARACION);
+        this.mascara = cantidad - 1;
+
+        int base = stockInicial / cantidad;
+        int resto = stockInicial % cantidad;
+        for (int i = 0; i < cantidad; i++) {
+            celdas.set(i * SEPARACION, base + (i < resto ? 1 : 0));
+        }
+    }
+
+    public boolean reservar(int cantidad) {
+        if (cantidad <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser mayor a cero.");
+        }
+        int inicio = franjaPropia();
+
+        // Camino rápido: una sola franja cubre toda la cantidad.
+        for (int i = 0; i <= mascara; i++) {
+            int indice = ((inicio + i) & mascara) * SEPARACION;
+            int actual = celdas.get(indice);
+            while (actual >= cantidad) {
+                if (celdas.compareAndSet(indice, actual, actual - cantidad)) {
+                    return true;
+                }
+                actual = celdas.get(indice);
+            }
+        }
+
+        // Camino lento: se reúnen unidades de varias franjas y se devuelven si no alcanzan.
+        int[] tomado = new int[mascara + 1];
+        int restante = cantidad;
+        for (int i = 0; i <= mascara && restante > 0; i++) {
+            int franja = (inicio + i) & mascara;
+            int indice = franja * SEPARACION;
+            int actual = celdas.get(indice);
+            while (actual > 0 && restante > 0) {
+                int tomar = Math.min(actual, restante);
+                if (celdas.compareAndSet(indice, actual, actual - tomar)) {
+                    tomado[franja] += tomar;
+                    restante -= tomar;
+                }
+                actual = celdas.get(indice);
+            }
+        }
+        if (restante == 0) {
+            return true;
+        }
+        for (int franja = 0; franja <= mascara; franja++) {
+            if (tomado[franja] > 0) {
+                celdas.addAndGet(franja * SEPARACION, tomado[franja]);
+            }
+        }
+        return false;
+    }
+
+    public void reponer(int cantidad) {
+        if (cantidad < 0) {
+            throw new IllegalArgumentException("La cantidad debe ser positiva.");
+        }
+        celdas.addAndGet(franjaPropia() * SEPARACION, cantidad);
+    }
+
+    public int disponible() {
+        int total = 0;
+        for (int franja = 0; franja <= mascara; franja++) {
+            total += celdas.get(franja * SEPARACION);
+        }
+        return total;
+    }
+
+    int franjas() {
+        return mascara + 1;
+    }
+
+    private int franjaPropia() {
+        long id = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        return (int) (id >>> 32) & mascara;
+    }
+}
@@ -0,0 +1,107 @@
+package com.microservicio.productostienda.inventario;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+// Diario de escritura anticipada (WAL) de los movimientos de stock de productos calientes.
+// Formato de cada lote: [numero:long][cantidad:int][(productoId:long, delta:int) x cantidad][crc32:int].
+// Un lote incompleto o con CRC inválido al final del archivo corresponde a una escritura cortada por una
+// caída antes del fsync; nunca fue confirmado al cliente y se descarta.
+public class DiarioInventario implements AutoCloseable {
+    private static final int CABECERA = Long.BYTES + Integer.BYTES;
+    private static final int MOVIMIENTO = Long.BYTES + Integer.BYTES;
+
+    public record Movimiento(long productoId, int delta) {
+    }
+
+    public record Lote(long numero, List<Movimiento> movimientos) {
+        public Map<Long, Integer> deltasPorProducto() {
+            Map<Long, Integer> deltas = new LinkedHashMap<>();
+            movimientos.forEach(m -> deltas.merge(m.productoId(), m.delta(), Integer::sum));
+            return deltas;
+        }
+    }
+
+    private final FileChannel canal;
+
+    public DiarioInventario(Path archivo) throws IOException {
+        if (archivo.getParent() != null) {
+            Files.createDirectories(archivo.getParent());
+        }
+        this.canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+    }
+
+    public synchronized void escribir(Lote lote) throws IOException {
+        List<Movimiento> movimientos = lote.movimientos();
+        ByteBuffer buffer = ByteBuffer.allocate(CABECERA + movimientos.size() * MOVIMIENTO + Integer.BYTES);
+        buffer.putLong(lote.numero()).putInt(movimientos.size());
+        for (Movimiento m : movimientos) {
+            buffer.putLong(m.productoId()).putInt(m.delta());
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+
+        long posicion = canal.size();
+        while (buffer.hasRemaining()) {
+            posicion += canal.write(buffer, posicion);
+        }
+        canal.force(false);
+    }
+
+    public synchronized List<Lote> leer() throws IOException {
+        long tamano = canal.size();
+        ByteBuffer buffer = ByteBuffer.allocate((int) tamano);
+        long posicion = 0;
+        while (buffer.hasRemaining()) {
+            int leidos = canal.read(buffer, posicion);
+            if (leidos < 0) {
+                break;
+            }
+            posicion += leidos;
+        }
+        buffer.flip();
+
+        List<Lote> lotes = new ArrayList<>();
+        while (buffer.remaining() >= CABECERA) {
+            int inicio = buffer.position();
+            long numero = buffer.getLong();
+            int cantidad = buffer.getInt();
+            if (cantidad < 0 || buffer.remaining() < (long) cantidad * MOVIMIENTO + Integer.BYTES) {
+                break;
+            }
+            List<Movimiento> movimientos = new ArrayList<>(cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                movimientos.add(new Movimiento(buffer.getLong(), buffer.getInt()));
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), inicio, buffer.position() - inicio);
+            if (buffer.getInt() != (int) crc.getValue()) {
+                break;
+            }
+            lotes.add(new Lote(numero, movimientos));
+        }
+        return lotes;
+    }
+
+    public synchronized void truncar() throws IOException {
+        canal.truncate(0);
+        canal.force(true);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        canal.close();
+    }
+}
@@ -0,0 +1,354 @@
+package com.microservicio.productostienda.inventario;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.microservicio.productostienda.util.LongLongMap;
+
+import jakarta.annotation.PreDestroy;
+
+// Libro mayor de movimientos de stock, solo de anexado, en segmentos mapeados en memoria (SegmentoLibro).
+// Cada registro guarda el stock resultante y la secuencia del movimiento anterior del mismo producto, así
+// que el historial de un producto se recorre hacia atrás sin escanear el libro, y el stock en una fecha es
+// el del primer registro encontrado con fecha anterior o igual.
+// Periódicamente se guarda una instantánea (último movimiento y stock de cada producto) y se eliminan los
+// segmentos anteriores a ella que ya salieron de la ventana de retención.
+@Service
+public class LibroInventario {
+    public record Movimiento(long secuencia, Instant fecha, MotivoMovimiento motivo, int delta, int stock) {
+    }
+
+    record EntradaInstantanea(long secuencia, long fecha, int stock) {
+    }
+
+    record Instantanea(long secuencia, Map<Long, EntradaInstantanea> productos) {
+    }
+
+    private static final long DESCONOCIDO = Long.MIN_VALUE;
+
+    private final Path directorio;
+    private final int registrosPorSegmento;
+    private final long retencionMs;
+
+    private final TreeMap<Long, SegmentoLibro> segmentos = new TreeMap<>();
+    private final LongLongMap ultimoPorProducto = new LongLongMap(1024);
+    private SegmentoLibro actual;
+    private long siguiente;
+    private long ultimaFecha;
+    private Instantanea instantanea;
+
+    private final ScheduledExecutorService mantenimiento = Executors.newSingleThreadScheduledExecutor();
+
+    public LibroInventario(@Value("${inventario.libro.dir:inventario/libro}") String directorio,
+            @Value("${inventario.libro.registros-por-segmento:65536}") int registrosPorSegmento,
+            @Value("${inventario.libro.retencion-dias:90}") long retencionDias,
+            @Value("${inventario.libro.instantanea-minutos:10}") long instantaneaMinutos) throws IOException {
+        this.directorio = Paths.get(directorio);
+        this.registrosPorSegmento = registrosPorSegmento;
+        this.retencionMs = TimeUnit.DAYS.toMillis(retencionDias);
+        Files.createDirectories(this.directorio);
+        recuperar();
+
+        mantenimiento.scheduleWithFixedDelay(this::forzarSeguro, 1, 1, TimeUnit.SECONDS);
+        mantenimiento.scheduleWithFixedDelay(this::mantenerSeguro, instantaneaMinutos, instantaneaMinutos, TimeUnit.MINUTES);
+    }
+
+    // Movimiento relativo (reservas, ajustes). Si el libro no conoce el stock previo del producto usa el
+    // stock observado por el llamador. Dentro de una transacción se anexa recién al confirmarse.
+    public void registrar(long productoId, int delta, int stockObservado, MotivoMovimiento motivo) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    anexarSeguro(productoId, delta, false, stockObservado, motivo);
+                }
+            });
+            return;
+        }
+        anexar(productoId, delta, false, stockObservado, motivo);
+    }
+
+    // Movimiento absoluto (creación, edición, eliminación): el delta se calcula contra el último stock conocido.
+    public void registrarStock(long productoId, int stockNuevo, MotivoMovimiento motivo) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    anexarSeguro(productoId, stockNuevo, true, stockNuevo, motivo);
+                }
+            });
+            return;
+        }
+        anexar(productoId, stockNuevo, true, stockNuevo, motivo);
+    }
+
+    private void anexarSeguro(long productoId, int valor, boolean absoluto, int stockObservado, MotivoMovimiento motivo) {
+        try {
+            anexar(productoId, valor, absoluto, stockObservado, motivo);
+        } catch (RuntimeException e) {
+            System.out.println(">>> Error al registrar movimiento de inventario del producto " + productoId + ": " + e.getMessage());
+        }
+    }
+
+    // Camino caliente: sin asignaciones salvo al rotar de segmento.
+    synchronized long anexar(long productoId, int valor, boolean absoluto, int stockObservado, MotivoMovimiento motivo) {
+        long anterior = stockConocido(productoId);
+        int delta;
+        int stock;
+        if (absoluto) {
+            stock = valor;
+            delta = anterior == DESCONOCIDO ? valor : (int) (valor - anterior);
+        } else {
+            delta = valor;
+            stock = anterior == DESCONOCIDO ? stockObservado : (int) (anterior + valor);
+        }
+
+        if (actual == null || !actual.contiene(siguiente)) {
+            rotar();
+        }
+        ultimaFecha = Math.max(ultimaFecha, System.currentTimeMillis());
+        long secuencia = siguiente++;
+        actual.escribir(secuencia, motivo, ultimaFecha, productoId, ultimoPorProducto.get(productoId, -1), delta, stock);
+        ultimoPorProducto.put(productoId, secuencia);
+        return secuencia;
+    }
+
+    public synchronized List<Movimiento> historial(long productoId, Instant desde, Instant hasta, int limite) {
+        List<Movimiento> movimientos = new ArrayList<>();
+        long secuencia = ultimoPorProducto.get(productoId, -1);
+        while (secuencia >= 0 && movimientos.size() < limite) {
+            SegmentoLibro segmento = segmento(secuencia);
+            if (segmento == null) {
+                break;
+            }
+            long fecha = segmento.fecha(secuencia);
+            if (desde != null && fecha < desde.toEpochMilli()) {
+                break;
+            }
+            if (hasta == null || fecha <= hasta.toEpochMilli()) {
+                movimientos.add(new Movimiento(secuencia, Instant.ofEpochMilli(fecha), segmento.motivo(secuencia),
+                        segmento.delta(secuencia), segmento.stock(secuencia)));
+            }
+            secuencia = segmento.previo(secuencia);
+        }
+        return movimientos;
+    }
+
+    // Vacío si el producto no existía en esa fecha o la fecha es anterior a lo que conserva el libro.
+    public synchronized OptionalInt stockEn(long productoId, Instant fecha) {
+        long limite = fecha.toEpochMilli();
+        long secuencia = ultimoPorProducto.get(productoId, -1);
+        while (secuencia >= 0) {
+            SegmentoLibro segmento = segmento(secuencia);
+            if (segmento == null) {
+                EntradaInstantanea entrada = instantanea == null ? null : instantanea.productos().get(productoId);
+                if (entrada != null && entrada.secuencia() == secuencia && entrada.fecha() <= limite) {
+                    return OptionalInt.of(entrada.stock());
+                }
+                return OptionalInt.empty();
+            }
+            if (segmento.fecha(secuencia) <= limite) {
+                return OptionalInt.of(segmento.stock(secuencia));
+            }
+            secuencia = segmento.previo(secuencia);
+        }
+        return OptionalInt.empty();
+    }
+
+    public synchronized OptionalInt ultimoStock(long productoId) {
+        long stock = stockConocido(productoId);
+        return stock == DESCONOCIDO ? OptionalInt.empty() : OptionalInt.of((int) stock);
+    }
+
+    private long stockConocido(long productoId) {
+        long secuencia = ultimoPorProducto.get(productoId, -1);
+        if (secuencia < 0) {
+            return DESCONOCIDO;
+        }
+        SegmentoLibro segmento = segmento(secuencia);
+        if (segmento != null) {
+            return segmento.stock(secuencia);
+        }
+        EntradaInstantanea entrada = instantanea == null ? null : instantanea.productos().get(productoId);
+        return entrada != null && entrada.secuencia() == secuencia ? entrada.stock() : DESCONOCIDO;
+    }
+
+    private SegmentoLibro segmento(long secuencia) {
+        if (secuencia >= siguiente) {
+            return null;
+        }
+        Map.Entry<Long, SegmentoLibro> entrada = segmentos.floorEntry(secuencia);
+        return entrada != null && entrada.getValue().contiene(secuencia) ? entrada.getValue() : null;
+    }
+
+    private void rotar() {
+        try {
+            if (actual != null) {
+                actual.forzar();
+            }
+            actual = SegmentoLibro.abrir(directorio, siguiente, registrosPorSegmento);
+            segmentos.put(actual.base(), actual);
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo crear un segmento del libro de inventario.", e);
+        }
+    }
+
+    private void recuperar() throws IOException {
+        instantanea = leerUltimaInstantanea();
+
+        List<Path> archivos;
+        try (Stream<Path> listado = Files.list(directorio)) {
+            archivos = listado.filter(p -> p.getFileName().toString().startsWith("segmento-")).sorted().toList();
+        }
+        for (Path archivo : archivos) {
+            String nombre = archivo.getFileName().toString();
+            long base = Long.parseLong(nombre.substring("segmento-".length(), nombre.length() - ".log".length()));
+            int capacidad = (int) Math.max(1, Files.size(archivo) / SegmentoLibro.TAMANO);
+            SegmentoLibro segmento = SegmentoLibro.abrir(directorio, base, capacidad);
+            segmentos.put(base, segmento);
+
+            int validos = segmento.registrosValidos();
+            for (long s = base; s < base + validos; s++) {
+                ultimoPorProducto.put(segmento.productoId(s), s);
+                ultimaFecha = Math.max(ultimaFecha, segmento.fecha(s));
+            }
+            siguiente = base + validos;
+            actual = segmento;
+        }
+
+        if (instantanea != null) {
+            siguiente = Math.max(siguiente, instantanea.secuencia());
+            instantanea.productos().forEach((productoId, entrada) -> {
+                if (!ultimoPorProducto.containsKey(productoId)) {
+                    ultimoPorProducto.put(productoId, entrada.secuencia());
+                }
+            });
+        }
+    }
+
+    void tomarInstantanea() throws IOException {
+        Map<Long, EntradaInstantanea> productos = new HashMap<>();
+        long secuencia;
+        synchronized (this) {
+            secuencia = siguiente;
+            ultimoPorProducto.forEach((productoId, ultima) -> {
+                SegmentoLibro segmento = segmento(ultima);
+                if (segmento != null) {
+                    productos.put(productoId, new EntradaInstantanea(ultima, segmento.fecha(ultima), segmento.stock(ultima)));
+                } else if (instantanea != null && instantanea.productos().containsKey(productoId)) {
+                    productos.put(productoId, instantanea.productos().get(productoId));
+                }
+            });
+        }
+
+        Path destino = directorio.resolve(String.format("instantanea-%020d.bin", secuencia));
+        Path temporal = directorio.resolve(destino.getFileName() + ".tmp");
+        try (DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporal)))) {
+            salida.writeLong(secuencia);
+            salida.writeInt(productos.size());
+            for (Map.Entry<Long, EntradaInstantanea> e : productos.entrySet()) {
+                salida.writeLong(e.getKey());
+                salida.writeLong(e.getValue().secuencia());
+                salida.writeLong(e.getValue().fecha());
+                salida.writeInt(e.getValue().stock());
+            }
+        }
+        Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        synchronized (this) {
+            instantanea = new Instantanea(secuencia, productos);
+        }
+        try (Stream<Path> listado = Files.list(directorio)) {
+            for (Path anterior : listado.filter(p -> p.getFileName().toString().startsWith("instantanea-")
+                    && p.getFileName().toString().compareTo(destino.getFileName().toString()) < 0).toList()) {
+                Files.deleteIfExists(anterior);
+            }
+        }
+    }
+
+    // Elimina desde el inicio los segmentos ya cubiertos por la instantánea y fuera de la retención.
+    synchronized int compactar(long ahora) throws IOException {
+        if (instantanea == null) {
+            return 0;
+        }
+        int eliminados = 0;
+        Iterator<SegmentoLibro> it = segmentos.values().iterator();
+        while (it.hasNext()) {
+            SegmentoLibro segmento = it.next();
+            if (segmento == actual || segmento.limite() > instantanea.secuencia()
+                    || segmento.fecha(segmento.limite() - 1) >= ahora - retencionMs) {
+                break;
+            }
+            it.remove();
+            segmento.borrar();
+            eliminados++;
+        }
+        return eliminados;
+    }
+
+    private Instantanea leerUltimaInstantanea() throws IOException {
+        Path ultima;
+        try (Stream<Path> listado = Files.list(directorio)) {
+            ultima = listado.filter(p -> p.getFileName().toString().startsWith("instantanea-")
+                    && p.getFileName().toString().endsWith(".bin")).max(Path::compareTo).orElse(null);
+        }
+        if (ultima == null) {
+            return null;
+        }
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(ultima)))) {
+            long secuencia = entrada.readLong();
+            int cantidad = entrada.readInt();
+            Map<Long, EntradaInstantanea> productos = new HashMap<>();
+            for (int i = 0; i < cantidad; i++) {
+                long productoId = entrada.readLong();
+                productos.put(productoId, new EntradaInstantanea(entrada.readLong(), entrada.readLong(), entrada.readInt()));
+            }
+            return new Instantanea(secuencia, productos);
+        }
+    }
+
+    private synchronized void forzarSeguro() {
+        if (actual != null) {
+            actual.forzar();
+        }
+    }
+
+    private void mantenerSeguro() {
+        try {
+            tomarInstantanea();
+            compactar(System.currentTimeMillis());
+        } catch (Exception e) {
+            System.out.println(">>> Error en el mantenimiento del libro de inventario: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        mantenimiento.shutdown();
+        forzarSeguro();
+    }
+}
@@ -0,0 +1,5 @@
+package com.microservicio.productostienda.inventario;
+
+public enum MotivoMovimiento {
+    CREACION, EDICION, RESERVA, AJUSTE_MASIVO, ELIMINACION, DEVOLUCION
+}
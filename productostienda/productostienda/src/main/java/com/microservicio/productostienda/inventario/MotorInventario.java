@@ -0,0 +1,385 @@
+package com.microservicio.productostienda.inventario;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.microservicio.productostienda.event.ProductosModificadosEvent;
+import com.microservicio.productostienda.inventario.DiarioInventario.Lote;
+import com.microservicio.productostienda.inventario.DiarioInventario.Movimiento;
+import com.microservicio.productostienda.model.InventarioLote;
+import com.microservicio.productostienda.model.Producto;
+import com.microservicio.productostienda.repository.InventarioLoteRepository;
+import com.microservicio.productostienda.repository.ProductoRepository;
+
+import jakarta.annotation.PreDestroy;
+
+// Inventario de productos "calientes" (promociones con mucha concurrencia). Mientras un producto está
+// caliente, su stock en memoria es la fuente de verdad: cada reserva descuenta con CAS en un ContadorStock,
+// queda registrada en el diario y se confirma al cliente cuando el lote que la contiene llega a disco.
+// Cada pocos milisegundos un único hilo escribe el lote pendiente (group commit) y aplica los deltas
+// agregados a la tabla producto en una transacción, junto con el número de lote aplicado. Así la fila
+// producto recibe un UPDATE por lote en lugar de uno por compra.
+@Service
+public class MotorInventario {
+    static final long ID_LOTE = 1L;
+    // Si el vaciador no confirma en este tiempo, la reserva se informa como fallida en lugar de colgar al cliente.
+    static final long ESPERA_DURABLE_MS = 2_000;
+
+    private final ProductoRepository productoRepository;
+    private final InventarioLoteRepository inventarioLoteRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaccion;
+    private final DiarioInventario diario;
+    private final int franjas;
+    private final long intervaloMs;
+    private final boolean esperarDurable;
+    private final List<Long> productosIniciales;
+
+    private final Map<Long, ContadorStock> contadores = new ConcurrentHashMap<>();
+    // Última versión conocida de cada producto caliente, para responder sin leer la fila.
+    private final Map<Long, Producto> productos = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService vaciador = Executors.newSingleThreadScheduledExecutor();
+
+    private final Object bloqueoRegistro = new Object();
+    private List<Movimiento> pendientes = new ArrayList<>();
+    private CompletableFuture<Void> loteEnCurso = new CompletableFuture<>();
+
+    private final Object bloqueoVaciado = new Object();
+    private final Deque<Lote> sinAplicar = new ArrayDeque<>();
+    private long ultimoLote;
+    private volatile boolean iniciado;
+
+    public MotorInventario(ProductoRepository productoRepository, InventarioLoteRepository inventarioLoteRepository,
+            ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+            @Value("${inventario.caliente.diario:inventario/diario.wal}") String archivoDiario,
+            @Value("${inventario.caliente.franjas:0}") int franjas,
+            @Value("${inventario.caliente.intervalo-ms:5}") long intervaloMs,
+            @Value("${inventario.caliente.esperar-durable:true}") boolean esperarDurable,
+            @Value("${inventario.caliente.productos:}") List<Long> productosIniciales) throws IOException {
+        this.productoRepository = productoRepository;
+        this.inventarioLoteRepository = inventarioLoteRepository;
+        this.eventPublisher = eventPublisher;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.transaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.diario = new DiarioInventario(Paths.get(archivoDiario));
+        this.franjas = franjas > 0 ? franjas : Runtime.getRuntime().availableProcessors() * 2;
+        this.intervaloMs = intervaloMs;
+        this.esperarDurable = esperarDurable;
+        this.productosIniciales = productosIniciales;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        recuperar();
+        productoRepository.findAllById(productosIniciales).forEach(this::activar);
+        vaciador.scheduleWithFixedDelay(this::vaciarSeguro, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+        iniciado = true;
+    }
+
+    // Reaplica los lotes del diario que no alcanzaron a llegar a la base de datos antes de detenerse.
+    void recuperar() {
+        synchronized (bloqueoVaciado) {
+            long aplicado = inventarioLoteRepository.findById(ID_LOTE).map(InventarioLote::getUltimoLote).orElse(0L);
+            ultimoLote = aplicado;
+            try {
+                for (Lote lote : diario.leer()) {
+                    ultimoLote = Math.max(ultimoLote, lote.numero());
+                    if (lote.numero() > aplicado) {
+                        sinAplicar.add(lote);
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("No se pudo leer el diario de inventario.", e);
+            }
+            aplicarLotes();
+        }
+    }
+
+    public boolean esCaliente(Long productoId) {
+        return contadores.containsKey(productoId);
+    }
+
+    public OptionalInt stockDisponible(Long productoId) {
+        ContadorStock contador = contadores.get(productoId);
+        return contador == null ? OptionalInt.empty() : OptionalInt.of(contador.disponible());
+    }
+
+    public boolean activar(Producto producto) {
+        boolean activado = contadores.putIfAbsent(producto.getId(), new ContadorStock(producto.getStock(), franjas)) == null;
+        if (activado) {
+            productos.put(producto.getId(), copiar(producto));
+        }
+        return activado;
+    }
+
+    // Copia del producto caliente con el stock en memoria; vacío si el producto no está caliente.
+    public Optional<Producto> producto(Long productoId) {
+        Producto producto = productos.get(productoId);
+        ContadorStock contador = contadores.get(productoId);
+        if (producto == null || contador == null) {
+            return Optional.empty();
+        }
+        Producto copia = copiar(producto);
+        copia.setStock(contador.disponible());
+        return Optional.of(copia);
+    }
+
+    // Para cambios de precio, imagen, etc. sobre un producto que sigue caliente.
+    public void refrescar(Producto producto) {
+        productos.computeIfPresent(producto.getId(), (id, anterior) -> copiar(producto));
+    }
+
+    // Mantiene al día la copia de los productos calientes con lo que quedó confirmado en la base.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarProductos(ProductosModificadosEvent event) {
+        event.getProductos().forEach(this::refrescar);
+    }
+
+    private static Producto copiar(Producto producto) {
+        return new Producto(producto.getId(), producto.getNombre(), producto.getDescripcion(), producto.getPrecio(),
+                producto.getStock(), producto.getImagenUri(), producto.getCategoria());
+    }
+
+    // Deja de atender el producto en memoria y vacía el diario, de modo que la fila producto vuelva a
+    // tener el stock vigente antes de que el SQL normal lo modifique.
+    public boolean desactivar(Long productoId) {
+        boolean eraCaliente = contadores.remove(productoId) != null;
+        productos.remove(productoId);
+        if (eraCaliente) {
+            vaciar();
+        }
+        return eraCaliente;
+    }
+
+    // delta negativo reserva, positivo repone. Devuelve false si no hay stock suficiente.
+    // Dentro de una transacción el contador cambia de inmediato, pero el movimiento entra al diario recién
+    // al confirmar (y se revierte si la transacción se deshace). Esperar aquí al vaciador sería un deadlock:
+    // la transacción externa puede tener bloqueada la misma fila producto que el vaciador necesita actualizar.
+    public boolean ajustar(Long productoId, int delta) {
+        ContadorStock contador = contadores.get(productoId);
+        if (contador == null) {
+            throw new IllegalStateException("El producto con ID " + productoId + " no está en modo caliente.");
+        }
+        if (delta == 0) {
+            return true;
+        }
+        if (delta < 0) {
+            if (!contador.reservar(-delta)) {
+                return false;
+            }
+        } else {
+            contador.reponer(delta);
+        }
+
+        Movimiento movimiento = new Movimiento(productoId, delta);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int estado) {
+                    if (estado == STATUS_COMMITTED) {
+                        registrar(movimiento);
+                    } else {
+                        revertir(List.of(movimiento));
+                    }
+                }
+            });
+            return true;
+        }
+
+        CompletableFuture<Void> durable = registrar(movimiento);
+        if (esperarDurable) {
+            if (!iniciado) {
+                vaciar();
+            }
+            try {
+                durable.get(ESPERA_DURABLE_MS, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("No se pudo registrar el movimiento de stock del producto con ID: " + productoId);
+            } catch (TimeoutException e) {
+                // Si el movimiento sigue en cola se retira y se devuelve al contador: el cliente recibe el error
+                // y la unidad no queda descontada. Si el vaciador ya lo tomó, el resultado es el de ese lote.
+                if (cancelar(movimiento)) {
+                    revertir(List.of(movimiento));
+                    throw new RuntimeException("El movimiento de stock del producto con ID " + productoId
+                            + " no se confirmó a tiempo.");
+                }
+                esperarLote(durable, productoId);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Se interrumpió la espera del movimiento de stock del producto con ID: " + productoId);
+            }
+        }
+        return true;
+    }
+
+    private CompletableFuture<Void> registrar(Movimiento movimiento) {
+        synchronized (bloqueoRegistro) {
+            pendientes.add(movimiento);
+            return loteEnCurso;
+        }
+    }
+
+    private boolean cancelar(Movimiento movimiento) {
+        synchronized (bloqueoRegistro) {
+            for (int i = 0; i < pendientes.size(); i++) {
+                if (pendientes.get(i) == movimiento) {
+                    pendientes.remove(i);
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private void esperarLote(CompletableFuture<Void> durable, Long productoId) {
+        try {
+            durable.get();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("No se pudo registrar el movimiento de stock del producto con ID: " + productoId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Se interrumpió la espera del movimiento de stock del producto con ID: " + productoId);
+        }
+    }
+
+    private void vaciarSeguro() {
+        try {
+            vaciar();
+        } catch (Exception e) {
+            System.out.println(">>> Error al vaciar el diario de inventario: " + e.getMessage());
+        }
+    }
+
+    void vaciar() {
+        synchronized (bloqueoVaciado) {
+            List<Movimiento> movimientos;
+            CompletableFuture<Void> durable;
+            synchronized (bloqueoRegistro) {
+                if (pendientes.isEmpty() && sinAplicar.isEmpty()) {
+                    return;
+                }
+                movimientos = pendientes;
+                durable = loteEnCurso;
+                pendientes = new ArrayList<>();
+                loteEnCurso = new CompletableFuture<>();
+            }
+
+            if (!movimientos.isEmpty()) {
+                Lote lote = new Lote(ultimoLote + 1, movimientos);
+                try {
+                    diario.escribir(lote);
+                    ultimoLote = lote.numero();
+                    sinAplicar.add(lote);
+                    durable.complete(null);
+                } catch (Throwable e) {
+                    // Cualquier fallo (no solo de E/S) debe liberar a quienes esperan este lote.
+                    revertir(movimientos);
+                    durable.completeExceptionally(e);
+                    if (e instanceof Error error) {
+                        throw error;
+                    }
+                }
+            } else {
+                durable.complete(null);
+            }
+            aplicarLotes();
+        }
+    }
+
+    // Los movimientos que no llegaron al diario no se confirmaron: se devuelven a los contadores.
+    private void revertir(List<Movimiento> movimientos) {
+        for (Movimiento movimiento : movimientos) {
+            ContadorStock contador = contadores.get(movimiento.productoId());
+            if (contador == null) {
+                continue;
+            }
+            if (movimiento.delta() < 0) {
+                contador.reponer(-movimiento.delta());
+            } else {
+                contador.reservar(movimiento.delta());
+            }
+        }
+    }
+
+    private void aplicarLotes() {
+        Set<Long> afectados = new LinkedHashSet<>();
+        while (!sinAplicar.isEmpty()) {
+            Lote lote = sinAplicar.peek();
+            Map<Long, Integer> deltas = lote.deltasPorProducto();
+            try {
+                transaccion.executeWithoutResult(estado -> {
+                    deltas.forEach((id, delta) -> productoRepository.aplicarDeltaStock(id, delta));
+                    inventarioLoteRepository.save(new InventarioLote(ID_LOTE, lote.numero()));
+                    // Dentro de la transacción: los listeners BEFORE_COMMIT (secuencia de cambios) escriben en
+                    // ella y los AFTER_COMMIT se disparan al confirmar.
+                    publicar(deltas.keySet());
+                });
+            } catch (RuntimeException e) {
+                // El lote sigue en el diario y se reintenta en el próximo ciclo.
+                System.out.println(">>> Error al aplicar el lote de inventario " + lote.numero() + ": " + e.getMessage());
+                break;
+            }
+            sinAplicar.poll();
+            afectados.addAll(deltas.keySet());
+        }
+
+        if (sinAplicar.isEmpty() && !afectados.isEmpty()) {
+            try {
+                diario.truncar();
+            } catch (IOException e) {
+                System.out.println(">>> Error al truncar el diario de inventario: " + e.getMessage());
+            }
+        }
+    }
+
+    private void publicar(Set<Long> afectados) {
+        List<Producto> productos = new ArrayList<>();
+        productoRepository.findAllById(afectados).forEach(p -> {
+            stockDisponible(p.getId()).ifPresent(p::setStock);
+            productos.add(p);
+        });
+        if (!productos.isEmpty()) {
+            eventPublisher.publishEvent(new ProductosModificadosEvent(productos, List.of()));
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() throws IOException {
+        vaciador.shutdown();
+        try {
+            vaciador.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        vaciarSeguro();
+        diario.close();
+    }
+}
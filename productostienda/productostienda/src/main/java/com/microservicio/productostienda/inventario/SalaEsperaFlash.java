@@ -0,0 +1,215 @@
+package com.microservicio.productostienda.inventario;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Sala de espera de una venta flash. Al activarse se reservan tantos cupos como unidades en stock:
+// tomar turno consume un cupo, así que la cola nunca es más larga que lo que queda por vender y quien
+// llega sin cupo se rechaza en memoria, sin tocar la base. Los turnos se admiten en orden FIFO a una tasa
+// fija; cada admitido recibe un token de compra de una unidad que vence si no se canjea a tiempo, y en
+// ese caso el cupo vuelve a estar disponible. El canje pasa por EN_CANJE (token tomado, descontando stock) y
+// RESERVADO (unidad descontada, la venta aún no se registró); CANJEADO es final y ya no se puede deshacer.
+public class SalaEsperaFlash {
+
+    public enum Estado {
+        EN_ESPERA, ADMITIDO, CANJEADO, EXPIRADO, AGOTADO, DESCONOCIDO, EN_CANJE, RESERVADO
+    }
+
+    public record Turno(long numero, Estado estado, long posicion, String tokenCompra, long expiraEn) {
+    }
+
+    private static final class Admision {
+        private final String token;
+        private final long expiraEn;
+        private volatile Estado estado = Estado.ADMITIDO;
+
+        private Admision(String token, long expiraEn) {
+            this.token = token;
+            this.expiraEn = expiraEn;
+        }
+    }
+
+    private final Long productoId;
+    private final double admisionesPorSegundo;
+    private final long vigenciaTokenMs;
+
+    private final AtomicInteger cuposLibres;
+    private final AtomicLong ultimoTurno = new AtomicLong();
+    private final ConcurrentLinkedQueue<Long> cola = new ConcurrentLinkedQueue<>();
+    private final Map<Long, Admision> admisiones = new ConcurrentHashMap<>();
+    private final Map<String, Long> turnosPorToken = new ConcurrentHashMap<>();
+    private volatile long ultimoAdmitido;
+    private double creditoAdmision;
+
+    public SalaEsperaFlash(Long productoId, int asignacion, double admisionesPorSegundo, long vigenciaTokenMs) {
+        if (admisionesPorSegundo <= 0) {
+            throw new IllegalArgumentException("La tasa de admisión debe ser mayor a cero.");
+        }
+        this.productoId = productoId;
+        this.cuposLibres = new AtomicInteger(Math.max(0, asignacion));
+        this.admisionesPorSegundo = admisionesPorSegundo;
+        this.vigenciaTokenMs = vigenciaTokenMs;
+    }
+
+    public Long getProductoId() {
+        return productoId;
+    }
+
+    public int cuposLibres() {
+        return cuposLibres.get();
+    }
+
+    public int enEspera() {
+        return cola.size();
+    }
+
+    public double getAdmisionesPorSegundo() {
+        return admisionesPorSegundo;
+    }
+
+    public Turno tomarTurno() {
+        int libres = cuposLibres.get();
+        while (libres > 0) {
+            if (cuposLibres.compareAndSet(libres, libres - 1)) {
+                long numero = ultimoTurno.incrementAndGet();
+                cola.add(numero);
+                return consultar(numero, System.currentTimeMillis());
+            }
+            libres = cuposLibres.get();
+        }
+        return new Turno(0, Estado.AGOTADO, 0, null, 0);
+    }
+
+    public Turno consultar(long numero, long ahora) {
+        Admision admision = admisiones.get(numero);
+        if (admision != null) {
+            Estado estado = switch (admision.estado) {
+                case EN_CANJE -> Estado.ADMITIDO;
+                case RESERVADO -> Estado.CANJEADO;
+                default -> admision.estado;
+            };
+            if (estado == Estado.ADMITIDO && admision.estado == Estado.ADMITIDO && admision.expiraEn <= ahora) {
+                estado = Estado.EXPIRADO;
+            }
+            String token = estado == Estado.ADMITIDO ? admision.token : null;
+            return new Turno(numero, estado, 0, token, estado == Estado.ADMITIDO ? admision.expiraEn : 0);
+        }
+        if (numero <= 0 || numero > ultimoTurno.get()) {
+            return new Turno(numero, Estado.DESCONOCIDO, 0, null, 0);
+        }
+        if (numero <= ultimoAdmitido) {
+            // Se admitió y su token ya venció y se liberó.
+            return new Turno(numero, Estado.EXPIRADO, 0, null, 0);
+        }
+        return new Turno(numero, Estado.EN_ESPERA, numero - ultimoAdmitido, null, 0);
+    }
+
+    // Marca el token como usado de una vez. Devuelve false si no existe, ya se usó o venció.
+    public boolean canjear(String token, long ahora) {
+        if (!apartar(token, ahora)) {
+            return false;
+        }
+        reservar(token);
+        return confirmar(token);
+    }
+
+    // Primer paso del canje: el token queda tomado (nadie más puede usarlo y no vence) mientras se descuenta
+    // el stock. Después se llama a reservar si la reserva salió bien o a soltar si falló.
+    public boolean apartar(String token, long ahora) {
+        Admision admision = admision(token);
+        if (admision == null) {
+            return false;
+        }
+        synchronized (admision) {
+            if (admision.estado != Estado.ADMITIDO || admision.expiraEn <= ahora) {
+                return false;
+            }
+            admision.estado = Estado.EN_CANJE;
+        }
+        return true;
+    }
+
+    public void reservar(String token) {
+        cambiarEstado(token, Estado.EN_CANJE, Estado.RESERVADO);
+    }
+
+    public void soltar(String token) {
+        cambiarEstado(token, Estado.EN_CANJE, Estado.ADMITIDO);
+    }
+
+    // La venta se registró: el token queda usado para siempre.
+    public boolean confirmar(String token) {
+        return cambiarEstado(token, Estado.RESERVADO, Estado.CANJEADO);
+    }
+
+    // Deshace un canje cuya compra no llegó a registrarse: el token vuelve a servir hasta su vencimiento
+    // original y, si ya venció, el próximo ciclo de admisión libera el cupo. Un token CANJEADO no vuelve.
+    public boolean devolver(String token) {
+        return cambiarEstado(token, Estado.RESERVADO, Estado.ADMITIDO);
+    }
+
+    private boolean cambiarEstado(String token, Estado desde, Estado hacia) {
+        Admision admision = admision(token);
+        if (admision == null) {
+            return false;
+        }
+        synchronized (admision) {
+            if (admision.estado != desde) {
+                return false;
+            }
+            admision.estado = hacia;
+        }
+        return true;
+    }
+
+    private Admision admision(String token) {
+        Long numero = token == null ? null : turnosPorToken.get(token);
+        return numero == null ? null : admisiones.get(numero);
+    }
+
+    // Se llama periódicamente con el tiempo transcurrido desde la llamada anterior: admite los turnos
+    // que corresponden a la tasa configurada y libera los cupos de tokens vencidos.
+    public synchronized int admitir(long transcurridoMs, long ahora) {
+        liberarVencidos(ahora);
+
+        creditoAdmision = Math.min(creditoAdmision + admisionesPorSegundo * transcurridoMs / 1000.0,
+                Math.max(1, admisionesPorSegundo));
+        int admitidos = 0;
+        while (creditoAdmision >= 1) {
+            Long numero = cola.poll();
+            if (numero == null) {
+                break;
+            }
+            String token = UUID.randomUUID().toString();
+            admisiones.put(numero, new Admision(token, ahora + vigenciaTokenMs));
+            turnosPorToken.put(token, numero);
+            ultimoAdmitido = numero;
+            creditoAdmision -= 1;
+            admitidos++;
+        }
+        if (cola.isEmpty()) {
+            creditoAdmision = Math.min(creditoAdmision, 1);
+        }
+        return admitidos;
+    }
+
+    private void liberarVencidos(long ahora) {
+        Iterator<Map.Entry<Long, Admision>> it = admisiones.entrySet().iterator();
+        while (it.hasNext()) {
+            Admision admision = it.next().getValue();
+            synchronized (admision) {
+                if (admision.estado == Estado.ADMITIDO && admision.expiraEn <= ahora) {
+                    admision.estado = Estado.EXPIRADO;
+                    turnosPorToken.remove(admision.token);
+                    it.remove();
+                    cuposLibres.incrementAndGet();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.microservicio.productostienda.inventario;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+// Archivo de tamaño fijo mapeado en memoria con registros de TAMANO bytes. El registro de la secuencia s
+// está en (s - base) * TAMANO. Campos, en orden:
+//   fecha:long  productoId:long  previo:long  delta:int  stock:int  motivo:short  reservado:short  crc:int
+//   relleno (20 bytes)  marca:int
+// TAMANO divide el tamaño de página (4096), así que un registro nunca queda repartido entre dos páginas.
+// La marca va al final y se escribe última; además el CRC32 de los campos detecta un registro con marca
+// pero con datos a medio escribir (p. ej. tras una caída del sistema operativo). Un registro inválido marca
+// el fin del segmento.
+class SegmentoLibro {
+    static final int TAMANO = 64;
+    static final int MARCA = 0x4C49424D;
+
+    private static final int FECHA = 0;
+    private static final int PRODUCTO = 8;
+    private static final int PREVIO = 16;
+    private static final int DELTA = 24;
+    private static final int STOCK = 28;
+    private static final int MOTIVO = 32;
+    private static final int CRC = 36;
+    private static final int MARCA_POS = TAMANO - 4;
+
+    private final long base;
+    private final int capacidad;
+    private final Path archivo;
+    private final MappedByteBuffer buffer;
+    // Se usa siempre bajo el lock de LibroInventario.
+    private final CRC32 crc = new CRC32();
+
+    private SegmentoLibro(long base, int capacidad, Path archivo, MappedByteBuffer buffer) {
+        this.base = base;
+        this.capacidad = capacidad;
+        this.archivo = archivo;
+        this.buffer = buffer;
+    }
+
+    static Path nombre(Path directorio, long base) {
+        return directorio.resolve(String.format("segmento-%020d.log", base));
+    }
+
+    static SegmentoLibro abrir(Path directorio, long base, int capacidad) throws IOException {
+        Path archivo = nombre(directorio, base);
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacidad * TAMANO);
+            return new SegmentoLibro(base, capacidad, archivo, buffer);
+        }
+    }
+
+    long base() {
+        return base;
+    }
+
+    long limite() {
+        return base + capacidad;
+    }
+
+    boolean contiene(long secuencia) {
+        return secuencia >= base && secuencia < base + capacidad;
+    }
+
+    void escribir(long secuencia, MotivoMovimiento motivo, long fecha, long productoId, long previo, int delta, int stock) {
+        int o = desplazamiento(secuencia);
+        buffer.putLong(o + FECHA, fecha);
+        buffer.putLong(o + PRODUCTO, productoId);
+        buffer.putLong(o + PREVIO, previo);
+        buffer.putInt(o + DELTA, delta);
+        buffer.putInt(o + STOCK, stock);
+        buffer.putShort(o + MOTIVO, (short) motivo.ordinal());
+        buffer.putShort(o + MOTIVO + 2, (short) 0);
+        buffer.putInt(o + CRC, crc(o));
+        buffer.putInt(o + MARCA_POS, MARCA);
+    }
+
+    boolean valido(long secuencia) {
+        return valido(desplazamiento(secuencia));
+    }
+
+    // Cantidad de registros completos desde el inicio del segmento.
+    int registrosValidos() {
+        int n = 0;
+        while (n < capacidad && valido(n * TAMANO)) {
+            n++;
+        }
+        return n;
+    }
+
+    private boolean valido(int o) {
+        return buffer.getInt(o + MARCA_POS) == MARCA && buffer.getInt(o + CRC) == crc(o);
+    }
+
+    // CRC32 de los campos (todo lo anterior al CRC), byte a byte para no crear vistas del buffer.
+    private int crc(int o) {
+        crc.reset();
+        for (int i = 0; i < CRC; i++) {
+            crc.update(buffer.get(o + i));
+        }
+        return (int) crc.getValue();
+    }
+
+    MotivoMovimiento motivo(long secuencia) {
+        return MotivoMovimiento.values()[buffer.getShort(desplazamiento(secuencia) + MOTIVO)];
+    }
+
+    long fecha(long secuencia) {
+        return buffer.getLong(desplazamiento(secuencia) + FECHA);
+    }
+
+    long productoId(long secuencia) {
+        return buffer.getLong(desplazamiento(secuencia) + PRODUCTO);
+    }
+
+    long previo(long secuencia) {
+        return buffer.getLong(desplazamiento(secuencia) + PREVIO);
+    }
+
+    int delta(long secuencia) {
+        return buffer.getInt(desplazamiento(secuencia) + DELTA);
+    }
+
+    int stock(long secuencia) {
+        return buffer.getInt(desplazamiento(secuencia) + STOCK);
+    }
+
+    void forzar() {
+        buffer.force();
+    }
+
+    void borrar() throws IOException {
+        Files.deleteIfExists(archivo);
+    }
+
+    private int desplazamiento(long secuencia) {
+        return (int) (secuencia - base) * TAMANO;
+    }
+}
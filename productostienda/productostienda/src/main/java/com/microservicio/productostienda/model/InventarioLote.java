@@ -0,0 +1,26 @@
+package com.microservicio.productostienda.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "inventario_lote")
+@Schema(description = "Último lote del diario de inventario aplicado a la tabla producto")
+public class InventarioLote {
+    @Id
+    @Column(name = "inventario_lote_id")
+    private Long id;
+
+    @Column(name = "ultimo_lote", nullable = false)
+    private Long ultimoLote;
+
+}
@@ -0,0 +1,29 @@
+package com.microservicio.productostienda.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "popularidad_estado")
+@Schema(description = "Cursor de detalles de venta ya contados y referencia temporal de los puntajes")
+public class PopularidadEstado {
+    @Id
+    @Column(name = "popularidad_estado_id")
+    private Long id;
+
+    @Column(name = "ultimo_detalle", nullable = false)
+    private Long ultimoDetalle;
+
+    @Column(name = "referencia_ms", nullable = false)
+    private Long referenciaMs;
+
+}
@@ -0,0 +1,41 @@
+package com.microservicio.productostienda.model;
+
+import java.time.LocalDateTime;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "producto_cambio", indexes = @Index(name = "idx_producto_cambio_producto", columnList = "producto_id"))
+@Schema(description = "Último cambio registrado de un producto, para la sincronización incremental del catálogo")
+public class ProductoCambio {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "secuencia")
+    @Schema(description = "Secuencia monótona del cambio", example = "1024")
+    private Long secuencia;
+
+    @Column(name = "producto_id", nullable = false)
+    @Schema(description = "ID del producto modificado", example = "1")
+    private Long productoId;
+
+    @Column(name = "eliminado", nullable = false)
+    @Schema(description = "true si el cambio fue una eliminación")
+    private Boolean eliminado;
+
+    @Column(name = "fecha", nullable = false)
+    private LocalDateTime fecha;
+
+}
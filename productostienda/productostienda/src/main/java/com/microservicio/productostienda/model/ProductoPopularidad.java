@@ -0,0 +1,26 @@
+package com.microservicio.productostienda.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "producto_popularidad")
+@Schema(description = "Puntaje de popularidad de un producto, relativo a la referencia de PopularidadEstado")
+public class ProductoPopularidad {
+    @Id
+    @Column(name = "producto_id")
+    private Long productoId;
+
+    @Column(name = "puntaje", nullable = false)
+    private Double puntaje;
+
+}
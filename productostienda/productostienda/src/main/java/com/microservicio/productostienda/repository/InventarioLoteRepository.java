@@ -0,0 +1,9 @@
+package com.microservicio.productostienda.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.microservicio.productostienda.model.InventarioLote;
+
+public interface InventarioLoteRepository extends JpaRepository<InventarioLote, Long> {
+
+}
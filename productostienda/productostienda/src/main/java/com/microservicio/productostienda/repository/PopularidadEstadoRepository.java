@@ -0,0 +1,9 @@
+package com.microservicio.productostienda.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.microservicio.productostienda.model.PopularidadEstado;
+
+public interface PopularidadEstadoRepository extends JpaRepository<PopularidadEstado, Long> {
+
+}
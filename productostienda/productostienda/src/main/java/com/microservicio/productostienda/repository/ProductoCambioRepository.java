@@ -0,0 +1,27 @@
+package com.microservicio.productostienda.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.microservicio.productostienda.model.ProductoCambio;
+
+public interface ProductoCambioRepository extends JpaRepository<ProductoCambio, Long> {
+
+    List<ProductoCambio> findBySecuenciaGreaterThanAndFechaBeforeOrderBySecuenciaAsc(Long secuencia, LocalDateTime fecha,
+            Pageable pageable);
+
+    @Query("SELECT MAX(c.secuencia) FROM ProductoCambio c WHERE c.fecha < :fecha")
+    Optional<Long> ultimaSecuenciaAntesDe(@Param("fecha") LocalDateTime fecha);
+
+    @Modifying
+    @Query("DELETE FROM ProductoCambio c WHERE c.productoId IN :productoIds")
+    int eliminarPorProductos(@Param("productoIds") List<Long> productoIds);
+
+}
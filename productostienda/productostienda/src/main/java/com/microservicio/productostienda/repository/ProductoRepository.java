@@ -1,9 +1,39 @@
 package com.microservicio.productostienda.repository;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.microservicio.productostienda.model.Producto;
 
-public interface ProductoRepository extends JpaRepository<Producto, Long> {
+public interface ProductoRepository extends JpaRepository<Producto, Long>, ProductoRepositoryCustom {
+
+    List<Producto> findByCategoriaId(Long categoriaId);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Producto p SET p.precio = :precio WHERE p.id = :id")
+    int actualizarPrecio(@Param("id") Long id, @Param("precio") Double precio);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Producto p SET p.stock = p.stock + :delta WHERE p.id = :id AND p.stock + :delta >= 0")
+    int ajustarStock(@Param("id") Long id, @Param("delta") Integer delta);
+
+    // Sin condición: el delta ya fue validado contra el contador en memoria del MotorInventario.
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Producto p SET p.stock = p.stock + :delta WHERE p.id = :id")
+    int aplicarDeltaStock(@Param("id") Long id, @Param("delta") Integer delta);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Producto p SET p.precio = p.precio * :factor WHERE p.categoria.id = :categoriaId")
+    int ajustarPrecioPorCategoria(@Param("categoriaId") Long categoriaId, @Param("factor") Double factor);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Producto p SET p.imagenUri = :imagenUri WHERE p.id = :id")
+    int actualizarImagen(@Param("id") Long id, @Param("imagenUri") String imagenUri);
 
 }
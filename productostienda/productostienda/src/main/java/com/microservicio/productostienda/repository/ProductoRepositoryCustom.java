@@ -0,0 +1,13 @@
+package com.microservicio.productostienda.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface ProductoRepositoryCustom {
+
+    // Proyección dinámica: el SELECT solo incluye las columnas pedidas (más el ID) y devuelve un mapa
+    // por producto en el orden solicitado. categoriaId e id son filtros opcionales.
+    List<Map<String, Object>> buscarCampos(Collection<String> campos, Long categoriaId, Long id);
+
+}
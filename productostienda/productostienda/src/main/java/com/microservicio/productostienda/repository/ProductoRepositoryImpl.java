@@ -0,0 +1,79 @@
+package com.microservicio.productostienda.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.microservicio.productostienda.model.Categoria;
+import com.microservicio.productostienda.model.Producto;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+public class ProductoRepositoryImpl implements ProductoRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> buscarCampos(Collection<String> campos, Long categoriaId, Long id) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Producto> producto = query.from(Producto.class);
+
+        List<Selection<?>> seleccion = new ArrayList<>();
+        seleccion.add(producto.get("id").alias("id"));
+        for (String campo : campos) {
+            if (campo.equals("id")) {
+                continue;
+            }
+            if (campo.equals("categoria")) {
+                // Solo se une la tabla de categorías cuando se pide; si no, ni se toca.
+                Join<Producto, Categoria> categoria = producto.join("categoria");
+                seleccion.add(categoria.get("id").alias("categoriaId"));
+                seleccion.add(categoria.get("nombre").alias("categoriaNombre"));
+            } else {
+                seleccion.add(producto.get(campo).alias(campo));
+            }
+        }
+        query.multiselect(seleccion);
+
+        List<Predicate> filtros = new ArrayList<>();
+        if (categoriaId != null) {
+            filtros.add(cb.equal(producto.get("categoria").get("id"), categoriaId));
+        }
+        if (id != null) {
+            filtros.add(cb.equal(producto.get("id"), id));
+        }
+        query.where(filtros.toArray(Predicate[]::new));
+        query.orderBy(cb.asc(producto.get("id")));
+
+        List<Map<String, Object>> resultado = new ArrayList<>();
+        for (Tuple fila : entityManager.createQuery(query).getResultList()) {
+            Map<String, Object> mapa = new LinkedHashMap<>();
+            mapa.put("id", fila.get("id"));
+            for (String campo : campos) {
+                if (campo.equals("categoria")) {
+                    Map<String, Object> categoria = new LinkedHashMap<>();
+                    categoria.put("id", fila.get("categoriaId"));
+                    categoria.put("nombre", fila.get("categoriaNombre"));
+                    mapa.put("categoria", categoria);
+                } else if (!campo.equals("id")) {
+                    mapa.put(campo, fila.get(campo));
+                }
+            }
+            resultado.add(mapa);
+        }
+        return resultado;
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.microservicio.productostienda.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservicio.productostienda.event.ProductosModificadosEvent;
+import com.microservicio.productostienda.model.Producto;
+import com.microservicio.productostienda.repository.ProductoRepository;
+
+import jakarta.annotation.PreDestroy;
+
+// Mantiene el catálogo ya serializado y comprimido para que GET /api/productos solo copie bytes.
+// Las escrituras no regeneran en línea: se agrupan durante DEBOUNCE_MS y se regenera en segundo plano.
+@Service
+public class CatalogoSnapshotService {
+    static final long DEBOUNCE_MS = 250;
+
+    private final ProductoRepository productoRepository;
+    private final ObjectMapper objectMapper;
+    private final ScheduledExecutorService regenerador = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicBoolean regeneracionPendiente = new AtomicBoolean();
+    private volatile Catalogo catalogo;
+
+    public CatalogoSnapshotService(ProductoRepository productoRepository, ObjectMapper objectMapper) {
+        this.productoRepository = productoRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        programarRegeneracion(0);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarProductos(ProductosModificadosEvent event) {
+        programarRegeneracion(DEBOUNCE_MS);
+    }
+
+    // Devuelve null mientras no exista la primera instantánea; el llamador debe consultar la base de datos.
+    public Representacion obtener(Long categoriaId) {
+        Catalogo actual = catalogo;
+        if (actual == null) {
+            return null;
+        }
+        if (categoriaId == null) {
+            return actual.completo;
+        }
+        return actual.porCategoria.getOrDefault(categoriaId, actual.vacio);
+    }
+
+    private void programarRegeneracion(long retardoMs) {
+        if (regeneracionPendiente.compareAndSet(false, true)) {
+            regenerador.schedule(this::regenerarSeguro, retardoMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void regenerarSeguro() {
+        try {
+            regenerar();
+        } catch (Exception e) {
+            System.out.println(">>> Error al regenerar la instantánea del catálogo: " + e.getMessage());
+        }
+    }
+
+    void regenerar() throws IOException {
+        // Se libera antes de leer para que una escritura concurrente programe otra pasada.
+        regeneracionPendiente.set(false);
+
+        List<Producto> productos = productoRepository.findAll();
+        Map<Long, List<Producto>> agrupados = productos.stream()
+                .filter(p -> p.getCategoria() != null)
+                .collect(Collectors.groupingBy(p -> p.getCategoria().getId()));
+
+        Map<Long, Representacion> porCategoria = new HashMap<>();
+        for (Map.Entry<Long, List<Producto>> entrada : agrupados.entrySet()) {
+            porCategoria.put(entrada.getKey(), serializar(entrada.getValue()));
+        }
+        catalogo = new Catalogo(serializar(productos), Map.copyOf(porCategoria), serializar(List.of()));
+    }
+
+    private Representacion serializar(List<Producto> productos) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(productos);
+
+        ByteArrayOutputStream comprimido = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(comprimido)) {
+            gzip.write(json);
+        }
+
+        String hash = DigestUtils.md5DigestAsHex(json);
+        return new Representacion(json, comprimido.toByteArray(), "\"" + hash + "\"", "\"" + hash + "-gzip\"");
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        regenerador.shutdownNow();
+    }
+
+    public record Representacion(byte[] json, byte[] gzip, String etag, String etagGzip) {
+    }
+
+    private record Catalogo(Representacion completo, Map<Long, Representacion> porCategoria, Representacion vacio) {
+    }
+}
@@ -0,0 +1,104 @@
+package com.microservicio.productostienda.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import com.microservicio.productostienda.model.Categoria;
+import com.microservicio.productostienda.repository.CategoriaRepository;
+
+// Copia inmutable en memoria de las categorías: se carga al iniciar y se reemplaza completa en cada cambio,
+// así las lecturas nunca bloquean ni consultan la base de datos. Categoria es una entidad mutable: se entregan
+// copias para que quien la modifique (o la adjunte a un producto) no altere la instantánea compartida.
+@Service
+public class CategoriaRegistry {
+    private final CategoriaRepository categoriaRepository;
+    private volatile Instantanea instantanea;
+
+    public CategoriaRegistry(CategoriaRepository categoriaRepository) {
+        this.categoriaRepository = categoriaRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void recargar() {
+        instantanea = new Instantanea(categoriaRepository.findAll());
+    }
+
+    public synchronized void registrar(Categoria categoria) {
+        List<Categoria> categorias = new ArrayList<>(actual().lista);
+        categorias.removeIf(c -> c.getId().equals(categoria.getId()));
+        categorias.add(categoria);
+        instantanea = new Instantanea(categorias);
+    }
+
+    public Optional<Categoria> obtenerPorId(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        Categoria categoria = actual().porId.get(id);
+        if (categoria != null) {
+            return Optional.of(copia(categoria));
+        }
+        // Puede haberla creado otra instancia del servicio: se confirma una vez contra la base de datos.
+        Optional<Categoria> encontrada = categoriaRepository.findById(id);
+        encontrada.ifPresent(this::registrar);
+        return encontrada;
+    }
+
+    public Optional<Categoria> obtenerPorNombre(String nombre) {
+        return Optional.ofNullable(actual().porNombre.get(nombre)).map(CategoriaRegistry::copia);
+    }
+
+    public List<Categoria> listar() {
+        return actual().lista.stream().map(CategoriaRegistry::copia).toList();
+    }
+
+    public String etag() {
+        return actual().etag;
+    }
+
+    private Instantanea actual() {
+        Instantanea actual = instantanea;
+        if (actual == null) {
+            recargar();
+            actual = instantanea;
+        }
+        return actual;
+    }
+
+    private static Categoria copia(Categoria categoria) {
+        return new Categoria(categoria.getId(), categoria.getNombre());
+    }
+
+    private static final class Instantanea {
+        private final List<Categoria> lista;
+        private final Map<Long, Categoria> porId = new HashMap<>();
+        private final Map<String, Categoria> porNombre = new HashMap<>();
+        private final String etag;
+
+        private Instantanea(List<Categoria> categorias) {
+            List<Categoria> copia = new ArrayList<>();
+            StringBuilder firma = new StringBuilder();
+            categorias.stream()
+                    .sorted(Comparator.comparing(Categoria::getId))
+                    .forEach(c -> {
+                        Categoria inmutable = new Categoria(c.getId(), c.getNombre());
+                        copia.add(inmutable);
+                        porId.put(inmutable.getId(), inmutable);
+                        porNombre.put(inmutable.getNombre(), inmutable);
+                        firma.append(c.getId()).append(':').append(c.getNombre()).append(';');
+                    });
+            this.lista = List.copyOf(copia);
+            this.etag = "\"" + DigestUtils.md5DigestAsHex(firma.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+        }
+    }
+}
@@ -11,21 +11,29 @@ import com.microservicio.productostienda.repository.CategoriaRepository;
 @Service
 public class CategoriaService {
     private final CategoriaRepository categoriaRepository;
+    private final CategoriaRegistry categoriaRegistry;
 
-    public CategoriaService(CategoriaRepository categoriaRepository) {
+    public CategoriaService(CategoriaRepository categoriaRepository, CategoriaRegistry categoriaRegistry) {
         this.categoriaRepository = categoriaRepository;
+        this.categoriaRegistry = categoriaRegistry;
     }
 
     public List<Categoria> listarCategorias() {
-        return categoriaRepository.findAll();
+        return categoriaRegistry.listar();
     }
 
     public Optional<Categoria> obtenerPorId(Long id) {
-        return categoriaRepository.findById(id);
+        return categoriaRegistry.obtenerPorId(id);
     }
 
     public Categoria guardarCategoria(Categoria categoria) {
-        return categoriaRepository.save(categoria);
+        Categoria guardada = categoriaRepository.save(categoria);
+        categoriaRegistry.registrar(guardada);
+        return guardada;
+    }
+
+    public String etagCategorias() {
+        return categoriaRegistry.etag();
     }
 
 }
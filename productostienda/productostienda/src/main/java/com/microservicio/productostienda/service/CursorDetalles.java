@@ -0,0 +1,94 @@
+package com.microservicio.productostienda.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import com.microservicio.productostienda.dto.DetalleVendidoDTO;
+
+// Cursor sobre el feed de detalles de ventas. Un ID IDENTITY se asigna al insertar pero se confirma al terminar
+// la transacción, así que un detalle puede aparecer después de otro con ID mayor y un cursor que salta al máximo
+// leído se lo saltaría. Cada lectura anota hasta qué ID vio; pasada la ventana de confirmación, cualquier hueco por
+// debajo de ese ID ya se confirmó (o no existirá nunca), así que solo se entregan los detalles hasta ahí. Los más
+// recientes se vuelven a leer en la siguiente sincronización. Solo lo usa el hilo sincronizador de cada servicio.
+class CursorDetalles {
+    static final long SEGUNDOS_CONFIRMACION = 30;
+
+    // {momento de la lectura en ms, mayor ID leído}, en orden de lectura.
+    private final Deque<long[]> lecturas = new ArrayDeque<>();
+    private long ultimo;
+    private long confirmadoHasta;
+
+    CursorDetalles(long ultimo) {
+        this.ultimo = ultimo;
+        this.confirmadoHasta = ultimo;
+    }
+
+    // Lee desde el cursor y devuelve, en orden de ID, los detalles que ya no pueden tener huecos por debajo.
+    List<DetalleVendidoDTO> leer(BiFunction<Long, Integer, List<DetalleVendidoDTO>> fuente,
+            int tamanoPagina, int maxPaginas, long ahoraMs) {
+        return leer(fuente, tamanoPagina, maxPaginas, ahoraMs, false);
+    }
+
+    // Primera carga de todo el historial: solo la última página puede tener detalles por encima de un hueco
+    // que aún se está confirmando, así que todo lo anterior se acepta sin esperar la ventana. Sin esto la carga
+    // completa se descargaría para descartarla y repetirla. Un historial de una sola página espera como siempre.
+    List<DetalleVendidoDTO> leerInicial(BiFunction<Long, Integer, List<DetalleVendidoDTO>> fuente,
+            int tamanoPagina, long ahoraMs) {
+        return leer(fuente, tamanoPagina, Integer.MAX_VALUE, ahoraMs, true);
+    }
+
+    private List<DetalleVendidoDTO> leer(BiFunction<Long, Integer, List<DetalleVendidoDTO>> fuente,
+            int tamanoPagina, int maxPaginas, long ahoraMs, boolean inicial) {
+        while (!lecturas.isEmpty() && lecturas.peekFirst()[0] <= ahoraMs - SEGUNDOS_CONFIRMACION * 1000) {
+            confirmadoHasta = Math.max(confirmadoHasta, lecturas.pollFirst()[1]);
+        }
+
+        List<DetalleVendidoDTO> leidos = new ArrayList<>();
+        long desde = ultimo;
+        long antesDeLaUltima = ultimo;
+        for (int pagina = 0; pagina < maxPaginas; pagina++) {
+            List<DetalleVendidoDTO> detalles = fuente.apply(desde, tamanoPagina);
+            if (detalles == null || detalles.isEmpty()) {
+                break;
+            }
+            leidos.addAll(detalles);
+            antesDeLaUltima = desde;
+            desde = detalles.get(detalles.size() - 1).getDetalleId();
+            if (detalles.size() < tamanoPagina) {
+                break;
+            }
+        }
+        if (inicial) {
+            confirmadoHasta = Math.max(confirmadoHasta, antesDeLaUltima);
+        }
+
+        List<DetalleVendidoDTO> confirmados = new ArrayList<>();
+        for (DetalleVendidoDTO detalle : leidos) {
+            if (detalle.getDetalleId() <= confirmadoHasta) {
+                confirmados.add(detalle);
+            }
+        }
+        if (desde > ultimo && (lecturas.isEmpty() || lecturas.peekLast()[1] < desde)) {
+            lecturas.addLast(new long[] {ahoraMs, desde});
+        }
+        if (!confirmados.isEmpty()) {
+            ultimo = confirmados.get(confirmados.size() - 1).getDetalleId();
+        }
+        return confirmados;
+    }
+
+    long ultimo() {
+        return ultimo;
+    }
+
+    // Al cargar un cursor guardado se olvidan las lecturas anteriores: lo que estaba por encima se vuelve a esperar.
+    void reiniciar(long ultimo) {
+        lecturas.clear();
+        this.ultimo = ultimo;
+        this.confirmadoHasta = ultimo;
+    }
+
+}
@@ -0,0 +1,163 @@
+package com.microservicio.productostienda.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import jakarta.annotation.PreDestroy;
+
+@Service
+public class ImagenProductoService {
+    public static final String RUTA_PUBLICA = "/imagenes/";
+    static final Map<String, Integer> VARIANTES = new LinkedHashMap<>();
+    static {
+        VARIANTES.put("thumbnail", 160);
+        VARIANTES.put("card", 480);
+        VARIANTES.put("detail", 1080);
+    }
+    private static final Map<String, String> EXTENSIONES = Map.of(
+            "image/jpeg", "jpg",
+            "image/png", "png",
+            "image/gif", "gif");
+
+    private final Path directorio;
+    private final ThreadPoolExecutor trabajadores;
+
+    public ImagenProductoService(@Value("${productos.imagenes.dir:imagenes}") String directorio,
+            @Value("${productos.imagenes.hilos:2}") int hilos) {
+        this.directorio = Paths.get(directorio).toAbsolutePath();
+        this.trabajadores = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(32), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Guarda el original con un nombre derivado de su contenido (así las variantes pueden cachearse como
+    // inmutables) y encola la generación de variantes. Devuelve la ruta base pública de la imagen.
+    public String guardarImagen(Long productoId, MultipartFile archivo) throws IOException {
+        String extension = archivo.getContentType() == null ? null : EXTENSIONES.get(archivo.getContentType());
+        if (extension == null) {
+            throw new IllegalArgumentException("Formato de imagen no soportado: " + archivo.getContentType());
+        }
+
+        byte[] contenido = archivo.getBytes();
+        String nombre = productoId + "-" + hash(contenido).substring(0, 16);
+        Path carpeta = directorio.resolve(nombre);
+        Path original = carpeta.resolve("original." + extension);
+
+        boolean escrita = false;
+        if (!Files.exists(original)) {
+            Files.createDirectories(carpeta);
+            Path temporal = Files.createTempFile(carpeta, "subida", ".tmp");
+            Files.write(temporal, contenido);
+            // Dos subidas idénticas en paralelo escriben el mismo contenido: gana cualquiera.
+            Files.move(temporal, original, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            escrita = true;
+        }
+
+        try {
+            trabajadores.execute(() -> generarVariantesSeguro(original));
+        } catch (RejectedExecutionException e) {
+            // Solo se deshace lo que escribió esta llamada: la carpeta puede ser una imagen ya publicada.
+            if (escrita) {
+                Files.deleteIfExists(original);
+                try {
+                    Files.deleteIfExists(carpeta);
+                } catch (DirectoryNotEmptyException ocupada) {
+                    // Otra subida del mismo contenido la está usando.
+                }
+            }
+            throw e;
+        }
+        return RUTA_PUBLICA + nombre;
+    }
+
+    public Map<String, String> rutasVariantes(String imagenUri) {
+        Map<String, String> rutas = new LinkedHashMap<>();
+        VARIANTES.keySet().forEach(v -> rutas.put(v, imagenUri + "/" + v + ".jpg"));
+        return rutas;
+    }
+
+    private void generarVariantesSeguro(Path original) {
+        try {
+            generarVariantes(original);
+        } catch (Exception e) {
+            System.out.println(">>> Error al generar variantes de " + original + ": " + e.getMessage());
+        }
+    }
+
+    void generarVariantes(Path original) throws IOException {
+        BufferedImage imagen = ImageIO.read(original.toFile());
+        if (imagen == null) {
+            throw new IOException("El archivo no es una imagen legible.");
+        }
+
+        for (Map.Entry<String, Integer> variante : VARIANTES.entrySet()) {
+            Path destino = original.resolveSibling(variante.getKey() + ".jpg");
+            if (Files.exists(destino)) {
+                continue;
+            }
+            BufferedImage redimensionada = redimensionar(imagen, variante.getValue());
+            Path temporal = Files.createTempFile(original.getParent(), variante.getKey(), ".tmp");
+            ImageIO.write(redimensionada, "jpg", temporal.toFile());
+            Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private BufferedImage redimensionar(BufferedImage imagen, int ladoMaximo) {
+        double escala = Math.min(1.0, (double) ladoMaximo / Math.max(imagen.getWidth(), imagen.getHeight()));
+        int ancho = Math.max(1, (int) Math.round(imagen.getWidth() * escala));
+        int alto = Math.max(1, (int) Math.round(imagen.getHeight() * escala));
+
+        BufferedImage resultado = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = resultado.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, ancho, alto);
+            g.drawImage(imagen, 0, 0, ancho, alto, null);
+        } finally {
+            g.dispose();
+        }
+        return resultado;
+    }
+
+    private String hash(byte[] contenido) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(contenido));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        trabajadores.shutdown();
+        try {
+            trabajadores.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.microservicio.productostienda.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.microservicio.productostienda.dto.DeltaInventarioDTO;
+import com.microservicio.productostienda.event.ProductosModificadosEvent;
+
+import jakarta.annotation.PreDestroy;
+
+@Service
+public class InventarioStreamService {
+    static final int MAX_PENDIENTES = 256;
+    private static final long TIMEOUT_MS = 30 * 60 * 1000L;
+    private static final long HEARTBEAT_SEGUNDOS = 25;
+    // Un envío que tarda más que esto es un cliente lento: se le cierra la conexión y se libera el hilo.
+    static final long ENVIO_MAX_MS = 5_000;
+    private static final int HILOS_ENVIO = 4;
+
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+    private final ExecutorService despachador = Executors.newFixedThreadPool(HILOS_ENVIO);
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor();
+
+    public InventarioStreamService() {
+        heartbeat.scheduleAtFixedRate(this::enviarHeartbeat, HEARTBEAT_SEGUNDOS, HEARTBEAT_SEGUNDOS, TimeUnit.SECONDS);
+        heartbeat.scheduleWithFixedDelay(this::descartarLentos, 1, 1, TimeUnit.SECONDS);
+    }
+
+    public SseEmitter suscribir() {
+        SseEmitter emitter = new SseEmitter(TIMEOUT_MS);
+        Suscriptor suscriptor = new Suscriptor(emitter);
+        suscriptores.add(suscriptor);
+        emitter.onCompletion(() -> suscriptores.remove(suscriptor));
+        emitter.onTimeout(() -> suscriptores.remove(suscriptor));
+        emitter.onError(e -> suscriptores.remove(suscriptor));
+        return emitter;
+    }
+
+    public int cantidadSuscriptores() {
+        return suscriptores.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarProductos(ProductosModificadosEvent event) {
+        if (suscriptores.isEmpty()) {
+            return;
+        }
+
+        List<DeltaInventarioDTO> deltas = new ArrayList<>();
+        event.getProductos().forEach(p -> deltas.add(new DeltaInventarioDTO(p.getId(), p.getStock(), p.getPrecio(), null)));
+        event.getEliminados().forEach(id -> deltas.add(new DeltaInventarioDTO(id, null, null, true)));
+
+        for (Suscriptor suscriptor : suscriptores) {
+            if (suscriptor.encolar(deltas)) {
+                despachador.execute(() -> drenar(suscriptor));
+            }
+        }
+    }
+
+    // Cada suscriptor tiene a lo sumo un hilo enviándole; el resto de los clientes no espera por él.
+    private void drenar(Suscriptor suscriptor) {
+        Envio envio;
+        while ((envio = suscriptor.tomarEnvio()) != null) {
+            try {
+                suscriptor.iniciarEnvio(System.currentTimeMillis());
+                if (envio.ping()) {
+                    suscriptor.emitter.send(SseEmitter.event().comment("ping"));
+                }
+                if (!envio.deltas().isEmpty()) {
+                    suscriptor.emitter.send(SseEmitter.event().name("inventario").data(envio.deltas()));
+                }
+            } catch (IOException | IllegalStateException e) {
+                descartar(suscriptor, e);
+                return;
+            } finally {
+                suscriptor.terminarEnvio();
+            }
+        }
+    }
+
+    // El ping pasa por la misma cola: el hilo del heartbeat nunca escribe en un socket.
+    private void enviarHeartbeat() {
+        for (Suscriptor suscriptor : suscriptores) {
+            if (suscriptor.encolarPing()) {
+                despachador.execute(() -> drenar(suscriptor));
+            }
+        }
+    }
+
+    void descartarLentos() {
+        long ahora = System.currentTimeMillis();
+        for (Suscriptor suscriptor : suscriptores) {
+            if (suscriptor.enviandoHace(ahora) > ENVIO_MAX_MS) {
+                descartar(suscriptor, new TimeoutException("Cliente SSE lento"));
+                suscriptor.interrumpirEnvio();
+            }
+        }
+    }
+
+    private void descartar(Suscriptor suscriptor, Throwable causa) {
+        if (suscriptores.remove(suscriptor)) {
+            try {
+                suscriptor.emitter.completeWithError(causa);
+            } catch (Exception e) {
+                // La conexión ya estaba cerrada.
+            }
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        heartbeat.shutdownNow();
+        despachador.shutdownNow();
+        suscriptores.forEach(s -> s.emitter.complete());
+    }
+
+    // Buffer acotado por cliente: guarda solo el último cambio de cada producto y, si un cliente lento
+    // acumula más de MAX_PENDIENTES productos distintos, descarta los cambios más antiguos.
+    static class Suscriptor {
+        private final SseEmitter emitter;
+        private final LinkedHashMap<Long, DeltaInventarioDTO> pendientes = new LinkedHashMap<>();
+        private boolean programado;
+        private boolean ping;
+        private long enviandoDesde;
+        private Thread hilo;
+
+        Suscriptor(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        synchronized boolean encolar(List<DeltaInventarioDTO> deltas) {
+            for (DeltaInventarioDTO delta : deltas) {
+                pendientes.remove(delta.getId());
+                pendientes.put(delta.getId(), delta);
+            }
+            Iterator<Long> masAntiguos = pendientes.keySet().iterator();
+            while (pendientes.size() > MAX_PENDIENTES) {
+                masAntiguos.next();
+                masAntiguos.remove();
+            }
+            if (programado) {
+                return false;
+            }
+            programado = true;
+            return true;
+        }
+
+        synchronized boolean encolarPing() {
+            ping = true;
+            if (programado) {
+                return false;
+            }
+            programado = true;
+            return true;
+        }
+
+        // null cuando no queda nada: el siguiente encolar vuelve a programar un envío.
+        synchronized Envio tomarEnvio() {
+            if (pendientes.isEmpty() && !ping) {
+                programado = false;
+                return null;
+            }
+            Envio envio = new Envio(tomarPendientes(), ping);
+            ping = false;
+            return envio;
+        }
+
+        synchronized List<DeltaInventarioDTO> tomarPendientes() {
+            List<DeltaInventarioDTO> lote = new ArrayList<>(pendientes.values());
+            pendientes.clear();
+            return lote;
+        }
+
+        synchronized void iniciarEnvio(long ahora) {
+            enviandoDesde = ahora;
+            hilo = Thread.currentThread();
+        }
+
+        synchronized void terminarEnvio() {
+            enviandoDesde = 0;
+            hilo = null;
+        }
+
+        synchronized long enviandoHace(long ahora) {
+            return enviandoDesde == 0 ? 0 : ahora - enviandoDesde;
+        }
+
+        synchronized void interrumpirEnvio() {
+            if (hilo != null) {
+                hilo.interrupt();
+            }
+        }
+    }
+
+    record Envio(List<DeltaInventarioDTO> deltas, boolean ping) {
+    }
+}
@@ -0,0 +1,193 @@
+package com.microservicio.productostienda.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.microservicio.productostienda.client.VentaClient;
+import com.microservicio.productostienda.dto.DetalleVendidoDTO;
+import com.microservicio.productostienda.model.PopularidadEstado;
+import com.microservicio.productostienda.model.ProductoPopularidad;
+import com.microservicio.productostienda.repository.PopularidadEstadoRepository;
+import com.microservicio.productostienda.repository.ProductoPopularidadRepository;
+
+import jakarta.annotation.PreDestroy;
+
+// Popularidad con decaimiento hacia adelante: cada venta suma cantidad * 2^((t - referencia) / vidaMedia).
+// Todos los puntajes comparten el mismo factor de decaimiento al leerlos, así que para ordenar no hace falta
+// recalcular nada; solo se reescalan cuando el exponente crece demasiado.
+// Los detalles se traen de ventas por cursor (ver CursorDetalles); el cursor y los puntajes se guardan juntos.
+@Service
+public class PopularidadService {
+    static final long ID_ESTADO = 1L;
+    static final int TAMANO_PAGINA = 1000;
+    static final int MAX_PAGINAS = 20;
+    static final double MAX_EXPONENTE = 64;
+
+    private final VentaClient ventaClient;
+    private final ProductoPopularidadRepository popularidadRepository;
+    private final PopularidadEstadoRepository estadoRepository;
+    private final TransactionTemplate transaccion;
+    private final double vidaMediaMs;
+    private final long intervaloSegundos;
+    private final long persistirMs;
+    private final ScheduledExecutorService sincronizador = Executors.newSingleThreadScheduledExecutor();
+
+    private final Map<Long, DoubleAdder> puntajes = new ConcurrentHashMap<>();
+    private volatile long referenciaMs = System.currentTimeMillis();
+    private volatile long ultimoDetalle;
+    private final CursorDetalles cursor = new CursorDetalles(0);
+    private long ultimaPersistenciaMs = System.currentTimeMillis();
+    private boolean cambiosSinGuardar;
+
+    public PopularidadService(VentaClient ventaClient, ProductoPopularidadRepository popularidadRepository,
+            PopularidadEstadoRepository estadoRepository, PlatformTransactionManager transactionManager,
+            @Value("${productos.popularidad.vida-media-horas:72}") double vidaMediaHoras,
+            @Value("${productos.popularidad.intervalo-segundos:30}") long intervaloSegundos,
+            @Value("${productos.popularidad.persistir-segundos:300}") long persistirSegundos) {
+        this.ventaClient = ventaClient;
+        this.popularidadRepository = popularidadRepository;
+        this.estadoRepository = estadoRepository;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.vidaMediaMs = vidaMediaHoras * 3_600_000;
+        this.intervaloSegundos = intervaloSegundos;
+        this.persistirMs = persistirSegundos * 1000;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        try {
+            cargar();
+        } catch (Exception e) {
+            System.out.println(">>> Error al cargar la popularidad guardada: " + e.getMessage());
+        }
+        sincronizador.scheduleWithFixedDelay(this::sincronizarSeguro, 0, intervaloSegundos, TimeUnit.SECONDS);
+    }
+
+    void cargar() {
+        estadoRepository.findById(ID_ESTADO).ifPresent(estado -> {
+            referenciaMs = estado.getReferenciaMs();
+            ultimoDetalle = estado.getUltimoDetalle();
+            cursor.reiniciar(ultimoDetalle);
+        });
+        popularidadRepository.findAll().forEach(p -> puntaje(p.getProductoId()).add(p.getPuntaje()));
+    }
+
+    // Puntaje expresado en "unidades vendidas hoy": ya descontado el decaimiento hasta este momento.
+    public double puntajeActual(Long productoId) {
+        DoubleAdder puntaje = puntajes.get(productoId);
+        if (puntaje == null) {
+            return 0;
+        }
+        return puntaje.sum() * Math.pow(2, (referenciaMs - System.currentTimeMillis()) / vidaMediaMs);
+    }
+
+    // Más vendidos primero; los que nunca se vendieron quedan al final en su orden original.
+    public <T> List<T> ordenar(List<T> elementos, Function<T, Long> id) {
+        // Se toma una foto de los puntajes antes de ordenar: el sincronizador puede sumar mientras tanto.
+        Map<T, Double> foto = new IdentityHashMap<>();
+        for (T elemento : elementos) {
+            DoubleAdder puntaje = puntajes.get(id.apply(elemento));
+            foto.put(elemento, puntaje == null ? 0 : puntaje.sum());
+        }
+        List<T> ordenados = new ArrayList<>(elementos);
+        ordenados.sort(Comparator.comparingDouble((T e) -> foto.get(e)).reversed());
+        return ordenados;
+    }
+
+    private void sincronizarSeguro() {
+        try {
+            sincronizar(Instant.now());
+        } catch (Exception e) {
+            System.out.println(">>> Error al sincronizar la popularidad con ventas: " + e.getMessage());
+        }
+    }
+
+    void sincronizar(Instant ahora) {
+        List<DetalleVendidoDTO> detalles = cursor.leer((desde, limite) -> ventaClient.detallesDesde(desde, limite).block(),
+                TAMANO_PAGINA, MAX_PAGINAS, ahora.toEpochMilli());
+        if (!detalles.isEmpty()) {
+            aplicar(detalles, ahora);
+        }
+        if (cambiosSinGuardar && ahora.toEpochMilli() - ultimaPersistenciaMs >= persistirMs) {
+            persistir();
+            ultimaPersistenciaMs = ahora.toEpochMilli();
+        }
+    }
+
+    // Solo lo llama el hilo sincronizador, así que el reescalado no compite con otras sumas.
+    void aplicar(List<DetalleVendidoDTO> detalles, Instant ahora) {
+        reescalarSiHaceFalta(ahora.toEpochMilli());
+        LocalDate hoy = LocalDate.ofInstant(ahora, ZoneId.systemDefault());
+        for (DetalleVendidoDTO detalle : detalles) {
+            // La venta solo guarda la fecha: las de hoy cuentan como recién vendidas, las anteriores al inicio del día.
+            long momento = detalle.getFecha() == null || !detalle.getFecha().isBefore(hoy)
+                    ? ahora.toEpochMilli()
+                    : detalle.getFecha().atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            double peso = Math.pow(2, (momento - referenciaMs) / vidaMediaMs);
+            puntaje(detalle.getProductoId()).add(detalle.getCantidad() * peso);
+            ultimoDetalle = Math.max(ultimoDetalle, detalle.getDetalleId());
+        }
+        cambiosSinGuardar = true;
+    }
+
+    private void reescalarSiHaceFalta(long ahoraMs) {
+        double exponente = (ahoraMs - referenciaMs) / vidaMediaMs;
+        if (exponente < MAX_EXPONENTE) {
+            return;
+        }
+        double factor = Math.pow(2, -exponente);
+        puntajes.values().forEach(p -> p.add(p.sumThenReset() * factor));
+        referenciaMs = ahoraMs;
+    }
+
+    void persistir() {
+        List<ProductoPopularidad> filas = new ArrayList<>();
+        puntajes.forEach((id, puntaje) -> filas.add(new ProductoPopularidad(id, puntaje.sum())));
+        PopularidadEstado estado = new PopularidadEstado(ID_ESTADO, ultimoDetalle, referenciaMs);
+        transaccion.executeWithoutResult(status -> {
+            popularidadRepository.saveAll(filas);
+            estadoRepository.save(estado);
+        });
+        cambiosSinGuardar = false;
+    }
+
+    private DoubleAdder puntaje(Long productoId) {
+        return puntajes.computeIfAbsent(productoId, id -> new DoubleAdder());
+    }
+
+    long getUltimoDetalle() {
+        return ultimoDetalle;
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        sincronizador.shutdownNow();
+        try {
+            if (cambiosSinGuardar) {
+                persistir();
+            }
+        } catch (Exception e) {
+            System.out.println(">>> Error al guardar la popularidad: " + e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.microservicio.productostienda.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.microservicio.productostienda.dto.CambiosCatalogoDTO;
+import com.microservicio.productostienda.event.ProductosModificadosEvent;
+import com.microservicio.productostienda.inventario.MotorInventario;
+import com.microservicio.productostienda.model.Producto;
+import com.microservicio.productostienda.model.ProductoCambio;
+import com.microservicio.productostienda.repository.ProductoCambioRepository;
+import com.microservicio.productostienda.repository.ProductoRepository;
+
+// Secuencia de cambios del catálogo para que los clientes sincronicen solo lo modificado desde su última
+// marca de agua. Se guarda una fila por producto (la de su último cambio), escrita antes del commit de la
+// misma transacción que modificó el producto.
+@Service
+public class ProductoCambioService {
+    static final int LIMITE_MAXIMO = 1000;
+    // Una secuencia IDENTITY puede confirmarse después de otra mayor; los cambios más recientes que esta
+    // ventana se entregan en la siguiente sincronización para no saltarse ninguno.
+    static final long SEGUNDOS_CONFIRMACION = 2;
+
+    private final ProductoCambioRepository productoCambioRepository;
+    private final ProductoRepository productoRepository;
+    private final MotorInventario motorInventario;
+    private final TransactionTemplate transaccion;
+
+    public ProductoCambioService(ProductoCambioRepository productoCambioRepository, ProductoRepository productoRepository,
+            MotorInventario motorInventario, PlatformTransactionManager transactionManager) {
+        this.productoCambioRepository = productoCambioRepository;
+        this.productoRepository = productoRepository;
+        this.motorInventario = motorInventario;
+        this.transaccion = new TransactionTemplate(transactionManager);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void alModificarProductos(ProductosModificadosEvent event) {
+        Map<Long, Boolean> cambios = new LinkedHashMap<>();
+        event.getProductos().forEach(p -> cambios.put(p.getId(), false));
+        event.getEliminados().forEach(id -> cambios.put(id, true));
+        if (cambios.isEmpty()) {
+            return;
+        }
+
+        transaccion.executeWithoutResult(estado -> {
+            productoCambioRepository.eliminarPorProductos(new ArrayList<>(cambios.keySet()));
+            LocalDateTime ahora = LocalDateTime.now();
+            List<ProductoCambio> filas = new ArrayList<>();
+            cambios.forEach((id, eliminado) -> filas.add(new ProductoCambio(null, id, eliminado, ahora)));
+            productoCambioRepository.saveAll(filas);
+        });
+    }
+
+    public CambiosCatalogoDTO cambiosDesde(Long desde, int limite) {
+        int tope = Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        LocalDateTime confirmados = LocalDateTime.now().minusSeconds(SEGUNDOS_CONFIRMACION);
+
+        // Sin marca de agua: catálogo completo. La marca se lee antes de listar, así lo que cambie entremedio
+        // vuelve a llegar en la próxima sincronización.
+        if (desde == null || desde <= 0) {
+            Long hasta = productoCambioRepository.ultimaSecuenciaAntesDe(confirmados).orElse(0L);
+            List<Producto> productos = productoRepository.findAll();
+            productos.forEach(this::conStockVigente);
+            return new CambiosCatalogoDTO(0L, hasta, false, productos, List.of());
+        }
+
+        List<ProductoCambio> cambios = productoCambioRepository
+                .findBySecuenciaGreaterThanAndFechaBeforeOrderBySecuenciaAsc(desde, confirmados, PageRequest.of(0, tope + 1));
+        boolean hayMas = cambios.size() > tope;
+        if (hayMas) {
+            cambios = cambios.subList(0, tope);
+        }
+
+        Map<Long, Boolean> ultimoEstado = new LinkedHashMap<>();
+        cambios.forEach(c -> ultimoEstado.put(c.getProductoId(), c.getEliminado()));
+
+        Set<Long> eliminados = new LinkedHashSet<>();
+        List<Long> vigentes = new ArrayList<>();
+        ultimoEstado.forEach((id, eliminado) -> {
+            if (eliminado) {
+                eliminados.add(id);
+            } else {
+                vigentes.add(id);
+            }
+        });
+
+        List<Producto> productos = new ArrayList<>();
+        Set<Long> encontrados = new LinkedHashSet<>();
+        productoRepository.findAllById(vigentes).forEach(p -> {
+            productos.add(conStockVigente(p));
+            encontrados.add(p.getId());
+        });
+        vigentes.stream().filter(id -> !encontrados.contains(id)).forEach(eliminados::add);
+
+        Long hasta = cambios.isEmpty() ? desde : cambios.get(cambios.size() - 1).getSecuencia();
+        return new CambiosCatalogoDTO(desde, hasta, hayMas, productos, new ArrayList<>(eliminados));
+    }
+
+    private Producto conStockVigente(Producto producto) {
+        motorInventario.stockDisponible(producto.getId()).ifPresent(producto::setStock);
+        return producto;
+    }
+}
@@ -1,45 +1,268 @@
 package com.microservicio.productostienda.service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import com.microservicio.productostienda.dto.ActualizacionMasivaDTO;
+import com.microservicio.productostienda.dto.OperacionProductoDTO;
+import com.microservicio.productostienda.event.ProductosModificadosEvent;
+import com.microservicio.productostienda.inventario.LibroInventario;
+import com.microservicio.productostienda.inventario.MotivoMovimiento;
+import com.microservicio.productostienda.inventario.MotorInventario;
 import com.microservicio.productostienda.model.Categoria;
 import com.microservicio.productostienda.model.Producto;
-import com.microservicio.productostienda.repository.CategoriaRepository;
 import com.microservicio.productostienda.repository.ProductoRepository;
 
+import jakarta.transaction.Transactional;
+
 @Service
 public class ProductoService {
+    // Campos que se pueden pedir con ?fields=; el ID siempre se incluye.
+    public static final Set<String> CAMPOS = Set.of("id", "nombre", "descripcion", "precio", "stock", "imagenUri", "categoria");
+
      private final ProductoRepository productoRepository;
-    private final CategoriaRepository categoriaRepository;
+    private final CategoriaRegistry categoriaRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MotorInventario motorInventario;
+    private final LibroInventario libroInventario;
 
-    public ProductoService(ProductoRepository productoRepository, CategoriaRepository categoriaRepository) {
+    public ProductoService(ProductoRepository productoRepository, CategoriaRegistry categoriaRegistry,
+            ApplicationEventPublisher eventPublisher, MotorInventario motorInventario, LibroInventario libroInventario) {
         this.productoRepository = productoRepository;
-        this.categoriaRepository = categoriaRepository;
+        this.categoriaRegistry = categoriaRegistry;
+        this.eventPublisher = eventPublisher;
+        this.motorInventario = motorInventario;
+        this.libroInventario = libroInventario;
     }
 
+    @Transactional
     public Producto guardarProducto(Producto producto) {
-       
+
         Long categoriaId = producto.getCategoria().getId();
-        Categoria categoria = categoriaRepository.findById(categoriaId)
+        Categoria categoria = categoriaRegistry.obtenerPorId(categoriaId)
                 .orElseThrow(() -> new RuntimeException("Categoría no encontrada con ID: " + categoriaId));
 
         producto.setCategoria(categoria);
-        return productoRepository.save(producto);
+        MotivoMovimiento motivo = producto.getId() == null ? MotivoMovimiento.CREACION : MotivoMovimiento.EDICION;
+        // Un producto caliente sale de memoria mientras se reemplaza su stock y vuelve con el valor guardado.
+        boolean caliente = producto.getId() != null && motorInventario.desactivar(producto.getId());
+        Producto guardado = productoRepository.save(producto);
+        if (caliente) {
+            motorInventario.activar(guardado);
+        }
+        libroInventario.registrarStock(guardado.getId(), guardado.getStock(), motivo);
+        eventPublisher.publishEvent(new ProductosModificadosEvent(List.of(guardado), List.of()));
+        return guardado;
     }
 
     public List<Producto> listarProductos() {
         return productoRepository.findAll();
     }
 
+    public List<Producto> listarPorCategoria(Long categoriaId) {
+        return productoRepository.findByCategoriaId(categoriaId);
+    }
+
     public Optional<Producto> obtenerPorId(Long id) {
-        return productoRepository.findById(id);
+        return productoRepository.findById(id).map(this::conStockVigente);
+    }
+
+    public List<Map<String, Object>> listarCampos(String fields, Long categoriaId) {
+        Set<String> campos = parsearCampos(fields);
+        return conStockVigente(productoRepository.buscarCampos(campos, categoriaId, null), campos);
+    }
+
+    public Optional<Map<String, Object>> obtenerCampos(Long id, String fields) {
+        Set<String> campos = parsearCampos(fields);
+        return conStockVigente(productoRepository.buscarCampos(campos, null, id), campos).stream().findFirst();
+    }
+
+    private Set<String> parsearCampos(String fields) {
+        Set<String> campos = new LinkedHashSet<>();
+        Arrays.stream(fields.split(",")).map(String::trim).filter(c -> !c.isEmpty()).forEach(campos::add);
+        for (String campo : campos) {
+            if (!CAMPOS.contains(campo)) {
+                throw new IllegalArgumentException("Campo desconocido: " + campo + ". Permitidos: " + CAMPOS);
+            }
+        }
+        if (campos.isEmpty()) {
+            throw new IllegalArgumentException("Debe indicar al menos un campo en 'fields'.");
+        }
+        return campos;
+    }
+
+    private List<Map<String, Object>> conStockVigente(List<Map<String, Object>> filas, Set<String> campos) {
+        if (campos.contains("stock")) {
+            filas.forEach(fila -> motorInventario.stockDisponible((Long) fila.get("id"))
+                    .ifPresent(stock -> fila.put("stock", stock)));
+        }
+        return filas;
     }
 
+    @Transactional
     public void eliminarProducto(Long id) {
+        motorInventario.desactivar(id);
         productoRepository.deleteById(id);
+        libroInventario.registrarStock(id, 0, MotivoMovimiento.ELIMINACION);
+        eventPublisher.publishEvent(new ProductosModificadosEvent(List.of(), List.of(id)));
+    }
+
+    @Transactional
+    public Producto actualizarImagen(Long id, String imagenUri) {
+        if (productoRepository.actualizarImagen(id, imagenUri) == 0) {
+            throw new RuntimeException("Producto no encontrado con ID: " + id);
+        }
+        Producto actualizado = obtenerPorId(id)
+                .orElseThrow(() -> new RuntimeException("Producto no encontrado con ID: " + id));
+        eventPublisher.publishEvent(new ProductosModificadosEvent(List.of(actualizado), List.of()));
+        return actualizado;
+    }
+
+    // Productos calientes: el stock se descuenta en memoria y se confirma en disco sin tocar la fila;
+    // el resto usa el UPDATE condicional de siempre.
+    public Producto reservarStock(Long id, Integer cantidad) {
+        if (cantidad == null || cantidad <= 0) {
+            throw new IllegalArgumentException("La cantidad a reservar debe ser mayor a cero.");
+        }
+        boolean caliente = motorInventario.esCaliente(id);
+        if (!ajustarStock(id, -cantidad)) {
+            throw new RuntimeException("Stock insuficiente o producto no encontrado con ID: " + id);
+        }
+
+        // Un producto caliente se responde con la copia en memoria: la reserva no toca MySQL.
+        Producto producto = (caliente ? motorInventario.producto(id) : Optional.<Producto>empty())
+                .or(() -> obtenerPorId(id))
+                .orElseThrow(() -> new RuntimeException("Producto no encontrado con ID: " + id));
+        libroInventario.registrar(id, -cantidad, producto.getStock(), MotivoMovimiento.RESERVA);
+        if (!caliente) {
+            eventPublisher.publishEvent(new ProductosModificadosEvent(List.of(producto), List.of()));
+        }
+        return producto;
+    }
+
+    // Inverso de reservarStock, para reservas cuya venta no llegó a registrarse.
+    public Producto liberarStock(Long id, Integer cantidad) {
+        if (cantidad == null || cantidad <= 0) {
+            throw new IllegalArgumentException("La cantidad a liberar debe ser mayor a cero.");
+        }
+        boolean caliente = motorInventario.esCaliente(id);
+        if (!ajustarStock(id, cantidad)) {
+            throw new RuntimeException("Producto no encontrado con ID: " + id);
+        }
+
+        Producto producto = (caliente ? motorInventario.producto(id) : Optional.<Producto>empty())
+                .or(() -> obtenerPorId(id))
+                .orElseThrow(() -> new RuntimeException("Producto no encontrado con ID: " + id));
+        libroInventario.registrar(id, cantidad, producto.getStock(), MotivoMovimiento.DEVOLUCION);
+        if (!caliente) {
+            eventPublisher.publishEvent(new ProductosModificadosEvent(List.of(producto), List.of()));
+        }
+        return producto;
+    }
+
+    public Producto activarModoCaliente(Long id) {
+        Producto producto = productoRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Producto no encontrado con ID: " + id));
+        motorInventario.activar(producto);
+        return conStockVigente(producto);
+    }
+
+    public boolean desactivarModoCaliente(Long id) {
+        return motorInventario.desactivar(id);
+    }
+
+    private boolean ajustarStock(Long id, int delta) {
+        if (motorInventario.esCaliente(id)) {
+            try {
+                return motorInventario.ajustar(id, delta);
+            } catch (IllegalStateException e) {
+                // Se desactivó entre medio: el stock ya está en la fila y sigue el camino SQL.
+            }
+        }
+        return productoRepository.ajustarStock(id, delta) > 0;
+    }
+
+    private Producto conStockVigente(Producto producto) {
+        motorInventario.stockDisponible(producto.getId()).ifPresent(producto::setStock);
+        return producto;
+    }
+
+    // Cada operación es un UPDATE directo (sin leer la fila antes); si alguna falla se revierte todo el lote.
+    // Los ajustes sobre productos calientes se anotan en el diario al confirmar y se revierten si no.
+    @Transactional
+    public List<Producto> actualizarMasivo(ActualizacionMasivaDTO solicitud) {
+        Set<Long> afectados = new LinkedHashSet<>();
+        aplicarOperaciones(solicitud, afectados);
+
+        // Una sola lectura al final para notificar el estado resultante.
+        Map<Long, Producto> actualizados = new LinkedHashMap<>();
+        productoRepository.findAllById(afectados).forEach(p -> actualizados.put(p.getId(), conStockVigente(p)));
+        if (solicitud.getCategoriaId() != null) {
+            productoRepository.findByCategoriaId(solicitud.getCategoriaId())
+                    .forEach(p -> actualizados.put(p.getId(), conStockVigente(p)));
+        }
+
+        if (solicitud.getOperaciones() != null) {
+            for (OperacionProductoDTO operacion : solicitud.getOperaciones()) {
+                Producto producto = actualizados.get(operacion.getId());
+                if (producto != null && operacion.getStockDelta() != null && operacion.getStockDelta() != 0) {
+                    libroInventario.registrar(producto.getId(), operacion.getStockDelta(), producto.getStock(),
+                            MotivoMovimiento.AJUSTE_MASIVO);
+                }
+            }
+        }
+
+        List<Producto> resultado = new ArrayList<>(actualizados.values());
+        eventPublisher.publishEvent(new ProductosModificadosEvent(resultado, List.of()));
+        return resultado;
+    }
+
+    private void aplicarOperaciones(ActualizacionMasivaDTO solicitud, Set<Long> afectados) {
+        // Un porcentaje sin categoría no se puede aplicar: se rechaza en vez de ignorarlo en silencio.
+        if (solicitud.getPorcentaje() != null && solicitud.getCategoriaId() == null) {
+            throw new RuntimeException("El porcentaje requiere indicar la categoría a la que se aplica.");
+        }
+        if (solicitud.getOperaciones() != null) {
+            for (OperacionProductoDTO operacion : solicitud.getOperaciones()) {
+                Long id = operacion.getId();
+                if (id == null) {
+                    throw new RuntimeException("Cada operación debe indicar el ID del producto.");
+                }
+
+                if (operacion.getPrecio() != null) {
+                    if (operacion.getPrecio() < 0) {
+                        throw new RuntimeException("Precio inválido para el producto con ID: " + id);
+                    }
+                    if (productoRepository.actualizarPrecio(id, operacion.getPrecio()) == 0) {
+                        throw new RuntimeException("Producto no encontrado con ID: " + id);
+                    }
+                }
+
+                if (operacion.getStockDelta() != null && operacion.getStockDelta() != 0) {
+                    if (!ajustarStock(id, operacion.getStockDelta())) {
+                        throw new RuntimeException("Stock insuficiente o producto no encontrado con ID: " + id);
+                    }
+                }
+                afectados.add(id);
+            }
+        }
+
+        if (solicitud.getCategoriaId() != null) {
+            Double porcentaje = solicitud.getPorcentaje();
+            if (porcentaje == null || porcentaje <= -100) {
+                throw new RuntimeException("Porcentaje inválido para la categoría con ID: " + solicitud.getCategoriaId());
+            }
+            productoRepository.ajustarPrecioPorCategoria(solicitud.getCategoriaId(), 1 + porcentaje / 100.0);
+        }
     }
 
 }
@@ -0,0 +1,291 @@
+package com.microservicio.productostienda.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.microservicio.productostienda.client.VentaClient;
+import com.microservicio.productostienda.dto.DetalleVendidoDTO;
+import com.microservicio.productostienda.model.Producto;
+import com.microservicio.productostienda.repository.ProductoRepository;
+import com.microservicio.productostienda.util.LongIntMap;
+
+import jakarta.annotation.PreDestroy;
+
+// "Comprados juntos": matriz dispersa de coocurrencias producto x producto dentro de una misma venta.
+// Al arrancar se trae todo el historial de ventas y se cuenta en paralelo (fork-join); después se suman
+// solo los detalles nuevos. Las consultas leen los top-K ya calculados por producto, nunca la matriz.
+@Service
+public class RecomendacionService {
+    static final int TAMANO_PAGINA = 5000;
+    static final int UMBRAL_PARALELO = 2048;
+    static final int VENTAS_RECIENTES = 1024;
+
+    private final VentaClient ventaClient;
+    private final ProductoRepository productoRepository;
+    private final int k;
+    private final long intervaloSegundos;
+    private final ScheduledExecutorService sincronizador = Executors.newSingleThreadScheduledExecutor();
+
+    // Solo el hilo sincronizador modifica la matriz y las ventas recientes.
+    private final Map<Long, LongIntMap> matriz = new HashMap<>();
+    private final Map<Long, Relacionados> topK = new ConcurrentHashMap<>();
+    private final Map<Long, long[]> ventasRecientes = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, long[]> mayor) {
+            return size() > VENTAS_RECIENTES;
+        }
+    };
+    private final CursorDetalles cursor = new CursorDetalles(0);
+    private boolean construida;
+
+    public RecomendacionService(VentaClient ventaClient, ProductoRepository productoRepository,
+            @Value("${productos.recomendaciones.k:20}") int k,
+            @Value("${productos.recomendaciones.intervalo-segundos:60}") long intervaloSegundos) {
+        this.ventaClient = ventaClient;
+        this.productoRepository = productoRepository;
+        this.k = Math.max(1, k);
+        this.intervaloSegundos = intervaloSegundos;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        sincronizador.scheduleWithFixedDelay(this::sincronizarSeguro, 0, intervaloSegundos, TimeUnit.SECONDS);
+    }
+
+    public List<Producto> relacionados(Long productoId, int limite) {
+        long[] ids = idsRelacionados(productoId, limite);
+        if (ids.length == 0) {
+            return List.of();
+        }
+        List<Long> orden = Arrays.stream(ids).boxed().toList();
+        Map<Long, Producto> productos = productoRepository.findAllById(orden).stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+        // Los productos eliminados siguen en la matriz hasta que se reinicie; simplemente se omiten.
+        return orden.stream().map(productos::get).filter(p -> p != null).toList();
+    }
+
+    long[] idsRelacionados(Long productoId, int limite) {
+        Relacionados relacionados = topK.get(productoId);
+        if (relacionados == null) {
+            return new long[0];
+        }
+        return Arrays.copyOf(relacionados.ids(), Math.min(limite, relacionados.ids().length));
+    }
+
+    private void sincronizarSeguro() {
+        try {
+            sincronizar(Instant.now());
+        } catch (Exception e) {
+            System.out.println(">>> Error al sincronizar las recomendaciones con ventas: " + e.getMessage());
+        }
+    }
+
+    void sincronizar(Instant ahora) {
+        if (!construida) {
+            construir(ahora);
+            // Con un historial de una sola página no llega nada hasta que vence la ventana y la carga se repite.
+            construida = cursor.ultimo() > 0;
+            return;
+        }
+        Set<Long> afectados = new HashSet<>();
+        for (DetalleVendidoDTO detalle : traerNuevos(ahora)) {
+            registrar(detalle, afectados);
+        }
+        afectados.forEach(id -> topK.put(id, calcularTopK(matriz.get(id), k)));
+    }
+
+    private void construir(Instant ahora) {
+        Map<Long, List<Long>> porVenta = new LinkedHashMap<>();
+        List<DetalleVendidoDTO> historial = cursor.leerInicial(
+                (desde, limite) -> ventaClient.detallesDesde(desde, limite).block(), TAMANO_PAGINA, ahora.toEpochMilli());
+        for (DetalleVendidoDTO detalle : historial) {
+            porVenta.computeIfAbsent(detalle.getVentaId(), v -> new ArrayList<>()).add(detalle.getProductoId());
+        }
+        List<long[]> canastas = new ArrayList<>(porVenta.size());
+        porVenta.forEach((ventaId, productos) -> {
+            long[] canasta = productos.stream().mapToLong(Long::longValue).distinct().toArray();
+            canastas.add(canasta);
+            // Una venta puede quedar partida entre esta carga y la siguiente sincronización.
+            ventasRecientes.put(ventaId, canasta);
+        });
+
+        Map<Long, LongIntMap> conteos = ForkJoinPool.commonPool().invoke(new ConteoCanastas(canastas, 0, canastas.size()));
+        matriz.clear();
+        matriz.putAll(conteos);
+        topK.clear();
+        topK.putAll(matriz.entrySet().parallelStream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> calcularTopK(e.getValue(), k))));
+    }
+
+    // Los detalles confirmados hace menos de la ventana de CursorDetalles quedan para la siguiente sincronización.
+    private List<DetalleVendidoDTO> traerNuevos(Instant ahora) {
+        return cursor.leer((desde, limite) -> ventaClient.detallesDesde(desde, limite).block(),
+                TAMANO_PAGINA, Integer.MAX_VALUE, ahora.toEpochMilli());
+    }
+
+    private void registrar(DetalleVendidoDTO detalle, Set<Long> afectados) {
+        long producto = detalle.getProductoId();
+        long[] previos = ventasRecientes.getOrDefault(detalle.getVentaId(), new long[0]);
+        for (long previo : previos) {
+            if (previo == producto) {
+                return;
+            }
+        }
+        for (long previo : previos) {
+            fila(matriz, previo).addTo(producto, 1);
+            fila(matriz, producto).addTo(previo, 1);
+            afectados.add(previo);
+            afectados.add(producto);
+        }
+        long[] canasta = Arrays.copyOf(previos, previos.length + 1);
+        canasta[previos.length] = producto;
+        ventasRecientes.put(detalle.getVentaId(), canasta);
+    }
+
+    private static LongIntMap fila(Map<Long, LongIntMap> matriz, long producto) {
+        return matriz.computeIfAbsent(producto, p -> new LongIntMap());
+    }
+
+    // Montículo mínimo de tamaño k sobre arreglos primitivos: la raíz es el peor de los k mejores.
+    // Empates: gana el ID menor, para que el resultado sea estable entre reconstrucciones.
+    static Relacionados calcularTopK(LongIntMap fila, int k) {
+        long[] ids = new long[k];
+        int[] veces = new int[k];
+        int[] tamano = {0};
+        fila.forEach((id, conteo) -> {
+            if (tamano[0] < k) {
+                ids[tamano[0]] = id;
+                veces[tamano[0]] = conteo;
+                subir(ids, veces, tamano[0]++);
+            } else if (mejor(id, conteo, ids[0], veces[0])) {
+                ids[0] = id;
+                veces[0] = conteo;
+                bajar(ids, veces, 0, tamano[0]);
+            }
+        });
+
+        int n = tamano[0];
+        long[] ordenIds = new long[n];
+        int[] ordenVeces = new int[n];
+        for (int i = n - 1; i >= 0; i--) {
+            ordenIds[i] = ids[0];
+            ordenVeces[i] = veces[0];
+            ids[0] = ids[i];
+            veces[0] = veces[i];
+            bajar(ids, veces, 0, i);
+        }
+        return new Relacionados(ordenIds, ordenVeces);
+    }
+
+    private static boolean mejor(long id, int conteo, long otroId, int otroConteo) {
+        return conteo > otroConteo || (conteo == otroConteo && id < otroId);
+    }
+
+    private static void subir(long[] ids, int[] veces, int i) {
+        while (i > 0) {
+            int padre = (i - 1) / 2;
+            if (!mejor(ids[padre], veces[padre], ids[i], veces[i])) {
+                return;
+            }
+            intercambiar(ids, veces, i, padre);
+            i = padre;
+        }
+    }
+
+    private static void bajar(long[] ids, int[] veces, int i, int tamano) {
+        while (true) {
+            int menor = i;
+            for (int hijo = 2 * i + 1; hijo <= 2 * i + 2 && hijo < tamano; hijo++) {
+                if (mejor(ids[menor], veces[menor], ids[hijo], veces[hijo])) {
+                    menor = hijo;
+                }
+            }
+            if (menor == i) {
+                return;
+            }
+            intercambiar(ids, veces, i, menor);
+            i = menor;
+        }
+    }
+
+    private static void intercambiar(long[] ids, int[] veces, int a, int b) {
+        long id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        int v = veces[a];
+        veces[a] = veces[b];
+        veces[b] = v;
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        sincronizador.shutdownNow();
+    }
+
+    record Relacionados(long[] ids, int[] veces) {
+    }
+
+    // Cada hoja cuenta sus canastas en una matriz propia; al volver se funde la más chica en la más grande.
+    private static class ConteoCanastas extends RecursiveTask<Map<Long, LongIntMap>> {
+        private final List<long[]> canastas;
+        private final int desde;
+        private final int hasta;
+
+        ConteoCanastas(List<long[]> canastas, int desde, int hasta) {
+            this.canastas = canastas;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected Map<Long, LongIntMap> compute() {
+            if (hasta - desde <= UMBRAL_PARALELO) {
+                Map<Long, LongIntMap> conteos = new HashMap<>();
+                for (int c = desde; c < hasta; c++) {
+                    long[] canasta = canastas.get(c);
+                    for (int i = 0; i < canasta.length; i++) {
+                        for (int j = i + 1; j < canasta.length; j++) {
+                            fila(conteos, canasta[i]).addTo(canasta[j], 1);
+                            fila(conteos, canasta[j]).addTo(canasta[i], 1);
+                        }
+                    }
+                }
+                return conteos;
+            }
+
+            int medio = (desde + hasta) >>> 1;
+            ConteoCanastas izquierda = new ConteoCanastas(canastas, desde, medio);
+            izquierda.fork();
+            Map<Long, LongIntMap> derecha = new ConteoCanastas(canastas, medio, hasta).compute();
+            Map<Long, LongIntMap> izquierdaConteos = izquierda.join();
+            Map<Long, LongIntMap> mayor = izquierdaConteos.size() >= derecha.size() ? izquierdaConteos : derecha;
+            Map<Long, LongIntMap> menor = mayor == derecha ? izquierdaConteos : derecha;
+            menor.forEach((producto, filaMenor) -> {
+                LongIntMap destino = fila(mayor, producto);
+                filaMenor.forEach(destino::addTo);
+            });
+            return mayor;
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+package com.microservicio.productostienda.service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Service;
+
+import com.microservicio.productostienda.dto.ConfiguracionFlashDTO;
+import com.microservicio.productostienda.dto.TurnoFlashDTO;
+import com.microservicio.productostienda.inventario.SalaEsperaFlash;
+import com.microservicio.productostienda.model.Producto;
+
+import jakarta.annotation.PreDestroy;
+
+@Service
+public class VentaFlashService {
+    static final long TICK_MS = 100;
+    private static final int SEGUNDOS_CANJE_POR_DEFECTO = 120;
+
+    private final ProductoService productoService;
+    private final Map<Long, SalaEsperaFlash> salas = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService admisor = Executors.newSingleThreadScheduledExecutor();
+
+    public VentaFlashService(ProductoService productoService) {
+        this.productoService = productoService;
+        admisor.scheduleAtFixedRate(this::admitirSeguro, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // Los tokens se asignan sobre el stock del momento; el producto pasa a modo caliente para que los canjes
+    // se descuenten en memoria.
+    public SalaEsperaFlash activar(Long productoId, ConfiguracionFlashDTO configuracion) {
+        if (configuracion.getAdmisionesPorSegundo() == null || configuracion.getAdmisionesPorSegundo() <= 0) {
+            throw new IllegalArgumentException("La tasa de admisión debe ser mayor a cero.");
+        }
+        int segundosCanje = configuracion.getSegundosCanje() != null && configuracion.getSegundosCanje() > 0
+                ? configuracion.getSegundosCanje()
+                : SEGUNDOS_CANJE_POR_DEFECTO;
+
+        Producto producto = productoService.activarModoCaliente(productoId);
+        SalaEsperaFlash sala = new SalaEsperaFlash(productoId, producto.getStock(),
+                configuracion.getAdmisionesPorSegundo(), segundosCanje * 1000L);
+        salas.put(productoId, sala);
+        return sala;
+    }
+
+    public boolean desactivar(Long productoId) {
+        if (salas.remove(productoId) == null) {
+            return false;
+        }
+        productoService.desactivarModoCaliente(productoId);
+        return true;
+    }
+
+    public boolean estaActiva(Long productoId) {
+        return salas.containsKey(productoId);
+    }
+
+    public Optional<SalaEsperaFlash> obtenerSala(Long productoId) {
+        return Optional.ofNullable(salas.get(productoId));
+    }
+
+    public TurnoFlashDTO tomarTurno(Long productoId) {
+        SalaEsperaFlash sala = sala(productoId);
+        return aDTO(sala, sala.tomarTurno());
+    }
+
+    public TurnoFlashDTO consultarTurno(Long productoId, long turno) {
+        SalaEsperaFlash sala = sala(productoId);
+        return aDTO(sala, sala.consultar(turno, System.currentTimeMillis()));
+    }
+
+    // El token se da por tomado recién cuando la unidad quedó reservada; si la reserva falla sigue vigente.
+    // Queda RESERVADO hasta que ventas confirme (venta registrada) o libere (venta rechazada).
+    public Producto canjear(Long productoId, String tokenCompra) {
+        SalaEsperaFlash sala = sala(productoId);
+        if (tokenCompra == null || !sala.apartar(tokenCompra, System.currentTimeMillis())) {
+            throw new IllegalArgumentException("Token de compra inválido, vencido o ya utilizado.");
+        }
+        Producto producto;
+        try {
+            producto = productoService.reservarStock(productoId, 1);
+        } catch (RuntimeException e) {
+            sala.soltar(tokenCompra);
+            throw e;
+        }
+        sala.reservar(tokenCompra);
+        return producto;
+    }
+
+    // Ventas registró la compra: desde aquí el token ya no se puede liberar.
+    public void confirmar(Long productoId, String tokenCompra) {
+        if (!sala(productoId).confirmar(tokenCompra)) {
+            throw new IllegalArgumentException("El token de compra no existe o no tiene una compra pendiente.");
+        }
+    }
+
+    // Compensación de ventas: devuelve la unidad de un token reservado cuya venta no se registró.
+    public Producto liberar(Long productoId, String tokenCompra) {
+        SalaEsperaFlash sala = sala(productoId);
+        if (!sala.devolver(tokenCompra)) {
+            throw new IllegalArgumentException("El token de compra no existe o no tiene una compra pendiente.");
+        }
+        return productoService.liberarStock(productoId, 1);
+    }
+
+    private SalaEsperaFlash sala(Long productoId) {
+        SalaEsperaFlash sala = salas.get(productoId);
+        if (sala == null) {
+            throw new RuntimeException("No hay una venta flash activa para el producto con ID: " + productoId);
+        }
+        return sala;
+    }
+
+    private TurnoFlashDTO aDTO(SalaEsperaFlash sala, SalaEsperaFlash.Turno turno) {
+        TurnoFlashDTO dto = new TurnoFlashDTO();
+        dto.setEstado(turno.estado().name());
+        if (turno.numero() > 0) {
+            dto.setTurno(turno.numero());
+        }
+        if (turno.estado() == SalaEsperaFlash.Estado.EN_ESPERA) {
+            dto.setPosicion(turno.posicion());
+            dto.setReintentarEnSegundos(Math.max(1, (long) Math.ceil(turno.posicion() / sala.getAdmisionesPorSegundo())));
+        }
+        if (turno.estado() == SalaEsperaFlash.Estado.ADMITIDO) {
+            dto.setTokenCompra(turno.tokenCompra());
+            dto.setExpiraEn(turno.expiraEn());
+        }
+        return dto;
+    }
+
+    private void admitirSeguro() {
+        long ahora = System.currentTimeMillis();
+        for (SalaEsperaFlash sala : salas.values()) {
+            try {
+                sala.admitir(TICK_MS, ahora);
+            } catch (Exception e) {
+                System.out.println(">>> Error al admitir compradores de la venta flash " + sala.getProductoId() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        admisor.shutdown();
+    }
+}
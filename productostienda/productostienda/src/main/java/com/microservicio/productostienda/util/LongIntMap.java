@@ -0,0 +1,130 @@
+package com.microservicio.productostienda.util;
+
+import java.util.Arrays;
+
+// Mapa long -> int con direccionamiento abierto (sondeo lineal) sobre arreglos primitivos: sin boxing ni
+// nodos por entrada, para estructuras que se consultan en caminos calientes. No es thread-safe.
+// La clave 0 está reservada como celda vacía (los IDs de la base empiezan en 1).
+public class LongIntMap {
+    private static final float CARGA_MAXIMA = 0.6f;
+
+    private long[] claves;
+    private int[] valores;
+    private int mascara;
+    private int tamano;
+
+    public LongIntMap() {
+        this(16);
+    }
+
+    public LongIntMap(int capacidadInicial) {
+        int capacidad = Integer.highestOneBit(Math.max(4, (int) (capacidadInicial / CARGA_MAXIMA)) * 2 - 1);
+        claves = new long[capacidad];
+        valores = new int[capacidad];
+        mascara = capacidad - 1;
+    }
+
+    public int size() {
+        return tamano;
+    }
+
+    public boolean containsKey(long clave) {
+        return indice(clave) >= 0;
+    }
+
+    public int get(long clave, int porDefecto) {
+        int i = indice(clave);
+        return i >= 0 ? valores[i] : porDefecto;
+    }
+
+    public void put(long clave, int valor) {
+        validar(clave);
+        int i = celda(clave);
+        while (claves[i] != 0) {
+            if (claves[i] == clave) {
+                valores[i] = valor;
+                return;
+            }
+            i = (i + 1) & mascara;
+        }
+        claves[i] = clave;
+        valores[i] = valor;
+        if (++tamano > claves.length * CARGA_MAXIMA) {
+            redimensionar();
+        }
+    }
+
+    public int addTo(long clave, int incremento) {
+        validar(clave);
+        int i = celda(clave);
+        while (claves[i] != 0) {
+            if (claves[i] == clave) {
+                return valores[i] += incremento;
+            }
+            i = (i + 1) & mascara;
+        }
+        claves[i] = clave;
+        valores[i] = incremento;
+        if (++tamano > claves.length * CARGA_MAXIMA) {
+            redimensionar();
+        }
+        return incremento;
+    }
+
+    public void clear() {
+        Arrays.fill(claves, 0);
+        tamano = 0;
+    }
+
+    public void forEach(Consumidor consumidor) {
+        for (int i = 0; i < claves.length; i++) {
+            if (claves[i] != 0) {
+                consumidor.aceptar(claves[i], valores[i]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Consumidor {
+        void aceptar(long clave, int valor);
+    }
+
+    private int indice(long clave) {
+        if (clave == 0) {
+            return -1;
+        }
+        int i = celda(clave);
+        while (claves[i] != 0) {
+            if (claves[i] == clave) {
+                return i;
+            }
+            i = (i + 1) & mascara;
+        }
+        return -1;
+    }
+
+    private int celda(long clave) {
+        long h = clave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mascara;
+    }
+
+    private void validar(long clave) {
+        if (clave == 0) {
+            throw new IllegalArgumentException("La clave 0 está reservada.");
+        }
+    }
+
+    private void redimensionar() {
+        long[] clavesAnteriores = claves;
+        int[] valoresAnteriores = valores;
+        claves = new long[clavesAnteriores.length * 2];
+        valores = new int[clavesAnteriores.length * 2];
+        mascara = claves.length - 1;
+        tamano = 0;
+        for (int i = 0; i < clavesAnteriores.length; i++) {
+            if (clavesAnteriores[i] != 0) {
+                put(clavesAnteriores[i], valoresAnteriores[i]);
+            }
+        }
+    }
+}
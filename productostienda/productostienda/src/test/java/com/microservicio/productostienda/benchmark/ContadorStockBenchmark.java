@@ -0,0 +1,90 @@
+package com.microservicio.productostienda.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.microservicio.productostienda.inventario.ContadorStock;
+
+// Throughput de descuento de stock sobre un único producto, comparando el contador por franjas con un
+// único AtomicInteger (CAS sobre una sola celda) y con un bloqueo, que es lo que hace la fila en la base.
+//
+// Ejecutar (de 1 a 64 hilos):
+//   mvn test-compile
+//   java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+//       com.microservicio.productostienda.benchmark.ContadorStockBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContadorStockBenchmark {
+    // Suficiente para que ninguna iteración de 1 s agote el stock.
+    private static final int STOCK = Integer.MAX_VALUE / 2;
+
+    private ContadorStock franjas;
+    private AtomicInteger celdaUnica;
+    private int stockBloqueado;
+    private final Object bloqueo = new Object();
+
+    @Setup(Level.Iteration)
+    public void preparar() {
+        franjas = new ContadorStock(STOCK, Runtime.getRuntime().availableProcessors() * 2);
+        celdaUnica = new AtomicInteger(STOCK);
+        stockBloqueado = STOCK;
+    }
+
+    @Benchmark
+    public boolean contadorPorFranjas() {
+        return franjas.reservar(1);
+    }
+
+    @Benchmark
+    public boolean casCeldaUnica() {
+        int actual = celdaUnica.get();
+        while (actual > 0) {
+            if (celdaUnica.compareAndSet(actual, actual - 1)) {
+                return true;
+            }
+            actual = celdaUnica.get();
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean bloqueoExclusivo() {
+        synchronized (bloqueo) {
+            if (stockBloqueado > 0) {
+                stockBloqueado--;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int hilos : new int[] { 1, 2, 4, 8, 16, 32, 64 }) {
+            Options opciones = new OptionsBuilder()
+                    .include(ContadorStockBenchmark.class.getSimpleName())
+                    .threads(hilos)
+                    .build();
+            new Runner(opciones).run();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.microservicio.productostienda.benchmark;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.microservicio.productostienda.inventario.MotorInventario;
+import com.microservicio.productostienda.model.Producto;
+import com.microservicio.productostienda.repository.InventarioLoteRepository;
+import com.microservicio.productostienda.repository.ProductoRepository;
+
+// Prueba de carga del camino completo de una reserva caliente: CAS en el contador, registro en el diario,
+// fsync agrupado y UPDATE agregado (la base se sustituye por stubs sin costo). Con esperarDurable=true
+// cada hilo espera su group commit, así que el throughput escala con la cantidad de hilos por lote.
+//
+// Ejecutar igual que ContadorStockBenchmark, con la clase MotorInventarioBenchmark.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class MotorInventarioBenchmark {
+    private static final long PRODUCTO_ID = 1L;
+
+    @Param({ "true", "false" })
+    public boolean esperarDurable;
+
+    private Path directorio;
+    private MotorInventario motor;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        directorio = Files.createTempDirectory("motor-inventario");
+        motor = new MotorInventario(stub(ProductoRepository.class), stub(InventarioLoteRepository.class),
+                evento -> { }, stub(PlatformTransactionManager.class),
+                directorio.resolve("diario.wal").toString(), 0, 5, esperarDurable, List.of());
+        motor.inicializar();
+
+        Producto producto = new Producto();
+        producto.setId(PRODUCTO_ID);
+        producto.setStock(Integer.MAX_VALUE / 2);
+        motor.activar(producto);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() throws IOException {
+        motor.cerrar();
+        Files.deleteIfExists(directorio.resolve("diario.wal"));
+        Files.deleteIfExists(directorio);
+    }
+
+    @Benchmark
+    public boolean reservarUnidad() {
+        return motor.ajustar(PRODUCTO_ID, -1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> tipo) {
+        return (T) Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[] { tipo }, (proxy, metodo, args) -> {
+            switch (metodo.getName()) {
+                case "getTransaction":
+                    return new SimpleTransactionStatus();
+                case "findById":
+                    return Optional.empty();
+                case "findAllById":
+                    return List.of();
+                case "save":
+                    return args[0];
+                case "aplicarDeltaStock":
+                    return 1;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return tipo.getSimpleName();
+                default:
+                    return null;
+            }
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int hilos : new int[] { 1, 2, 4, 8, 16, 32, 64 }) {
+            Options opciones = new OptionsBuilder()
+                    .include(MotorInventarioBenchmark.class.getSimpleName())
+                    .threads(hilos)
+                    .build();
+            new Runner(opciones).run();
+        }
+    }
+}
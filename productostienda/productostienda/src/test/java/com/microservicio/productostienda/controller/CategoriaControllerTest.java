@@ -58,6 +58,18 @@ public class CategoriaControllerTest {
         verify(categoriaService, times(1)).listarCategorias();
     }
 
+    @Test
+    void testListarCategorias_EtagVigente_RetornaNotModified() throws Exception {
+        when(categoriaService.etagCategorias()).thenReturn("\"abc123\"");
+
+        mockMvc.perform(get("/api/categorias")
+                .header("If-None-Match", "\"abc123\""))
+
+                .andExpect(status().isNotModified());
+
+        verify(categoriaService, never()).listarCategorias();
+    }
+
    
     @Test
     void testCrearCategoria_RetornaOk() throws Exception {
@@ -8,6 +8,8 @@ import java.util.Optional;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,12 +18,21 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservicio.productostienda.dto.ActualizacionMasivaDTO;
+import com.microservicio.productostienda.dto.CambiosCatalogoDTO;
 import com.microservicio.productostienda.model.Categoria;
 import com.microservicio.productostienda.model.Producto;
+import com.microservicio.productostienda.service.CatalogoSnapshotService;
+import com.microservicio.productostienda.service.ImagenProductoService;
+import com.microservicio.productostienda.service.InventarioStreamService;
+import com.microservicio.productostienda.service.PopularidadService;
+import com.microservicio.productostienda.service.ProductoCambioService;
 import com.microservicio.productostienda.service.ProductoService;
+import com.microservicio.productostienda.service.VentaFlashService;
 import com.microservicio.productostienda.util.JwtUtil;
 
 @WebMvcTest(ProductoController.class)
@@ -38,6 +49,24 @@ public class ProductoControllerTest {
     @MockBean
     private ProductoService productoService;
 
+    @MockBean
+    private InventarioStreamService inventarioStreamService;
+
+    @MockBean
+    private CatalogoSnapshotService catalogoSnapshotService;
+
+    @MockBean
+    private ImagenProductoService imagenProductoService;
+
+    @MockBean
+    private VentaFlashService ventaFlashService;
+
+    @MockBean
+    private ProductoCambioService productoCambioService;
+
+    @MockBean
+    private PopularidadService popularidadService;
+
     @MockBean
     private JwtUtil jwtUtil; 
 
@@ -86,6 +115,34 @@ public class ProductoControllerTest {
         
         verify(productoService, times(1)).listarProductos();
     }
+
+    @Test
+    void testListarProductos_DesdeInstantanea_RetornaGzipSinConsultarServicio() throws Exception {
+        byte[] gzip = new byte[] { 31, -117, 8, 0 };
+        when(catalogoSnapshotService.obtener(null)).thenReturn(
+                new CatalogoSnapshotService.Representacion("[]".getBytes(), gzip, "\"e1\"", "\"e1-gzip\""));
+
+        mockMvc.perform(get("/api/productos")
+                .header("Accept-Encoding", "gzip, deflate"))
+
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("ETag", "\"e1-gzip\""))
+                .andExpect(content().bytes(gzip));
+
+        verify(productoService, never()).listarProductos();
+    }
+
+    @Test
+    void testListarProductos_DesdeInstantanea_EtagVigente_RetornaNotModified() throws Exception {
+        when(catalogoSnapshotService.obtener(null)).thenReturn(
+                new CatalogoSnapshotService.Representacion("[]".getBytes(), new byte[0], "\"e1\"", "\"e1-gzip\""));
+
+        mockMvc.perform(get("/api/productos")
+                .header("If-None-Match", "\"e1\""))
+
+                .andExpect(status().isNotModified());
+    }
     
    
     @Test
@@ -200,4 +257,145 @@ public class ProductoControllerTest {
         
         verify(productoService, never()).eliminarProducto(anyLong());
     }
-}
\ No newline at end of file
+
+    
+    @Test
+    void testActualizarMasivo_RetornaCantidadActualizada() throws Exception {
+        when(productoService.actualizarMasivo(any(ActualizacionMasivaDTO.class))).thenReturn(List.of(producto));
+
+        mockMvc.perform(post("/api/productos/masivo")
+                .header("Authorization", ADMIN_TOKEN)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"operaciones\":[{\"id\":10,\"stockDelta\":5}]}"))
+
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productosActualizados").value(1));
+    }
+
+    @Test
+    void testActualizarMasivo_OperacionInvalida_RetornaBadRequest() throws Exception {
+        when(productoService.actualizarMasivo(any(ActualizacionMasivaDTO.class)))
+                .thenThrow(new RuntimeException("Stock insuficiente o producto no encontrado con ID: 10"));
+
+        mockMvc.perform(post("/api/productos/masivo")
+                .header("Authorization", ADMIN_TOKEN)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"operaciones\":[{\"id\":10,\"stockDelta\":-500}]}"))
+
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testSubirImagen_RetornaCreatedConVariantes() throws Exception {
+        MockMultipartFile archivo = new MockMultipartFile("archivo", "foto.png", "image/png", new byte[] { 1, 2, 3 });
+        when(productoService.obtenerPorId(10L)).thenReturn(Optional.of(producto));
+        when(imagenProductoService.guardarImagen(eq(10L), any())).thenReturn("/imagenes/10-abc");
+        when(imagenProductoService.rutasVariantes("/imagenes/10-abc"))
+                .thenReturn(Map.of("thumbnail", "/imagenes/10-abc/thumbnail.jpg"));
+
+        mockMvc.perform(multipart("/api/productos/{id}/imagen", 10L).file(archivo))
+
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.imagenUri").value("/imagenes/10-abc"))
+                .andExpect(jsonPath("$.variantes.thumbnail").value("/imagenes/10-abc/thumbnail.jpg"));
+
+        verify(productoService, times(1)).actualizarImagen(10L, "/imagenes/10-abc");
+    }
+
+    @Test
+    void testSubirImagen_ProcesadorSaturado_RetornaServiceUnavailable() throws Exception {
+        MockMultipartFile archivo = new MockMultipartFile("archivo", "foto.png", "image/png", new byte[] { 1, 2, 3 });
+        when(productoService.obtenerPorId(10L)).thenReturn(Optional.of(producto));
+        when(imagenProductoService.guardarImagen(eq(10L), any())).thenThrow(new RejectedExecutionException());
+
+        mockMvc.perform(multipart("/api/productos/{id}/imagen", 10L).file(archivo))
+
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+
+        verify(productoService, never()).actualizarImagen(anyLong(), anyString());
+    }
+
+    @Test
+    void testReservar_StockInsuficiente_RetornaConflict() throws Exception {
+        when(productoService.reservarStock(10L, 5))
+                .thenThrow(new RuntimeException("Stock insuficiente o producto no encontrado con ID: 10"));
+
+        mockMvc.perform(post("/api/productos/{id}/reservar", 10L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"cantidad\":5}"))
+
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testReservar_RetornaProductoConStockRestante() throws Exception {
+        producto.setStock(5);
+        when(productoService.reservarStock(10L, 5)).thenReturn(producto);
+
+        mockMvc.perform(post("/api/productos/{id}/reservar", 10L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"cantidad\":5}"))
+
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stock").value(5));
+    }
+
+    @Test
+    void testCambios_RetornaDeltaYMarcaDeAgua() throws Exception {
+        when(productoCambioService.cambiosDesde(1000L, 500))
+                .thenReturn(new CambiosCatalogoDTO(1000L, 1002L, false, List.of(producto), List.of(7L)));
+
+        mockMvc.perform(get("/api/productos/cambios").param("desde", "1000"))
+
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasta").value(1002))
+                .andExpect(jsonPath("$.productos[0].id").value(10))
+                .andExpect(jsonPath("$.eliminados[0]").value(7));
+    }
+
+    @Test
+    void testListar_ConFields_DevuelveSoloCamposPedidos() throws Exception {
+        when(productoService.listarCampos("nombre,precio", null))
+                .thenReturn(List.of(Map.of("id", 10, "nombre", "Mancuerna", "precio", 19990.0)));
+
+        mockMvc.perform(get("/api/productos").param("fields", "nombre,precio"))
+
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].nombre").value("Mancuerna"))
+                .andExpect(jsonPath("$[0].descripcion").doesNotExist())
+                .andExpect(jsonPath("$[0].categoria").doesNotExist());
+        verify(catalogoSnapshotService, never()).obtener(any());
+    }
+
+    @Test
+    void testObtener_ConFieldsDesconocido_RetornaBadRequest() throws Exception {
+        when(productoService.obtenerCampos(10L, "clave"))
+                .thenThrow(new IllegalArgumentException("Campo desconocido: clave"));
+
+        mockMvc.perform(get("/api/productos/10").param("fields", "clave"))
+
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testListar_OrdenPorPopularidad() throws Exception {
+        Producto otro = new Producto(11L, "Barra", "Olímpica", 150000.0, 3, null, producto.getCategoria());
+        when(productoService.listarProductos()).thenReturn(List.of(producto, otro));
+        when(popularidadService.ordenar(eq(List.of(producto, otro)), any())).thenReturn(List.of(otro, producto));
+
+        mockMvc.perform(get("/api/productos").param("sort", "popularidad"))
+
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(11))
+                .andExpect(jsonPath("$[1].id").value(10));
+        verify(catalogoSnapshotService, never()).obtener(any());
+    }
+
+    @Test
+    void testListar_OrdenNoSoportado_RetornaBadRequest() throws Exception {
+        mockMvc.perform(get("/api/productos").param("sort", "precio"))
+
+                .andExpect(status().isBadRequest());
+    }
+}
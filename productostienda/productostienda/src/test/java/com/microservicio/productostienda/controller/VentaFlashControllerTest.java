@@ -0,0 +1,74 @@
+package com.microservicio.productostienda.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.microservicio.productostienda.dto.TurnoFlashDTO;
+import com.microservicio.productostienda.service.VentaFlashService;
+import com.microservicio.productostienda.util.JwtUtil;
+
+@WebMvcTest(VentaFlashController.class)
+@AutoConfigureMockMvc(addFilters = false)
+public class VentaFlashControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private VentaFlashService ventaFlashService;
+
+    @MockBean
+    private JwtUtil jwtUtil;
+
+    @Test
+    void testTomarTurno_EnEspera_RetornaAcceptedConRetryAfter() throws Exception {
+        when(ventaFlashService.estaActiva(1L)).thenReturn(true);
+        when(ventaFlashService.tomarTurno(1L)).thenReturn(new TurnoFlashDTO(7L, "EN_ESPERA", 7L, 1L, null, null));
+
+        mockMvc.perform(post("/api/productos/{id}/flash/turno", 1L))
+
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.posicion").value(7));
+    }
+
+    @Test
+    void testTomarTurno_Agotado_RetornaConflict() throws Exception {
+        when(ventaFlashService.estaActiva(1L)).thenReturn(true);
+        when(ventaFlashService.tomarTurno(1L)).thenReturn(new TurnoFlashDTO(null, "AGOTADO", null, null, null, null));
+
+        mockMvc.perform(post("/api/productos/{id}/flash/turno", 1L))
+
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.estado").value("AGOTADO"));
+    }
+
+    @Test
+    void testCanjear_TokenInvalido_RetornaConflict() throws Exception {
+        when(ventaFlashService.estaActiva(1L)).thenReturn(true);
+        when(ventaFlashService.canjear(1L, "abc"))
+                .thenThrow(new IllegalArgumentException("Token de compra inválido, vencido o ya utilizado."));
+
+        mockMvc.perform(post("/api/productos/{id}/flash/canjear", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"tokenCompra\":\"abc\"}"))
+
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testTomarTurno_SinVentaFlash_RetornaNotFound() throws Exception {
+        mockMvc.perform(post("/api/productos/{id}/flash/turno", 1L))
+
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,68 @@
+package com.microservicio.productostienda.inventario;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+public class ContadorStockTest {
+
+    @Test
+    void testReservar_RepartidoEntreFranjas() {
+        ContadorStock contador = new ContadorStock(10, 4);
+
+        assertEquals(4, contador.franjas());
+        assertTrue(contador.reservar(7));
+        assertEquals(3, contador.disponible());
+        assertFalse(contador.reservar(4));
+        assertEquals(3, contador.disponible());
+    }
+
+    @Test
+    void testReponer_SumaAlDisponible() {
+        ContadorStock contador = new ContadorStock(0, 8);
+
+        assertFalse(contador.reservar(1));
+        contador.reponer(5);
+
+        assertTrue(contador.reservar(5));
+        assertEquals(0, contador.disponible());
+    }
+
+    @Test
+    void testReservar_ConcurrenteNuncaSobrevende() throws Exception {
+        ContadorStock contador = new ContadorStock(10_000, 8);
+        ExecutorService hilos = Executors.newFixedThreadPool(16);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Integer>> resultados = new ArrayList<>();
+
+        for (int h = 0; h < 16; h++) {
+            resultados.add(hilos.submit(() -> {
+                largada.await();
+                int exitos = 0;
+                for (int i = 0; i < 2_000; i++) {
+                    if (contador.reservar(1 + i % 3)) {
+                        exitos += 1 + i % 3;
+                    }
+                }
+                return exitos;
+            }));
+        }
+        largada.countDown();
+
+        int vendidos = 0;
+        for (Future<Integer> resultado : resultados) {
+            vendidos += resultado.get();
+        }
+        hilos.shutdown();
+
+        assertEquals(10_000, vendidos + contador.disponible());
+        assertTrue(contador.disponible() < 3);
+    }
+}
@@ -0,0 +1,59 @@
+package com.microservicio.productostienda.inventario;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.microservicio.productostienda.inventario.DiarioInventario.Lote;
+import com.microservicio.productostienda.inventario.DiarioInventario.Movimiento;
+
+public class DiarioInventarioTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void testEscribirYLeer_ConservaLotesEnOrden() throws Exception {
+        Path archivo = directorio.resolve("diario.wal");
+        try (DiarioInventario diario = new DiarioInventario(archivo)) {
+            diario.escribir(new Lote(1, List.of(new Movimiento(5, -1), new Movimiento(5, -2))));
+            diario.escribir(new Lote(2, List.of(new Movimiento(6, 10))));
+        }
+
+        try (DiarioInventario diario = new DiarioInventario(archivo)) {
+            List<Lote> lotes = diario.leer();
+            assertEquals(2, lotes.size());
+            assertEquals(-3, lotes.get(0).deltasPorProducto().get(5L));
+            assertEquals(2, lotes.get(1).numero());
+        }
+    }
+
+    @Test
+    void testLeer_DescartaLoteIncompletoAlFinal() throws Exception {
+        Path archivo = directorio.resolve("diario.wal");
+        try (DiarioInventario diario = new DiarioInventario(archivo)) {
+            diario.escribir(new Lote(1, List.of(new Movimiento(5, -1))));
+        }
+        Files.write(archivo, new byte[] { 0, 0, 0, 0, 0, 0, 0, 2, 0, 0 }, StandardOpenOption.APPEND);
+
+        try (DiarioInventario diario = new DiarioInventario(archivo)) {
+            assertEquals(1, diario.leer().size());
+        }
+    }
+
+    @Test
+    void testTruncar_VaciaElArchivo() throws Exception {
+        try (DiarioInventario diario = new DiarioInventario(directorio.resolve("diario.wal"))) {
+            diario.escribir(new Lote(1, List.of(new Movimiento(5, -1))));
+            diario.truncar();
+
+            assertTrue(diario.leer().isEmpty());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.microservicio.productostienda.inventario;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LibroInventarioTest {
+
+    @TempDir
+    Path directorio;
+
+    private LibroInventario libro;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        libro = new LibroInventario(directorio.toString(), 4, 0, 60);
+    }
+
+    @AfterEach
+    void tearDown() {
+        libro.cerrar();
+    }
+
+    @Test
+    void testRegistrar_CalculaStockDesdeElUltimoConocido() {
+        libro.registrarStock(1L, 10, MotivoMovimiento.CREACION);
+        libro.registrar(1L, -3, 999, MotivoMovimiento.RESERVA);
+        libro.registrarStock(1L, 20, MotivoMovimiento.EDICION);
+
+        List<LibroInventario.Movimiento> historial = libro.historial(1L, null, null, 10);
+
+        assertEquals(3, historial.size());
+        assertEquals(MotivoMovimiento.EDICION, historial.get(0).motivo());
+        assertEquals(13, historial.get(0).delta());
+        assertEquals(20, historial.get(0).stock());
+        assertEquals(7, historial.get(1).stock());
+    }
+
+    @Test
+    void testRegistrar_SinHistoriaPreviaUsaStockObservado() {
+        libro.registrar(2L, -1, 41, MotivoMovimiento.RESERVA);
+
+        assertEquals(41, libro.ultimoStock(2L).getAsInt());
+    }
+
+    @Test
+    void testHistorial_SoloRecorreElProductoPedido() {
+        for (int i = 0; i < 10; i++) {
+            libro.registrarStock(1L + i % 2, i, MotivoMovimiento.EDICION);
+        }
+
+        List<LibroInventario.Movimiento> historial = libro.historial(2L, null, null, 3);
+
+        assertEquals(3, historial.size());
+        assertEquals(9, historial.get(0).stock());
+        assertEquals(7, historial.get(1).stock());
+    }
+
+    @Test
+    void testStockEn_PuntoEnElTiempo() throws Exception {
+        libro.registrarStock(1L, 10, MotivoMovimiento.CREACION);
+        Thread.sleep(5);
+        Instant intermedio = Instant.now();
+        Thread.sleep(5);
+        libro.registrar(1L, -4, 0, MotivoMovimiento.RESERVA);
+
+        assertEquals(10, libro.stockEn(1L, intermedio).getAsInt());
+        assertEquals(6, libro.stockEn(1L, Instant.now()).getAsInt());
+        assertTrue(libro.stockEn(1L, Instant.EPOCH).isEmpty());
+        assertTrue(libro.stockEn(99L, Instant.now()).isEmpty());
+    }
+
+    @Test
+    void testRecuperar_ReconstruyeIndiceDesdeSegmentos() throws Exception {
+        for (int i = 1; i <= 6; i++) {
+            libro.registrarStock(1L, i, MotivoMovimiento.EDICION);
+        }
+        libro.cerrar();
+
+        libro = new LibroInventario(directorio.toString(), 4, 0, 60);
+        libro.registrar(1L, -1, 0, MotivoMovimiento.RESERVA);
+
+        assertEquals(5, libro.ultimoStock(1L).getAsInt());
+        assertEquals(7, libro.historial(1L, null, null, 100).size());
+    }
+
+    @Test
+    void testCompactar_ConservaStockViaInstantanea() throws Exception {
+        libro.registrarStock(1L, 10, MotivoMovimiento.CREACION);
+        for (int i = 0; i < 8; i++) {
+            libro.registrarStock(2L, i, MotivoMovimiento.EDICION);
+        }
+        Instant despues = Instant.now();
+        libro.tomarInstantanea();
+
+        assertEquals(2, libro.compactar(System.currentTimeMillis() + 1));
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            assertEquals(1, archivos.filter(p -> p.toString().endsWith(".log")).count());
+        }
+        assertEquals(10, libro.stockEn(1L, despues).getAsInt());
+        assertEquals(10, libro.ultimoStock(1L).getAsInt());
+
+        libro.cerrar();
+        libro = new LibroInventario(directorio.toString(), 4, 0, 60);
+        libro.registrar(1L, -2, 0, MotivoMovimiento.RESERVA);
+        assertEquals(8, libro.ultimoStock(1L).getAsInt());
+    }
+
+    @Test
+    void testRecuperar_RegistroConMarcaPeroDatosRotos_TerminaElSegmento() throws Exception {
+        libro.registrarStock(1L, 10, MotivoMovimiento.CREACION);
+        libro.registrar(1L, -1, 0, MotivoMovimiento.RESERVA);
+        libro.registrar(1L, -1, 0, MotivoMovimiento.RESERVA);
+        libro.cerrar();
+
+        // Simula una página a medio escribir: el segundo registro conserva la marca pero no su stock.
+        try (FileChannel canal = FileChannel.open(SegmentoLibro.nombre(directorio, 0), StandardOpenOption.WRITE)) {
+            canal.write(ByteBuffer.wrap(new byte[] { 0x7F, 0x7F }), SegmentoLibro.TAMANO + 28);
+        }
+
+        libro = new LibroInventario(directorio.toString(), 4, 0, 60);
+
+        assertEquals(10, libro.ultimoStock(1L).getAsInt());
+        assertEquals(1, libro.historial(1L, null, null, 100).size());
+    }
+}
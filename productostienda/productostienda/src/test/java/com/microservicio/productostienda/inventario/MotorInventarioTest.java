@@ -0,0 +1,176 @@
+package com.microservicio.productostienda.inventario;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.microservicio.productostienda.event.ProductosModificadosEvent;
+import com.microservicio.productostienda.inventario.DiarioInventario.Lote;
+import com.microservicio.productostienda.inventario.DiarioInventario.Movimiento;
+import com.microservicio.productostienda.model.Categoria;
+import com.microservicio.productostienda.model.InventarioLote;
+import com.microservicio.productostienda.model.Producto;
+import com.microservicio.productostienda.repository.InventarioLoteRepository;
+import com.microservicio.productostienda.repository.ProductoRepository;
+
+public class MotorInventarioTest {
+
+    @TempDir
+    Path directorio;
+
+    private ProductoRepository productoRepository;
+    private InventarioLoteRepository inventarioLoteRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private MotorInventario motor;
+    private Producto producto;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        productoRepository = mock(ProductoRepository.class);
+        inventarioLoteRepository = mock(InventarioLoteRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        motor = crearMotor();
+
+        producto = new Producto(1L, "Rueda abdominal", "Doble rueda", 9990.0, 10, null, new Categoria(1L, "Accesorios"));
+        when(productoRepository.findAllById(any())).thenReturn(List.of(producto));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        motor.cerrar();
+    }
+
+    private MotorInventario crearMotor() throws Exception {
+        return new MotorInventario(productoRepository, inventarioLoteRepository, eventPublisher,
+                mock(PlatformTransactionManager.class), directorio.resolve("diario.wal").toString(), 4, 5, false, List.of());
+    }
+
+    @Test
+    void testAjustar_ProductoNoCaliente_LanzaExcepcion() {
+        assertThrows(IllegalStateException.class, () -> motor.ajustar(1L, -1));
+    }
+
+    @Test
+    void testAjustar_NoSobrevendeYNoTocaLaBaseHastaVaciar() {
+        motor.activar(producto);
+
+        assertTrue(motor.ajustar(1L, -4));
+        assertTrue(motor.ajustar(1L, -6));
+        assertFalse(motor.ajustar(1L, -1));
+        assertEquals(0, motor.stockDisponible(1L).getAsInt());
+        verify(productoRepository, never()).aplicarDeltaStock(anyLong(), anyInt());
+    }
+
+    @Test
+    void testVaciar_AplicaDeltaAgregadoYRegistraLote() throws Exception {
+        motor.activar(producto);
+        motor.ajustar(1L, -4);
+        motor.ajustar(1L, -2);
+        motor.ajustar(1L, 1);
+
+        motor.vaciar();
+
+        verify(productoRepository, times(1)).aplicarDeltaStock(1L, -5);
+        verify(inventarioLoteRepository).save(new InventarioLote(MotorInventario.ID_LOTE, 1L));
+        verify(eventPublisher).publishEvent(any(ProductosModificadosEvent.class));
+        assertEquals(5, producto.getStock());
+
+        try (DiarioInventario diario = new DiarioInventario(directorio.resolve("diario.wal"))) {
+            assertTrue(diario.leer().isEmpty());
+        }
+    }
+
+    @Test
+    void testRecuperar_ReaplicaSoloLotesPendientes() throws Exception {
+        motor.cerrar();
+        try (DiarioInventario diario = new DiarioInventario(directorio.resolve("diario.wal"))) {
+            diario.escribir(new Lote(3, List.of(new Movimiento(1L, -2))));
+            diario.escribir(new Lote(4, List.of(new Movimiento(1L, -3))));
+        }
+        when(inventarioLoteRepository.findById(MotorInventario.ID_LOTE))
+                .thenReturn(Optional.of(new InventarioLote(MotorInventario.ID_LOTE, 3L)));
+
+        motor = crearMotor();
+        motor.recuperar();
+
+        verify(productoRepository, never()).aplicarDeltaStock(1L, -2);
+        verify(productoRepository, times(1)).aplicarDeltaStock(1L, -3);
+        verify(inventarioLoteRepository).save(new InventarioLote(MotorInventario.ID_LOTE, 4L));
+    }
+
+    @Test
+    void testDesactivar_VaciaPendientes() {
+        motor.activar(producto);
+        motor.ajustar(1L, -3);
+
+        assertTrue(motor.desactivar(1L));
+
+        assertFalse(motor.esCaliente(1L));
+        verify(productoRepository, times(1)).aplicarDeltaStock(1L, -3);
+    }
+
+    @Test
+    void testAjustar_DentroDeTransaccion_RegistraAlConfirmarYRevierteSiNo() {
+        motor.activar(producto);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertTrue(motor.ajustar(1L, -4));
+            assertTrue(motor.ajustar(1L, -1));
+            assertEquals(5, motor.stockDisponible(1L).getAsInt());
+            motor.vaciar();
+            verify(productoRepository, never()).aplicarDeltaStock(anyLong(), anyInt());
+
+            List<TransactionSynchronization> sincronizaciones = TransactionSynchronizationManager.getSynchronizations();
+            sincronizaciones.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            sincronizaciones.get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(6, motor.stockDisponible(1L).getAsInt());
+        motor.vaciar();
+        verify(productoRepository, times(1)).aplicarDeltaStock(1L, -4);
+    }
+
+    @Test
+    void testProducto_CopiaConStockEnMemoria() {
+        motor.activar(producto);
+        motor.ajustar(1L, -3);
+
+        Producto copia = motor.producto(1L).orElseThrow();
+
+        assertEquals(7, copia.getStock());
+        assertEquals(10, producto.getStock());
+        assertEquals("Rueda abdominal", copia.getNombre());
+        assertTrue(motor.producto(2L).isEmpty());
+    }
+
+    @Test
+    void testAjustar_SinConfirmarATiempo_DevuelveLaUnidadYRetiraElMovimiento() throws Exception {
+        motor.cerrar();
+        // Intervalo largo: el vaciador no corre durante la espera y el movimiento sigue en cola al vencer.
+        motor = new MotorInventario(productoRepository, inventarioLoteRepository, eventPublisher,
+                mock(PlatformTransactionManager.class), directorio.resolve("diario.wal").toString(), 4, 60_000, true,
+                List.of(1L));
+        motor.inicializar();
+
+        assertThrows(RuntimeException.class, () -> motor.ajustar(1L, -1));
+
+        assertEquals(10, motor.stockDisponible(1L).getAsInt());
+        motor.vaciar();
+        verify(productoRepository, never()).aplicarDeltaStock(anyLong(), anyInt());
+    }
+}
@@ -0,0 +1,92 @@
+package com.microservicio.productostienda.inventario;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.microservicio.productostienda.inventario.SalaEsperaFlash.Estado;
+import com.microservicio.productostienda.inventario.SalaEsperaFlash.Turno;
+
+public class SalaEsperaFlashTest {
+
+    @Test
+    void testTomarTurno_MasAllaDeLaAsignacion_RechazaAgotado() {
+        SalaEsperaFlash sala = new SalaEsperaFlash(1L, 2, 10, 60_000);
+
+        assertEquals(Estado.EN_ESPERA, sala.tomarTurno().estado());
+        assertEquals(Estado.EN_ESPERA, sala.tomarTurno().estado());
+        assertEquals(Estado.AGOTADO, sala.tomarTurno().estado());
+        assertEquals(2, sala.enEspera());
+    }
+
+    @Test
+    void testAdmitir_RespetaTasaYOrdenFifo() {
+        SalaEsperaFlash sala = new SalaEsperaFlash(1L, 10, 10, 60_000);
+        for (int i = 0; i < 5; i++) {
+            sala.tomarTurno();
+        }
+
+        assertEquals(1, sala.admitir(100, 0));
+        assertEquals(Estado.ADMITIDO, sala.consultar(1, 0).estado());
+        assertEquals(Estado.EN_ESPERA, sala.consultar(2, 0).estado());
+        assertEquals(4, sala.consultar(5, 0).posicion());
+
+        assertEquals(3, sala.admitir(300, 0));
+        assertEquals(Estado.ADMITIDO, sala.consultar(4, 0).estado());
+        assertEquals(1, sala.consultar(5, 0).posicion());
+    }
+
+    @Test
+    void testCanjear_TokenSoloUnaVez() {
+        SalaEsperaFlash sala = new SalaEsperaFlash(1L, 1, 10, 60_000);
+        Turno turno = sala.tomarTurno();
+        sala.admitir(100, 0);
+        String token = sala.consultar(turno.numero(), 0).tokenCompra();
+
+        assertNotNull(token);
+        assertTrue(sala.canjear(token, 10));
+        assertFalse(sala.canjear(token, 20));
+        assertEquals(Estado.CANJEADO, sala.consultar(turno.numero(), 30).estado());
+    }
+
+    @Test
+    void testTokenVencido_LiberaCupo() {
+        SalaEsperaFlash sala = new SalaEsperaFlash(1L, 1, 10, 1_000);
+        Turno turno = sala.tomarTurno();
+        sala.admitir(100, 0);
+        String token = sala.consultar(turno.numero(), 0).tokenCompra();
+        assertEquals(Estado.AGOTADO, sala.tomarTurno().estado());
+
+        sala.admitir(100, 1_000);
+
+        assertFalse(sala.canjear(token, 1_000));
+        assertEquals(Estado.EXPIRADO, sala.consultar(turno.numero(), 1_000).estado());
+        assertEquals(1, sala.cuposLibres());
+        assertEquals(Estado.EN_ESPERA, sala.tomarTurno().estado());
+    }
+
+    @Test
+    void testApartar_SoltarDejaElTokenVigenteYDevolverSoloDeshaceUnCanjePendiente() {
+        SalaEsperaFlash sala = new SalaEsperaFlash(1L, 1, 10, 60_000);
+        Turno turno = sala.tomarTurno();
+        sala.admitir(100, 0);
+        String token = sala.consultar(turno.numero(), 0).tokenCompra();
+
+        assertTrue(sala.apartar(token, 10));
+        assertFalse(sala.apartar(token, 10));
+        sala.soltar(token);
+        assertEquals(Estado.ADMITIDO, sala.consultar(turno.numero(), 20).estado());
+
+        assertTrue(sala.apartar(token, 30));
+        sala.reservar(token);
+        assertEquals(Estado.CANJEADO, sala.consultar(turno.numero(), 30).estado());
+        assertTrue(sala.devolver(token));
+        assertFalse(sala.devolver(token));
+
+        // Con la venta registrada el canje es final.
+        assertTrue(sala.canjear(token, 40));
+        assertFalse(sala.devolver(token));
+        assertFalse(sala.apartar(token, 50));
+        assertEquals(Estado.CANJEADO, sala.consultar(turno.numero(), 50).estado());
+    }
+}
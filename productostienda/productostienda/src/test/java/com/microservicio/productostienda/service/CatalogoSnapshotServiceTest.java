@@ -0,0 +1,63 @@
+package com.microservicio.productostienda.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservicio.productostienda.model.Categoria;
+import com.microservicio.productostienda.model.Producto;
+import com.microservicio.productostienda.repository.ProductoRepository;
+
+public class CatalogoSnapshotServiceTest {
+
+    private ProductoRepository productoRepository;
+    private CatalogoSnapshotService catalogoSnapshotService;
+
+    @BeforeEach
+    void setUp() {
+        productoRepository = mock(ProductoRepository.class);
+        catalogoSnapshotService = new CatalogoSnapshotService(productoRepository, new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalogoSnapshotService.cerrar();
+    }
+
+    @Test
+    void testObtener_SinInstantanea_RetornaNull() {
+        assertNull(catalogoSnapshotService.obtener(null));
+    }
+
+    @Test
+    void testRegenerar_GeneraCatalogoCompletoYPorCategoria() throws Exception {
+        Categoria accesorios = new Categoria(1L, "Accesorios");
+        Categoria pesas = new Categoria(2L, "Pesas");
+        when(productoRepository.findAll()).thenReturn(List.of(
+                new Producto(1L, "Straps", "Correas", 7990.0, 25, "straps_fit", accesorios),
+                new Producto(2L, "Discos", "Discos", 49990.0, 20, "discos_fit", pesas)));
+
+        catalogoSnapshotService.regenerar();
+
+        CatalogoSnapshotService.Representacion completo = catalogoSnapshotService.obtener(null);
+        String json = new String(completo.json());
+        assertTrue(json.contains("Straps") && json.contains("Discos"));
+
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(completo.gzip()))) {
+            assertEquals(json, new String(gzip.readAllBytes()));
+        }
+
+        String soloPesas = new String(catalogoSnapshotService.obtener(2L).json());
+        assertTrue(soloPesas.contains("Discos") && !soloPesas.contains("Straps"));
+        assertEquals("[]", new String(catalogoSnapshotService.obtener(99L).json()));
+        assertNotEquals(completo.etag(), completo.etagGzip());
+    }
+}
@@ -0,0 +1,75 @@
+package com.microservicio.productostienda.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.microservicio.productostienda.model.Categoria;
+import com.microservicio.productostienda.repository.CategoriaRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class CategoriaRegistryTest {
+
+    @Mock
+    private CategoriaRepository categoriaRepository;
+
+    @InjectMocks
+    private CategoriaRegistry categoriaRegistry;
+
+    @BeforeEach
+    void setUp() {
+        when(categoriaRepository.findAll()).thenReturn(List.of(new Categoria(1L, "Accesorios"), new Categoria(2L, "Pesas")));
+        categoriaRegistry.recargar();
+    }
+
+    @Test
+    void testObtenerPorId_SinConsultarBaseDeDatos() {
+        Optional<Categoria> resultado = categoriaRegistry.obtenerPorId(2L);
+
+        assertTrue(resultado.isPresent());
+        assertEquals("Pesas", resultado.get().getNombre());
+        assertEquals("Accesorios", categoriaRegistry.obtenerPorNombre("Accesorios").get().getNombre());
+        verify(categoriaRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void testObtenerPorId_NoRegistrada_ConsultaUnaVezYRegistra() {
+        when(categoriaRepository.findById(3L)).thenReturn(Optional.of(new Categoria(3L, "Suplementos")));
+
+        assertTrue(categoriaRegistry.obtenerPorId(3L).isPresent());
+        assertTrue(categoriaRegistry.obtenerPorId(3L).isPresent());
+
+        verify(categoriaRepository, times(1)).findById(3L);
+        assertEquals(3, categoriaRegistry.listar().size());
+    }
+
+    @Test
+    void testRegistrar_CambiaEtag() {
+        String etagAnterior = categoriaRegistry.etag();
+
+        categoriaRegistry.registrar(new Categoria(2L, "Pesas Olímpicas"));
+
+        assertNotEquals(etagAnterior, categoriaRegistry.etag());
+        assertEquals(2, categoriaRegistry.listar().size());
+    }
+
+    @Test
+    void testObtener_DevuelveCopiasQueNoAlteranElRegistro() {
+        categoriaRegistry.obtenerPorId(1L).get().setNombre("Cambiada");
+        categoriaRegistry.obtenerPorNombre("Pesas").get().setNombre("Cambiada");
+        categoriaRegistry.listar().get(0).setId(99L);
+
+        assertEquals("Accesorios", categoriaRegistry.obtenerPorId(1L).get().getNombre());
+        assertEquals("Pesas", categoriaRegistry.obtenerPorId(2L).get().getNombre());
+        assertEquals(1L, categoriaRegistry.listar().get(0).getId());
+    }
+}
@@ -23,6 +23,9 @@ public class CategoriaServiceTest {
     @Mock
     private CategoriaRepository categoriaRepository;
 
+    @Mock
+    private CategoriaRegistry categoriaRegistry;
+
     @InjectMocks
     private CategoriaService categoriaService;
 
@@ -36,24 +39,24 @@ public class CategoriaServiceTest {
     @Test
     void testListarCategorias() {
         List<Categoria> listaEsperada = Arrays.asList(categoria, new Categoria(2L, "Ropa"));
-        when(categoriaRepository.findAll()).thenReturn(listaEsperada);
+        when(categoriaRegistry.listar()).thenReturn(listaEsperada);
 
         List<Categoria> resultado = categoriaService.listarCategorias();
 
         assertNotNull(resultado);
         assertEquals(2, resultado.size());
-        verify(categoriaRepository, times(1)).findAll();
+        verify(categoriaRepository, never()).findAll();
     }
 
     @Test
     void testObtenerPorId_Encontrado() {
-        when(categoriaRepository.findById(1L)).thenReturn(Optional.of(categoria));
+        when(categoriaRegistry.obtenerPorId(1L)).thenReturn(Optional.of(categoria));
 
         Optional<Categoria> resultado = categoriaService.obtenerPorId(1L);
 
         assertTrue(resultado.isPresent());
         assertEquals("Calzado Deportivo", resultado.get().getNombre());
-        verify(categoriaRepository, times(1)).findById(1L);
+        verify(categoriaRepository, never()).findById(1L);
     }
     
     @Test
@@ -67,5 +70,6 @@ public class CategoriaServiceTest {
         assertNotNull(resultado);
         assertEquals(3L, resultado.getId());
         verify(categoriaRepository, times(1)).save(nuevaCategoria);
+        verify(categoriaRegistry, times(1)).registrar(categoriaGuardada);
     }
 }
\ No newline at end of file
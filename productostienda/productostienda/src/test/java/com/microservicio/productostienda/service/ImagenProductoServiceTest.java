@@ -0,0 +1,105 @@
+package com.microservicio.productostienda.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+public class ImagenProductoServiceTest {
+
+    @TempDir
+    Path directorio;
+
+    private ImagenProductoService imagenProductoService;
+
+    @BeforeEach
+    void setUp() {
+        imagenProductoService = new ImagenProductoService(directorio.toString(), 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        imagenProductoService.cerrar();
+    }
+
+    private byte[] png(int ancho, int alto) throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_ARGB), "png", salida);
+        return salida.toByteArray();
+    }
+
+    @Test
+    void testGuardarImagen_RutaDerivadaDelContenido() throws Exception {
+        byte[] contenido = png(40, 20);
+        MockMultipartFile archivo = new MockMultipartFile("archivo", "foto.png", "image/png", contenido);
+
+        String primera = imagenProductoService.guardarImagen(7L, archivo);
+        String segunda = imagenProductoService.guardarImagen(7L, archivo);
+
+        assertTrue(primera.startsWith("/imagenes/7-"));
+        assertEquals(primera, segunda);
+        assertTrue(Files.exists(directorio.resolve(primera.substring("/imagenes/".length())).resolve("original.png")));
+    }
+
+    @Test
+    void testGuardarImagen_FormatoNoSoportado() {
+        MockMultipartFile archivo = new MockMultipartFile("archivo", "doc.pdf", "application/pdf", new byte[] { 1, 2 });
+
+        assertThrows(IllegalArgumentException.class, () -> imagenProductoService.guardarImagen(7L, archivo));
+    }
+
+    @Test
+    void testGenerarVariantes_RespetaLadoMaximo() throws Exception {
+        Path carpeta = Files.createDirectories(directorio.resolve("9-prueba"));
+        Path original = Files.write(carpeta.resolve("original.png"), png(2000, 1000));
+
+        imagenProductoService.generarVariantes(original);
+
+        BufferedImage thumbnail = ImageIO.read(carpeta.resolve("thumbnail.jpg").toFile());
+        BufferedImage card = ImageIO.read(carpeta.resolve("card.jpg").toFile());
+        BufferedImage detail = ImageIO.read(carpeta.resolve("detail.jpg").toFile());
+        assertEquals(160, thumbnail.getWidth());
+        assertEquals(80, thumbnail.getHeight());
+        assertEquals(480, card.getWidth());
+        assertEquals(1080, detail.getWidth());
+    }
+
+    @Test
+    void testGenerarVariantes_NoAmpliaImagenesPequenas() throws Exception {
+        Path carpeta = Files.createDirectories(directorio.resolve("9-pequena"));
+        Path original = Files.write(carpeta.resolve("original.png"), png(100, 50));
+
+        imagenProductoService.generarVariantes(original);
+
+        assertEquals(100, ImageIO.read(carpeta.resolve("detail.jpg").toFile()).getWidth());
+    }
+
+    @Test
+    void testGuardarImagen_PoolSaturado_NoBorraUnaImagenYaPublicada() throws Exception {
+        byte[] contenido = png(40, 20);
+        String ruta = imagenProductoService.guardarImagen(7L, new MockMultipartFile("archivo", "foto.png", "image/png", contenido));
+        Path original = directorio.resolve(ruta.substring(ImagenProductoService.RUTA_PUBLICA.length())).resolve("original.png");
+        imagenProductoService.cerrar();
+
+        assertThrows(RejectedExecutionException.class,
+                () -> imagenProductoService.guardarImagen(7L, new MockMultipartFile("archivo", "foto.png", "image/png", contenido)));
+        assertTrue(Files.exists(original));
+
+        assertThrows(RejectedExecutionException.class,
+                () -> imagenProductoService.guardarImagen(8L, new MockMultipartFile("archivo", "otra.png", "image/png", contenido)));
+        try (var carpetas = Files.list(directorio)) {
+            assertTrue(carpetas.noneMatch(c -> c.getFileName().toString().startsWith("8-")));
+        }
+    }
+}
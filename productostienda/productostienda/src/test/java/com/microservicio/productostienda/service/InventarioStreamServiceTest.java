@@ -0,0 +1,86 @@
+package com.microservicio.productostienda.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.microservicio.productostienda.dto.DeltaInventarioDTO;
+
+public class InventarioStreamServiceTest {
+
+    private InventarioStreamService inventarioStreamService;
+    private InventarioStreamService.Suscriptor suscriptor;
+
+    @BeforeEach
+    void setUp() {
+        inventarioStreamService = new InventarioStreamService();
+        suscriptor = new InventarioStreamService.Suscriptor(new SseEmitter());
+    }
+
+    @AfterEach
+    void tearDown() {
+        inventarioStreamService.cerrar();
+    }
+
+    @Test
+    void testSuscribir_RegistraSuscriptor() {
+        assertNotNull(inventarioStreamService.suscribir());
+        assertEquals(1, inventarioStreamService.cantidadSuscriptores());
+    }
+
+    @Test
+    void testEncolar_MismoProducto_ConservaSoloElUltimoCambio() {
+        assertTrue(suscriptor.encolar(List.of(new DeltaInventarioDTO(1L, 10, 100.0, null))));
+        assertFalse(suscriptor.encolar(List.of(new DeltaInventarioDTO(1L, 9, 100.0, null))));
+
+        List<DeltaInventarioDTO> lote = suscriptor.tomarPendientes();
+
+        assertEquals(1, lote.size());
+        assertEquals(9, lote.get(0).getStock());
+        assertTrue(suscriptor.tomarPendientes().isEmpty());
+    }
+
+    @Test
+    void testEncolar_ClienteLento_DescartaLosMasAntiguos() {
+        List<DeltaInventarioDTO> deltas = new ArrayList<>();
+        for (long id = 1; id <= InventarioStreamService.MAX_PENDIENTES + 10; id++) {
+            deltas.add(new DeltaInventarioDTO(id, 1, 1.0, null));
+        }
+
+        suscriptor.encolar(deltas);
+        List<DeltaInventarioDTO> lote = suscriptor.tomarPendientes();
+
+        assertEquals(InventarioStreamService.MAX_PENDIENTES, lote.size());
+        assertEquals(11L, lote.get(0).getId());
+    }
+
+    @Test
+    void testEncolarPing_ViajaPorLaMismaColaQueLosDeltas() {
+        assertTrue(suscriptor.encolarPing());
+        assertFalse(suscriptor.encolar(List.of(new DeltaInventarioDTO(1L, 10, 100.0, null))));
+
+        InventarioStreamService.Envio envio = suscriptor.tomarEnvio();
+
+        assertTrue(envio.ping());
+        assertEquals(1, envio.deltas().size());
+        assertNull(suscriptor.tomarEnvio());
+        assertTrue(suscriptor.encolarPing());
+    }
+
+    @Test
+    void testEnviandoHace_SoloMideMientrasHayUnEnvioEnCurso() {
+        assertEquals(0, suscriptor.enviandoHace(10_000));
+
+        suscriptor.iniciarEnvio(1_000);
+        assertEquals(InventarioStreamService.ENVIO_MAX_MS + 1, suscriptor.enviandoHace(1_001 + InventarioStreamService.ENVIO_MAX_MS));
+
+        suscriptor.terminarEnvio();
+        assertEquals(0, suscriptor.enviandoHace(10_000));
+    }
+}
@@ -0,0 +1,109 @@
+package com.microservicio.productostienda.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.microservicio.productostienda.client.VentaClient;
+import com.microservicio.productostienda.dto.DetalleVendidoDTO;
+import com.microservicio.productostienda.model.PopularidadEstado;
+import com.microservicio.productostienda.model.ProductoPopularidad;
+import com.microservicio.productostienda.repository.PopularidadEstadoRepository;
+import com.microservicio.productostienda.repository.ProductoPopularidadRepository;
+
+import reactor.core.publisher.Mono;
+
+public class PopularidadServiceTest {
+
+    private VentaClient ventaClient;
+    private ProductoPopularidadRepository popularidadRepository;
+    private PopularidadEstadoRepository estadoRepository;
+    private PopularidadService popularidadService;
+    private LocalDate hoy;
+
+    @BeforeEach
+    void setUp() {
+        ventaClient = mock(VentaClient.class);
+        popularidadRepository = mock(ProductoPopularidadRepository.class);
+        estadoRepository = mock(PopularidadEstadoRepository.class);
+        popularidadService = new PopularidadService(ventaClient, popularidadRepository, estadoRepository,
+                mock(PlatformTransactionManager.class), 24, 30, 0);
+        hoy = LocalDate.now(ZoneId.systemDefault());
+    }
+
+    @Test
+    void testOrdenar_VentasRecientesPesanMasQueAntiguas() {
+        // 3 unidades hace 3 días (vida media 1 día) valen menos que 1 unidad de hoy.
+        popularidadService.aplicar(List.of(
+                new DetalleVendidoDTO(1L, 1L, 10L, 3, hoy.minusDays(3)),
+                new DetalleVendidoDTO(2L, 1L, 20L, 1, hoy)), Instant.now());
+
+        assertEquals(List.of(20L, 10L, 30L), popularidadService.ordenar(List.of(10L, 20L, 30L), id -> id));
+        assertTrue(popularidadService.puntajeActual(20L) > popularidadService.puntajeActual(10L));
+        assertEquals(0, popularidadService.puntajeActual(30L));
+    }
+
+    @Test
+    void testSincronizar_AvanzaCursorYPersisteJunto() {
+        when(ventaClient.detallesDesde(0L, PopularidadService.TAMANO_PAGINA))
+                .thenReturn(Mono.just(List.of(new DetalleVendidoDTO(7L, 1L, 10L, 2, hoy))));
+
+        Instant ahora = Instant.now();
+        popularidadService.sincronizar(ahora);
+        assertEquals(0L, popularidadService.getUltimoDetalle());
+        verify(estadoRepository, never()).save(any());
+
+        popularidadService.sincronizar(ahora.plusSeconds(CursorDetalles.SEGUNDOS_CONFIRMACION));
+
+        assertEquals(7L, popularidadService.getUltimoDetalle());
+        verify(popularidadRepository).saveAll(argThat(filas -> ((List<ProductoPopularidad>) filas).size() == 1));
+        verify(estadoRepository).save(argThat(estado -> estado.getUltimoDetalle() == 7L));
+    }
+
+    @Test
+    void testSincronizar_DetalleConfirmadoTardeNoSeSalta() {
+        // El 6 se confirma después del 7: el cursor no puede pasar del 7 antes de que venza la ventana.
+        when(ventaClient.detallesDesde(0L, PopularidadService.TAMANO_PAGINA))
+                .thenReturn(Mono.just(List.of(
+                        new DetalleVendidoDTO(5L, 1L, 10L, 1, hoy),
+                        new DetalleVendidoDTO(7L, 3L, 10L, 1, hoy))))
+                .thenReturn(Mono.just(List.of(
+                        new DetalleVendidoDTO(5L, 1L, 10L, 1, hoy),
+                        new DetalleVendidoDTO(6L, 2L, 20L, 4, hoy),
+                        new DetalleVendidoDTO(7L, 3L, 10L, 1, hoy),
+                        new DetalleVendidoDTO(9L, 4L, 30L, 1, hoy))));
+
+        Instant ahora = Instant.now();
+        popularidadService.sincronizar(ahora);
+        popularidadService.sincronizar(ahora.plusSeconds(CursorDetalles.SEGUNDOS_CONFIRMACION));
+
+        assertEquals(7L, popularidadService.getUltimoDetalle());
+        assertEquals(List.of(20L, 10L, 30L), popularidadService.ordenar(List.of(10L, 20L, 30L), id -> id));
+        assertEquals(0, popularidadService.puntajeActual(30L));
+    }
+
+    @Test
+    void testCargar_RetomaDesdeElCursorGuardado() {
+        when(estadoRepository.findById(PopularidadService.ID_ESTADO))
+                .thenReturn(Optional.of(new PopularidadEstado(PopularidadService.ID_ESTADO, 40L, System.currentTimeMillis())));
+        when(popularidadRepository.findAll()).thenReturn(List.of(new ProductoPopularidad(10L, 5.0)));
+        when(ventaClient.detallesDesde(40L, PopularidadService.TAMANO_PAGINA)).thenReturn(Mono.just(List.of()));
+
+        popularidadService.cargar();
+        popularidadService.sincronizar(Instant.now());
+
+        verify(ventaClient).detallesDesde(40L, PopularidadService.TAMANO_PAGINA);
+        assertEquals(5.0, popularidadService.puntajeActual(10L), 0.01);
+        verify(popularidadRepository, never()).saveAll(any());
+    }
+}
@@ -0,0 +1,89 @@
+package com.microservicio.productostienda.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.microservicio.productostienda.dto.CambiosCatalogoDTO;
+import com.microservicio.productostienda.event.ProductosModificadosEvent;
+import com.microservicio.productostienda.inventario.MotorInventario;
+import com.microservicio.productostienda.model.Categoria;
+import com.microservicio.productostienda.model.Producto;
+import com.microservicio.productostienda.model.ProductoCambio;
+import com.microservicio.productostienda.repository.ProductoCambioRepository;
+import com.microservicio.productostienda.repository.ProductoRepository;
+
+public class ProductoCambioServiceTest {
+
+    private ProductoCambioRepository productoCambioRepository;
+    private ProductoRepository productoRepository;
+    private ProductoCambioService productoCambioService;
+    private Producto producto;
+
+    @BeforeEach
+    void setUp() {
+        productoCambioRepository = mock(ProductoCambioRepository.class);
+        productoRepository = mock(ProductoRepository.class);
+        productoCambioService = new ProductoCambioService(productoCambioRepository, productoRepository,
+                mock(MotorInventario.class), mock(PlatformTransactionManager.class));
+        producto = new Producto(1L, "Mancuerna", "10kg", 19990.0, 4, null, new Categoria(1L, "Pesas"));
+    }
+
+    @Test
+    void testAlModificarProductos_ReemplazaLaFilaDelProducto() {
+        productoCambioService.alModificarProductos(new ProductosModificadosEvent(List.of(producto), List.of(9L)));
+
+        verify(productoCambioRepository).eliminarPorProductos(List.of(1L, 9L));
+        verify(productoCambioRepository).saveAll(argThat(filas -> {
+            List<ProductoCambio> lista = (List<ProductoCambio>) filas;
+            return lista.size() == 2 && !lista.get(0).getEliminado() && lista.get(1).getEliminado();
+        }));
+    }
+
+    @Test
+    void testCambiosDesde_DevuelveModificadosEliminadosYMarca() {
+        LocalDateTime fecha = LocalDateTime.now().minusMinutes(1);
+        when(productoCambioRepository.findBySecuenciaGreaterThanAndFechaBeforeOrderBySecuenciaAsc(eq(10L), any(), any()))
+                .thenReturn(List.of(new ProductoCambio(11L, 1L, false, fecha),
+                        new ProductoCambio(12L, 9L, true, fecha),
+                        new ProductoCambio(13L, 5L, false, fecha)));
+        when(productoRepository.findAllById(List.of(1L, 5L))).thenReturn(List.of(producto));
+
+        CambiosCatalogoDTO cambios = productoCambioService.cambiosDesde(10L, 500);
+
+        assertEquals(13L, cambios.getHasta());
+        assertFalse(cambios.getHayMas());
+        assertEquals(List.of(producto), cambios.getProductos());
+        assertEquals(List.of(9L, 5L), cambios.getEliminados());
+    }
+
+    @Test
+    void testCambiosDesde_SinCambios_MantieneMarca() {
+        when(productoCambioRepository.findBySecuenciaGreaterThanAndFechaBeforeOrderBySecuenciaAsc(eq(10L), any(), any()))
+                .thenReturn(List.of());
+
+        CambiosCatalogoDTO cambios = productoCambioService.cambiosDesde(10L, 500);
+
+        assertEquals(10L, cambios.getHasta());
+        assertTrue(cambios.getProductos().isEmpty());
+    }
+
+    @Test
+    void testCambiosDesde_SinMarca_CatalogoCompleto() {
+        when(productoCambioRepository.ultimaSecuenciaAntesDe(any())).thenReturn(Optional.of(42L));
+        when(productoRepository.findAll()).thenReturn(List.of(producto));
+
+        CambiosCatalogoDTO cambios = productoCambioService.cambiosDesde(null, 500);
+
+        assertEquals(42L, cambios.getHasta());
+        assertEquals(1, cambios.getProductos().size());
+    }
+}
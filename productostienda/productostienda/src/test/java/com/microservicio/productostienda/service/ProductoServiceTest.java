@@ -4,8 +4,12 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.OptionalInt;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,10 +17,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.microservicio.productostienda.dto.ActualizacionMasivaDTO;
+import com.microservicio.productostienda.dto.OperacionProductoDTO;
+import com.microservicio.productostienda.event.ProductosModificadosEvent;
+import com.microservicio.productostienda.inventario.LibroInventario;
+import com.microservicio.productostienda.inventario.MotivoMovimiento;
+import com.microservicio.productostienda.inventario.MotorInventario;
 import com.microservicio.productostienda.model.Categoria;
 import com.microservicio.productostienda.model.Producto;
-import com.microservicio.productostienda.repository.CategoriaRepository;
 import com.microservicio.productostienda.repository.ProductoRepository;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,7 +36,16 @@ public class ProductoServiceTest {
     private ProductoRepository productoRepository;
 
     @Mock
-    private CategoriaRepository categoriaRepository;
+    private CategoriaRegistry categoriaRegistry;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private MotorInventario motorInventario;
+
+    @Mock
+    private LibroInventario libroInventario;
 
     @InjectMocks
     private ProductoService productoService;
@@ -59,7 +78,7 @@ public class ProductoServiceTest {
     @Test
     void testGuardarProducto_ExisteCategoria_RetornaProductoConCategoriaCompleta() {
         
-        when(categoriaRepository.findById(1L)).thenReturn(Optional.of(categoria));
+        when(categoriaRegistry.obtenerPorId(1L)).thenReturn(Optional.of(categoria));
         
         when(productoRepository.save(any(Producto.class))).thenReturn(productoGuardado);
 
@@ -76,14 +95,14 @@ public class ProductoServiceTest {
         assertEquals(productoGuardado.getImagenUri(), resultado.getImagenUri());
         
        
-        verify(categoriaRepository, times(1)).findById(1L);
+        verify(categoriaRegistry, times(1)).obtenerPorId(1L);
         verify(productoRepository, times(1)).save(any(Producto.class));
     }
 
     @Test
     void testGuardarProducto_CategoriaNoExiste_LanzaRuntimeException() {
        
-        when(categoriaRepository.findById(1L)).thenReturn(Optional.empty());
+        when(categoriaRegistry.obtenerPorId(1L)).thenReturn(Optional.empty());
 
        
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -94,7 +113,7 @@ public class ProductoServiceTest {
         assertTrue(exception.getMessage().contains("Categoría no encontrada con ID: 1"));
         
         
-        verify(categoriaRepository, times(1)).findById(1L);
+        verify(categoriaRegistry, times(1)).obtenerPorId(1L);
         verify(productoRepository, never()).save(any(Producto.class));
     }
 
@@ -151,4 +170,107 @@ public class ProductoServiceTest {
         
         verify(productoRepository, times(1)).deleteById(1L);
     }
-}
\ No newline at end of file
+
+    
+
+    @Test
+    void testActualizarMasivo_OperacionesYCategoria_NotificaUnaSolaVez() {
+        when(productoRepository.actualizarPrecio(1L, 9990.0)).thenReturn(1);
+        when(productoRepository.ajustarStock(1L, 5)).thenReturn(1);
+        when(productoRepository.findAllById(any())).thenReturn(List.of(productoGuardado));
+        when(productoRepository.findByCategoriaId(1L)).thenReturn(List.of(productoGuardado));
+
+        ActualizacionMasivaDTO solicitud = new ActualizacionMasivaDTO(
+                List.of(new OperacionProductoDTO(1L, 9990.0, 5)), 1L, -10.0);
+
+        List<Producto> resultado = productoService.actualizarMasivo(solicitud);
+
+        assertEquals(1, resultado.size());
+        verify(productoRepository, times(1)).ajustarPrecioPorCategoria(1L, 0.9);
+        verify(productoRepository, never()).save(any(Producto.class));
+        verify(eventPublisher, times(1)).publishEvent(any(ProductosModificadosEvent.class));
+    }
+
+    @Test
+    void testActualizarMasivo_StockInsuficiente_LanzaRuntimeException() {
+        when(productoRepository.ajustarStock(1L, -100)).thenReturn(0);
+
+        ActualizacionMasivaDTO solicitud = new ActualizacionMasivaDTO(
+                List.of(new OperacionProductoDTO(1L, null, -100)), null, null);
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            productoService.actualizarMasivo(solicitud);
+        });
+
+        assertTrue(exception.getMessage().contains("Stock insuficiente"));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testActualizarMasivo_PorcentajeSinCategoria_LanzaRuntimeException() {
+        ActualizacionMasivaDTO solicitud = new ActualizacionMasivaDTO(
+                List.of(new OperacionProductoDTO(1L, 100.0, null)), null, 10.0);
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            productoService.actualizarMasivo(solicitud);
+        });
+
+        assertTrue(exception.getMessage().contains("categoría"));
+        verify(productoRepository, never()).actualizarPrecio(anyLong(), anyDouble());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testReservarStock_ProductoCaliente_NoUsaSql() {
+        when(motorInventario.esCaliente(1L)).thenReturn(true);
+        when(motorInventario.ajustar(1L, -2)).thenReturn(true);
+        productoGuardado.setStock(48);
+        when(motorInventario.producto(1L)).thenReturn(Optional.of(productoGuardado));
+
+        Producto resultado = productoService.reservarStock(1L, 2);
+
+        assertEquals(48, resultado.getStock());
+        verify(productoRepository, never()).ajustarStock(anyLong(), anyInt());
+        verify(productoRepository, never()).findById(anyLong());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testReservarStock_ProductoFrio_UsaUpdateCondicional() {
+        when(productoRepository.ajustarStock(1L, -2)).thenReturn(1);
+        when(productoRepository.findById(1L)).thenReturn(Optional.of(productoGuardado));
+
+        productoService.reservarStock(1L, 2);
+
+        verify(productoRepository, times(1)).ajustarStock(1L, -2);
+        verify(motorInventario, never()).ajustar(anyLong(), anyInt());
+        verify(libroInventario, times(1)).registrar(1L, -2, 50, MotivoMovimiento.RESERVA);
+        verify(eventPublisher, times(1)).publishEvent(any(ProductosModificadosEvent.class));
+    }
+
+    @Test
+    void testReservarStock_SinStock_LanzaRuntimeException() {
+        when(productoRepository.ajustarStock(1L, -99)).thenReturn(0);
+
+        assertThrows(RuntimeException.class, () -> productoService.reservarStock(1L, 99));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testListarCampos_ProyectaYSobreponeStockCaliente() {
+        Map<String, Object> fila = new HashMap<>(Map.of("id", 1L, "nombre", "Mancuerna", "stock", 5));
+        when(productoRepository.buscarCampos(Set.of("nombre", "stock"), null, null)).thenReturn(List.of(fila));
+        when(motorInventario.stockDisponible(1L)).thenReturn(OptionalInt.of(3));
+
+        List<Map<String, Object>> resultado = productoService.listarCampos("nombre, stock", null);
+
+        assertEquals(1, resultado.size());
+        assertEquals(3, resultado.get(0).get("stock"));
+    }
+
+    @Test
+    void testListarCampos_CampoDesconocido() {
+        assertThrows(IllegalArgumentException.class, () -> productoService.listarCampos("nombre,clave", null));
+        verify(productoRepository, never()).buscarCampos(any(), any(), any());
+    }
+}
@@ -0,0 +1,159 @@
+package com.microservicio.productostienda.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.microservicio.productostienda.client.VentaClient;
+import com.microservicio.productostienda.dto.DetalleVendidoDTO;
+import com.microservicio.productostienda.model.Producto;
+import com.microservicio.productostienda.repository.ProductoRepository;
+import com.microservicio.productostienda.util.LongIntMap;
+
+import reactor.core.publisher.Mono;
+
+public class RecomendacionServiceTest {
+
+    private VentaClient ventaClient;
+    private ProductoRepository productoRepository;
+    private RecomendacionService recomendacionService;
+    private long siguienteDetalle;
+    private Instant ahora;
+
+    @BeforeEach
+    void setUp() {
+        ventaClient = mock(VentaClient.class);
+        productoRepository = mock(ProductoRepository.class);
+        recomendacionService = new RecomendacionService(ventaClient, productoRepository, 3, 60);
+        siguienteDetalle = 1;
+        ahora = Instant.now();
+    }
+
+    // Cada detalle se lee dos veces: la primera lectura solo abre la ventana de confirmación.
+    private void sincronizarConfirmando() {
+        recomendacionService.sincronizar(ahora);
+        ahora = ahora.plusSeconds(CursorDetalles.SEGUNDOS_CONFIRMACION);
+        recomendacionService.sincronizar(ahora);
+    }
+
+    private List<DetalleVendidoDTO> venta(long ventaId, long... productos) {
+        List<DetalleVendidoDTO> detalles = new ArrayList<>();
+        for (long producto : productos) {
+            detalles.add(new DetalleVendidoDTO(siguienteDetalle++, ventaId, producto, 1, LocalDate.now()));
+        }
+        return detalles;
+    }
+
+    @Test
+    void testConstruir_CuentaCoocurrenciasEnParalelo() {
+        List<DetalleVendidoDTO> historial = new ArrayList<>();
+        // Suficientes ventas para que el conteo se divida en varias tareas.
+        for (long v = 1; v <= 3 * RecomendacionService.UMBRAL_PARALELO; v++) {
+            historial.addAll(v % 3 == 0 ? venta(v, 1, 2, 3) : venta(v, 1, 2));
+        }
+        historial.addAll(venta(99_999, 1, 4, 4));
+        when(ventaClient.detallesDesde(anyLong(), anyInt())).thenAnswer(inv -> {
+            long desde = inv.getArgument(0);
+            return Mono.just(historial.stream().filter(d -> d.getDetalleId() > desde)
+                    .limit(RecomendacionService.TAMANO_PAGINA).toList());
+        });
+
+        sincronizarConfirmando();
+
+        assertArrayEquals(new long[] {2, 3, 4}, recomendacionService.idsRelacionados(1L, 10));
+        assertArrayEquals(new long[] {1, 2}, recomendacionService.idsRelacionados(3L, 10));
+        assertArrayEquals(new long[] {1}, recomendacionService.idsRelacionados(4L, 10));
+    }
+
+    @Test
+    void testConstruir_HistorialDeVariasPaginas_AceptaTodoMenosLaUltimaSinEsperar() {
+        List<DetalleVendidoDTO> historial = new ArrayList<>();
+        for (long v = 1; v <= RecomendacionService.TAMANO_PAGINA; v++) {
+            historial.addAll(venta(v, 1, 2));
+        }
+        historial.addAll(venta(99_999, 1, 4));
+        when(ventaClient.detallesDesde(anyLong(), anyInt())).thenAnswer(inv -> {
+            long desde = inv.getArgument(0);
+            return Mono.just(historial.stream().filter(d -> d.getDetalleId() > desde)
+                    .limit(RecomendacionService.TAMANO_PAGINA).toList());
+        });
+
+        recomendacionService.sincronizar(ahora);
+        assertArrayEquals(new long[] {2}, recomendacionService.idsRelacionados(1L, 10));
+
+        // La última página llega con la ventana de confirmación, sin volver a bajar el historial.
+        ahora = ahora.plusSeconds(CursorDetalles.SEGUNDOS_CONFIRMACION);
+        recomendacionService.sincronizar(ahora);
+        assertArrayEquals(new long[] {2, 4}, recomendacionService.idsRelacionados(1L, 10));
+        verify(ventaClient, times(1)).detallesDesde(eq(0L), anyInt());
+    }
+
+    @Test
+    void testSincronizar_SumaVentasNuevasIncluidaUnaPartida() {
+        List<DetalleVendidoDTO> inicial = venta(1, 1, 2);
+        inicial.addAll(venta(2, 5));
+        List<DetalleVendidoDTO> nuevos = venta(2, 1);
+        nuevos.addAll(venta(3, 1, 5));
+        when(ventaClient.detallesDesde(0L, RecomendacionService.TAMANO_PAGINA)).thenReturn(Mono.just(inicial));
+        when(ventaClient.detallesDesde(3L, RecomendacionService.TAMANO_PAGINA)).thenReturn(Mono.just(nuevos));
+
+        sincronizarConfirmando();
+        assertArrayEquals(new long[] {2}, recomendacionService.idsRelacionados(1L, 10));
+
+        ahora = ahora.plusSeconds(CursorDetalles.SEGUNDOS_CONFIRMACION);
+        sincronizarConfirmando();
+        assertArrayEquals(new long[] {5, 2}, recomendacionService.idsRelacionados(1L, 10));
+        assertArrayEquals(new long[] {1}, recomendacionService.idsRelacionados(5L, 10));
+    }
+
+    @Test
+    void testSincronizar_VentaConfirmadaTardeNoSeSalta() {
+        List<DetalleVendidoDTO> inicial = venta(1, 1, 2);
+        List<DetalleVendidoDTO> tardia = venta(2, 1, 3);
+        List<DetalleVendidoDTO> nueva = venta(3, 1, 4);
+        List<DetalleVendidoDTO> todas = new ArrayList<>(inicial);
+        todas.addAll(tardia);
+        todas.addAll(nueva);
+        when(ventaClient.detallesDesde(0L, RecomendacionService.TAMANO_PAGINA)).thenReturn(Mono.just(inicial));
+        sincronizarConfirmando();
+
+        // La venta 3 aparece antes que la 2, que tenía IDs menores pero confirmó después.
+        when(ventaClient.detallesDesde(2L, RecomendacionService.TAMANO_PAGINA))
+                .thenReturn(Mono.just(nueva))
+                .thenReturn(Mono.just(todas.subList(2, 6)));
+        sincronizarConfirmando();
+
+        assertArrayEquals(new long[] {2, 3, 4}, recomendacionService.idsRelacionados(1L, 10));
+    }
+
+    @Test
+    void testCalcularTopK_OrdenaYRecorta() {
+        LongIntMap fila = new LongIntMap();
+        for (long id = 1; id <= 50; id++) {
+            fila.put(id, (int) (id % 7));
+        }
+
+        RecomendacionService.Relacionados top = RecomendacionService.calcularTopK(fila, 3);
+
+        assertArrayEquals(new long[] {6, 13, 20}, top.ids());
+        assertArrayEquals(new int[] {6, 6, 6}, top.veces());
+    }
+
+    @Test
+    void testRelacionados_OmiteEliminados() {
+        when(ventaClient.detallesDesde(0L, RecomendacionService.TAMANO_PAGINA)).thenReturn(Mono.just(venta(1, 1, 2, 3)));
+        sincronizarConfirmando();
+        Producto tres = new Producto();
+        tres.setId(3L);
+        when(productoRepository.findAllById(List.of(2L, 3L))).thenReturn(List.of(tres));
+
+        assertEquals(List.of(tres), recomendacionService.relacionados(1L, 10));
+    }
+}
@@ -0,0 +1,79 @@
+package com.microservicio.productostienda.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.microservicio.productostienda.dto.ConfiguracionFlashDTO;
+import com.microservicio.productostienda.inventario.SalaEsperaFlash;
+import com.microservicio.productostienda.model.Producto;
+
+@ExtendWith(MockitoExtension.class)
+public class VentaFlashServiceTest {
+
+    @Mock
+    private ProductoService productoService;
+
+    private VentaFlashService ventaFlashService;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        ventaFlashService = new VentaFlashService(productoService);
+        Producto producto = new Producto();
+        producto.setId(1L);
+        producto.setStock(1);
+        when(productoService.activarModoCaliente(1L)).thenReturn(producto);
+
+        SalaEsperaFlash sala = ventaFlashService.activar(1L, new ConfiguracionFlashDTO(10.0, 60));
+        long turno = sala.tomarTurno().numero();
+        sala.admitir(100, System.currentTimeMillis());
+        token = sala.consultar(turno, System.currentTimeMillis()).tokenCompra();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ventaFlashService.cerrar();
+    }
+
+    @Test
+    void testCanjear_ReservaFallida_NoConsumeElToken() {
+        when(productoService.reservarStock(1L, 1))
+                .thenThrow(new RuntimeException("Stock insuficiente"))
+                .thenReturn(new Producto());
+
+        assertThrows(RuntimeException.class, () -> ventaFlashService.canjear(1L, token));
+
+        assertNotNull(ventaFlashService.canjear(1L, token));
+        assertThrows(IllegalArgumentException.class, () -> ventaFlashService.canjear(1L, token));
+    }
+
+    @Test
+    void testLiberar_DevuelveLaUnidadYSoloUnaVez() {
+        when(productoService.reservarStock(1L, 1)).thenReturn(new Producto());
+        when(productoService.liberarStock(1L, 1)).thenReturn(new Producto());
+        ventaFlashService.canjear(1L, token);
+
+        assertNotNull(ventaFlashService.liberar(1L, token));
+
+        assertThrows(IllegalArgumentException.class, () -> ventaFlashService.liberar(1L, token));
+        verify(productoService, times(1)).liberarStock(1L, 1);
+    }
+
+    @Test
+    void testLiberar_TokenConVentaConfirmada_NoDevuelveStock() {
+        when(productoService.reservarStock(1L, 1)).thenReturn(new Producto());
+        ventaFlashService.canjear(1L, token);
+        ventaFlashService.confirmar(1L, token);
+
+        assertThrows(IllegalArgumentException.class, () -> ventaFlashService.liberar(1L, token));
+        assertThrows(IllegalArgumentException.class, () -> ventaFlashService.confirmar(1L, token));
+        verify(productoService, never()).liberarStock(anyLong(), anyInt());
+    }
+}
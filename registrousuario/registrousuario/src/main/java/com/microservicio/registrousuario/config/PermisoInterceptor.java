@@ -0,0 +1,71 @@
+package com.microservicio.registrousuario.config;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.microservicio.registrousuario.util.JwtUtil;
+import com.microservicio.registrousuario.util.Permiso;
+import com.microservicio.registrousuario.util.RequierePermiso;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Aplica @RequierePermiso. La máscara de cada método se arma una sola vez; después cada petición cuesta
+// leer el claim del token y un AND.
+public class PermisoInterceptor implements HandlerInterceptor {
+    private final JwtUtil jwtUtil;
+    private final Map<Method, Integer> requeridos = new ConcurrentHashMap<>();
+
+    public PermisoInterceptor(JwtUtil jwtUtil) {
+        this.jwtUtil = jwtUtil;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!(handler instanceof HandlerMethod metodo)) {
+            return true;
+        }
+        int requerido = requeridos.computeIfAbsent(metodo.getMethod(), m -> mascara(metodo));
+        if (requerido == 0) {
+            return true;
+        }
+
+        String authorizationHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
+            return rechazar(response, HttpStatus.UNAUTHORIZED, "Token JWT no proporcionado o formato inválido.");
+        }
+        Integer permisos = jwtUtil.extractPermisos(authorizationHeader);
+        if (permisos == null) {
+            return rechazar(response, HttpStatus.UNAUTHORIZED, "Token JWT inválido o expirado.");
+        }
+        if ((permisos & requerido) != requerido) {
+            return rechazar(response, HttpStatus.FORBIDDEN, "Acceso denegado: su rol no tiene permiso para realizar esta acción.");
+        }
+        return true;
+    }
+
+    private static int mascara(HandlerMethod metodo) {
+        RequierePermiso anotacion = metodo.getMethodAnnotation(RequierePermiso.class);
+        if (anotacion == null) {
+            anotacion = metodo.getBeanType().getAnnotation(RequierePermiso.class);
+        }
+        return anotacion == null ? 0 : Permiso.mascara(anotacion.value());
+    }
+
+    private static boolean rechazar(HttpServletResponse response, HttpStatus estado, String mensaje) throws Exception {
+        response.setStatus(estado.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(mensaje);
+        return false;
+    }
+
+}
@@ -1,20 +1,22 @@
 package com.microservicio.registrousuario.controller;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.microservicio.registrousuario.model.Rol;
+import com.microservicio.registrousuario.service.RegistroRoles;
 import com.microservicio.registrousuario.service.RolService;
 
 
@@ -31,9 +33,24 @@ import io.swagger.v3.oas.annotations.media.Schema;
 @Tag(name = "Roles", description = "Gestión de Roles de usuario (Admin, Cliente, Delivery)")
 public class RolController {
     private final RolService rolService;
+    private final RegistroRoles registroRoles;
+    // Listado HAL ya armado para la versión actual de los roles y la URL base con la que se pidió.
+    private volatile ListadoCacheado listado;
 
-    public RolController(RolService rolService) {
+    public RolController(RolService rolService, RegistroRoles registroRoles) {
         this.rolService = rolService;
+        this.registroRoles = registroRoles;
+    }
+
+    // Los enlaces se arman concatenando rutas: linkTo(methodOn(...)) crea un proxy por llamada.
+    private static String baseUrl() {
+        return ServletUriComponentsBuilder.fromCurrentContextPath().path("/roles").toUriString();
+    }
+
+    private static EntityModel<Rol> modelo(Rol rol, String base) {
+        return EntityModel.of(rol,
+                Link.of(base + "/" + rol.getId()).withSelfRel(),
+                Link.of(base).withRel("todos-los-roles"));
     }
 
     @Operation(summary = "Listar roles", description = "Obtiene una lista completa de todos los roles disponibles en el sistema. Incluye enlaces HATEOAS.")
@@ -44,15 +61,19 @@ public class RolController {
     })
     @GetMapping
     public CollectionModel<EntityModel<Rol>> listar() {
-        List<Rol> roles = rolService.listarRoles();
+        String base = baseUrl();
+        long version = registroRoles.version();
+        ListadoCacheado actual = listado;
+        if (actual != null && actual.version() == version && actual.base().equals(base)) {
+            return actual.modelo();
+        }
 
-        List<EntityModel<Rol>> rolesModel = roles.stream()
-            .map(rol -> EntityModel.of(rol,
-                    linkTo(methodOn(RolController.class).obtener(rol.getId())).withSelfRel()))
-            .collect(Collectors.toList());
-
-        return CollectionModel.of(rolesModel,
-                linkTo(methodOn(RolController.class).listar()).withSelfRel());
+        List<EntityModel<Rol>> rolesModel = registroRoles.todos().stream()
+            .map(rol -> EntityModel.of(rol, Link.of(base + "/" + rol.getId()).withSelfRel()))
+            .toList();
+        CollectionModel<EntityModel<Rol>> modelo = CollectionModel.of(rolesModel, Link.of(base).withSelfRel());
+        listado = new ListadoCacheado(version, base, modelo);
+        return modelo;
     }
 
     @Operation(summary = "Obtener rol por ID", description = "Busca y devuelve un rol específico por su ID. Incluye enlaces HATEOAS.")
@@ -66,11 +87,10 @@ public class RolController {
     public EntityModel<Rol> obtener(
             @Parameter(description = "ID del rol a buscar", example = "1") 
             @PathVariable Long id) {
-        Rol rol = rolService.obtenerPorId(id).orElse(null);
-        
-        return EntityModel.of(rol,
-                linkTo(methodOn(RolController.class).obtener(id)).withSelfRel(),
-                linkTo(methodOn(RolController.class).listar()).withRel("todos-los-roles"));
+        Rol rol = registroRoles.porId(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Rol no encontrado."));
+
+        return modelo(rol, baseUrl());
     }
 
     @Operation(summary = "Crear rol", description = "Registra un nuevo rol en el sistema.")
@@ -86,8 +106,9 @@ public class RolController {
                     content = @Content(schema = @Schema(example = "{\n  \"nombre\": \"SUPERVISOR\"\n}")))
             @RequestBody Rol rol) {
         Rol creado = rolService.guardarRol(rol);
-        return EntityModel.of(creado,
-                linkTo(methodOn(RolController.class).obtener(creado.getId())).withSelfRel(),
-                linkTo(methodOn(RolController.class).listar()).withRel("todos-los-roles"));
+        return modelo(creado, baseUrl());
+    }
+
+    private record ListadoCacheado(long version, String base, CollectionModel<EntityModel<Rol>> modelo) {
     }
 }
\ No newline at end of file
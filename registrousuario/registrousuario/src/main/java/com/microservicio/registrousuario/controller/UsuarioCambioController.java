@@ -0,0 +1,57 @@
+package com.microservicio.registrousuario.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.microservicio.registrousuario.dto.CambiosUsuariosDTO;
+import com.microservicio.registrousuario.service.UsuarioCambioService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@RestController
+@RequestMapping("/usuarios/interno/cambios")
+@Tag(name = "Cambios de usuarios", description = "Feed de altas, modificaciones y bajas de usuarios para invalidar cachés en otros microservicios")
+public class UsuarioCambioController {
+    private final UsuarioCambioService usuarioCambioService;
+
+    public UsuarioCambioController(UsuarioCambioService usuarioCambioService) {
+        this.usuarioCambioService = usuarioCambioService;
+    }
+
+    @Operation(summary = "Cambios desde una marca (Interno)", description = "Devuelve los cambios con secuencia mayor a 'desde', en orden. Sin 'desde' devuelve solo la marca actual. Con 'esperaMs' la respuesta queda abierta hasta que haya cambios (long-poll, máximo 30 s). Si 'reiniciar' es true el consumidor debe vaciar su caché y seguir desde 'hasta'.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Cambios obtenidos correctamente",
+                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = CambiosUsuariosDTO.class)))
+    })
+    @GetMapping
+    public DeferredResult<CambiosUsuariosDTO> cambios(
+            @Parameter(description = "Última secuencia ya procesada por el consumidor", example = "120")
+            @RequestParam(required = false) Long desde,
+            @Parameter(description = "Máximo de cambios por respuesta (hasta 1000)")
+            @RequestParam(defaultValue = "500") int limite,
+            @Parameter(description = "Milisegundos a esperar si no hay cambios; 0 responde de inmediato")
+            @RequestParam(defaultValue = "0") long esperaMs) {
+        return usuarioCambioService.esperar(desde, limite, esperaMs);
+    }
+
+    @Operation(summary = "Stream de cambios (Interno)", description = "Canal Server-Sent Events: primero un evento 'marca' con la secuencia inicial y después eventos 'cambios' (con id = última secuencia enviada) cada vez que hay cambios nuevos.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Suscripción abierta", content = @Content(mediaType = "text/event-stream"))
+    })
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(required = false) Long desde) {
+        return usuarioCambioService.suscribir(desde);
+    }
+
+}
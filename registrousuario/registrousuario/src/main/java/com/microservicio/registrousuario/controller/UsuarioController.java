@@ -1,10 +1,11 @@
 package com.microservicio.registrousuario.controller;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
-import java.util.Optional;
-import java.util.Arrays;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -15,12 +16,21 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.microservicio.registrousuario.dto.DisponibilidadDTO;
+import com.microservicio.registrousuario.dto.LoteUsuariosDTO;
+import com.microservicio.registrousuario.dto.PaginaUsuariosDTO;
+import com.microservicio.registrousuario.dto.ResultadoImportacionDTO;
+import com.microservicio.registrousuario.dto.UsuarioResumenDTO;
 import com.microservicio.registrousuario.model.Usuario;
+import com.microservicio.registrousuario.service.DisponibilidadService;
+import com.microservicio.registrousuario.service.ImportacionUsuariosService;
 import com.microservicio.registrousuario.service.UsuarioService;
-import com.microservicio.registrousuario.util.JwtUtil;
+import com.microservicio.registrousuario.util.Permiso;
+import com.microservicio.registrousuario.util.RequierePermiso;
 
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -36,35 +46,21 @@ import io.swagger.v3.oas.annotations.media.Schema;
 @Tag(name = "Usuarios", description = "Gestión completa de usuarios: registro, listados y administración de perfiles")
 public class UsuarioController {
     private final UsuarioService usuarioService;
-    private final JwtUtil jwtUtil;
+    private final ImportacionUsuariosService importacionUsuariosService;
+    private final DisponibilidadService disponibilidadService;
 
-    public UsuarioController(UsuarioService usuarioService, JwtUtil jwtUtil) {
+    public UsuarioController(UsuarioService usuarioService, ImportacionUsuariosService importacionUsuariosService,
+            DisponibilidadService disponibilidadService) {
         this.usuarioService = usuarioService;
-        this.jwtUtil = jwtUtil;
+        this.importacionUsuariosService = importacionUsuariosService;
+        this.disponibilidadService = disponibilidadService;
     }
 
-    private ResponseEntity<String> validarRol(String authorizationHeader, String... requiredRoles) {
-        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body("Token JWT no proporcionado o formato inválido.");
-        }
-
-        String rol = jwtUtil.extractRole(authorizationHeader);
-
-        if (rol == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Token JWT inválido o expirado.");
-        }
-
-        boolean roleAllowed = Arrays.stream(requiredRoles)
-                .anyMatch(r -> r.equalsIgnoreCase(rol));
-
-        if (!roleAllowed) {
-            String rolesStr = Arrays.toString(requiredRoles).replaceAll("[\\[\\]]", "");
-            return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                    .body("Acceso denegado: solo roles " + rolesStr + " pueden realizar esta acción.");
-        }
-
-        return null; 
+    // La cola de hash de claves está llena: el cliente puede reintentar en unos segundos.
+    private ResponseEntity<String> saturado(String prefijo) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "2")
+                .body(prefijo + ": el servicio está saturado, reintente en unos segundos.");
     }
 
   
@@ -76,6 +72,23 @@ public class UsuarioController {
         return usuarioService.buscarPorNickname(nickname);
     }
   
+    @Operation(summary = "Buscar usuarios por lote (Interno)", description = "Resuelve varios usuarios por ID, nickname o correo con una sola consulta (máximo 500 en total). Con 'fields' se eligen las propiedades devueltas (id siempre se incluye); por defecto id,nickname,correo,rol. La clave solo se devuelve si se pide explícitamente. Uso interno entre microservicios.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Usuarios encontrados, ordenados por ID; los no encontrados se omiten"),
+        @ApiResponse(responseCode = "400", description = "Campo desconocido en 'fields' o lote demasiado grande")
+    })
+    @PostMapping("/interno/batch")
+    public ResponseEntity<?> buscarLoteInterno(
+            @RequestBody LoteUsuariosDTO lote,
+            @Parameter(description = "Propiedades a devolver, separadas por coma (id, nickname, correo, rol, clave)", example = "id,nickname")
+            @RequestParam(required = false) String fields) {
+        try {
+            return ResponseEntity.ok(usuarioService.buscarLote(lote, fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @Operation(summary = "Actualizar solo la clave", description = "Permite cambiar la contraseña de un usuario identificándolo por su correo.")
     // Documentación del Body para Swagger
     @io.swagger.v3.oas.annotations.parameters.RequestBody(
@@ -86,6 +99,7 @@ public class UsuarioController {
         @ApiResponse(responseCode = "200", description = "Clave actualizada exitosamente"),
         @ApiResponse(responseCode = "400", description = "Falta el campo 'nuevaClave'"),
         @ApiResponse(responseCode = "404", description = "Usuario no encontrado"),
+        @ApiResponse(responseCode = "503", description = "Hash de claves saturado; reintentar tras Retry-After"),
         @ApiResponse(responseCode = "500", description = "Error interno del servidor")
     })
     @PutMapping("/clave/{email}")
@@ -102,6 +116,8 @@ public class UsuarioController {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Usuario no encontrado para actualizar clave.");
             }
             return ResponseEntity.ok("Clave actualizada con éxito.");
+        } catch (RejectedExecutionException e) {
+            return saturado("Error al actualizar la clave");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error al actualizar la clave: " + e.getMessage());
         }
@@ -121,17 +137,42 @@ public class UsuarioController {
     
     //  Endpoints Públicos 
 
+    @Operation(summary = "Consultar disponibilidad", description = "Indica si un nickname y/o correo están libres, para validar el formulario de registro mientras se escribe. Se debe enviar al menos uno de los dos.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Disponibilidad de los campos consultados",
+                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = DisponibilidadDTO.class))),
+        @ApiResponse(responseCode = "400", description = "No se envió nickname ni correo")
+    })
+    @GetMapping("/disponible")
+    public ResponseEntity<?> disponible(
+            @Parameter(description = "Nickname a consultar", example = "usuario123")
+            @RequestParam(required = false) String nickname,
+            @Parameter(description = "Correo a consultar", example = "usuario123@correo.com")
+            @RequestParam(required = false) String correo) {
+        boolean conNickname = nickname != null && !nickname.isBlank();
+        boolean conCorreo = correo != null && !correo.isBlank();
+        if (!conNickname && !conCorreo) {
+            return ResponseEntity.badRequest().body("Debe indicar 'nickname' o 'correo'.");
+        }
+        return ResponseEntity.ok(new DisponibilidadDTO(
+                conNickname ? !disponibilidadService.nicknameRegistrado(nickname) : null,
+                conCorreo ? !disponibilidadService.correoRegistrado(correo) : null));
+    }
+
     @Operation(summary = "Registrar nuevo usuario", description = "Crea una cuenta de usuario nueva. Asigna rol CLIENTE por defecto.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Usuario creado exitosamente", 
                      content = @Content(mediaType = "application/json", schema = @Schema(implementation = Usuario.class))),
-        @ApiResponse(responseCode = "400", description = "Error al crear usuario (datos inválidos o duplicados)")
+        @ApiResponse(responseCode = "400", description = "Error al crear usuario (datos inválidos o duplicados)"),
+        @ApiResponse(responseCode = "503", description = "Hash de claves saturado; reintentar tras Retry-After")
     })
     @PostMapping
     public ResponseEntity<?> registrar(@RequestBody Usuario usuario) {
         try {
             Usuario creado = usuarioService.crearUsuario(usuario);
             return ResponseEntity.status(HttpStatus.CREATED).body(creado);
+        } catch (RejectedExecutionException e) {
+            return saturado("Error al crear usuario");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error al crear usuario: " + e.getMessage());
         }
@@ -139,40 +180,82 @@ public class UsuarioController {
     
     // Endpoints Protegidos
 
-    @Operation(summary = "Listar todos los usuarios", description = "Obtiene la lista completa de usuarios registrados. Requiere Rol ADMIN o DELIVERY.")
+    @Operation(summary = "Importar usuarios", description = "Alta masiva de usuarios con rol CLIENTE. Acepta CSV (text/csv, cabecera nickname,correo,clave) o NDJSON (application/x-ndjson, un objeto por línea). El archivo se procesa por lotes y devuelve el resultado de cada fila. Requiere Rol ADMIN.")
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(
+        content = {
+            @Content(mediaType = "text/csv", schema = @Schema(type = "string", example = "nickname,correo,clave\nsocio001,socio001@gimnasio.cl,Clave123")),
+            @Content(mediaType = "application/x-ndjson", schema = @Schema(type = "string", example = "{\"nickname\":\"socio001\",\"correo\":\"socio001@gimnasio.cl\",\"clave\":\"Clave123\"}"))
+        }
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Importación procesada; ver el estado de cada fila",
+                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = ResultadoImportacionDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Cabecera CSV inválida o archivo vacío"),
+        @ApiResponse(responseCode = "401", description = "Token inválido"),
+        @ApiResponse(responseCode = "403", description = "Acceso denegado (Rol insuficiente)"),
+        @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+    })
+    @PostMapping(path = "/importar", consumes = { "text/csv", "application/x-ndjson" })
+    @RequierePermiso(Permiso.USUARIOS_ADMINISTRAR)
+    public ResponseEntity<?> importar(
+            InputStream archivo,
+            @Parameter(hidden = true) @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType) {
+
+        ImportacionUsuariosService.Formato formato = contentType.toLowerCase().startsWith("text/csv")
+                ? ImportacionUsuariosService.Formato.CSV
+                : ImportacionUsuariosService.Formato.NDJSON;
+        try {
+            return ResponseEntity.ok(importacionUsuariosService.importar(archivo, formato));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error al importar usuarios: " + e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error al importar usuarios: " + e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Listar todos los usuarios", description = "Obtiene el resumen (id, nickname, correo, rol, sin clave) de todos los usuarios registrados. Para listados grandes conviene /usuarios/pagina. Requiere Rol ADMIN o DELIVERY.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Lista obtenida correctamente"),
         @ApiResponse(responseCode = "401", description = "Token inválido"),
         @ApiResponse(responseCode = "403", description = "Acceso denegado (Rol insuficiente)")
     })
     @GetMapping
-    public ResponseEntity<?> listar(
-        @Parameter(hidden = true) 
-        @RequestHeader("Authorization") String authorizationHeader
-    ) {
-       
-        ResponseEntity<String> validationResult = validarRol(authorizationHeader, "DELIVERY", "ADMINISTRADOR");
-        if (validationResult != null) {
-            return validationResult;
-        }
-
-        List<Usuario> usuarios = usuarioService.listarUsuarios();
-        return ResponseEntity.ok(usuarios);
+    @RequierePermiso(Permiso.USUARIOS_LEER)
+    public ResponseEntity<?> listar() {
+        return ResponseEntity.ok(usuarioService.listarUsuarios());
     }
 
-    @Operation(summary = "Obtener usuario por ID", description = "Busca un usuario específico por su ID. Requiere Rol ADMIN o DELIVERY.")
-    @GetMapping("/{id}")
-    public ResponseEntity<?> obtener(
-            @PathVariable Long id,
-            @Parameter(hidden = true) @RequestHeader("Authorization") String authorizationHeader) {
-      
-        ResponseEntity<String> validationResult = validarRol(authorizationHeader, "ADMINISTRADOR", "DELIVERY");
-        if (validationResult != null) {
-            return validationResult;
+    @Operation(summary = "Listar usuarios por páginas", description = "Devuelve un resumen de usuarios (id, nickname, correo, rol, sin clave) ordenado por ID. Para la página siguiente se envía el cursor 'siguiente' como 'despues'. Requiere Rol ADMIN o DELIVERY.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Página obtenida correctamente",
+                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = PaginaUsuariosDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Límite fuera de rango"),
+        @ApiResponse(responseCode = "401", description = "Token inválido"),
+        @ApiResponse(responseCode = "403", description = "Acceso denegado (Rol insuficiente)")
+    })
+    @GetMapping("/pagina")
+    @RequierePermiso(Permiso.USUARIOS_LEER)
+    public ResponseEntity<?> listarPagina(
+            @Parameter(description = "ID del último usuario recibido (cursor)", example = "0")
+            @RequestParam(defaultValue = "0") Long despues,
+            @Parameter(description = "Cantidad máxima de usuarios (1-200)", example = "50")
+            @RequestParam(defaultValue = "50") int limite,
+            @Parameter(description = "Filtrar por nombre de rol", example = "CLIENTE")
+            @RequestParam(required = false) String rol,
+            @Parameter(description = "Filtrar por prefijo de nickname", example = "soc")
+            @RequestParam(required = false) String nickname) {
+        try {
+            return ResponseEntity.ok(usuarioService.listarPagina(despues, limite, rol, nickname));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
+    }
 
-        Optional<Usuario> optional = usuarioService.obtenerPorId(id);
-        Usuario usuario = optional.orElse(null);
+    @Operation(summary = "Obtener usuario por ID", description = "Devuelve el resumen (sin clave) de un usuario por su ID. Requiere Rol ADMIN o DELIVERY.")
+    @GetMapping("/{id}")
+    @RequierePermiso(Permiso.USUARIOS_LEER)
+    public ResponseEntity<?> obtener(@PathVariable Long id) {
+        UsuarioResumenDTO usuario = usuarioService.obtenerPorId(id).orElse(null);
         if (usuario == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Usuario no encontrado.");
         }
@@ -182,17 +265,16 @@ public class UsuarioController {
 
     @Operation(summary = "Actualizar usuario", description = "Modifica los datos de un usuario existente. Requiere Rol ADMIN.")
     @PutMapping("/{id}")
+    @RequierePermiso(Permiso.USUARIOS_ADMINISTRAR)
     public ResponseEntity<?> actualizar(
             @PathVariable Long id,
-            @RequestBody Usuario usuario,
-            @Parameter(hidden = true) @RequestHeader("Authorization") String authorizationHeader) {
-        
-        ResponseEntity<String> validationResult = validarRol(authorizationHeader, "ADMINISTRADOR");
-        if (validationResult != null) {
-            return validationResult;
+            @RequestBody Usuario usuario) {
+        Usuario actualizado;
+        try {
+            actualizado = usuarioService.actualizarUsuario(id, usuario);
+        } catch (RejectedExecutionException e) {
+            return saturado("Error al actualizar usuario");
         }
-
-        Usuario actualizado = usuarioService.actualizarUsuario(id, usuario);
         if (actualizado == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Usuario no encontrado para actualizar.");
         }
@@ -201,15 +283,8 @@ public class UsuarioController {
 
     @Operation(summary = "Eliminar usuario", description = "Borra un usuario del sistema. Requiere Rol ADMIN.")
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> eliminar(
-            @PathVariable Long id,
-            @Parameter(hidden = true) @RequestHeader("Authorization") String authorizationHeader) {
-        
-        ResponseEntity<String> validationResult = validarRol(authorizationHeader, "ADMINISTRADOR");
-        if (validationResult != null) {
-            return validationResult;
-        }
-
+    @RequierePermiso(Permiso.USUARIOS_ADMINISTRAR)
+    public ResponseEntity<?> eliminar(@PathVariable Long id) {
         usuarioService.eliminarUsuario(id);
         return ResponseEntity.noContent().build();
     }
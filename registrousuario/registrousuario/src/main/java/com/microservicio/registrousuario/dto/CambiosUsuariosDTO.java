@@ -0,0 +1,29 @@
+package com.microservicio.registrousuario.dto;
+
+import java.util.List;
+
+import com.microservicio.registrousuario.model.UsuarioCambio;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Cambios de usuarios desde una secuencia dada")
+public class CambiosUsuariosDTO {
+    @Schema(description = "Secuencia enviada por el consumidor", example = "1000")
+    private Long desde;
+    @Schema(description = "Nueva marca de agua: enviarla como 'desde' en la próxima lectura", example = "1024")
+    private Long hasta;
+    @Schema(description = "true si la marca 'desde' ya no está disponible (cambios depurados o base reiniciada): "
+            + "el consumidor debe vaciar su caché y seguir desde 'hasta'")
+    private Boolean reiniciar;
+    @Schema(description = "true si quedan cambios por leer a partir de 'hasta'")
+    private Boolean hayMas;
+    @Schema(description = "Cambios en orden de secuencia")
+    private List<UsuarioCambio> cambios;
+
+}
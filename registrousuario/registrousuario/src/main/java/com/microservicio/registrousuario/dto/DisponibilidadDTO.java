@@ -0,0 +1,21 @@
+package com.microservicio.registrousuario.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Disponibilidad de nickname y correo; solo se incluyen los campos consultados")
+public class DisponibilidadDTO {
+    @Schema(description = "true si el nickname está libre", example = "true")
+    private Boolean nickname;
+    @Schema(description = "true si el correo está libre", example = "false")
+    private Boolean correo;
+
+}
@@ -0,0 +1,24 @@
+package com.microservicio.registrousuario.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Resultado de una fila de la importación masiva")
+public class FilaImportacionDTO {
+    @Schema(description = "Número de fila de datos en el archivo (la cabecera CSV no cuenta)", example = "1")
+    private Integer fila;
+    @Schema(description = "Nickname leído de la fila", example = "socio001")
+    private String nickname;
+    @Schema(description = "Correo leído de la fila", example = "socio001@gimnasio.cl")
+    private String correo;
+    @Schema(description = "CREADO o RECHAZADO", example = "CREADO")
+    private String estado;
+    @Schema(description = "Motivo del rechazo", example = "El correo ya está registrado.")
+    private String mensaje;
+
+}
@@ -0,0 +1,22 @@
+package com.microservicio.registrousuario.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Usuarios a resolver por lote; se puede combinar cualquiera de las tres listas")
+public class LoteUsuariosDTO {
+    @Schema(description = "IDs de usuario", example = "[1, 2, 3]")
+    private List<Long> ids;
+    @Schema(description = "Nicknames", example = "[\"usuario123\"]")
+    private List<String> nicknames;
+    @Schema(description = "Correos", example = "[\"usuario123@correo.com\"]")
+    private List<String> correos;
+
+}
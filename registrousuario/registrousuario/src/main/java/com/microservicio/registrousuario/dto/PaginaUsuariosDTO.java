@@ -0,0 +1,20 @@
+package com.microservicio.registrousuario.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Página de usuarios ordenada por ID")
+public class PaginaUsuariosDTO {
+    @Schema(description = "Usuarios de la página")
+    private List<UsuarioResumenDTO> usuarios;
+    @Schema(description = "Cursor para la página siguiente: enviarlo como 'despues'. Null si no hay más", example = "150")
+    private Long siguiente;
+
+}
@@ -0,0 +1,24 @@
+package com.microservicio.registrousuario.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Reporte de una importación masiva de usuarios")
+public class ResultadoImportacionDTO {
+    @Schema(description = "Filas de datos leídas", example = "10000")
+    private Integer total;
+    @Schema(description = "Usuarios creados", example = "9985")
+    private Integer creados;
+    @Schema(description = "Filas rechazadas", example = "15")
+    private Integer rechazados;
+    @Schema(description = "Resultado de cada fila, en el orden del archivo")
+    private List<FilaImportacionDTO> filas;
+
+}
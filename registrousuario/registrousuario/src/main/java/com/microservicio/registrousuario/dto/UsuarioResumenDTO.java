@@ -0,0 +1,22 @@
+package com.microservicio.registrousuario.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Datos públicos de un usuario para listados (sin clave)")
+public class UsuarioResumenDTO {
+    @Schema(description = "ID único del usuario", example = "1")
+    private Long id;
+    @Schema(description = "Nickname del usuario", example = "usuario123")
+    private String nickname;
+    @Schema(description = "Correo electrónico del usuario", example = "usuario123@correo.com")
+    private String correo;
+    @Schema(description = "Nombre del rol del usuario", example = "CLIENTE")
+    private String rol;
+
+}
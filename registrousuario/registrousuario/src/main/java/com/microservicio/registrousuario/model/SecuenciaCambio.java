@@ -0,0 +1,26 @@
+package com.microservicio.registrousuario.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Fila única con la última secuencia asignada a usuario_cambio. Se bloquea (SELECT ... FOR UPDATE) al
+// registrar un cambio, así las secuencias se confirman en el mismo orden en que se asignan.
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "usuario_cambio_secuencia")
+public class SecuenciaCambio {
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "ultima", nullable = false)
+    private Long ultima;
+
+}
@@ -1,6 +1,8 @@
 package com.microservicio.registrousuario.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.microservicio.registrousuario.util.Normalizador;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.Column;
@@ -10,14 +12,14 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
 @Data
-@AllArgsConstructor
 @NoArgsConstructor
 @Table(name = "usuarios")
 @Schema(description = "Modelo de Usuario para registro")
@@ -46,4 +48,30 @@ public class Usuario {
     @Schema(description = "Rol asignado al usuario", example = "ADMIN")
     private Rol rol;
 
+    // Copias normalizadas (Normalizador) con índice único: las búsquedas por nickname o correo ignoran
+    // mayúsculas, tildes y espacios sin dejar de usar el índice. Más largas que el original porque NFKD
+    // puede expandir algunos caracteres.
+    @JsonIgnore
+    @Column(name = "nickname_normalizado", unique = true, length = 100)
+    private String nicknameNormalizado;
+
+    @JsonIgnore
+    @Column(name = "correo_normalizado", unique = true, length = 200)
+    private String correoNormalizado;
+
+    public Usuario(Long id, String nickname, String clave, String correo, Rol rol) {
+        this.id = id;
+        this.nickname = nickname;
+        this.clave = clave;
+        this.correo = correo;
+        this.rol = rol;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void normalizar() {
+        nicknameNormalizado = Normalizador.normalizar(nickname);
+        correoNormalizado = Normalizador.normalizar(correo);
+    }
+
 }
@@ -0,0 +1,60 @@
+package com.microservicio.registrousuario.model;
+
+import java.time.LocalDateTime;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "usuario_cambio", indexes = @Index(name = "idx_usuario_cambio_fecha", columnList = "fecha"))
+@Schema(description = "Cambio registrado sobre un usuario, para invalidar cachés en otros servicios")
+public class UsuarioCambio {
+    public static final String CREADO = "CREADO";
+    public static final String ACTUALIZADO = "ACTUALIZADO";
+    public static final String CLAVE = "CLAVE";
+    public static final String ELIMINADO = "ELIMINADO";
+
+    // Asignada desde usuario_cambio_secuencia dentro de la misma transacción: sin huecos y en orden de commit.
+    @Id
+    @Column(name = "secuencia")
+    @Schema(description = "Secuencia del cambio; enviarla como 'desde' para seguir leyendo", example = "1024")
+    private Long secuencia;
+
+    @Column(name = "usuario_id", nullable = false)
+    @Schema(description = "ID del usuario afectado", example = "1")
+    private Long usuarioId;
+
+    @Column(name = "tipo", nullable = false, length = 20)
+    @Schema(description = "CREADO, ACTUALIZADO, CLAVE o ELIMINADO", example = "ACTUALIZADO")
+    private String tipo;
+
+    @Column(name = "nickname", length = 50)
+    @Schema(description = "Nickname del usuario después del cambio", example = "usuario123")
+    private String nickname;
+
+    @Column(name = "correo", length = 100)
+    @Schema(description = "Correo del usuario después del cambio", example = "usuario123@correo.com")
+    private String correo;
+
+    @Column(name = "nickname_anterior", length = 50)
+    @Schema(description = "Nickname anterior, si el cambio lo modificó", example = "usuario_viejo")
+    private String nicknameAnterior;
+
+    @Column(name = "correo_anterior", length = 100)
+    @Schema(description = "Correo anterior, si el cambio lo modificó", example = "viejo@correo.com")
+    private String correoAnterior;
+
+    @Column(name = "fecha", nullable = false)
+    private LocalDateTime fecha;
+
+}
@@ -0,0 +1,20 @@
+package com.microservicio.registrousuario.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.microservicio.registrousuario.model.SecuenciaCambio;
+
+import jakarta.persistence.LockModeType;
+
+public interface SecuenciaCambioRepository extends JpaRepository<SecuenciaCambio, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM SecuenciaCambio s WHERE s.id = :id")
+    Optional<SecuenciaCambio> bloquear(@Param("id") Long id);
+
+}
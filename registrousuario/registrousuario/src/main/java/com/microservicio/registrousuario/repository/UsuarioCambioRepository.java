@@ -0,0 +1,29 @@
+package com.microservicio.registrousuario.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.microservicio.registrousuario.model.UsuarioCambio;
+
+public interface UsuarioCambioRepository extends JpaRepository<UsuarioCambio, Long> {
+
+    List<UsuarioCambio> findBySecuenciaGreaterThanOrderBySecuenciaAsc(Long secuencia, Pageable pageable);
+
+    @Query("SELECT MAX(c.secuencia) FROM UsuarioCambio c")
+    Optional<Long> ultimaSecuencia();
+
+    @Query("SELECT MIN(c.secuencia) FROM UsuarioCambio c")
+    Optional<Long> primeraSecuencia();
+
+    @Modifying
+    @Query("DELETE FROM UsuarioCambio c WHERE c.fecha < :limite")
+    int eliminarAnterioresA(@Param("limite") LocalDateTime limite);
+
+}
@@ -1,13 +1,71 @@
 package com.microservicio.registrousuario.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.microservicio.registrousuario.dto.UsuarioResumenDTO;
 import com.microservicio.registrousuario.model.Usuario;
+import com.microservicio.registrousuario.util.Normalizador;
 
-public interface UsuarioRepository extends JpaRepository <Usuario, Long> {
-     Optional<Usuario> findByNickname(String nickname);
-     Optional<Usuario> findByCorreo(String correo);
+public interface UsuarioRepository extends JpaRepository <Usuario, Long>, UsuarioRepositoryCustom {
+     Optional<Usuario> findByNicknameNormalizado(String nicknameNormalizado);
+     Optional<Usuario> findByCorreoNormalizado(String correoNormalizado);
+     boolean existsByNicknameNormalizado(String nicknameNormalizado);
+     boolean existsByCorreoNormalizado(String correoNormalizado);
+
+     // Usuarios antiguos cuya columna normalizada aún no se rellenó (o chocó): solo por el valor exacto.
+     Optional<Usuario> findByNicknameAndNicknameNormalizadoIsNull(String nickname);
+     Optional<Usuario> findByCorreoAndCorreoNormalizadoIsNull(String correo);
+     boolean existsByNicknameAndNicknameNormalizadoIsNull(String nickname);
+     boolean existsByCorreoAndCorreoNormalizadoIsNull(String correo);
+
+     // Sin distinguir mayúsculas ni tildes: se normaliza aquí y se busca en la columna normalizada (índice único).
+     // Si no aparece, se prueba el valor exacto entre los usuarios que RellenoNormalizadoService no completó.
+     default Optional<Usuario> findByNickname(String nickname) {
+          return findByNicknameNormalizado(Normalizador.normalizar(nickname))
+                    .or(() -> findByNicknameAndNicknameNormalizadoIsNull(nickname));
+     }
+
+     default Optional<Usuario> findByCorreo(String correo) {
+          return findByCorreoNormalizado(Normalizador.normalizar(correo))
+                    .or(() -> findByCorreoAndCorreoNormalizadoIsNull(correo));
+     }
+
+     default boolean existsByNickname(String nickname) {
+          return existsByNicknameNormalizado(Normalizador.normalizar(nickname))
+                    || existsByNicknameAndNicknameNormalizadoIsNull(nickname);
+     }
+
+     default boolean existsByCorreo(String correo) {
+          return existsByCorreoNormalizado(Normalizador.normalizar(correo))
+                    || existsByCorreoAndCorreoNormalizadoIsNull(correo);
+     }
+
+     // Una sola consulta por lote de importación: [nickname, correo] normalizados de los usuarios que ya usan
+     // alguno. Recibe los valores ya normalizados.
+     @Query("select u.nicknameNormalizado, u.correoNormalizado from Usuario u "
+               + "where u.nicknameNormalizado in :nicknames or u.correoNormalizado in :correos")
+     List<Object[]> buscarExistentes(@Param("nicknames") Collection<String> nicknames,
+               @Param("correos") Collection<String> correos);
+
+     // Paginación por cursor (ID): sin OFFSET, cada página cuesta lo mismo sin importar cuántos usuarios haya.
+     // Solo se leen las columnas del resumen; la clave nunca sale de la base.
+     @Query("select new com.microservicio.registrousuario.dto.UsuarioResumenDTO(u.id, u.nickname, u.correo, r.nombre) "
+               + "from Usuario u join u.rol r "
+               + "where u.id > :despues and (:rol is null or r.nombre = :rol) "
+               + "and (:prefijo is null or u.nickname like :prefijo escape '\\') "
+               + "order by u.id")
+     List<UsuarioResumenDTO> buscarPagina(@Param("despues") Long despues, @Param("rol") String rol,
+               @Param("prefijo") String prefijo, Pageable pagina);
+
+     @Query("select new com.microservicio.registrousuario.dto.UsuarioResumenDTO(u.id, u.nickname, u.correo, r.nombre) "
+               + "from Usuario u join u.rol r where u.id = :id")
+     Optional<UsuarioResumenDTO> buscarResumen(@Param("id") Long id);
 
 }
@@ -0,0 +1,14 @@
+package com.microservicio.registrousuario.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface UsuarioRepositoryCustom {
+
+    // Búsqueda por lote en una sola consulta: usuarios cuyo ID, nickname o correo esté en alguna de las listas
+    // (las vacías se ignoran). El SELECT solo incluye las columnas pedidas, más el ID.
+    List<Map<String, Object>> buscarLote(Collection<String> campos, Collection<Long> ids,
+            Collection<String> nicknames, Collection<String> correos);
+
+}
@@ -0,0 +1,94 @@
+package com.microservicio.registrousuario.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.microservicio.registrousuario.model.Rol;
+import com.microservicio.registrousuario.model.Usuario;
+import com.microservicio.registrousuario.util.Normalizador;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+public class UsuarioRepositoryImpl implements UsuarioRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> buscarLote(Collection<String> campos, Collection<Long> ids,
+            Collection<String> nicknames, Collection<String> correos) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Usuario> usuario = query.from(Usuario.class);
+
+        List<Selection<?>> seleccion = new ArrayList<>();
+        seleccion.add(usuario.get("id").alias("id"));
+        for (String campo : campos) {
+            if (campo.equals("id")) {
+                continue;
+            }
+            if (campo.equals("rol")) {
+                Join<Usuario, Rol> rol = usuario.join("rol");
+                seleccion.add(rol.get("id").alias("rolId"));
+                seleccion.add(rol.get("nombre").alias("rolNombre"));
+            } else {
+                seleccion.add(usuario.get(campo).alias(campo));
+            }
+        }
+        query.multiselect(seleccion);
+
+        List<Predicate> criterios = new ArrayList<>();
+        if (!ids.isEmpty()) {
+            criterios.add(usuario.get("id").in(ids));
+        }
+        // Igual que findByNickname/findByCorreo: se compara contra las columnas normalizadas (con índice único) y,
+        // en los usuarios antiguos que aún no las tienen, contra el valor exacto.
+        if (!nicknames.isEmpty()) {
+            criterios.add(usuario.get("nicknameNormalizado").in(normalizados(nicknames)));
+            criterios.add(cb.and(usuario.get("nicknameNormalizado").isNull(), usuario.get("nickname").in(nicknames)));
+        }
+        if (!correos.isEmpty()) {
+            criterios.add(usuario.get("correoNormalizado").in(normalizados(correos)));
+            criterios.add(cb.and(usuario.get("correoNormalizado").isNull(), usuario.get("correo").in(correos)));
+        }
+        if (criterios.isEmpty()) {
+            return new ArrayList<>();
+        }
+        query.where(cb.or(criterios.toArray(Predicate[]::new)));
+        query.orderBy(cb.asc(usuario.get("id")));
+
+        List<Map<String, Object>> resultado = new ArrayList<>();
+        for (Tuple fila : entityManager.createQuery(query).getResultList()) {
+            Map<String, Object> mapa = new LinkedHashMap<>();
+            mapa.put("id", fila.get("id"));
+            for (String campo : campos) {
+                if (campo.equals("rol")) {
+                    Map<String, Object> rol = new LinkedHashMap<>();
+                    rol.put("id", fila.get("rolId"));
+                    rol.put("nombre", fila.get("rolNombre"));
+                    mapa.put("rol", rol);
+                } else if (!campo.equals("id")) {
+                    mapa.put(campo, fila.get(campo));
+                }
+            }
+            resultado.add(mapa);
+        }
+        return resultado;
+    }
+
+    private static List<String> normalizados(Collection<String> valores) {
+        return valores.stream().map(Normalizador::normalizar).distinct().toList();
+    }
+
+}
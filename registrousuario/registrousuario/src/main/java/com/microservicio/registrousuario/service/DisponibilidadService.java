@@ -0,0 +1,166 @@
+package com.microservicio.registrousuario.service;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.microservicio.registrousuario.dto.UsuarioResumenDTO;
+import com.microservicio.registrousuario.repository.UsuarioRepository;
+import com.microservicio.registrousuario.util.FiltroBloom;
+import com.microservicio.registrousuario.util.Normalizador;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
+
+// ¿Nickname o correo ya usados? Un filtro de Bloom por campo responde "seguro que no" sin ir a la base;
+// solo los "puede ser" se confirman con una consulta. Los filtros se arman al arrancar recorriendo la tabla
+// por cursor y se actualizan en cada alta o cambio. Bloom no permite borrar: un usuario eliminado sigue
+// dando "puede ser" y lo resuelve la base. Si se llenan más allá de su capacidad se reconstruyen.
+@Service
+public class DisponibilidadService {
+    static final int TAMANO_PAGINA = 5000;
+    static final long CAPACIDAD_MINIMA = 10_000;
+    static final double FALSOS_POSITIVOS = 0.01;
+
+    private final UsuarioRepository usuarioRepository;
+    private final ExecutorService reconstructor = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean reconstruccionPendiente = new AtomicBoolean();
+    private final Counter respondidasPorFiltro;
+    private final Counter consultadasEnBase;
+
+    // Null hasta la primera carga: mientras tanto todas las consultas van a la base.
+    private volatile Filtros filtros;
+    // Mientras se reconstruye, las altas se anotan también en los filtros nuevos.
+    private volatile Filtros enConstruccion;
+
+    public DisponibilidadService(UsuarioRepository usuarioRepository, MeterRegistry registry) {
+        this.usuarioRepository = usuarioRepository;
+        this.respondidasPorFiltro = Counter.builder("usuarios.disponibilidad.consultas").tag("origen", "filtro").register(registry);
+        this.consultadasEnBase = Counter.builder("usuarios.disponibilidad.consultas").tag("origen", "base").register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        programarReconstruccion();
+    }
+
+    private void programarReconstruccion() {
+        if (reconstruccionPendiente.compareAndSet(false, true)) {
+            reconstructor.execute(() -> {
+                try {
+                    reconstruir();
+                } catch (Exception e) {
+                    System.out.println(">>> Error al construir los filtros de disponibilidad: " + e.getMessage());
+                } finally {
+                    reconstruccionPendiente.set(false);
+                }
+            });
+        }
+    }
+
+    void reconstruir() {
+        long capacidad = Math.max(CAPACIDAD_MINIMA, usuarioRepository.count() * 2);
+        Filtros nuevos = new Filtros(capacidad);
+        enConstruccion = nuevos;
+        try {
+            long despues = 0;
+            List<UsuarioResumenDTO> pagina;
+            do {
+                pagina = usuarioRepository.buscarPagina(despues, null, null, PageRequest.of(0, TAMANO_PAGINA));
+                for (UsuarioResumenDTO usuario : pagina) {
+                    nuevos.agregar(usuario.getNickname(), usuario.getCorreo());
+                    despues = usuario.getId();
+                }
+            } while (pagina.size() == TAMANO_PAGINA);
+            filtros = nuevos;
+        } finally {
+            enConstruccion = null;
+        }
+    }
+
+    public boolean nicknameRegistrado(String nickname) {
+        return registrado(nickname, Filtros::nicknames, usuarioRepository::existsByNickname);
+    }
+
+    public boolean correoRegistrado(String correo) {
+        return registrado(correo, Filtros::correos, usuarioRepository::existsByCorreo);
+    }
+
+    private boolean registrado(String valor, Function<Filtros, FiltroBloom> campo, Predicate<String> enBase) {
+        if (valor == null) {
+            return false;
+        }
+        Filtros actuales = filtros;
+        if (actuales != null && !campo.apply(actuales).puedeContener(Normalizador.normalizar(valor))) {
+            respondidasPorFiltro.increment();
+            return false;
+        }
+        consultadasEnBase.increment();
+        return enBase.test(valor);
+    }
+
+    // Llamar después de guardar un usuario nuevo o con nickname/correo cambiados.
+    public void registrar(String nickname, String correo) {
+        // Primero enConstruccion y después filtros: si la reconstrucción termina entre las dos lecturas,
+        // la segunda ya ve los filtros nuevos.
+        Filtros nuevos = enConstruccion;
+        Filtros actuales = filtros;
+        if (nuevos != null) {
+            nuevos.agregar(nickname, correo);
+        }
+        if (actuales != null && actuales != nuevos) {
+            actuales.agregar(nickname, correo);
+            if (actuales.elementos.get() > actuales.capacidad) {
+                programarReconstruccion();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        reconstructor.shutdownNow();
+    }
+
+    private static class Filtros {
+        private final long capacidad;
+        private final FiltroBloom nicknames;
+        private final FiltroBloom correos;
+        private final AtomicLong elementos = new AtomicLong();
+
+        Filtros(long capacidad) {
+            this.capacidad = capacidad;
+            this.nicknames = new FiltroBloom(capacidad, FALSOS_POSITIVOS);
+            this.correos = new FiltroBloom(capacidad, FALSOS_POSITIVOS);
+        }
+
+        FiltroBloom nicknames() {
+            return nicknames;
+        }
+
+        FiltroBloom correos() {
+            return correos;
+        }
+
+        void agregar(String nickname, String correo) {
+            if (nickname != null) {
+                nicknames.agregar(Normalizador.normalizar(nickname));
+            }
+            if (correo != null) {
+                correos.agregar(Normalizador.normalizar(correo));
+            }
+            elementos.incrementAndGet();
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.microservicio.registrousuario.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.annotation.PreDestroy;
+
+// BCrypt es CPU puro (~100 ms por clave): se calcula en un pool propio con cola acotada, para que una ráfaga
+// de registros no ocupe todos los hilos de Tomcat. Con la cola llena se rechaza de inmediato
+// (RejectedExecutionException) y el controlador responde 503 con Retry-After.
+// Por defecto (usuarios.hash.hilos=0) el pool usa la mitad de los núcleos: la otra mitad queda para Tomcat,
+// el login y la importación masiva, que tiene su propio pool.
+@Service
+public class HashClaveService {
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor hashers;
+    private final Timer latencia;
+    private final Counter rechazos;
+
+    public HashClaveService(PasswordEncoder passwordEncoder, MeterRegistry registry,
+            @Value("${usuarios.hash.hilos:0}") int hilos,
+            @Value("${usuarios.hash.cola:64}") int cola) {
+        this.passwordEncoder = passwordEncoder;
+        int tamano = hilos > 0 ? hilos : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.hashers = new ThreadPoolExecutor(tamano, tamano, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cola), new ThreadPoolExecutor.AbortPolicy());
+        this.latencia = Timer.builder("usuarios.hash.latencia")
+                .description("Tiempo de cálculo del hash de una clave, sin contar la espera en cola")
+                .register(registry);
+        this.rechazos = Counter.builder("usuarios.hash.rechazos")
+                .description("Claves rechazadas por cola de hash llena")
+                .register(registry);
+        Gauge.builder("usuarios.hash.cola", hashers, e -> e.getQueue().size())
+                .description("Claves esperando hash")
+                .register(registry);
+        Gauge.builder("usuarios.hash.activos", hashers, ThreadPoolExecutor::getActiveCount)
+                .register(registry);
+    }
+
+    public String hashear(String clave) {
+        Future<String> hash;
+        try {
+            hash = hashers.submit(() -> latencia.record(() -> passwordEncoder.encode(clave)));
+        } catch (RejectedExecutionException e) {
+            rechazos.increment();
+            throw e;
+        }
+        try {
+            return hash.get();
+        } catch (InterruptedException e) {
+            hash.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Hash de clave interrumpido", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new RuntimeException("Error al calcular el hash de la clave", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        hashers.shutdownNow();
+    }
+
+}
@@ -0,0 +1,394 @@
+package com.microservicio.registrousuario.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservicio.registrousuario.dto.FilaImportacionDTO;
+import com.microservicio.registrousuario.dto.ResultadoImportacionDTO;
+import com.microservicio.registrousuario.model.Rol;
+import com.microservicio.registrousuario.repository.UsuarioRepository;
+import com.microservicio.registrousuario.util.Normalizador;
+
+import jakarta.annotation.PreDestroy;
+
+// Alta masiva de usuarios desde CSV (cabecera nickname,correo,clave) o NDJSON (un objeto por línea).
+// El archivo se lee por lotes sin cargarlo entero: por cada lote se hace una sola consulta de duplicados,
+// las claves se hashean en paralelo en un pool fork-join propio y las filas se insertan en un batch JDBC.
+// Cada lote se confirma por separado; el reporte dice qué pasó con cada fila.
+@Service
+public class ImportacionUsuariosService {
+    static final String CREADO = "CREADO";
+    static final String RECHAZADO = "RECHAZADO";
+    static final int UMBRAL_HASH = 4;
+    private static final String INSERT = "INSERT INTO usuarios (nickname, clave, correo, rol_id, nickname_normalizado, "
+            + "correo_normalizado) VALUES (?, ?, ?, ?, ?, ?)";
+
+    public enum Formato { CSV, NDJSON }
+
+    private final UsuarioRepository usuarioRepository;
+    private final RegistroRoles registroRoles;
+    private final DisponibilidadService disponibilidadService;
+    private final UsuarioCambioService usuarioCambioService;
+    private final PasswordEncoder passwordEncoder;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaccion;
+    private final ObjectMapper objectMapper;
+    private final int tamanoLote;
+    // Separado del pool de HashClaveService: una importación no deja sin hilos a los registros individuales.
+    // Por defecto usa un cuarto de los núcleos; sumado a la mitad de HashClaveService, BCrypt nunca ocupa
+    // todos los núcleos aunque una importación coincida con una ráfaga de registros.
+    private final ForkJoinPool hashers;
+
+    public ImportacionUsuariosService(UsuarioRepository usuarioRepository, RegistroRoles registroRoles,
+            DisponibilidadService disponibilidadService, UsuarioCambioService usuarioCambioService, PasswordEncoder passwordEncoder, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${usuarios.importacion.lote:500}") int tamanoLote,
+            @Value("${usuarios.importacion.hilos:0}") int hilos) {
+        this.usuarioRepository = usuarioRepository;
+        this.registroRoles = registroRoles;
+        this.disponibilidadService = disponibilidadService;
+        this.usuarioCambioService = usuarioCambioService;
+        this.passwordEncoder = passwordEncoder;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.tamanoLote = Math.max(1, tamanoLote);
+        this.hashers = new ForkJoinPool(hilos > 0 ? hilos : Math.max(1, Runtime.getRuntime().availableProcessors() / 4));
+    }
+
+    public ResultadoImportacionDTO importar(InputStream entrada, Formato formato) throws IOException {
+        Rol rolCliente = registroRoles.porNombre("CLIENTE")
+                .orElseThrow(() -> new RuntimeException("Error de configuración: El rol CLIENTE no existe en la base de datos."));
+
+        BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        LectorFilas filas = formato == Formato.CSV ? new LectorCsv(lector) : new LectorNdjson(lector, objectMapper);
+
+        List<FilaImportacionDTO> reporte = new ArrayList<>();
+        Set<String> nicknamesVistos = new HashSet<>();
+        Set<String> correosVistos = new HashSet<>();
+        List<Pendiente> lote = new ArrayList<>(tamanoLote);
+        String[] campos;
+        while ((campos = filas.siguiente()) != null) {
+            FilaImportacionDTO resultado = new FilaImportacionDTO(reporte.size() + 1, campos[0], campos[1], null, null);
+            reporte.add(resultado);
+
+            String error = campos == LectorFilas.MAL_FORMADA ? "Fila mal formada." : validar(campos);
+            if (error == null) {
+                String nickname = Normalizador.normalizar(campos[0]);
+                String correo = Normalizador.normalizar(campos[1]);
+                if (nicknamesVistos.contains(nickname)) {
+                    error = "Nickname repetido en el archivo.";
+                } else if (correosVistos.contains(correo)) {
+                    error = "Correo repetido en el archivo.";
+                } else {
+                    nicknamesVistos.add(nickname);
+                    correosVistos.add(correo);
+                }
+            }
+            if (error != null) {
+                rechazar(resultado, error);
+                continue;
+            }
+
+            lote.add(new Pendiente(resultado, campos[2]));
+            if (lote.size() >= tamanoLote) {
+                procesarLote(lote, rolCliente);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            procesarLote(lote, rolCliente);
+        }
+
+        int creados = (int) reporte.stream().filter(f -> CREADO.equals(f.getEstado())).count();
+        return new ResultadoImportacionDTO(reporte.size(), creados, reporte.size() - creados, reporte);
+    }
+
+    private String validar(String[] campos) {
+        if (campos[0] == null || campos[0].isEmpty()) {
+            return "Falta el nickname.";
+        }
+        if (campos[0].length() > 50) {
+            return "El nickname supera los 50 caracteres.";
+        }
+        if (campos[1] == null || campos[1].indexOf('@') <= 0) {
+            return "Correo inválido.";
+        }
+        if (campos[1].length() > 100) {
+            return "El correo supera los 100 caracteres.";
+        }
+        if (campos[2] == null || campos[2].trim().isEmpty()) {
+            return "Falta la clave.";
+        }
+        return null;
+    }
+
+    private void procesarLote(List<Pendiente> lote, Rol rolCliente) {
+        Set<String> nicknames = new HashSet<>();
+        Set<String> correos = new HashSet<>();
+        for (Pendiente pendiente : lote) {
+            nicknames.add(Normalizador.normalizar(pendiente.fila.getNickname()));
+            correos.add(Normalizador.normalizar(pendiente.fila.getCorreo()));
+        }
+        Set<String> nicknamesTomados = new HashSet<>();
+        Set<String> correosTomados = new HashSet<>();
+        for (Object[] existente : usuarioRepository.buscarExistentes(nicknames, correos)) {
+            nicknamesTomados.add(Normalizador.normalizar((String) existente[0]));
+            correosTomados.add(Normalizador.normalizar((String) existente[1]));
+        }
+
+        List<Pendiente> nuevos = new ArrayList<>(lote.size());
+        for (Pendiente pendiente : lote) {
+            if (nicknamesTomados.contains(Normalizador.normalizar(pendiente.fila.getNickname()))) {
+                rechazar(pendiente.fila, "El nickname ya está registrado.");
+            } else if (correosTomados.contains(Normalizador.normalizar(pendiente.fila.getCorreo()))) {
+                rechazar(pendiente.fila, "El correo ya está registrado.");
+            } else {
+                nuevos.add(pendiente);
+            }
+        }
+        if (nuevos.isEmpty()) {
+            return;
+        }
+
+        hashers.invoke(new HashLote(nuevos, passwordEncoder, 0, nuevos.size()));
+        List<Object[]> parametros = new ArrayList<>(nuevos.size());
+        for (Pendiente pendiente : nuevos) {
+            parametros.add(new Object[] { pendiente.fila.getNickname(), pendiente.hash, pendiente.fila.getCorreo(), rolCliente.getId(),
+                    Normalizador.normalizar(pendiente.fila.getNickname()), Normalizador.normalizar(pendiente.fila.getCorreo()) });
+        }
+
+        try {
+            transaccion.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT, parametros);
+                usuarioCambioService.registrarAltas(nuevos.stream().map(p -> p.fila.getNickname()).toList());
+            });
+            nuevos.forEach(p -> creado(p.fila));
+        } catch (DataIntegrityViolationException e) {
+            // Otro alta usó un nickname o correo entre la consulta y el batch (que se revirtió entero):
+            // se reintenta fila por fila para no perder las demás.
+            for (int i = 0; i < nuevos.size(); i++) {
+                try {
+                    Object[] fila = parametros.get(i);
+                    transaccion.executeWithoutResult(status -> {
+                        jdbcTemplate.update(INSERT, fila);
+                        usuarioCambioService.registrarAltas(List.of((String) fila[0]));
+                    });
+                    creado(nuevos.get(i).fila);
+                } catch (DataIntegrityViolationException duplicado) {
+                    rechazar(nuevos.get(i).fila, "El nickname o el correo ya está registrado.");
+                }
+            }
+        }
+    }
+
+    private void creado(FilaImportacionDTO fila) {
+        fila.setEstado(CREADO);
+        disponibilidadService.registrar(fila.getNickname(), fila.getCorreo());
+    }
+
+    private static void rechazar(FilaImportacionDTO fila, String mensaje) {
+        fila.setEstado(RECHAZADO);
+        fila.setMensaje(mensaje);
+    }
+
+    private static String limpiar(String valor) {
+        return valor == null ? null : valor.trim();
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        hashers.shutdownNow();
+    }
+
+    private static class Pendiente {
+        private final FilaImportacionDTO fila;
+        private final String clave;
+        private String hash;
+
+        Pendiente(FilaImportacionDTO fila, String clave) {
+            this.fila = fila;
+            this.clave = clave;
+        }
+    }
+
+    // Cada hoja hashea unas pocas claves; BCrypt domina el costo, así que el reparto fino no agrega nada.
+    private static class HashLote extends RecursiveAction {
+        private final List<Pendiente> pendientes;
+        private final PasswordEncoder passwordEncoder;
+        private final int desde;
+        private final int hasta;
+
+        HashLote(List<Pendiente> pendientes, PasswordEncoder passwordEncoder, int desde, int hasta) {
+            this.pendientes = pendientes;
+            this.passwordEncoder = passwordEncoder;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde <= UMBRAL_HASH) {
+                for (int i = desde; i < hasta; i++) {
+                    Pendiente pendiente = pendientes.get(i);
+                    pendiente.hash = passwordEncoder.encode(pendiente.clave);
+                }
+                return;
+            }
+            int medio = (desde + hasta) >>> 1;
+            invokeAll(new HashLote(pendientes, passwordEncoder, desde, medio),
+                    new HashLote(pendientes, passwordEncoder, medio, hasta));
+        }
+    }
+
+    // Devuelve {nickname, correo, clave} por fila de datos, MAL_FORMADA si la línea no se pudo leer
+    // y null al terminar el archivo. Las líneas vacías se saltan.
+    private interface LectorFilas {
+        String[] MAL_FORMADA = new String[3];
+
+        String[] siguiente() throws IOException;
+    }
+
+    private static class LectorCsv implements LectorFilas {
+        private final BufferedReader lector;
+        private final int[] columnas = { -1, -1, -1 };
+
+        LectorCsv(BufferedReader lector) throws IOException {
+            this.lector = lector;
+            String cabecera = lector.readLine();
+            if (cabecera == null) {
+                throw new IllegalArgumentException("El archivo CSV está vacío.");
+            }
+            List<String> nombres = separar(cabecera.replace("\uFEFF", ""));
+            Map<String, Integer> posiciones = new HashMap<>();
+            for (int i = 0; i < nombres.size(); i++) {
+                posiciones.put(nombres.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            String[] requeridas = { "nickname", "correo", "clave" };
+            for (int i = 0; i < requeridas.length; i++) {
+                Integer posicion = posiciones.get(requeridas[i]);
+                if (posicion == null) {
+                    throw new IllegalArgumentException("Falta la columna '" + requeridas[i] + "' en la cabecera CSV.");
+                }
+                columnas[i] = posicion;
+            }
+        }
+
+        @Override
+        public String[] siguiente() throws IOException {
+            String linea;
+            do {
+                linea = lector.readLine();
+                if (linea == null) {
+                    return null;
+                }
+            } while (linea.isBlank());
+
+            List<String> valores;
+            try {
+                valores = separar(linea);
+            } catch (IllegalArgumentException e) {
+                return MAL_FORMADA;
+            }
+            String[] campos = new String[3];
+            for (int i = 0; i < 3; i++) {
+                campos[i] = columnas[i] < valores.size() ? valores.get(columnas[i]) : null;
+            }
+            campos[0] = limpiar(campos[0]);
+            campos[1] = limpiar(campos[1]);
+            return campos;
+        }
+
+        // Campos separados por coma; entre comillas pueden llevar comas y "" como comilla literal.
+        static List<String> separar(String linea) {
+            List<String> valores = new ArrayList<>();
+            StringBuilder actual = new StringBuilder();
+            boolean entreComillas = false;
+            for (int i = 0; i < linea.length(); i++) {
+                char c = linea.charAt(i);
+                if (entreComillas) {
+                    if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                        actual.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        entreComillas = false;
+                    } else {
+                        actual.append(c);
+                    }
+                } else if (c == '"') {
+                    entreComillas = true;
+                } else if (c == ',') {
+                    valores.add(actual.toString());
+                    actual.setLength(0);
+                } else {
+                    actual.append(c);
+                }
+            }
+            if (entreComillas) {
+                throw new IllegalArgumentException("Comillas sin cerrar");
+            }
+            valores.add(actual.toString());
+            return valores;
+        }
+    }
+
+    private static class LectorNdjson implements LectorFilas {
+        private final BufferedReader lector;
+        private final ObjectMapper objectMapper;
+
+        LectorNdjson(BufferedReader lector, ObjectMapper objectMapper) {
+            this.lector = lector;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public String[] siguiente() throws IOException {
+            String linea;
+            do {
+                linea = lector.readLine();
+                if (linea == null) {
+                    return null;
+                }
+            } while (linea.isBlank());
+
+            JsonNode nodo;
+            try {
+                nodo = objectMapper.readTree(linea);
+            } catch (IOException e) {
+                return MAL_FORMADA;
+            }
+            if (nodo == null || !nodo.isObject()) {
+                return MAL_FORMADA;
+            }
+            return new String[] { limpiar(texto(nodo, "nickname")), limpiar(texto(nodo, "correo")), texto(nodo, "clave") };
+        }
+
+        private static String texto(JsonNode nodo, String campo) {
+            JsonNode valor = nodo.get(campo);
+            return valor == null || valor.isNull() ? null : valor.asText();
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.microservicio.registrousuario.service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.microservicio.registrousuario.model.Rol;
+import com.microservicio.registrousuario.repository.RolRepository;
+
+// Copia en memoria de la tabla rol. Los roles casi nunca cambian, así que se cargan al arrancar (después de
+// LoadDataBase) y se recargan enteros cuando RolService guarda uno. Cada carga es una foto inmutable que se
+// reemplaza de una vez; quien lee nunca ve una foto a medias. Se entregan copias: Rol es una entidad mutable.
+@Service
+public class RegistroRoles {
+    private final RolRepository rolRepository;
+    private volatile Foto foto;
+
+    public RegistroRoles(RolRepository rolRepository) {
+        this.rolRepository = rolRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        try {
+            recargar();
+        } catch (Exception e) {
+            System.out.println(">>> Error al cargar los roles: " + e.getMessage());
+        }
+    }
+
+    public synchronized void recargar() {
+        List<Rol> roles = rolRepository.findAll().stream()
+                .map(r -> new Rol(r.getId(), r.getNombre()))
+                .sorted(Comparator.comparing(Rol::getId))
+                .toList();
+        Foto anterior = foto;
+        foto = new Foto(anterior == null ? 1 : anterior.version() + 1, roles,
+                roles.stream().collect(Collectors.toUnmodifiableMap(r -> clave(r.getNombre()), Function.identity(), (a, b) -> a)),
+                roles.stream().collect(Collectors.toUnmodifiableMap(Rol::getId, Function.identity())));
+    }
+
+    public Optional<Rol> porNombre(String nombre) {
+        return Optional.ofNullable(nombre == null ? null : actual().porNombre().get(clave(nombre))).map(RegistroRoles::copia);
+    }
+
+    public Optional<Rol> porId(Long id) {
+        return Optional.ofNullable(id == null ? null : actual().porId().get(id)).map(RegistroRoles::copia);
+    }
+
+    public List<Rol> todos() {
+        return actual().roles().stream().map(RegistroRoles::copia).toList();
+    }
+
+    // Cambia con cada recarga: sirve para invalidar representaciones derivadas de los roles.
+    public long version() {
+        return actual().version();
+    }
+
+    private Foto actual() {
+        Foto actual = foto;
+        if (actual == null) {
+            recargar();
+            actual = foto;
+        }
+        return actual;
+    }
+
+    private static String clave(String nombre) {
+        return nombre.toUpperCase(Locale.ROOT);
+    }
+
+    private static Rol copia(Rol rol) {
+        return new Rol(rol.getId(), rol.getNombre());
+    }
+
+    private record Foto(long version, List<Rol> roles, Map<String, Rol> porNombre, Map<Long, Rol> porId) {
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.microservicio.registrousuario.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.microservicio.registrousuario.util.Normalizador;
+
+// Completa nickname_normalizado y correo_normalizado en los usuarios que existían antes de esas columnas.
+// Recorre por ID en lotes, cada uno en su propia transacción; los usuarios nuevos ya se guardan con ambas.
+// Cada columna se rellena por separado: dos usuarios antiguos que solo difieren en mayúsculas o tildes chocan
+// con el índice único y al segundo le queda esa columna sin normalizar, pero la otra sí se completa. Mientras
+// una columna siga vacía, UsuarioRepository busca a ese usuario por el valor exacto.
+@Service
+public class RellenoNormalizadoService {
+    private static final String PENDIENTES = "SELECT usuario_id, nickname, correo FROM usuarios "
+            + "WHERE usuario_id > ? AND (nickname_normalizado IS NULL OR correo_normalizado IS NULL) "
+            + "ORDER BY usuario_id LIMIT ?";
+    private static final String ACTUALIZAR_NICKNAME = "UPDATE usuarios SET nickname_normalizado = ? "
+            + "WHERE usuario_id = ? AND nickname_normalizado IS NULL";
+    private static final String ACTUALIZAR_CORREO = "UPDATE usuarios SET correo_normalizado = ? "
+            + "WHERE usuario_id = ? AND correo_normalizado IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaccion;
+    private final int tamanoLote;
+
+    public RellenoNormalizadoService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            @Value("${usuarios.normalizado.lote:500}") int tamanoLote) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.tamanoLote = Math.max(1, tamanoLote);
+    }
+
+    // Antes que los demás listeners de arranque; mientras tanto los usuarios pendientes se buscan por el valor exacto.
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void inicializar() {
+        try {
+            int rellenados = rellenar();
+            if (rellenados > 0) {
+                System.out.println(">>> Nicknames y correos normalizados: " + rellenados);
+            }
+        } catch (Exception e) {
+            System.out.println(">>> Error al normalizar nicknames y correos: " + e.getMessage());
+        }
+    }
+
+    // Devuelve cuántos valores (nicknames más correos) se normalizaron.
+    int rellenar() {
+        int total = 0;
+        long despues = 0;
+        List<Object[]> lote;
+        while (!(lote = leerLote(despues)).isEmpty()) {
+            List<Object[]> nicknames = new ArrayList<>(lote.size());
+            List<Object[]> correos = new ArrayList<>(lote.size());
+            for (Object[] fila : lote) {
+                nicknames.add(new Object[] { Normalizador.normalizar((String) fila[1]), fila[0] });
+                correos.add(new Object[] { Normalizador.normalizar((String) fila[2]), fila[0] });
+            }
+            total += actualizar(ACTUALIZAR_NICKNAME, nicknames);
+            total += actualizar(ACTUALIZAR_CORREO, correos);
+            despues = (Long) lote.get(lote.size() - 1)[0];
+        }
+        return total;
+    }
+
+    private List<Object[]> leerLote(long despues) {
+        return jdbcTemplate.query(PENDIENTES,
+                (rs, i) -> new Object[] { rs.getLong(1), rs.getString(2), rs.getString(3) }, despues, tamanoLote);
+    }
+
+    private int actualizar(String sql, List<Object[]> parametros) {
+        try {
+            transaccion.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, parametros));
+            return parametros.size();
+        } catch (DataIntegrityViolationException e) {
+            // Hay algún choque en el lote: fila por fila, para no dejar sin normalizar a las demás.
+            int actualizados = 0;
+            for (Object[] fila : parametros) {
+                try {
+                    jdbcTemplate.update(sql, fila);
+                    actualizados++;
+                } catch (DataIntegrityViolationException choque) {
+                    System.out.println(">>> Usuario " + fila[1] + " duplicado al normalizar: " + fila[0]);
+                }
+            }
+            return actualizados;
+        }
+    }
+
+}
@@ -11,9 +11,11 @@ import com.microservicio.registrousuario.repository.RolRepository;
 @Service
 public class RolService {
     private final RolRepository rolRepository;
+    private final RegistroRoles registroRoles;
 
-    public RolService(RolRepository rolRepository) {
+    public RolService(RolRepository rolRepository, RegistroRoles registroRoles) {
         this.rolRepository = rolRepository;
+        this.registroRoles = registroRoles;
     }
 
     public List<Rol> listarRoles() {
@@ -29,7 +31,9 @@ public class RolService {
     }
 
     public Rol guardarRol(Rol rol) {
-        return rolRepository.save(rol);
+        Rol guardado = rolRepository.save(rol);
+        registroRoles.recargar();
+        return guardado;
     }
 
 
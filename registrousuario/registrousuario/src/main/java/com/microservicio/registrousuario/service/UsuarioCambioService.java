@@ -0,0 +1,410 @@
+package com.microservicio.registrousuario.service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.microservicio.registrousuario.dto.CambiosUsuariosDTO;
+import com.microservicio.registrousuario.model.SecuenciaCambio;
+import com.microservicio.registrousuario.model.UsuarioCambio;
+import com.microservicio.registrousuario.repository.SecuenciaCambioRepository;
+import com.microservicio.registrousuario.repository.UsuarioCambioRepository;
+import com.microservicio.registrousuario.repository.UsuarioRepository;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.transaction.Transactional;
+
+// Feed de cambios de usuarios para que autenticarusuario, ventas y direcciones invaliden sus cachés.
+// Cada mutación de UsuarioService escribe su fila en usuario_cambio dentro de su propia transacción; la
+// secuencia sale de una fila bloqueada, así nunca se confirma la 11 antes que la 10 y un consumidor que leyó
+// hasta N no se salta nada. Los consumidores leen desde su marca por long-poll o por SSE; un tick revisa la
+// última secuencia (también ve cambios de otras instancias) y despierta a quien tenga algo pendiente.
+@Service
+public class UsuarioCambioService {
+    static final long ID_SECUENCIA = 1L;
+    static final int LIMITE_MAXIMO = 1000;
+    static final long ESPERA_MAXIMA_MS = 30_000;
+    private static final long TIMEOUT_SSE_MS = 30 * 60 * 1000L;
+    private static final long HEARTBEAT_MS = 25_000;
+    // Un envío SSE que tarda más que esto es un cliente lento: se le cierra la conexión y se libera el hilo.
+    static final long ENVIO_MAX_MS = 5_000;
+    private static final int HILOS_ENVIO = 4;
+
+    private final UsuarioCambioRepository cambioRepository;
+    private final SecuenciaCambioRepository secuenciaRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final TransactionTemplate transaccion;
+    private final long tickMs;
+    private final int retencionDias;
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+
+    private final Set<Espera> esperas = ConcurrentHashMap.newKeySet();
+    private final Map<SseEmitter, Suscriptor> suscriptores = new ConcurrentHashMap<>();
+    private final ExecutorService despachador = Executors.newFixedThreadPool(HILOS_ENVIO);
+    private long ultimoEnvioMs;
+
+    public UsuarioCambioService(UsuarioCambioRepository cambioRepository, SecuenciaCambioRepository secuenciaRepository,
+            UsuarioRepository usuarioRepository, PlatformTransactionManager transactionManager,
+            @Value("${usuarios.cambios.tick-ms:500}") long tickMs,
+            @Value("${usuarios.cambios.retencion-dias:7}") int retencionDias) {
+        this.cambioRepository = cambioRepository;
+        this.secuenciaRepository = secuenciaRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.tickMs = tickMs;
+        this.retencionDias = retencionDias;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        try {
+            transaccion.executeWithoutResult(status -> {
+                if (secuenciaRepository.findById(ID_SECUENCIA).isEmpty()) {
+                    secuenciaRepository.save(new SecuenciaCambio(ID_SECUENCIA, cambioRepository.ultimaSecuencia().orElse(0L)));
+                }
+            });
+        } catch (Exception e) {
+            System.out.println(">>> Error al inicializar la secuencia de cambios de usuarios: " + e.getMessage());
+        }
+        ticker.scheduleWithFixedDelay(this::tickSeguro, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        ticker.scheduleWithFixedDelay(this::depurarSeguro, 1, 6, TimeUnit.HOURS);
+    }
+
+    // Debe llamarse al final de la transacción que modificó a los usuarios: el bloqueo de la secuencia se
+    // mantiene hasta el commit.
+    @Transactional
+    public void registrar(List<UsuarioCambio> cambios) {
+        if (cambios.isEmpty()) {
+            return;
+        }
+        SecuenciaCambio secuencia = secuenciaRepository.bloquear(ID_SECUENCIA)
+                .orElseGet(() -> new SecuenciaCambio(ID_SECUENCIA, cambioRepository.ultimaSecuencia().orElse(0L)));
+        long siguiente = secuencia.getUltima();
+        LocalDateTime ahora = LocalDateTime.now();
+        for (UsuarioCambio cambio : cambios) {
+            cambio.setSecuencia(++siguiente);
+            cambio.setFecha(ahora);
+        }
+        secuencia.setUltima(siguiente);
+        secuenciaRepository.save(secuencia);
+        cambioRepository.saveAll(cambios);
+    }
+
+    @Transactional
+    public void registrar(Long usuarioId, String tipo, String nickname, String correo, String nicknameAnterior,
+            String correoAnterior) {
+        registrar(List.of(new UsuarioCambio(null, usuarioId, tipo, nickname, correo, nicknameAnterior, correoAnterior, null)));
+    }
+
+    // Altas hechas por SQL directo (importación masiva): se buscan sus IDs por nickname.
+    @Transactional
+    public void registrarAltas(Collection<String> nicknames) {
+        if (nicknames.isEmpty()) {
+            return;
+        }
+        List<UsuarioCambio> cambios = new ArrayList<>();
+        for (Map<String, Object> fila : usuarioRepository.buscarLote(List.of("nickname", "correo"), List.of(), nicknames, List.of())) {
+            cambios.add(new UsuarioCambio(null, (Long) fila.get("id"), UsuarioCambio.CREADO,
+                    (String) fila.get("nickname"), (String) fila.get("correo"), null, null, null));
+        }
+        registrar(cambios);
+    }
+
+    // Sin marca no hay historial que leer: se devuelve la marca actual para empezar a seguir desde ahí.
+    // 0 sí es una marca: es la que recibe quien empezó con el feed vacío, y debe ver desde el primer cambio.
+    public CambiosUsuariosDTO cambiosDesde(Long desde, int limite) {
+        int tope = Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        long ultima = ultimaConfirmada();
+        if (desde == null || desde < 0) {
+            return new CambiosUsuariosDTO(0L, ultima, false, false, List.of());
+        }
+        if (desde > ultima) {
+            // La marca es de otra base (o de antes de un reinicio): el consumidor no puede confiar en su caché.
+            return new CambiosUsuariosDTO(desde, ultima, true, false, List.of());
+        }
+        if (desde == ultima) {
+            return new CambiosUsuariosDTO(desde, ultima, false, false, List.of());
+        }
+
+        long base = desde;
+        boolean reiniciar = false;
+        Long primera = cambioRepository.primeraSecuencia().orElse(null);
+        if (primera == null || base < primera - 1) {
+            // Los cambios posteriores a 'desde' ya se depuraron (todos o en parte).
+            reiniciar = true;
+            base = primera == null ? ultima : primera - 1;
+        }
+
+        List<UsuarioCambio> cambios = cambioRepository.findBySecuenciaGreaterThanOrderBySecuenciaAsc(base,
+                PageRequest.of(0, tope + 1));
+        boolean hayMas = cambios.size() > tope;
+        if (hayMas) {
+            cambios = cambios.subList(0, tope);
+        }
+        Long hasta = cambios.isEmpty() ? base : cambios.get(cambios.size() - 1).getSecuencia();
+        return new CambiosUsuariosDTO(desde, hasta, reiniciar, hayMas, cambios);
+    }
+
+    // La fila de secuencia solo se ve actualizada cuando confirma su transacción, y no retrocede al depurar.
+    long ultimaConfirmada() {
+        return secuenciaRepository.findById(ID_SECUENCIA).map(SecuenciaCambio::getUltima)
+                .orElseGet(() -> cambioRepository.ultimaSecuencia().orElse(0L));
+    }
+
+    // Long-poll: si no hay cambios después de 'desde', la respuesta queda abierta hasta que llegue alguno
+    // o pase 'esperaMs' (sin ocupar un hilo de Tomcat mientras tanto).
+    public DeferredResult<CambiosUsuariosDTO> esperar(Long desde, int limite, long esperaMs) {
+        CambiosUsuariosDTO actual = cambiosDesde(desde, limite);
+        long espera = Math.min(esperaMs, ESPERA_MAXIMA_MS);
+        if (espera <= 0 || !actual.getCambios().isEmpty() || actual.getReiniciar() || desde == null || desde < 0) {
+            DeferredResult<CambiosUsuariosDTO> inmediato = new DeferredResult<>();
+            inmediato.setResult(actual);
+            return inmediato;
+        }
+        DeferredResult<CambiosUsuariosDTO> resultado = new DeferredResult<>(espera, actual);
+        Espera pendiente = new Espera(actual.getHasta(), limite, resultado);
+        esperas.add(pendiente);
+        resultado.onCompletion(() -> esperas.remove(pendiente));
+        return resultado;
+    }
+
+    public SseEmitter suscribir(Long desde) {
+        return suscribir(new SseEmitter(TIMEOUT_SSE_MS), desde);
+    }
+
+    SseEmitter suscribir(SseEmitter emitter, Long desde) {
+        long inicio = desde == null || desde < 0 ? ultimaConfirmada() : desde;
+        suscriptores.put(emitter, new Suscriptor(emitter, inicio));
+        emitter.onCompletion(() -> suscriptores.remove(emitter));
+        emitter.onTimeout(() -> suscriptores.remove(emitter));
+        emitter.onError(e -> suscriptores.remove(emitter));
+        try {
+            // La marca inicial, para que el consumidor sepa desde dónde sigue aunque no haya cambios.
+            emitter.send(SseEmitter.event().name("marca").data(inicio));
+        } catch (IOException e) {
+            suscriptores.remove(emitter);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    private void tickSeguro() {
+        try {
+            tick(System.currentTimeMillis());
+        } catch (Exception e) {
+            System.out.println(">>> Error al notificar cambios de usuarios: " + e.getMessage());
+        }
+    }
+
+    // El ticker solo consulta y reparte: los cambios se leen una vez, desde la marca más atrasada, y cada
+    // consumidor recibe su tramo. Los envíos SSE van al despachador, así un cliente lento no frena al resto.
+    void tick(long ahoraMs) {
+        if (esperas.isEmpty() && suscriptores.isEmpty()) {
+            return;
+        }
+        long ultima = ultimaConfirmada();
+
+        List<Suscriptor> atrasados = new ArrayList<>();
+        long masAtrasada = Long.MAX_VALUE;
+        for (Espera espera : esperas) {
+            if (espera.desde() != ultima) {
+                masAtrasada = Math.min(masAtrasada, espera.desde());
+            }
+        }
+        for (Suscriptor suscriptor : suscriptores.values()) {
+            if (suscriptor.cursor != ultima && !suscriptor.ocupado()) {
+                atrasados.add(suscriptor);
+                masAtrasada = Math.min(masAtrasada, suscriptor.cursor);
+            }
+        }
+        Lectura lectura = masAtrasada == Long.MAX_VALUE ? null : new Lectura(cambiosDesde(masAtrasada, LIMITE_MAXIMO));
+
+        for (Espera espera : esperas) {
+            if (espera.desde() != ultima) {
+                espera.resultado().setResult(lectura.desde(espera.desde(), espera.limite()));
+            }
+        }
+
+        for (Suscriptor suscriptor : atrasados) {
+            CambiosUsuariosDTO cambios = lectura.desde(suscriptor.cursor, LIMITE_MAXIMO);
+            suscriptor.cursor = cambios.getHasta();
+            programar(suscriptor, SseEmitter.event().id(String.valueOf(cambios.getHasta())).name("cambios").data(cambios));
+        }
+        if (!atrasados.isEmpty()) {
+            ultimoEnvioMs = ahoraMs;
+        } else if (ahoraMs - ultimoEnvioMs >= HEARTBEAT_MS) {
+            for (Suscriptor suscriptor : suscriptores.values()) {
+                if (!suscriptor.ocupado()) {
+                    programar(suscriptor, SseEmitter.event().comment("ping"));
+                }
+            }
+            ultimoEnvioMs = ahoraMs;
+        }
+        descartarLentos(ahoraMs);
+    }
+
+    // Cada suscriptor tiene a lo sumo un envío en curso; mientras tanto el tick no le prepara otro.
+    private void programar(Suscriptor suscriptor, SseEmitter.SseEventBuilder evento) {
+        suscriptor.iniciar();
+        try {
+            despachador.execute(() -> enviar(suscriptor, evento));
+        } catch (RejectedExecutionException e) {
+            descartar(suscriptor, e);
+        }
+    }
+
+    private void enviar(Suscriptor suscriptor, SseEmitter.SseEventBuilder evento) {
+        try {
+            suscriptor.comenzarEnvio(System.currentTimeMillis());
+            suscriptor.emitter.send(evento);
+        } catch (IOException | IllegalStateException e) {
+            descartar(suscriptor, e);
+        } finally {
+            suscriptor.terminar();
+        }
+    }
+
+    void descartarLentos(long ahoraMs) {
+        for (Suscriptor suscriptor : suscriptores.values()) {
+            if (suscriptor.enviandoHace(ahoraMs) > ENVIO_MAX_MS) {
+                descartar(suscriptor, new TimeoutException("Cliente SSE lento"));
+                suscriptor.interrumpir();
+            }
+        }
+    }
+
+    private void descartar(Suscriptor suscriptor, Throwable causa) {
+        if (suscriptores.remove(suscriptor.emitter) != null) {
+            try {
+                suscriptor.emitter.completeWithError(causa);
+            } catch (Exception e) {
+                // La conexión ya estaba cerrada.
+            }
+        }
+    }
+
+    int cantidadSuscriptores() {
+        return suscriptores.size();
+    }
+
+    private void depurarSeguro() {
+        try {
+            Integer eliminados = transaccion.execute(status ->
+                    cambioRepository.eliminarAnterioresA(LocalDateTime.now().minusDays(retencionDias)));
+            if (eliminados != null && eliminados > 0) {
+                System.out.println(">>> Cambios de usuarios depurados: " + eliminados);
+            }
+        } catch (Exception e) {
+            System.out.println(">>> Error al depurar cambios de usuarios: " + e.getMessage());
+        }
+    }
+
+    int cantidadEsperas() {
+        return esperas.size();
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        ticker.shutdownNow();
+        despachador.shutdownNow();
+        suscriptores.keySet().forEach(SseEmitter::complete);
+    }
+
+    private record Espera(long desde, int limite, DeferredResult<CambiosUsuariosDTO> resultado) {
+    }
+
+    // Lo leído en un tick. Un consumidor cuyo tramo no está completo en la lectura común (la marca quedó fuera
+    // de la ventana leída, o hay que reiniciar) se consulta aparte, una vez por marca distinta.
+    private final class Lectura {
+        private final CambiosUsuariosDTO comun;
+        private final Map<Long, CambiosUsuariosDTO> aparte = new HashMap<>();
+
+        private Lectura(CambiosUsuariosDTO comun) {
+            this.comun = comun;
+        }
+
+        CambiosUsuariosDTO desde(long desde, int limite) {
+            if (desde == comun.getDesde() && comun.getCambios().size() <= limite) {
+                return comun;
+            }
+            List<UsuarioCambio> cambios = comun.getCambios();
+            if (!comun.getReiniciar() && desde >= comun.getDesde() && !cambios.isEmpty()
+                    && desde < cambios.get(cambios.size() - 1).getSecuencia()) {
+                List<UsuarioCambio> tramo = cambios.stream().filter(c -> c.getSecuencia() > desde).toList();
+                boolean recortado = tramo.size() > limite;
+                if (recortado) {
+                    tramo = tramo.subList(0, limite);
+                }
+                return new CambiosUsuariosDTO(desde, tramo.get(tramo.size() - 1).getSecuencia(), false,
+                        recortado || comun.getHayMas(), tramo);
+            }
+            return aparte.computeIfAbsent(desde, d -> cambiosDesde(d, limite));
+        }
+    }
+
+    private static final class Suscriptor {
+        private final SseEmitter emitter;
+        // Solo lo toca el ticker.
+        private long cursor;
+        private boolean ocupado;
+        private long enviandoDesde;
+        private Thread hilo;
+
+        private Suscriptor(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+
+        synchronized boolean ocupado() {
+            return ocupado;
+        }
+
+        synchronized void iniciar() {
+            ocupado = true;
+        }
+
+        synchronized void comenzarEnvio(long ahora) {
+            enviandoDesde = ahora;
+            hilo = Thread.currentThread();
+        }
+
+        synchronized void terminar() {
+            ocupado = false;
+            enviandoDesde = 0;
+            hilo = null;
+        }
+
+        synchronized long enviandoHace(long ahora) {
+            return enviandoDesde == 0 ? 0 : ahora - enviandoDesde;
+        }
+
+        synchronized void interrumpir() {
+            if (hilo != null) {
+                hilo.interrupt();
+            }
+        }
+    }
+
+}
@@ -1,48 +1,144 @@
 package com.microservicio.registrousuario.service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.microservicio.registrousuario.dto.LoteUsuariosDTO;
+import com.microservicio.registrousuario.dto.PaginaUsuariosDTO;
+import com.microservicio.registrousuario.dto.UsuarioResumenDTO;
 import com.microservicio.registrousuario.model.Rol;
 import com.microservicio.registrousuario.model.Usuario;
+import com.microservicio.registrousuario.model.UsuarioCambio;
 import com.microservicio.registrousuario.repository.UsuarioRepository;
 
-import jakarta.transaction.Transactional;
-
-import com.microservicio.registrousuario.repository.RolRepository; 
-
 @Service
 public class UsuarioService {
+    static final int LIMITE_PAGINA = 200;
+    static final int LIMITE_LOTE = 500;
+    public static final Set<String> CAMPOS = Set.of("id", "nickname", "correo", "rol", "clave");
+    // La clave (hash) solo viaja si el llamador la pide explícitamente, por ejemplo para autenticar.
+    static final String CAMPOS_POR_DEFECTO = "id,nickname,correo,rol";
+
     private final UsuarioRepository usuarioRepository;
-    private final PasswordEncoder passwordEncoder;
-    private final RolRepository rolRepository; 
+    private final HashClaveService hashClaveService;
+    private final RegistroRoles registroRoles;
+    private final DisponibilidadService disponibilidadService;
+    private final UsuarioCambioService usuarioCambioService;
+    // Las mutaciones guardan el usuario y su fila del feed de cambios juntas. El hash BCrypt se calcula antes
+    // de abrir la transacción, para no retener una conexión mientras tanto.
+    private final TransactionTemplate transaccion;
 
-    public UsuarioService(UsuarioRepository usuarioRepository, PasswordEncoder passwordEncoder, RolRepository rolRepository) { // 3. INYECTAR REPOSITORIO
+    public UsuarioService(UsuarioRepository usuarioRepository, HashClaveService hashClaveService, RegistroRoles registroRoles,
+            DisponibilidadService disponibilidadService, UsuarioCambioService usuarioCambioService,
+            PlatformTransactionManager transactionManager) {
         this.usuarioRepository = usuarioRepository;
-        this.passwordEncoder = passwordEncoder;
-        this.rolRepository = rolRepository; 
+        this.hashClaveService = hashClaveService;
+        this.registroRoles = registroRoles;
+        this.disponibilidadService = disponibilidadService;
+        this.usuarioCambioService = usuarioCambioService;
+        this.transaccion = new TransactionTemplate(transactionManager);
     }
 
     public Usuario crearUsuario(Usuario usuario) {
         
        
-        Rol rolCliente = rolRepository.findByNombre("CLIENTE")
+        Rol rolCliente = registroRoles.porNombre("CLIENTE")
                 .orElseThrow(() -> new RuntimeException("Error de configuración: El rol CLIENTE no existe en la base de datos."));
         
        
         usuario.setRol(rolCliente);
       
-
+        // Antes del hash: un duplicado no debería costar un BCrypt.
+        if (disponibilidadService.nicknameRegistrado(usuario.getNickname())) {
+            throw new RuntimeException("El nickname ya está registrado.");
+        }
+        if (disponibilidadService.correoRegistrado(usuario.getCorreo())) {
+            throw new RuntimeException("El correo ya está registrado.");
+        }
        
-        usuario.setClave(passwordEncoder.encode(usuario.getClave()));
-        return usuarioRepository.save(usuario);
+        usuario.setClave(hashClaveService.hashear(usuario.getClave()));
+        Usuario guardado = transaccion.execute(status -> {
+            Usuario nuevo = usuarioRepository.save(usuario);
+            usuarioCambioService.registrar(nuevo.getId(), UsuarioCambio.CREADO, nuevo.getNickname(), nuevo.getCorreo(), null, null);
+            return nuevo;
+        });
+        disponibilidadService.registrar(guardado.getNickname(), guardado.getCorreo());
+        return guardado;
+    }
+
+    // Todos los usuarios como resumen (sin clave), recorriendo las páginas por cursor.
+    public List<UsuarioResumenDTO> listarUsuarios() {
+        List<UsuarioResumenDTO> usuarios = new ArrayList<>();
+        Long despues = 0L;
+        do {
+            PaginaUsuariosDTO pagina = listarPagina(despues, LIMITE_PAGINA, null, null);
+            usuarios.addAll(pagina.getUsuarios());
+            despues = pagina.getSiguiente();
+        } while (despues != null);
+        return usuarios;
+    }
+   
+    // Página de resúmenes después del ID 'despues' (0 = desde el inicio), con filtros opcionales por
+    // nombre de rol y prefijo de nickname.
+    public PaginaUsuariosDTO listarPagina(Long despues, int limite, String rol, String prefijoNickname) {
+        if (limite < 1 || limite > LIMITE_PAGINA) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_PAGINA + ".");
+        }
+        String filtroRol = rol == null || rol.isBlank() ? null : rol.trim();
+        String prefijo = prefijoNickname == null || prefijoNickname.isEmpty() ? null
+                : prefijoNickname.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+
+        // Se pide una fila de más solo para saber si hay página siguiente.
+        List<UsuarioResumenDTO> usuarios = usuarioRepository.buscarPagina(despues == null ? 0L : despues, filtroRol,
+                prefijo, PageRequest.of(0, limite + 1));
+        Long siguiente = null;
+        if (usuarios.size() > limite) {
+            usuarios = usuarios.subList(0, limite);
+            siguiente = usuarios.get(limite - 1).getId();
+        }
+        return new PaginaUsuariosDTO(usuarios, siguiente);
+    }
+   
+    // Resuelve hasta LIMITE_LOTE ids, nicknames y correos (en total) con una sola consulta.
+    public List<Map<String, Object>> buscarLote(LoteUsuariosDTO lote, String fields) {
+        List<Long> ids = lote.getIds() == null ? List.of() : lote.getIds();
+        List<String> nicknames = lote.getNicknames() == null ? List.of() : lote.getNicknames();
+        List<String> correos = lote.getCorreos() == null ? List.of() : lote.getCorreos();
+        int total = ids.size() + nicknames.size() + correos.size();
+        if (total > LIMITE_LOTE) {
+            throw new IllegalArgumentException("Máximo " + LIMITE_LOTE + " usuarios por lote; se pidieron " + total + ".");
+        }
+        Set<String> campos = parsearCampos(fields == null ? CAMPOS_POR_DEFECTO : fields);
+        if (total == 0) {
+            return List.of();
+        }
+        return usuarioRepository.buscarLote(campos, new LinkedHashSet<>(ids), new LinkedHashSet<>(nicknames),
+                new LinkedHashSet<>(correos));
     }
 
-    public List<Usuario> listarUsuarios() {
-        return usuarioRepository.findAll();
+    private Set<String> parsearCampos(String fields) {
+        Set<String> campos = new LinkedHashSet<>();
+        Arrays.stream(fields.split(",")).map(String::trim).filter(c -> !c.isEmpty()).forEach(campos::add);
+        for (String campo : campos) {
+            if (!CAMPOS.contains(campo)) {
+                throw new IllegalArgumentException("Campo desconocido: " + campo + ". Permitidos: " + CAMPOS);
+            }
+        }
+        if (campos.isEmpty()) {
+            throw new IllegalArgumentException("Debe indicar al menos un campo en 'fields'.");
+        }
+        return campos;
     }
    
     public Usuario buscarPorCorreo(String correo) {
@@ -50,12 +146,15 @@ public class UsuarioService {
                 .orElse(null); 
     }
    
-    @Transactional
     public Usuario actualizarClavePorEmail(String email, String nuevaClave) {
         return usuarioRepository.findByCorreo(email).map(usuario -> {
            
-            usuario.setClave(passwordEncoder.encode(nuevaClave));
-            return usuarioRepository.save(usuario);
+            usuario.setClave(hashClaveService.hashear(nuevaClave));
+            return transaccion.execute(status -> {
+                Usuario guardado = usuarioRepository.save(usuario);
+                usuarioCambioService.registrar(guardado.getId(), UsuarioCambio.CLAVE, guardado.getNickname(), guardado.getCorreo(), null, null);
+                return guardado;
+            });
         }).orElse(null);
     }
 
@@ -65,25 +164,40 @@ public class UsuarioService {
                 .orElse(null); 
     }
 
-    public Optional<Usuario> obtenerPorId(Long id) {
-        return usuarioRepository.findById(id);
+    public Optional<UsuarioResumenDTO> obtenerPorId(Long id) {
+        return usuarioRepository.buscarResumen(id);
     }
 
     public void eliminarUsuario(Long id) {
-        usuarioRepository.deleteById(id);
+        transaccion.executeWithoutResult(status -> {
+            Optional<Usuario> usuario = usuarioRepository.findById(id);
+            usuarioRepository.deleteById(id);
+            usuario.ifPresent(u -> usuarioCambioService.registrar(id, UsuarioCambio.ELIMINADO, u.getNickname(), u.getCorreo(), null, null));
+        });
     }
 
     public Usuario actualizarUsuario(Long id, Usuario usuarioActualizado) {
         return usuarioRepository.findById(id).map(usuario -> {
+            String nicknameAnterior = usuario.getNickname();
+            String correoAnterior = usuario.getCorreo();
             usuario.setNickname(usuarioActualizado.getNickname());
             usuario.setCorreo(usuarioActualizado.getCorreo());
             usuario.setRol(usuarioActualizado.getRol());
             
             if (usuarioActualizado.getClave() != null && !usuarioActualizado.getClave().trim().isEmpty()) {
-                usuario.setClave(passwordEncoder.encode(usuarioActualizado.getClave()));
+                usuario.setClave(hashClaveService.hashear(usuarioActualizado.getClave()));
             }
             
-            return usuarioRepository.save(usuario);
+            Usuario guardado = transaccion.execute(status -> {
+                Usuario actualizado = usuarioRepository.save(usuario);
+                usuarioCambioService.registrar(actualizado.getId(), UsuarioCambio.ACTUALIZADO,
+                        actualizado.getNickname(), actualizado.getCorreo(),
+                        Objects.equals(nicknameAnterior, actualizado.getNickname()) ? null : nicknameAnterior,
+                        Objects.equals(correoAnterior, actualizado.getCorreo()) ? null : correoAnterior);
+                return actualizado;
+            });
+            disponibilidadService.registrar(guardado.getNickname(), guardado.getCorreo());
+            return guardado;
         }).orElse(null);
     }
 }
\ No newline at end of file
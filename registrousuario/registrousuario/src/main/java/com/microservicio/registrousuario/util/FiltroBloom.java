@@ -0,0 +1,73 @@
+package com.microservicio.registrousuario.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Filtro de Bloom sobre cadenas: "no está" es seguro, "puede estar" hay que confirmarlo.
+// Los bits viven en un AtomicLongArray, así que agregar y consultar desde varios hilos no necesita candados.
+// Las k posiciones salen de dos hashes de 64 bits combinados (h1 + i * h2).
+public class FiltroBloom {
+    private final AtomicLongArray bits;
+    private final long cantidadBits;
+    private final int funciones;
+    private final long capacidad;
+
+    // Dimensiona para 'capacidad' elementos con la tasa de falsos positivos indicada.
+    public FiltroBloom(long capacidad, double falsosPositivos) {
+        long m = (long) Math.ceil(-capacidad * Math.log(falsosPositivos) / (Math.log(2) * Math.log(2)));
+        long palabras = Math.max(1, (m + 63) / 64);
+        if (palabras > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Filtro de Bloom demasiado grande: " + capacidad + " elementos");
+        }
+        this.bits = new AtomicLongArray((int) palabras);
+        this.cantidadBits = palabras * 64;
+        this.funciones = Math.max(1, (int) Math.round((double) cantidadBits / capacidad * Math.log(2)));
+        this.capacidad = capacidad;
+    }
+
+    public long getCapacidad() {
+        return capacidad;
+    }
+
+    public void agregar(String valor) {
+        long h1 = hash(valor, 0x9E3779B97F4A7C15L);
+        long h2 = hash(valor, 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int i = 0; i < funciones; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, cantidadBits);
+            int palabra = (int) (bit >>> 6);
+            long mascara = 1L << bit;
+            long actual = bits.get(palabra);
+            while ((actual & mascara) == 0 && !bits.compareAndSet(palabra, actual, actual | mascara)) {
+                actual = bits.get(palabra);
+            }
+        }
+    }
+
+    public boolean puedeContener(String valor) {
+        long h1 = hash(valor, 0x9E3779B97F4A7C15L);
+        long h2 = hash(valor, 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int i = 0; i < funciones; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, cantidadBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // FNV-1a de 64 bits sobre los bytes UTF-8, con semilla, y mezcla final de MurmurHash3.
+    private static long hash(String valor, long semilla) {
+        long h = 0xCBF29CE484222325L ^ semilla;
+        for (byte b : valor.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xFF;
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+}
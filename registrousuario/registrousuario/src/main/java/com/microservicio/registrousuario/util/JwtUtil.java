@@ -45,4 +45,17 @@ public class JwtUtil {
         if (claims == null) return null;
         return (String) claims.get("rol");
     }
-}
\ No newline at end of file
+
+    // Permisos del token (bits de Permiso). Los tokens emitidos antes de agregar el claim "permisos" se
+    // resuelven por su rol.
+    public Integer extractPermisos(String token) {
+        Claims claims = extractAllClaims(token);
+        if (claims == null) return null;
+        Object permisos = claims.get("permisos");
+        if (permisos instanceof Number numero) {
+            return numero.intValue();
+        }
+        return Permiso.deRol((String) claims.get("rol"));
+    }
+
+}
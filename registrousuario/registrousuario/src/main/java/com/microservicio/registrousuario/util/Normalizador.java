@@ -0,0 +1,23 @@
+package com.microservicio.registrousuario.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// Forma canónica de nicknames y correos para comparar unicidad igual que la base: la intercalación de MySQL
+// (utf8mb4_0900_ai_ci) no distingue mayúsculas ni tildes, así que "José" y "jose" son el mismo nickname.
+public final class Normalizador {
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+
+    private Normalizador() {
+    }
+
+    public static String normalizar(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        String sinTildes = MARCAS.matcher(Normalizer.normalize(valor.trim(), Normalizer.Form.NFKD)).replaceAll("");
+        return sinTildes.toLowerCase(Locale.ROOT);
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.microservicio.registrousuario.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import com.microservicio.registrousuario.util.JwtUtil;
+import com.microservicio.registrousuario.util.Permiso;
+import com.microservicio.registrousuario.util.RequierePermiso;
+
+@ExtendWith(MockitoExtension.class)
+public class PermisoInterceptorTest {
+    @Mock
+    private JwtUtil jwtUtil;
+
+    private PermisoInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = new PermisoInterceptor(jwtUtil);
+    }
+
+    static class Endpoints {
+        @RequierePermiso({ Permiso.USUARIOS_LEER, Permiso.USUARIOS_ADMINISTRAR })
+        public void administrar() {
+        }
+
+        public void libre() {
+        }
+    }
+
+    private static HandlerMethod metodo(String nombre) throws Exception {
+        return new HandlerMethod(new Endpoints(), Endpoints.class.getMethod(nombre));
+    }
+
+    private static MockHttpServletRequest peticion(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (token != null) {
+            request.addHeader("Authorization", token);
+        }
+        return request;
+    }
+
+    @Test
+    void testPreHandle_ExigeTodosLosPermisos() throws Exception {
+        when(jwtUtil.extractPermisos("Bearer admin")).thenReturn(Permiso.deRol("ADMINISTRADOR"));
+        when(jwtUtil.extractPermisos("Bearer delivery")).thenReturn(Permiso.deRol("DELIVERY"));
+
+        assertTrue(interceptor.preHandle(peticion("Bearer admin"), new MockHttpServletResponse(), metodo("administrar")));
+
+        MockHttpServletResponse prohibido = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(peticion("Bearer delivery"), prohibido, metodo("administrar")));
+        assertEquals(403, prohibido.getStatus());
+    }
+
+    @Test
+    void testPreHandle_SinTokenOTokenInvalido_Retorna401() throws Exception {
+        MockHttpServletResponse sinToken = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(peticion(null), sinToken, metodo("administrar")));
+        assertEquals(401, sinToken.getStatus());
+
+        when(jwtUtil.extractPermisos("Bearer vencido")).thenReturn(null);
+        MockHttpServletResponse invalido = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(peticion("Bearer vencido"), invalido, metodo("administrar")));
+        assertEquals(401, invalido.getStatus());
+        assertEquals("Token JWT inválido o expirado.", invalido.getContentAsString());
+    }
+
+    @Test
+    void testPreHandle_SinAnotacion_NoLeeElToken() throws Exception {
+        assertTrue(interceptor.preHandle(peticion(null), new MockHttpServletResponse(), metodo("libre")));
+    }
+
+}
@@ -18,7 +18,9 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microservicio.registrousuario.model.Rol;
+import com.microservicio.registrousuario.service.RegistroRoles;
 import com.microservicio.registrousuario.service.RolService;
+import com.microservicio.registrousuario.util.JwtUtil;
 
 @WebMvcTest(RolController.class) 
 public class RolControllerTest {
@@ -32,6 +34,12 @@ public class RolControllerTest {
     @MockBean
     private RolService rolService; 
 
+    @MockBean
+    private RegistroRoles registroRoles;
+
+    @MockBean
+    private JwtUtil jwtUtil;
+
     private Rol rolAdmin;
     private String rolAdminJson;
 
@@ -59,20 +67,20 @@ public class RolControllerTest {
     @Test
     void testListarRoles_RetornaOk() throws Exception {
         List<Rol> listaRoles = Arrays.asList(rolAdmin, new Rol(2L, "CLIENTE"));
-        when(rolService.listarRoles()).thenReturn(listaRoles);
+        when(registroRoles.todos()).thenReturn(listaRoles);
 
         mockMvc.perform(get("/roles")
                 .contentType(MediaType.APPLICATION_JSON))
                 
                 .andExpect(status().isOk());
         
-        verify(rolService, times(1)).listarRoles();
+        verify(registroRoles, times(1)).todos();
     }
     
     
     @Test
     void testObtenerRol_Encontrado_RetornaOk() throws Exception {
-        when(rolService.obtenerPorId(1L)).thenReturn(Optional.of(rolAdmin));
+        when(registroRoles.porId(1L)).thenReturn(Optional.of(rolAdmin));
 
         mockMvc.perform(get("/roles/{id}", 1L)
                 .contentType(MediaType.APPLICATION_JSON))
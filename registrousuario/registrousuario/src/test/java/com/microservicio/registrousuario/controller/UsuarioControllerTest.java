@@ -15,10 +15,14 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservicio.registrousuario.dto.UsuarioResumenDTO;
 import com.microservicio.registrousuario.model.Rol;
 import com.microservicio.registrousuario.model.Usuario;
+import com.microservicio.registrousuario.service.DisponibilidadService;
+import com.microservicio.registrousuario.service.ImportacionUsuariosService;
 import com.microservicio.registrousuario.service.UsuarioService;
 import com.microservicio.registrousuario.util.JwtUtil;
+import com.microservicio.registrousuario.util.Permiso;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*; 
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*; 
 
@@ -38,6 +42,12 @@ public class UsuarioControllerTest {
     @MockBean
     private UsuarioService usuarioService;
 
+    @MockBean
+    private ImportacionUsuariosService importacionUsuariosService;
+
+    @MockBean
+    private DisponibilidadService disponibilidadService;
+
     @MockBean
     private JwtUtil jwtUtil; 
 
@@ -56,12 +66,12 @@ public class UsuarioControllerTest {
         usuarioDelivery = new Usuario(2L, "deliveryuser", "pass", "delivery@mail.com", new Rol(3L, "DELIVERY"));
         
        
-        when(jwtUtil.extractRole(ADMIN_TOKEN)).thenReturn("ADMINISTRADOR");
-        when(jwtUtil.extractRole(DELIVERY_TOKEN)).thenReturn("DELIVERY");
-        when(jwtUtil.extractRole(CLIENTE_TOKEN)).thenReturn("CLIENTE");
+        when(jwtUtil.extractPermisos(ADMIN_TOKEN)).thenReturn(Permiso.deRol("ADMINISTRADOR"));
+        when(jwtUtil.extractPermisos(DELIVERY_TOKEN)).thenReturn(Permiso.deRol("DELIVERY"));
+        when(jwtUtil.extractPermisos(CLIENTE_TOKEN)).thenReturn(Permiso.deRol("CLIENTE"));
         
         
-        when(jwtUtil.extractRole(eq("Bearer invalid_token"))).thenReturn(null);
+        when(jwtUtil.extractPermisos(eq("Bearer invalid_token"))).thenReturn(null);
         
         usuarioJson = objectMapper.writeValueAsString(usuarioAdmin); 
     }
@@ -110,7 +120,8 @@ public class UsuarioControllerTest {
    
     @Test
     void testListar_ComoAdmin_RetornaOk() throws Exception {
-        when(usuarioService.listarUsuarios()).thenReturn(Arrays.asList(usuarioAdmin));
+        when(usuarioService.listarUsuarios())
+                .thenReturn(Arrays.asList(new UsuarioResumenDTO(1L, "adminuser", "admin@mail.com", "ADMINISTRADOR")));
 
         mockMvc.perform(get("/usuarios")
                 .header("Authorization", ADMIN_TOKEN) 
@@ -134,14 +145,16 @@ public class UsuarioControllerTest {
    
     @Test
     void testObtenerPorId_ComoDelivery_RetornaOk() throws Exception {
-        when(usuarioService.obtenerPorId(2L)).thenReturn(Optional.of(usuarioDelivery));
+        when(usuarioService.obtenerPorId(2L))
+                .thenReturn(Optional.of(new UsuarioResumenDTO(2L, "deliveryuser", "delivery@mail.com", "DELIVERY")));
 
         mockMvc.perform(get("/usuarios/{id}", 2L)
                 .header("Authorization", DELIVERY_TOKEN)) 
                 
                 
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.nickname").value("deliveryuser"));
+                .andExpect(jsonPath("$.nickname").value("deliveryuser"))
+                .andExpect(jsonPath("$.clave").doesNotExist());
     }
     
     @Test
@@ -0,0 +1,92 @@
+package com.microservicio.registrousuario.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import com.microservicio.registrousuario.dto.UsuarioResumenDTO;
+import com.microservicio.registrousuario.repository.UsuarioRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class DisponibilidadServiceTest {
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private DisponibilidadService disponibilidadService;
+
+    @BeforeEach
+    void setUp() {
+        disponibilidadService = new DisponibilidadService(usuarioRepository, registry);
+    }
+
+    @AfterEach
+    void cerrar() {
+        disponibilidadService.cerrar();
+    }
+
+    private void cargar(UsuarioResumenDTO... usuarios) {
+        when(usuarioRepository.count()).thenReturn((long) usuarios.length);
+        when(usuarioRepository.buscarPagina(0L, null, null, PageRequest.of(0, DisponibilidadService.TAMANO_PAGINA)))
+                .thenReturn(List.of(usuarios));
+        disponibilidadService.reconstruir();
+    }
+
+    @Test
+    void testSinCargar_VaSiempreALaBase() {
+        when(usuarioRepository.existsByNickname("ana")).thenReturn(true);
+
+        assertTrue(disponibilidadService.nicknameRegistrado("ana"));
+    }
+
+    @Test
+    void testLibre_SeRespondeSinConsultarLaBase() {
+        cargar(new UsuarioResumenDTO(1L, "Ana", "ana@mail.com", "CLIENTE"));
+
+        assertFalse(disponibilidadService.nicknameRegistrado("beto"));
+        assertFalse(disponibilidadService.correoRegistrado("beto@mail.com"));
+
+        verify(usuarioRepository, never()).existsByNickname(anyString());
+        verify(usuarioRepository, never()).existsByCorreo(anyString());
+        assertEquals(2, registry.get("usuarios.disponibilidad.consultas").tag("origen", "filtro").counter().count());
+    }
+
+    @Test
+    void testPuedeEstar_SeConfirmaEnLaBase() {
+        cargar(new UsuarioResumenDTO(1L, "Ana", "ana@mail.com", "CLIENTE"));
+        when(usuarioRepository.existsByNickname("ána")).thenReturn(true);
+        when(usuarioRepository.existsByCorreo("ANA@mail.com")).thenReturn(false);
+
+        assertTrue(disponibilidadService.nicknameRegistrado("ána"));
+        // Falso positivo del filtro (el usuario fue eliminado, por ejemplo): manda la base.
+        assertFalse(disponibilidadService.correoRegistrado("ANA@mail.com"));
+    }
+
+    @Test
+    void testRegistrar_AgregaAlFiltro() {
+        cargar();
+        when(usuarioRepository.existsByNickname("nuevo")).thenReturn(true);
+
+        disponibilidadService.registrar("nuevo", "nuevo@mail.com");
+
+        assertTrue(disponibilidadService.nicknameRegistrado("nuevo"));
+        verify(usuarioRepository).existsByNickname("nuevo");
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.microservicio.registrousuario.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class HashClaveServiceTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private HashClaveService hashClaveService;
+
+    @AfterEach
+    void cerrar() {
+        hashClaveService.cerrar();
+    }
+
+    @Test
+    void testHashear_DelegaEnEncoderYRegistraLatencia() {
+        PasswordEncoder encoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence clave) {
+                return "hash:" + clave;
+            }
+
+            @Override
+            public boolean matches(CharSequence clave, String hash) {
+                return hash.equals(encode(clave));
+            }
+        };
+        hashClaveService = new HashClaveService(encoder, registry, 2, 4);
+
+        assertEquals("hash:clave123", hashClaveService.hashear("clave123"));
+        assertEquals(1, registry.get("usuarios.hash.latencia").timer().count());
+        assertEquals(0, registry.get("usuarios.hash.cola").gauge().value());
+    }
+
+    @Test
+    void testHashear_ColaLlena_RechazaSinEsperar() throws Exception {
+        CountDownLatch ocupado = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        PasswordEncoder lento = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence clave) {
+                ocupado.countDown();
+                try {
+                    liberar.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash:" + clave;
+            }
+
+            @Override
+            public boolean matches(CharSequence clave, String hash) {
+                return false;
+            }
+        };
+        hashClaveService = new HashClaveService(lento, registry, 1, 1);
+
+        CompletableFuture<String> primero = CompletableFuture.supplyAsync(() -> hashClaveService.hashear("a"));
+        assertEquals(true, ocupado.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> enCola = CompletableFuture.supplyAsync(() -> hashClaveService.hashear("b"));
+        while (registry.get("usuarios.hash.cola").gauge().value() < 1) {
+            Thread.sleep(5);
+        }
+
+        assertThrows(RejectedExecutionException.class, () -> hashClaveService.hashear("c"));
+        assertEquals(1, registry.get("usuarios.hash.rechazos").counter().count());
+
+        liberar.countDown();
+        assertEquals("hash:a", primero.get(5, TimeUnit.SECONDS));
+        assertEquals("hash:b", enCola.get(5, TimeUnit.SECONDS));
+    }
+
+}
@@ -0,0 +1,165 @@
+package com.microservicio.registrousuario.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservicio.registrousuario.dto.ResultadoImportacionDTO;
+import com.microservicio.registrousuario.model.Rol;
+import com.microservicio.registrousuario.repository.UsuarioRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class ImportacionUsuariosServiceTest {
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @Mock
+    private RegistroRoles registroRoles;
+
+    @Mock
+    private DisponibilidadService disponibilidadService;
+
+    @Mock
+    private UsuarioCambioService usuarioCambioService;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ImportacionUsuariosService importacionService;
+
+    @BeforeEach
+    void setUp() {
+        importacionService = new ImportacionUsuariosService(usuarioRepository, registroRoles, disponibilidadService, usuarioCambioService, passwordEncoder,
+                jdbcTemplate, transactionManager, new ObjectMapper(), 2, 2);
+        when(registroRoles.porNombre("CLIENTE")).thenReturn(Optional.of(new Rol(1L, "CLIENTE")));
+    }
+
+    @AfterEach
+    void cerrar() {
+        importacionService.cerrar();
+    }
+
+    private static InputStream texto(String contenido) {
+        return new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testImportarCsv_ValidaDuplicadosYInsertaPorLotes() throws Exception {
+        when(passwordEncoder.encode(anyString())).thenAnswer(i -> "hash:" + i.getArgument(0));
+        when(usuarioRepository.buscarExistentes(anyCollection(), anyCollection()))
+                .thenReturn(new ArrayList<>(List.<Object[]>of(new Object[] { "Tomado", "otro@mail.com" })))
+                .thenReturn(List.of());
+        List<List<Object[]>> lotes = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(i -> {
+            lotes.add(new ArrayList<>(i.getArgument(1)));
+            return new int[0];
+        });
+
+        String csv = "correo,nickname,clave\n"
+                + "ana@mail.com,ana,\"cla,ve\"\n"
+                + "x@mail.com,tomado,c1\n"
+                + "\n"
+                + "ANA@mail.com,ana2,c2\n"
+                + "sinarroba,beto,c3\n"
+                + "beto@mail.com,beto,c4\n";
+
+        ResultadoImportacionDTO resultado = importacionService.importar(texto(csv), ImportacionUsuariosService.Formato.CSV);
+
+        assertEquals(5, resultado.getTotal());
+        assertEquals(2, resultado.getCreados());
+        assertEquals(3, resultado.getRechazados());
+        assertEquals("CREADO", resultado.getFilas().get(0).getEstado());
+        assertEquals("El nickname ya está registrado.", resultado.getFilas().get(1).getMensaje());
+        assertEquals("Correo repetido en el archivo.", resultado.getFilas().get(2).getMensaje());
+        assertEquals("Correo inválido.", resultado.getFilas().get(3).getMensaje());
+        assertEquals("CREADO", resultado.getFilas().get(4).getEstado());
+
+        assertEquals(2, lotes.size());
+        assertEquals(List.of("ana", "hash:cla,ve", "ana@mail.com", 1L, "ana", "ana@mail.com"), List.of(lotes.get(0).get(0)));
+        assertEquals("beto", lotes.get(1).get(0)[0]);
+        verify(passwordEncoder, never()).encode("c1");
+        verify(disponibilidadService).registrar("ana", "ana@mail.com");
+        verify(disponibilidadService).registrar("beto", "beto@mail.com");
+    }
+
+    @Test
+    void testImportarNdjson_FilaMalFormadaSeRechazaSinCortar() throws Exception {
+        when(passwordEncoder.encode(anyString())).thenReturn("hash");
+        when(usuarioRepository.buscarExistentes(anyCollection(), anyCollection())).thenReturn(List.of());
+
+        String ndjson = "{\"nickname\":\"ana\",\"correo\":\"ana@mail.com\",\"clave\":\"c\"}\n"
+                + "{no es json\n"
+                + "{\"nickname\":\"beto\",\"correo\":\"beto@mail.com\"}\n";
+
+        ResultadoImportacionDTO resultado = importacionService.importar(texto(ndjson), ImportacionUsuariosService.Formato.NDJSON);
+
+        assertEquals(3, resultado.getTotal());
+        assertEquals(1, resultado.getCreados());
+        assertEquals("Fila mal formada.", resultado.getFilas().get(1).getMensaje());
+        assertEquals("Falta la clave.", resultado.getFilas().get(2).getMensaje());
+    }
+
+    @Test
+    void testImportar_DuplicadoConcurrente_ReintentaFilaPorFila() throws Exception {
+        when(passwordEncoder.encode(anyString())).thenReturn("hash");
+        when(usuarioRepository.buscarExistentes(anyCollection(), anyCollection())).thenReturn(List.of());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new DuplicateKeyException("duplicado"));
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(i -> {
+            if ("beto".equals(i.getArgument(1))) {
+                throw new DuplicateKeyException("duplicado");
+            }
+            return 1;
+        });
+
+        ResultadoImportacionDTO resultado = importacionService.importar(
+                texto("nickname,correo,clave\nana,ana@mail.com,c\nbeto,beto@mail.com,c\n"),
+                ImportacionUsuariosService.Formato.CSV);
+
+        assertEquals(1, resultado.getCreados());
+        assertEquals("CREADO", resultado.getFilas().get(0).getEstado());
+        assertEquals("RECHAZADO", resultado.getFilas().get(1).getEstado());
+        verify(jdbcTemplate, times(2)).update(anyString(), any(Object[].class));
+        verify(usuarioCambioService).registrarAltas(List.of("ana"));
+        verify(usuarioCambioService, never()).registrarAltas(List.of("beto"));
+    }
+
+    @Test
+    void testImportarCsv_SinColumnaClave_LanzaExcepcion() {
+        assertThrows(IllegalArgumentException.class, () -> importacionService.importar(
+                texto("nickname,correo\nana,ana@mail.com\n"), ImportacionUsuariosService.Formato.CSV));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.microservicio.registrousuario.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.microservicio.registrousuario.model.Rol;
+import com.microservicio.registrousuario.repository.RolRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class RegistroRolesTest {
+    @Mock
+    private RolRepository rolRepository;
+
+    @InjectMocks
+    private RegistroRoles registroRoles;
+
+    @Test
+    void testPorNombre_CargaUnaVezYNoConsultaLaBase() {
+        when(rolRepository.findAll()).thenReturn(List.of(new Rol(3L, "DELIVERY"), new Rol(1L, "CLIENTE")));
+
+        assertEquals(1L, registroRoles.porNombre("CLIENTE").get().getId());
+        assertEquals(3L, registroRoles.porNombre("delivery").get().getId());
+        assertTrue(registroRoles.porNombre("SUPERVISOR").isEmpty());
+        assertEquals(List.of(1L, 3L), registroRoles.todos().stream().map(Rol::getId).toList());
+
+        verify(rolRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testPorId_EntregaCopias() {
+        when(rolRepository.findAll()).thenReturn(List.of(new Rol(1L, "CLIENTE")));
+
+        registroRoles.porId(1L).get().setNombre("MODIFICADO");
+
+        assertEquals("CLIENTE", registroRoles.porId(1L).get().getNombre());
+    }
+
+    @Test
+    void testRecargar_CambiaVersionYVeRolesNuevos() {
+        when(rolRepository.findAll())
+                .thenReturn(List.of(new Rol(1L, "CLIENTE")))
+                .thenReturn(List.of(new Rol(1L, "CLIENTE"), new Rol(4L, "SUPERVISOR")));
+        long version = registroRoles.version();
+
+        registroRoles.recargar();
+
+        assertNotEquals(version, registroRoles.version());
+        assertEquals(4L, registroRoles.porNombre("SUPERVISOR").get().getId());
+    }
+
+}
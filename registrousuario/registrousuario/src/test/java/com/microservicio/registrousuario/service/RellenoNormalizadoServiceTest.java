@@ -0,0 +1,86 @@
+package com.microservicio.registrousuario.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+public class RellenoNormalizadoServiceTest {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RellenoNormalizadoService rellenoService;
+
+    @BeforeEach
+    void setUp() {
+        rellenoService = new RellenoNormalizadoService(jdbcTemplate, transactionManager, 2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void lote(long despues, List<Object[]> filas) {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(despues), eq(2))).thenReturn(filas);
+    }
+
+    @Test
+    void testRellenar_NormalizaPorLotesAvanzandoPorId() {
+        lote(0L, List.of(new Object[] { 3L, " Admin1", "Admin@Bootstrap.com" }, new Object[] { 7L, "José", "jose@mail.com" }));
+        lote(7L, List.<Object[]>of(new Object[] { 9L, "beto", "BETO@mail.com" }));
+        lote(9L, List.of());
+        List<List<Object[]>> actualizados = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(i -> {
+            actualizados.add(i.getArgument(1));
+            return new int[0];
+        });
+
+        assertEquals(6, rellenoService.rellenar());
+
+        // Por lote, primero los nicknames y después los correos.
+        assertEquals(4, actualizados.size());
+        assertEquals(List.of("admin1", 3L), List.of(actualizados.get(0).get(0)));
+        assertEquals("jose", actualizados.get(0).get(1)[0]);
+        assertEquals(List.of("admin@bootstrap.com", 3L), List.of(actualizados.get(1).get(0)));
+        assertEquals("beto@mail.com", actualizados.get(3).get(0)[0]);
+    }
+
+    @Test
+    void testRellenar_Choque_SigueFilaPorFila() {
+        lote(0L, List.of(new Object[] { 3L, "ana", "ana@mail.com" }, new Object[] { 7L, "ANA", "otra@mail.com" }));
+        lote(7L, List.of());
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE usuarios SET nickname"), anyList()))
+                .thenThrow(new DuplicateKeyException("duplicado"));
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(i -> {
+            if (Long.valueOf(7L).equals(i.getArgument(2))) {
+                throw new DuplicateKeyException("duplicado");
+            }
+            return 1;
+        });
+
+        // El nickname de 7 choca, pero su correo se normaliza igual y puede iniciar sesión.
+        assertEquals(3, rellenoService.rellenar());
+        verify(jdbcTemplate, times(2)).update(anyString(), any(Object[].class));
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE usuarios SET correo"), anyList());
+    }
+
+}
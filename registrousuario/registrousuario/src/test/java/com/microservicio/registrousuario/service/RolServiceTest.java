@@ -23,6 +23,9 @@ public class RolServiceTest {
     @Mock
     private RolRepository rolRepository;
 
+    @Mock
+    private RegistroRoles registroRoles;
+
     @InjectMocks
     private RolService rolService;
 
@@ -89,5 +92,6 @@ public class RolServiceTest {
         assertEquals(3L, resultado.getId());
         
         verify(rolRepository, times(1)).save(nuevoRol);
+        verify(registroRoles, times(1)).recargar();
     }
 }
@@ -0,0 +1,205 @@
+package com.microservicio.registrousuario.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.microservicio.registrousuario.dto.CambiosUsuariosDTO;
+import com.microservicio.registrousuario.model.SecuenciaCambio;
+import com.microservicio.registrousuario.model.UsuarioCambio;
+import com.microservicio.registrousuario.repository.SecuenciaCambioRepository;
+import com.microservicio.registrousuario.repository.UsuarioCambioRepository;
+import com.microservicio.registrousuario.repository.UsuarioRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class UsuarioCambioServiceTest {
+    @Mock
+    private UsuarioCambioRepository cambioRepository;
+
+    @Mock
+    private SecuenciaCambioRepository secuenciaRepository;
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UsuarioCambioService cambioService;
+
+    @BeforeEach
+    void setUp() {
+        cambioService = new UsuarioCambioService(cambioRepository, secuenciaRepository, usuarioRepository,
+                transactionManager, 500, 7);
+    }
+
+    @AfterEach
+    void cerrar() {
+        cambioService.cerrar();
+    }
+
+    private static UsuarioCambio cambio(long secuencia) {
+        return new UsuarioCambio(secuencia, 1L, UsuarioCambio.ACTUALIZADO, "ana", "ana@mail.com", null, null, LocalDateTime.now());
+    }
+
+    @Test
+    void testRegistrar_AsignaSecuenciasConsecutivas() {
+        SecuenciaCambio secuencia = new SecuenciaCambio(1L, 41L);
+        when(secuenciaRepository.bloquear(1L)).thenReturn(Optional.of(secuencia));
+        UsuarioCambio primero = new UsuarioCambio(null, 1L, UsuarioCambio.CREADO, "ana", "ana@mail.com", null, null, null);
+        UsuarioCambio segundo = new UsuarioCambio(null, 2L, UsuarioCambio.CREADO, "beto", "beto@mail.com", null, null, null);
+
+        cambioService.registrar(List.of(primero, segundo));
+
+        assertEquals(42L, primero.getSecuencia());
+        assertEquals(43L, segundo.getSecuencia());
+        assertEquals(43L, secuencia.getUltima());
+        verify(secuenciaRepository).save(secuencia);
+        verify(cambioRepository).saveAll(List.of(primero, segundo));
+    }
+
+    @Test
+    void testCambiosDesde_MarcaFuturaOPurgada_PideReiniciar() {
+        when(secuenciaRepository.findById(1L)).thenReturn(Optional.of(new SecuenciaCambio(1L, 50L)));
+
+        CambiosUsuariosDTO futura = cambioService.cambiosDesde(80L, 10);
+        assertTrue(futura.getReiniciar());
+
+        when(cambioRepository.primeraSecuencia()).thenReturn(Optional.of(45L));
+        when(cambioRepository.findBySecuenciaGreaterThanOrderBySecuenciaAsc(44L, PageRequest.of(0, 11)))
+                .thenReturn(List.of(cambio(45), cambio(46)));
+
+        CambiosUsuariosDTO purgada = cambioService.cambiosDesde(10L, 10);
+        assertTrue(purgada.getReiniciar());
+        assertEquals(46L, purgada.getHasta());
+        assertFalse(purgada.getHayMas());
+    }
+
+    @Test
+    void testEsperar_SinCambios_QuedaAbiertaHastaElTick() {
+        SecuenciaCambio secuencia = new SecuenciaCambio(1L, 20L);
+        when(secuenciaRepository.findById(1L)).thenReturn(Optional.of(secuencia));
+
+        DeferredResult<CambiosUsuariosDTO> resultado = cambioService.esperar(20L, 100, 10_000);
+        assertNull(resultado.getResult());
+        assertEquals(1, cambioService.cantidadEsperas());
+
+        secuencia.setUltima(21L);
+        when(cambioRepository.primeraSecuencia()).thenReturn(Optional.of(1L));
+        when(cambioRepository.findBySecuenciaGreaterThanOrderBySecuenciaAsc(any(), any())).thenReturn(List.of(cambio(21)));
+        cambioService.tick(System.currentTimeMillis());
+
+        CambiosUsuariosDTO cambios = (CambiosUsuariosDTO) resultado.getResult();
+        assertEquals(21L, cambios.getHasta());
+        assertEquals(1, cambios.getCambios().size());
+    }
+
+    @Test
+    void testEsperar_MarcaCeroConFeedVacio_EsperaYEntregaElPrimerCambio() {
+        SecuenciaCambio secuencia = new SecuenciaCambio(1L, 0L);
+        when(secuenciaRepository.findById(1L)).thenReturn(Optional.of(secuencia));
+        assertEquals(0L, cambioService.cambiosDesde(null, 100).getHasta());
+
+        DeferredResult<CambiosUsuariosDTO> resultado = cambioService.esperar(0L, 100, 10_000);
+        assertNull(resultado.getResult());
+
+        secuencia.setUltima(1L);
+        when(cambioRepository.primeraSecuencia()).thenReturn(Optional.of(1L));
+        when(cambioRepository.findBySecuenciaGreaterThanOrderBySecuenciaAsc(0L, PageRequest.of(0, UsuarioCambioService.LIMITE_MAXIMO + 1)))
+                .thenReturn(List.of(cambio(1)));
+        cambioService.tick(System.currentTimeMillis());
+
+        CambiosUsuariosDTO cambios = (CambiosUsuariosDTO) resultado.getResult();
+        assertFalse(cambios.getReiniciar());
+        assertEquals(1L, cambios.getHasta());
+        assertEquals(1, cambios.getCambios().size());
+    }
+
+    @Test
+    void testTick_VariasEsperas_LeenUnaSolaVez() {
+        SecuenciaCambio secuencia = new SecuenciaCambio(1L, 19L);
+        when(secuenciaRepository.findById(1L)).thenReturn(Optional.of(secuencia));
+        DeferredResult<CambiosUsuariosDTO> atrasada = cambioService.esperar(19L, 100, 10_000);
+        secuencia.setUltima(20L);
+        DeferredResult<CambiosUsuariosDTO> alDia = cambioService.esperar(20L, 100, 10_000);
+        assertEquals(2, cambioService.cantidadEsperas());
+
+        secuencia.setUltima(21L);
+        when(cambioRepository.primeraSecuencia()).thenReturn(Optional.of(1L));
+        when(cambioRepository.findBySecuenciaGreaterThanOrderBySecuenciaAsc(any(), any()))
+                .thenReturn(List.of(cambio(20), cambio(21)));
+        cambioService.tick(System.currentTimeMillis());
+
+        assertEquals(2, ((CambiosUsuariosDTO) atrasada.getResult()).getCambios().size());
+        CambiosUsuariosDTO tramo = (CambiosUsuariosDTO) alDia.getResult();
+        assertEquals(20L, tramo.getDesde());
+        assertEquals(21L, tramo.getHasta());
+        assertEquals(List.of(21L), tramo.getCambios().stream().map(UsuarioCambio::getSecuencia).toList());
+        verify(cambioRepository, times(1)).findBySecuenciaGreaterThanOrderBySecuenciaAsc(any(), any());
+    }
+
+    @Test
+    void testTick_SuscriptorLento_NoFrenaLasEsperasYSeDescarta() throws Exception {
+        SecuenciaCambio secuencia = new SecuenciaCambio(1L, 20L);
+        when(secuenciaRepository.findById(1L)).thenReturn(Optional.of(secuencia));
+        CountDownLatch enviando = new CountDownLatch(1);
+        CountDownLatch nunca = new CountDownLatch(1);
+        SseEmitter lento = new SseEmitter() {
+            private int envios;
+
+            @Override
+            public synchronized void send(SseEventBuilder evento) throws IOException {
+                if (envios++ == 0) {
+                    return;
+                }
+                enviando.countDown();
+                try {
+                    nunca.await();
+                } catch (InterruptedException e) {
+                    throw new IOException("interrumpido", e);
+                }
+            }
+        };
+        cambioService.suscribir(lento, 20L);
+
+        secuencia.setUltima(21L);
+        when(cambioRepository.primeraSecuencia()).thenReturn(Optional.of(1L));
+        when(cambioRepository.findBySecuenciaGreaterThanOrderBySecuenciaAsc(any(), any())).thenReturn(List.of(cambio(21)));
+        cambioService.tick(System.currentTimeMillis());
+        assertTrue(enviando.await(5, TimeUnit.SECONDS));
+
+        // Con el envío al cliente lento todavía bloqueado, el tick sigue despertando a los long-poll.
+        DeferredResult<CambiosUsuariosDTO> resultado = cambioService.esperar(21L, 100, 10_000);
+        secuencia.setUltima(22L);
+        when(cambioRepository.findBySecuenciaGreaterThanOrderBySecuenciaAsc(any(), any())).thenReturn(List.of(cambio(22)));
+        cambioService.tick(System.currentTimeMillis());
+        assertEquals(22L, ((CambiosUsuariosDTO) resultado.getResult()).getHasta());
+
+        cambioService.descartarLentos(System.currentTimeMillis() + UsuarioCambioService.ENVIO_MAX_MS + 1);
+        assertEquals(0, cambioService.cantidadSuscriptores());
+    }
+
+}
@@ -2,16 +2,24 @@ package com.microservicio.registrousuario.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,10 +27,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import com.microservicio.registrousuario.dto.LoteUsuariosDTO;
+import com.microservicio.registrousuario.dto.PaginaUsuariosDTO;
+import com.microservicio.registrousuario.dto.UsuarioResumenDTO;
 import com.microservicio.registrousuario.model.Rol;
 import com.microservicio.registrousuario.model.Usuario;
+import com.microservicio.registrousuario.model.UsuarioCambio;
 import com.microservicio.registrousuario.repository.UsuarioRepository;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,7 +44,19 @@ public class UsuarioServiceTest {
     private UsuarioRepository usuarioRepository;
 
     @Mock
-    private PasswordEncoder passwordEncoder; 
+    private HashClaveService hashClaveService;
+
+    @Mock
+    private RegistroRoles registroRoles;
+
+    @Mock
+    private DisponibilidadService disponibilidadService;
+
+    @Mock
+    private UsuarioCambioService usuarioCambioService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
     @InjectMocks
     private UsuarioService usuarioService;
@@ -50,41 +75,48 @@ public class UsuarioServiceTest {
     void testCrearUsuario_EncriptaClaveYGuarda() {
         Usuario usuarioNuevo = new Usuario(null, "newuser", "clave123", "new@mail.com", rolAdmin);
         
-        when(passwordEncoder.encode("clave123")).thenReturn("clave_nueva_enc");
+        when(registroRoles.porNombre("CLIENTE")).thenReturn(Optional.of(new Rol(1L, "CLIENTE")));
+        when(hashClaveService.hashear("clave123")).thenReturn("clave_nueva_enc");
         when(usuarioRepository.save(any(Usuario.class))).thenReturn(usuarioExistente); 
 
         Usuario resultado = usuarioService.crearUsuario(usuarioNuevo);
 
         assertNotNull(resultado);
         
-        verify(passwordEncoder, times(1)).encode("clave123"); 
+        verify(hashClaveService, times(1)).hashear("clave123"); 
         
         verify(usuarioRepository, times(1)).save(any(Usuario.class)); 
+        verify(disponibilidadService, times(1)).registrar("adminuser", "admin@mail.com");
     }
     
     
     @Test
-    void testListarUsuarios_DevuelveLista() {
-        List<Usuario> listaEsperada = Arrays.asList(usuarioExistente, new Usuario());
-        when(usuarioRepository.findAll()).thenReturn(listaEsperada);
-
-        List<Usuario> resultado = usuarioService.listarUsuarios();
-
-        assertNotNull(resultado);
-        assertEquals(2, resultado.size());
-        verify(usuarioRepository, times(1)).findAll();
+    void testListarUsuarios_RecorrePaginasSinClave() {
+        List<UsuarioResumenDTO> primera = new ArrayList<>();
+        for (long id = 1; id <= UsuarioService.LIMITE_PAGINA + 1; id++) {
+            primera.add(new UsuarioResumenDTO(id, "u" + id, "u" + id + "@mail.com", "CLIENTE"));
+        }
+        when(usuarioRepository.buscarPagina(eq(0L), isNull(), isNull(), any())).thenReturn(primera);
+        when(usuarioRepository.buscarPagina(eq((long) UsuarioService.LIMITE_PAGINA), isNull(), isNull(), any()))
+                .thenReturn(List.of(new UsuarioResumenDTO(201L, "u201", "u201@mail.com", "CLIENTE")));
+
+        List<UsuarioResumenDTO> resultado = usuarioService.listarUsuarios();
+
+        assertEquals(UsuarioService.LIMITE_PAGINA + 1, resultado.size());
+        verify(usuarioRepository, never()).findAll();
     }
 
     
     @Test
     void testObtenerPorId_Encontrado_DevuelveUsuario() {
-        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioExistente));
+        when(usuarioRepository.buscarResumen(1L))
+                .thenReturn(Optional.of(new UsuarioResumenDTO(1L, "adminuser", "admin@mail.com", "ADMINISTRADOR")));
         
-        Optional<Usuario> resultado = usuarioService.obtenerPorId(1L);
+        Optional<UsuarioResumenDTO> resultado = usuarioService.obtenerPorId(1L);
         
         assertTrue(resultado.isPresent());
         assertEquals("adminuser", resultado.get().getNickname());
-        verify(usuarioRepository, times(1)).findById(1L);
+        verify(usuarioRepository, never()).findById(1L);
     }
     
     
@@ -93,7 +125,7 @@ public class UsuarioServiceTest {
         Usuario datosActualizados = new Usuario(null, "admin_new", "nueva_clave_123", "admin_new@mail.com", rolAdmin);
         
         when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioExistente));
-        when(passwordEncoder.encode("nueva_clave_123")).thenReturn("clave_hash_nueva");
+        when(hashClaveService.hashear("nueva_clave_123")).thenReturn("clave_hash_nueva");
         when(usuarioRepository.save(any(Usuario.class))).thenReturn(usuarioExistente);
 
         Usuario resultado = usuarioService.actualizarUsuario(1L, datosActualizados);
@@ -101,9 +133,11 @@ public class UsuarioServiceTest {
         assertNotNull(resultado);
         assertEquals("admin_new", resultado.getNickname());
        
-        verify(passwordEncoder, times(1)).encode("nueva_clave_123"); 
+        verify(hashClaveService, times(1)).hashear("nueva_clave_123"); 
        
         verify(usuarioRepository, times(1)).save(any(Usuario.class));
+        verify(usuarioCambioService).registrar(1L, UsuarioCambio.ACTUALIZADO, "admin_new", "admin_new@mail.com",
+                "adminuser", "admin@mail.com");
     }
     
     
@@ -118,7 +152,7 @@ public class UsuarioServiceTest {
         usuarioService.actualizarUsuario(1L, datosActualizados);
 
         
-        verify(passwordEncoder, times(0)).encode(anyString()); 
+        verify(hashClaveService, times(0)).hashear(anyString()); 
        
         verify(usuarioRepository, times(1)).save(any(Usuario.class));
     }
@@ -130,6 +164,85 @@ public class UsuarioServiceTest {
         
         
         verify(usuarioRepository, times(1)).deleteById(1L);
+        verify(usuarioCambioService, never()).registrar(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testEliminarUsuario_Existente_RegistraCambio() {
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioExistente));
+
+        usuarioService.eliminarUsuario(1L);
+
+        verify(usuarioRepository).deleteById(1L);
+        verify(usuarioCambioService).registrar(1L, UsuarioCambio.ELIMINADO, "adminuser", "admin@mail.com", null, null);
+    }
+
+    @Test
+    void testListarPagina_PideUnaDeMasYDevuelveCursor() {
+        List<UsuarioResumenDTO> filas = Arrays.asList(
+                new UsuarioResumenDTO(11L, "ana", "ana@mail.com", "CLIENTE"),
+                new UsuarioResumenDTO(12L, "beto", "beto@mail.com", "CLIENTE"),
+                new UsuarioResumenDTO(15L, "carla", "carla@mail.com", "CLIENTE"));
+        when(usuarioRepository.buscarPagina(10L, "CLIENTE", null, PageRequest.of(0, 3))).thenReturn(filas);
+
+        PaginaUsuariosDTO pagina = usuarioService.listarPagina(10L, 2, "CLIENTE", "");
+
+        assertEquals(2, pagina.getUsuarios().size());
+        assertEquals(12L, pagina.getSiguiente());
+    }
+
+    @Test
+    void testListarPagina_UltimaPaginaYPrefijoEscapado() {
+        when(usuarioRepository.buscarPagina(0L, null, "so\\_c%", PageRequest.of(0, 51)))
+                .thenReturn(List.of(new UsuarioResumenDTO(1L, "so_cio", "s@mail.com", "CLIENTE")));
+
+        PaginaUsuariosDTO pagina = usuarioService.listarPagina(null, 50, " ", "so_c");
+
+        assertEquals(1, pagina.getUsuarios().size());
+        assertNull(pagina.getSiguiente());
+    }
+
+    @Test
+    void testListarPagina_LimiteInvalido_LanzaExcepcion() {
+        assertThrows(IllegalArgumentException.class, () -> usuarioService.listarPagina(0L, 0, null, null));
+        assertThrows(IllegalArgumentException.class, () -> usuarioService.listarPagina(0L, 201, null, null));
+    }
+
+    @Test
+    void testCrearUsuario_NicknameTomado_NoHasheaNiGuarda() {
+        Usuario usuarioNuevo = new Usuario(null, "adminuser", "clave123", "otro@mail.com", null);
+        when(registroRoles.porNombre("CLIENTE")).thenReturn(Optional.of(new Rol(1L, "CLIENTE")));
+        when(disponibilidadService.nicknameRegistrado("adminuser")).thenReturn(true);
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> usuarioService.crearUsuario(usuarioNuevo));
+
+        assertEquals("El nickname ya está registrado.", error.getMessage());
+        verify(hashClaveService, times(0)).hashear(anyString());
+        verify(usuarioRepository, times(0)).save(any(Usuario.class));
+    }
+
+    @Test
+    void testBuscarLote_SinFields_NoPideLaClave() {
+        LoteUsuariosDTO lote = new LoteUsuariosDTO(Arrays.asList(1L, 2L, 1L), List.of("ana"), null);
+        Map<String, Object> fila = Map.of("id", 1L, "nickname", "adminuser");
+        when(usuarioRepository.buscarLote(Set.of("id", "nickname", "correo", "rol"), Set.of(1L, 2L), Set.of("ana"), Set.of()))
+                .thenReturn(List.of(fila));
+
+        List<Map<String, Object>> resultado = usuarioService.buscarLote(lote, null);
+
+        assertEquals(1, resultado.size());
+    }
+
+    @Test
+    void testBuscarLote_CampoDesconocidoOLoteGrande_LanzaExcepcion() {
+        LoteUsuariosDTO lote = new LoteUsuariosDTO(List.of(1L), null, null);
+        assertThrows(IllegalArgumentException.class, () -> usuarioService.buscarLote(lote, "id,telefono"));
+
+        List<Long> muchos = new ArrayList<>();
+        for (long i = 0; i <= UsuarioService.LIMITE_LOTE; i++) {
+            muchos.add(i);
+        }
+        assertThrows(IllegalArgumentException.class, () -> usuarioService.buscarLote(new LoteUsuariosDTO(muchos, null, null), null));
     }
 
 }
@@ -0,0 +1,42 @@
+package com.microservicio.registrousuario.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class FiltroBloomTest {
+
+    @Test
+    void testAgregados_SiemprePuedenEstar() {
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.agregar("usuario" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filtro.puedeContener("usuario" + i));
+        }
+    }
+
+    @Test
+    void testFalsosPositivos_CercaDeLaTasaPedida() {
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.agregar("usuario" + i);
+        }
+        int falsos = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filtro.puedeContener("otro" + i)) {
+                falsos++;
+            }
+        }
+        assertTrue(falsos < 2_000, "falsos positivos: " + falsos);
+    }
+
+    @Test
+    void testNormalizador_IgnoraMayusculasTildesYEspacios() {
+        assertEquals("jose@correo.cl", Normalizador.normalizar("  José@Correo.CL "));
+        assertEquals(Normalizador.normalizar("MUÑOZ"), Normalizador.normalizar("munoz"));
+    }
+
+}
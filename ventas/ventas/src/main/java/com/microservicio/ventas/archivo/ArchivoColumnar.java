@@ -0,0 +1,216 @@
+package com.microservicio.ventas.archivo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.microservicio.ventas.model.DetalleVenta;
+import com.microservicio.ventas.model.Venta;
+
+// Archivo frío de ventas: un lote de ventas (con sus detalles) guardado por columnas y comprimido con gzip.
+// Cada columna va entera antes de la siguiente (IDs con delta), así gzip ve valores parecidos juntos.
+// Al inicio va la lista ordenada de usuarios presentes: una búsqueda por usuario que no está en el lote
+// solo descomprime esos primeros bytes.
+public final class ArchivoColumnar {
+    static final int MAGIA = 0x56434F4C;
+    static final byte VERSION = 1;
+
+    private ArchivoColumnar() {
+    }
+
+    // Escribe primero a un temporal y lo mueve: nunca queda un archivo a medias con el nombre final.
+    // Al volver, el contenido y el nombre ya están en disco (fsync del archivo y del directorio), así que
+    // quien lo llama puede borrar las filas de origen sin perder ventas si la máquina se apaga.
+    public static void escribir(Path archivo, List<Venta> ventas) throws IOException {
+        Path directorio = archivo.getParent();
+        boolean directorioNuevo = !Files.isDirectory(directorio);
+        Files.createDirectories(directorio);
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(temporal), 64 * 1024)))) {
+            out.writeInt(MAGIA);
+            out.writeByte(VERSION);
+
+            long[] usuarios = ventas.stream().mapToLong(Venta::getUsuarioId).distinct().sorted().toArray();
+            out.writeInt(usuarios.length);
+            for (long usuario : usuarios) {
+                out.writeLong(usuario);
+            }
+
+            out.writeInt(ventas.size());
+            long anterior = 0;
+            for (Venta venta : ventas) {
+                out.writeLong(venta.getId() - anterior);
+                anterior = venta.getId();
+            }
+            for (Venta venta : ventas) {
+                out.writeLong(venta.getUsuarioId());
+            }
+            for (Venta venta : ventas) {
+                out.writeLong(venta.getDireccionId());
+            }
+            for (Venta venta : ventas) {
+                out.writeInt((int) venta.getFecha().toEpochDay());
+            }
+            for (Venta venta : ventas) {
+                out.writeBoolean(Boolean.TRUE.equals(venta.getDelivered()));
+            }
+            for (Venta venta : ventas) {
+                out.writeBoolean(venta.getProofUri() != null);
+                if (venta.getProofUri() != null) {
+                    out.writeUTF(venta.getProofUri());
+                }
+            }
+
+            List<DetalleVenta> detalles = new ArrayList<>();
+            List<Integer> indices = new ArrayList<>();
+            for (int i = 0; i < ventas.size(); i++) {
+                List<DetalleVenta> propios = ventas.get(i).getDetalles() == null ? List.of() : ventas.get(i).getDetalles();
+                for (DetalleVenta detalle : propios) {
+                    detalles.add(detalle);
+                    indices.add(i);
+                }
+            }
+            out.writeInt(detalles.size());
+            anterior = 0;
+            for (DetalleVenta detalle : detalles) {
+                out.writeLong(detalle.getId() - anterior);
+                anterior = detalle.getId();
+            }
+            for (int indice : indices) {
+                out.writeInt(indice);
+            }
+            for (DetalleVenta detalle : detalles) {
+                out.writeLong(detalle.getProductoId());
+            }
+            for (DetalleVenta detalle : detalles) {
+                out.writeInt(detalle.getCantidad());
+            }
+            for (DetalleVenta detalle : detalles) {
+                out.writeDouble(detalle.getPrecioUnitario());
+            }
+        }
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+            canal.force(true);
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        sincronizarDirectorio(directorio);
+        if (directorioNuevo && directorio.getParent() != null) {
+            sincronizarDirectorio(directorio.getParent());
+        }
+    }
+
+    private static void sincronizarDirectorio(Path directorio) throws IOException {
+        try (FileChannel canal = FileChannel.open(directorio, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            // Windows no permite abrir un directorio como canal; allí no hay fsync de directorio que hacer.
+            if (!System.getProperty("os.name", "").startsWith("Windows")) {
+                throw e;
+            }
+        }
+    }
+
+    // Solo la cabecera: los usuarios presentes en el lote, ordenados.
+    public static long[] leerUsuarios(Path archivo) throws IOException {
+        try (DataInputStream in = abrir(archivo)) {
+            return usuarios(in, archivo);
+        }
+    }
+
+    // Lee el lote completo o, si usuarioId no es null, solo las ventas de ese usuario.
+    public static List<Venta> leer(Path archivo, Long usuarioId) throws IOException {
+        try (DataInputStream in = abrir(archivo)) {
+            long[] usuarios = usuarios(in, archivo);
+            if (usuarioId != null && Arrays.binarySearch(usuarios, usuarioId) < 0) {
+                return List.of();
+            }
+
+            int n = in.readInt();
+            Venta[] ventas = new Venta[n];
+            long id = 0;
+            for (int i = 0; i < n; i++) {
+                id += in.readLong();
+                ventas[i] = new Venta();
+                ventas[i].setId(id);
+                ventas[i].setDetalles(new ArrayList<>());
+            }
+            for (int i = 0; i < n; i++) {
+                ventas[i].setUsuarioId(in.readLong());
+            }
+            for (int i = 0; i < n; i++) {
+                ventas[i].setDireccionId(in.readLong());
+            }
+            for (int i = 0; i < n; i++) {
+                ventas[i].setFecha(LocalDate.ofEpochDay(in.readInt()));
+            }
+            for (int i = 0; i < n; i++) {
+                ventas[i].setDelivered(in.readBoolean());
+            }
+            for (int i = 0; i < n; i++) {
+                ventas[i].setProofUri(in.readBoolean() ? in.readUTF() : null);
+            }
+
+            int m = in.readInt();
+            DetalleVenta[] detalles = new DetalleVenta[m];
+            long detalleId = 0;
+            for (int j = 0; j < m; j++) {
+                detalleId += in.readLong();
+                detalles[j] = new DetalleVenta();
+                detalles[j].setId(detalleId);
+            }
+            for (int j = 0; j < m; j++) {
+                Venta venta = ventas[in.readInt()];
+                detalles[j].setVenta(venta);
+                venta.getDetalles().add(detalles[j]);
+            }
+            for (int j = 0; j < m; j++) {
+                detalles[j].setProductoId(in.readLong());
+            }
+            for (int j = 0; j < m; j++) {
+                detalles[j].setCantidad(in.readInt());
+            }
+            for (int j = 0; j < m; j++) {
+                detalles[j].setPrecioUnitario(in.readDouble());
+            }
+
+            List<Venta> resultado = new ArrayList<>();
+            for (Venta venta : ventas) {
+                if (usuarioId == null || usuarioId.equals(venta.getUsuarioId())) {
+                    resultado.add(venta);
+                }
+            }
+            return resultado;
+        }
+    }
+
+    private static DataInputStream abrir(Path archivo) throws IOException {
+        return new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(archivo), 64 * 1024)));
+    }
+
+    private static long[] usuarios(DataInputStream in, Path archivo) throws IOException {
+        if (in.readInt() != MAGIA || in.readByte() != VERSION) {
+            throw new IOException("Formato de archivo de ventas desconocido: " + archivo);
+        }
+        long[] usuarios = new long[in.readInt()];
+        for (int i = 0; i < usuarios.length; i++) {
+            usuarios[i] = in.readLong();
+        }
+        return usuarios;
+    }
+
+}
@@ -1,5 +1,7 @@
 package com.microservicio.ventas.client;
 
+import java.util.Map;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -23,4 +25,45 @@ public class ProductoClient {
                 .bodyToMono(Producto.class);
     }
 
+    public Mono<Producto> canjearTokenFlash(Long productoId, String tokenCompra) {
+        return webClient.post()
+                .uri("/{id}/flash/canjear", productoId)
+                .bodyValue(Map.of("tokenCompra", tokenCompra))
+                .retrieve()
+                .bodyToMono(Producto.class);
+    }
+
+    // La venta con este token se registró: el canje queda final.
+    public Mono<Void> confirmarTokenFlash(Long productoId, String tokenCompra) {
+        return webClient.post()
+                .uri("/interno/{id}/flash/confirmar", productoId)
+                .bodyValue(Map.of("tokenCompra", tokenCompra))
+                .retrieve()
+                .bodyToMono(Void.class);
+    }
+
+    // Devuelve la unidad de un token canjeado cuya venta no se registró.
+    public Mono<Producto> liberarTokenFlash(Long productoId, String tokenCompra) {
+        return webClient.post()
+                .uri("/interno/{id}/flash/liberar", productoId)
+                .bodyValue(Map.of("tokenCompra", tokenCompra))
+                .retrieve()
+                .bodyToMono(Producto.class);
+    }
+
+    // true si el producto tiene una venta flash activa (200); false si no (404).
+    public Mono<Boolean> ventaFlashActiva(Long productoId) {
+        return webClient.get()
+                .uri("/{id}/flash", productoId)
+                .exchangeToMono(respuesta -> {
+                    if (respuesta.statusCode().is2xxSuccessful()) {
+                        return respuesta.releaseBody().thenReturn(true);
+                    }
+                    if (respuesta.statusCode().value() == 404) {
+                        return respuesta.releaseBody().thenReturn(false);
+                    }
+                    return respuesta.createException().flatMap(Mono::error);
+                });
+    }
+
 }
@@ -0,0 +1,48 @@
+package com.microservicio.ventas.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.microservicio.ventas.dto.PanelVentasDTO;
+import com.microservicio.ventas.service.PanelVentasService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@RestController
+@RequestMapping("/api/ventas/panel")
+@Tag(name = "Panel de ventas", description = "Indicadores en vivo del día para el vendedor")
+public class PanelVentasController {
+    private final PanelVentasService panelVentasService;
+
+    public PanelVentasController(PanelVentasService panelVentasService) {
+        this.panelVentasService = panelVentasService;
+    }
+
+    @Operation(summary = "Foto actual del panel", description = "Ingresos y ventas del día, entregas pendientes y ventas por comuna. Pensado para la carga inicial; después usar /stream.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Panel obtenido correctamente",
+                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = PanelVentasDTO.class)))
+    })
+    @GetMapping
+    public PanelVentasDTO obtener() {
+        return panelVentasService.obtener();
+    }
+
+    @Operation(summary = "Stream del panel", description = "Canal Server-Sent Events que envía un evento 'panel' con la foto completa en cada tick en que algo cambió.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Suscripción abierta", content = @Content(mediaType = "text/event-stream"))
+    })
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return panelVentasService.suscribir();
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.microservicio.ventas.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.microservicio.ventas.dto.TopVentasDTO;
+import com.microservicio.ventas.service.TopVentasService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@RestController
+@RequestMapping("/api/ventas/top")
+@Tag(name = "Más vendidos", description = "Ranking aproximado de productos más vendidos para el panel del vendedor")
+public class TopVentasController {
+    private final TopVentasService topVentasService;
+
+    public TopVentasController(TopVentasService topVentasService) {
+        this.topVentasService = topVentasService;
+    }
+
+    @Operation(summary = "Top de productos más vendidos", description = "Devuelve los N productos más vendidos de la hora o del día en curso, con cotas de error. Se calcula en memoria, sin consultar detalle_venta.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Ranking obtenido correctamente",
+                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = TopVentasDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Ventana no soportada")
+    })
+    @GetMapping
+    public ResponseEntity<?> top(
+            @Parameter(description = "Ventana de tiempo: hora o dia", example = "dia")
+            @RequestParam(defaultValue = TopVentasService.DIA) String ventana,
+            @Parameter(description = "Cantidad de productos", example = "20")
+            @RequestParam(defaultValue = "20") int n) {
+        try {
+            return ResponseEntity.ok(topVentasService.top(ventana, n));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+}
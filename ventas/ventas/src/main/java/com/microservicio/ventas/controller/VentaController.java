@@ -1,8 +1,10 @@
 package com.microservicio.ventas.controller;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,13 +14,16 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.microservicio.ventas.dto.DetalleVendidoDTO;
 import com.microservicio.ventas.dto.ProductoDetalleDTO;
 import com.microservicio.ventas.model.DetalleVenta;
 import com.microservicio.ventas.model.Venta;
 import com.microservicio.ventas.service.VentaService;
 import com.microservicio.ventas.util.JwtUtil;
+import com.microservicio.ventas.util.Permiso;
 
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -65,9 +70,10 @@ public class VentaController {
             }
             
             Long usuarioId = Long.valueOf(payload.get("usuarioId").toString());
-            String rol = "CLIENTE";
+            // El checkout no lleva token: quien compra es siempre un cliente.
+            int permisos = Permiso.deRol("CLIENTE");
 
-            return ventaService.registrarVenta(usuarioId, rol, payload);
+            return ventaService.registrarVenta(usuarioId, permisos, payload);
 
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -91,7 +97,21 @@ public class VentaController {
         return ventaService.listarDetalles();
     }
 
-    @Operation(summary = "Historial por Usuario", description = "Obtiene las compras realizadas por un usuario específico.")
+    @Operation(summary = "Detalles vendidos desde un cursor", description = "Uso interno: devuelve {detalleId, ventaId, productoId, cantidad, fecha} de los detalles con ID mayor a 'desde', en orden ascendente. El último detalleId recibido es el cursor de la siguiente llamada.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Detalles obtenidos correctamente",
+                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = DetalleVendidoDTO.class)))
+    })
+    @GetMapping("/detalles/desde")
+    public List<DetalleVendidoDTO> listarDetallesDesde(
+            @Parameter(description = "Último detalleId ya procesado", example = "0")
+            @RequestParam(defaultValue = "0") Long desde,
+            @Parameter(description = "Cantidad máxima de detalles", example = "1000")
+            @RequestParam(defaultValue = "1000") int limite) {
+        return ventaService.listarDetallesDesde(desde, limite);
+    }
+
+    @Operation(summary = "Historial por Usuario", description = "Obtiene las compras realizadas por un usuario específico. Con desde/hasta filtra por fecha; las ventas antiguas ya archivadas se leen del archivo solo si el rango llega a ellas.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Historial obtenido correctamente", 
                          content = @Content(mediaType = "application/json", schema = @Schema(implementation = Venta.class))),
@@ -101,9 +121,15 @@ public class VentaController {
     @GetMapping("/usuario/{id}")
     public ResponseEntity<?> listarPorUsuario(
             @Parameter(description = "ID del usuario", example = "1") 
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            @Parameter(description = "Desde (inclusive)", example = "2023-01-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @Parameter(description = "Hasta (inclusive)", example = "2023-12-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
         try {
-            List<Venta> ventas = ventaService.listarPorUsuarioId(id);
+            List<Venta> ventas = desde == null && hasta == null
+                    ? ventaService.listarPorUsuarioId(id)
+                    : ventaService.listarPorUsuarioId(id, desde, hasta);
             if (ventas.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body("No se encontraron ventas para el usuario con ID: " + id);
@@ -0,0 +1,30 @@
+package com.microservicio.ventas.dto;
+
+import java.time.LocalDate;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Resumen de un detalle de venta para consumidores internos (popularidad de productos)")
+public class DetalleVendidoDTO {
+    @Schema(description = "ID del detalle de venta, usado como cursor", example = "1201")
+    private Long detalleId;
+
+    @Schema(description = "ID de la venta a la que pertenece", example = "300")
+    private Long ventaId;
+
+    @Schema(description = "ID del producto vendido", example = "10")
+    private Long productoId;
+
+    @Schema(description = "Cantidad vendida", example = "2")
+    private Integer cantidad;
+
+    @Schema(description = "Fecha de la venta", example = "2024-05-01")
+    private LocalDate fecha;
+
+}
@@ -0,0 +1,31 @@
+package com.microservicio.ventas.dto;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Foto del panel de ventas del día")
+public class PanelVentasDTO {
+    @Schema(description = "Día al que corresponden los contadores", example = "2024-05-01")
+    private LocalDate fecha;
+
+    @Schema(description = "Ingresos del día", example = "1250990.0")
+    private Double ingresos;
+
+    @Schema(description = "Ventas registradas en el día", example = "37")
+    private Long ventas;
+
+    @Schema(description = "Ventas aún no entregadas (todas las fechas)", example = "12")
+    private Long entregasPendientes;
+
+    @Schema(description = "Ventas del día por comuna de despacho")
+    private Map<String, Long> ventasPorComuna;
+
+}
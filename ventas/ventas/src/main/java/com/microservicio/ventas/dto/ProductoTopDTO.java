@@ -0,0 +1,25 @@
+package com.microservicio.ventas.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Producto en el ranking aproximado de más vendidos")
+public class ProductoTopDTO {
+    @Schema(description = "ID del producto", example = "10")
+    private Long productoId;
+
+    @Schema(description = "Unidades vendidas estimadas (nunca por debajo del valor real)", example = "42")
+    private Long unidadesEstimadas;
+
+    @Schema(description = "Unidades vendidas garantizadas (cota inferior)", example = "40")
+    private Long unidadesMinimas;
+
+    @Schema(description = "true si es seguro que este producto está en el top pedido", example = "true")
+    private Boolean garantizado;
+
+}
@@ -0,0 +1,31 @@
+package com.microservicio.ventas.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Ranking aproximado de productos más vendidos en una ventana de tiempo")
+public class TopVentasDTO {
+    @Schema(description = "Ventana consultada: hora o dia", example = "dia")
+    private String ventana;
+
+    @Schema(description = "Inicio de la ventana", example = "2024-05-01T00:00:00")
+    private LocalDateTime desde;
+
+    @Schema(description = "Unidades vendidas en la ventana", example = "1250")
+    private Long unidadesTotales;
+
+    @Schema(description = "Sobreestimación máxima de cualquier producto", example = "3")
+    private Long errorMaximo;
+
+    @Schema(description = "Productos del ranking, del más vendido al menos vendido")
+    private List<ProductoTopDTO> productos;
+
+}
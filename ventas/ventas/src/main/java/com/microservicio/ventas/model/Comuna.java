@@ -0,0 +1,28 @@
+package com.microservicio.ventas.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Modelo de Comuna auxiliar")
+public class Comuna {
+    @Schema(description = "ID de la comuna", example = "1")
+    private Long id;
+    @Schema(description = "Nombre de la comuna", example = "Providencia")
+    private String nombre;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public void setNombre(String nombre) {
+        this.nombre = nombre;
+    }
+
+}
@@ -10,6 +10,8 @@ public class Direccion {
     private String calle;
     @Schema(description = "Número de la dirección", example = "123")
     private String numero;
+    @Schema(description = "Comuna de la dirección")
+    private Comuna comuna;
 
     public Long getId() {
         return id;
@@ -35,4 +37,12 @@ public class Direccion {
         this.numero = numero;
     }
 
+    public Comuna getComuna() {
+        return comuna;
+    }
+
+    public void setComuna(Comuna comuna) {
+        this.comuna = comuna;
+    }
+
 }
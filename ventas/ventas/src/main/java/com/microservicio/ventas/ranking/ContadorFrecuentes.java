@@ -0,0 +1,129 @@
+package com.microservicio.ventas.ranking;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Space-Saving: sigue a lo sumo 'capacidad' productos con memoria fija, sin importar el tamaño del catálogo.
+// Cuando llega uno nuevo y no hay lugar, reemplaza al de menor cuenta y hereda esa cuenta como error.
+// La cuenta estimada nunca subestima y sobreestima como máximo en 'error' (<= total / capacidad).
+// Los contadores forman un montículo mínimo para encontrar al menor en O(1) y actualizar en O(log capacidad).
+// No es thread-safe.
+public class ContadorFrecuentes {
+    private final int capacidad;
+    private final long[] ids;
+    private final long[] cuentas;
+    private final long[] errores;
+    private final Map<Long, Integer> posiciones;
+    private int tamano;
+    private long total;
+
+    public ContadorFrecuentes(int capacidad) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser mayor a cero.");
+        }
+        this.capacidad = capacidad;
+        this.ids = new long[capacidad];
+        this.cuentas = new long[capacidad];
+        this.errores = new long[capacidad];
+        this.posiciones = new HashMap<>(capacidad * 2);
+    }
+
+    public void agregar(long id, long peso) {
+        if (peso <= 0) {
+            return;
+        }
+        total += peso;
+        Integer posicion = posiciones.get(id);
+        if (posicion != null) {
+            cuentas[posicion] += peso;
+            bajar(posicion);
+            return;
+        }
+        if (tamano < capacidad) {
+            ids[tamano] = id;
+            cuentas[tamano] = peso;
+            errores[tamano] = 0;
+            posiciones.put(id, tamano);
+            subir(tamano++);
+            return;
+        }
+        posiciones.remove(ids[0]);
+        errores[0] = cuentas[0];
+        cuentas[0] += peso;
+        ids[0] = id;
+        posiciones.put(id, 0);
+        bajar(0);
+    }
+
+    public List<Frecuente> top(int n) {
+        List<Frecuente> todos = new ArrayList<>(tamano);
+        for (int i = 0; i < tamano; i++) {
+            todos.add(new Frecuente(ids[i], cuentas[i], errores[i]));
+        }
+        todos.sort(Comparator.comparingLong(Frecuente::cuenta).reversed().thenComparingLong(Frecuente::id));
+        return todos.subList(0, Math.min(n, todos.size()));
+    }
+
+    // Cota del error de cualquier producto, incluso de los que no se están siguiendo.
+    public long errorMaximo() {
+        return tamano < capacidad ? 0 : cuentas[0];
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public record Frecuente(long id, long cuenta, long error) {
+        public long minimo() {
+            return cuenta - error;
+        }
+    }
+
+    private void subir(int i) {
+        while (i > 0) {
+            int padre = (i - 1) / 2;
+            if (cuentas[padre] <= cuentas[i]) {
+                return;
+            }
+            intercambiar(i, padre);
+            i = padre;
+        }
+    }
+
+    private void bajar(int i) {
+        while (true) {
+            int menor = i;
+            int izquierdo = 2 * i + 1;
+            int derecho = izquierdo + 1;
+            if (izquierdo < tamano && cuentas[izquierdo] < cuentas[menor]) {
+                menor = izquierdo;
+            }
+            if (derecho < tamano && cuentas[derecho] < cuentas[menor]) {
+                menor = derecho;
+            }
+            if (menor == i) {
+                return;
+            }
+            intercambiar(i, menor);
+            i = menor;
+        }
+    }
+
+    private void intercambiar(int a, int b) {
+        long id = ids[a];
+        long cuenta = cuentas[a];
+        long error = errores[a];
+        ids[a] = ids[b];
+        cuentas[a] = cuentas[b];
+        errores[a] = errores[b];
+        ids[b] = id;
+        cuentas[b] = cuenta;
+        errores[b] = error;
+        posiciones.put(ids[a], a);
+        posiciones.put(ids[b], b);
+    }
+
+}
@@ -1,12 +1,32 @@
 package com.microservicio.ventas.repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.microservicio.ventas.dto.DetalleVendidoDTO;
 import com.microservicio.ventas.model.DetalleVenta;
 
 public interface DetalleVentaRepository extends JpaRepository<DetalleVenta, Long> {
      List<DetalleVenta> findByVentaId(Long ventaId);
 
+    List<DetalleVenta> findByVentaIdIn(Collection<Long> ventaIds);
+
+    @Modifying
+    @Query("DELETE FROM DetalleVenta d WHERE d.venta.id IN :ventaIds")
+    int eliminarPorVentas(@Param("ventaIds") Collection<Long> ventaIds);
+
+    @Query("SELECT new com.microservicio.ventas.dto.DetalleVendidoDTO(d.id, d.venta.id, d.productoId, d.cantidad, d.venta.fecha) "
+            + "FROM DetalleVenta d WHERE d.id > :desde ORDER BY d.id")
+    List<DetalleVendidoDTO> buscarDesde(@Param("desde") Long desde, Pageable pageable);
+
+    @Query("SELECT COALESCE(SUM(d.cantidad * d.precioUnitario), 0) FROM DetalleVenta d WHERE d.venta.fecha = :fecha")
+    Double sumarIngresosDe(@Param("fecha") LocalDate fecha);
+
 }
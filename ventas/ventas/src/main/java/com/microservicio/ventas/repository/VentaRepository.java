@@ -1,8 +1,12 @@
 package com.microservicio.ventas.repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -15,5 +19,24 @@ public interface VentaRepository extends JpaRepository<Venta, Long> {
     @Query("SELECT v FROM Venta v WHERE v.direccionId = :direccionId")
     List<Venta> findByDireccionId(@Param("direccionId") Long direccionId);
 
+    List<Venta> findByFecha(LocalDate fecha);
+
+    long countByDeliveredFalse();
+
+    List<Venta> findByUsuarioIdAndFechaBetween(Long usuarioId, LocalDate desde, LocalDate hasta);
+
+    @Query("SELECT v.id FROM Venta v WHERE v.delivered = true AND v.fecha < :corte ORDER BY v.id")
+    List<Long> buscarArchivables(@Param("corte") LocalDate corte, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Venta v WHERE v.id IN :ids")
+    int eliminarPorIds(@Param("ids") Collection<Long> ids);
+
+    // Solo cambia la fila si seguía pendiente: de dos entregas simultáneas, una sola ve 1.
+    @Modifying
+    @Query("UPDATE Venta v SET v.delivered = true, v.proofUri = :proofUri "
+            + "WHERE v.id = :id AND (v.delivered = false OR v.delivered IS NULL)")
+    int marcarEntregada(@Param("id") Long id, @Param("proofUri") String proofUri);
+
 
 }
@@ -0,0 +1,232 @@
+package com.microservicio.ventas.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.microservicio.ventas.archivo.ArchivoColumnar;
+import com.microservicio.ventas.model.DetalleVenta;
+import com.microservicio.ventas.model.Venta;
+import com.microservicio.ventas.repository.DetalleVentaRepository;
+import com.microservicio.ventas.repository.VentaRepository;
+
+import jakarta.annotation.PreDestroy;
+
+// Mueve las ventas entregadas más antiguas que 'edad-dias' a archivos columnares por mes
+// (<dir>/AAAA-MM/lote-<primerId>.vcol.gz) y las borra de MySQL por lotes.
+// El archivo se escribe antes de borrar; si el proceso cae entre medio, el siguiente ciclo vuelve a
+// archivar esas ventas, quizá en un lote distinto y con otro nombre, así que la lectura descarta IDs repetidos.
+// Las cabeceras (usuarios de cada lote) se guardan en memoria: una búsqueda solo descomprime los lotes del usuario.
+@Service
+public class ArchivoVentasService {
+    private static final String EXTENSION = ".vcol.gz";
+
+    private final VentaRepository ventaRepository;
+    private final DetalleVentaRepository detalleVentaRepository;
+    private final TransactionTemplate transaccion;
+    private final Path directorio;
+    private final int edadDias;
+    private final int tamanoLote;
+    private final long intervaloHoras;
+    private final ScheduledExecutorService archivador = Executors.newSingleThreadScheduledExecutor();
+    // Se relee si el archivo cambió desde que se guardó su cabecera.
+    private final Map<Path, Cabecera> cabeceras = new ConcurrentHashMap<>();
+    // Mes más reciente con ventas archivadas; se lee del directorio la primera vez que se necesita.
+    private YearMonth ultimoMes;
+    private boolean ultimoMesLeido;
+
+    public ArchivoVentasService(VentaRepository ventaRepository, DetalleVentaRepository detalleVentaRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${ventas.archivo.dir:archivo/ventas}") String directorio,
+            @Value("${ventas.archivo.edad-dias:365}") int edadDias,
+            @Value("${ventas.archivo.lote:500}") int tamanoLote,
+            @Value("${ventas.archivo.intervalo-horas:24}") long intervaloHoras) {
+        this.ventaRepository = ventaRepository;
+        this.detalleVentaRepository = detalleVentaRepository;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.directorio = Paths.get(directorio);
+        this.edadDias = edadDias;
+        this.tamanoLote = tamanoLote;
+        this.intervaloHoras = intervaloHoras;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        archivador.scheduleWithFixedDelay(this::archivarSeguro, intervaloHoras, intervaloHoras, TimeUnit.HOURS);
+    }
+
+    private void archivarSeguro() {
+        try {
+            int archivadas = archivar(LocalDate.now());
+            if (archivadas > 0) {
+                System.out.println(">>> Ventas archivadas: " + archivadas);
+            }
+        } catch (Exception e) {
+            System.out.println(">>> Error al archivar ventas: " + e.getMessage());
+        }
+    }
+
+    int archivar(LocalDate hoy) throws IOException {
+        LocalDate corte = hoy.minusDays(edadDias);
+        int total = 0;
+        List<Long> ids;
+        while (!(ids = ventaRepository.buscarArchivables(corte, PageRequest.of(0, tamanoLote))).isEmpty()) {
+            List<Venta> ventas = cargarConDetalles(ids);
+            Map<YearMonth, List<Venta>> porMes = ventas.stream()
+                    .collect(Collectors.groupingBy(v -> YearMonth.from(v.getFecha()), TreeMap::new, Collectors.toList()));
+            for (Map.Entry<YearMonth, List<Venta>> mes : porMes.entrySet()) {
+                List<Venta> delMes = mes.getValue();
+                ArchivoColumnar.escribir(
+                        directorio.resolve(mes.getKey().toString()).resolve("lote-" + delMes.get(0).getId() + EXTENSION),
+                        delMes);
+                registrarMes(mes.getKey());
+            }
+            // escribir ya hizo fsync de cada archivo y su directorio: recién ahora se puede borrar de MySQL.
+            List<Long> lote = ids;
+            transaccion.executeWithoutResult(status -> {
+                detalleVentaRepository.eliminarPorVentas(lote);
+                ventaRepository.eliminarPorIds(lote);
+            });
+            total += ids.size();
+        }
+        return total;
+    }
+
+    private List<Venta> cargarConDetalles(List<Long> ids) {
+        Map<Long, List<DetalleVenta>> detallesPorVenta = detalleVentaRepository.findByVentaIdIn(ids).stream()
+                .collect(Collectors.groupingBy(d -> d.getVenta().getId()));
+        List<Venta> ventas = new ArrayList<>(ventaRepository.findAllById(ids));
+        ventas.sort(Comparator.comparing(Venta::getId));
+        for (Venta venta : ventas) {
+            List<DetalleVenta> detalles = new ArrayList<>(detallesPorVenta.getOrDefault(venta.getId(), List.of()));
+            detalles.sort(Comparator.comparing(DetalleVenta::getId));
+            venta.setDetalles(detalles);
+        }
+        return ventas;
+    }
+
+    // Ventas archivadas del usuario entre desde y hasta (ambos opcionales e inclusivos).
+    // Solo se abren los meses que caen en el rango.
+    public List<Venta> buscarPorUsuario(Long usuarioId, LocalDate desde, LocalDate hasta) {
+        if (!Files.isDirectory(directorio)) {
+            return List.of();
+        }
+        YearMonth mesDesde = desde == null ? null : YearMonth.from(desde);
+        YearMonth mesHasta = hasta == null ? null : YearMonth.from(hasta);
+        Map<Long, Venta> resultado = new TreeMap<>();
+        try (Stream<Path> meses = Files.list(directorio)) {
+            for (Path mes : meses.sorted().toList()) {
+                YearMonth yearMonth;
+                try {
+                    yearMonth = YearMonth.parse(mes.getFileName().toString());
+                } catch (Exception e) {
+                    continue;
+                }
+                if ((mesDesde != null && yearMonth.isBefore(mesDesde)) || (mesHasta != null && yearMonth.isAfter(mesHasta))) {
+                    continue;
+                }
+                try (Stream<Path> lotes = Files.list(mes)) {
+                    for (Path lote : lotes.filter(p -> p.toString().endsWith(EXTENSION)).sorted().toList()) {
+                        if (Arrays.binarySearch(usuarios(lote), usuarioId) < 0) {
+                            continue;
+                        }
+                        for (Venta venta : ArchivoColumnar.leer(lote, usuarioId)) {
+                            if ((desde == null || !venta.getFecha().isBefore(desde))
+                                    && (hasta == null || !venta.getFecha().isAfter(hasta))) {
+                                resultado.putIfAbsent(venta.getId(), venta);
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al leer el archivo de ventas", e);
+        }
+        return new ArrayList<>(resultado.values());
+    }
+
+    private long[] usuarios(Path lote) throws IOException {
+        FileTime modificado = Files.getLastModifiedTime(lote);
+        Cabecera cabecera = cabeceras.get(lote);
+        if (cabecera == null || !cabecera.modificado().equals(modificado)) {
+            cabecera = new Cabecera(modificado, ArchivoColumnar.leerUsuarios(lote));
+            cabeceras.put(lote, cabecera);
+        }
+        return cabecera.usuarios();
+    }
+
+    // Fecha a partir de la cual todo sigue en MySQL: un rango que empieza después no necesita el archivo.
+    // Sale de lo que de verdad está archivado (el fin del mes más reciente) y no de 'edad-dias', que pudo
+    // cambiar después de archivar.
+    public synchronized LocalDate corteActual() {
+        if (!ultimoMesLeido) {
+            ultimoMes = leerUltimoMes();
+            ultimoMesLeido = true;
+        }
+        return ultimoMes == null ? LocalDate.MIN : ultimoMes.atEndOfMonth().plusDays(1);
+    }
+
+    private synchronized void registrarMes(YearMonth mes) {
+        corteActual();
+        if (ultimoMes == null || mes.isAfter(ultimoMes)) {
+            ultimoMes = mes;
+        }
+    }
+
+    private YearMonth leerUltimoMes() {
+        if (!Files.isDirectory(directorio)) {
+            return null;
+        }
+        YearMonth ultimo = null;
+        try (Stream<Path> meses = Files.list(directorio)) {
+            for (Path mes : meses.toList()) {
+                YearMonth yearMonth;
+                try {
+                    yearMonth = YearMonth.parse(mes.getFileName().toString());
+                } catch (Exception e) {
+                    continue;
+                }
+                if (ultimo == null || yearMonth.isAfter(ultimo)) {
+                    ultimo = yearMonth;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al leer el archivo de ventas", e);
+        }
+        return ultimo;
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        archivador.shutdownNow();
+    }
+
+    private record Cabecera(FileTime modificado, long[] usuarios) {
+    }
+
+}
@@ -0,0 +1,369 @@
+package com.microservicio.ventas.service;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.microservicio.ventas.client.DireccionClient;
+import com.microservicio.ventas.dto.PanelVentasDTO;
+import com.microservicio.ventas.model.DetalleVenta;
+import com.microservicio.ventas.model.Direccion;
+import com.microservicio.ventas.model.Venta;
+import com.microservicio.ventas.repository.DetalleVentaRepository;
+import com.microservicio.ventas.repository.VentaRepository;
+
+import jakarta.annotation.PreDestroy;
+
+// Contadores en vivo del panel del vendedor: se cargan una vez desde la base al arrancar y después solo
+// se suman en registrarVenta / setProofAndMarkDelivered. Los paneles reciben una foto por SSE en cada tick
+// (solo si algo cambió), en vez de pedir el historial completo de ventas. El ticker solo arma la foto: los
+// envíos van a un pool aparte y cada panel guarda a lo sumo la última foto pendiente, así un panel lento
+// no atrasa a los demás.
+@Service
+public class PanelVentasService {
+    static final String SIN_COMUNA = "Sin comuna";
+    private static final long TIMEOUT_MS = 30 * 60 * 1000L;
+    private static final long HEARTBEAT_MS = 25_000;
+    // Un envío que tarda más que esto es un cliente lento: se le cierra la conexión y se libera el hilo.
+    static final long ENVIO_MAX_MS = 5_000;
+    private static final int HILOS_ENVIO = 4;
+
+    private final VentaRepository ventaRepository;
+    private final DetalleVentaRepository detalleVentaRepository;
+    private final DireccionClient direccionClient;
+    private final long tickMs;
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+    // Resolver la comuna es una llamada remota: va en segundo plano y con cola acotada.
+    private final ThreadPoolExecutor resolutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(1000));
+
+    private final Map<Long, String> comunas = new ConcurrentHashMap<>();
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+    private final ExecutorService despachador = Executors.newFixedThreadPool(HILOS_ENVIO);
+    private final LongAdder entregasPendientes = new LongAdder();
+    private final AtomicLong version = new AtomicLong();
+    private volatile Dia dia = new Dia(LocalDate.now());
+    private long versionEnviada = -1;
+    private long ultimoEnvioMs;
+
+    public PanelVentasService(VentaRepository ventaRepository, DetalleVentaRepository detalleVentaRepository,
+            DireccionClient direccionClient, @Value("${ventas.panel.tick-ms:1000}") long tickMs) {
+        this.ventaRepository = ventaRepository;
+        this.detalleVentaRepository = detalleVentaRepository;
+        this.direccionClient = direccionClient;
+        this.tickMs = tickMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        try {
+            cargar(LocalDate.now());
+        } catch (Exception e) {
+            System.out.println(">>> Error al cargar el panel de ventas: " + e.getMessage());
+        }
+        ticker.scheduleAtFixedRate(this::tickSeguro, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    void cargar(LocalDate hoy) {
+        Dia nuevo = new Dia(hoy);
+        List<Venta> ventasHoy = ventaRepository.findByFecha(hoy);
+        nuevo.ventas.add(ventasHoy.size());
+        Double ingresos = detalleVentaRepository.sumarIngresosDe(hoy);
+        nuevo.ingresosCentavos.add(Math.round((ingresos == null ? 0 : ingresos) * 100));
+        dia = nuevo;
+        entregasPendientes.reset();
+        entregasPendientes.add(ventaRepository.countByDeliveredFalse());
+        ventasHoy.forEach(v -> contarComuna(nuevo, v.getDireccionId()));
+        version.incrementAndGet();
+    }
+
+    public void registrarVenta(Venta venta, List<DetalleVenta> detalles) {
+        despuesDeConfirmar(() -> sumarVenta(venta, detalles));
+    }
+
+    public void registrarEntrega() {
+        despuesDeConfirmar(() -> {
+            entregasPendientes.decrement();
+            version.incrementAndGet();
+        });
+    }
+
+    void sumarVenta(Venta venta, List<DetalleVenta> detalles) {
+        Dia actual = diaActual();
+        double total = 0;
+        for (DetalleVenta detalle : detalles) {
+            total += detalle.getCantidad() * detalle.getPrecioUnitario();
+        }
+        actual.ventas.increment();
+        actual.ingresosCentavos.add(Math.round(total * 100));
+        if (!Boolean.TRUE.equals(venta.getDelivered())) {
+            entregasPendientes.increment();
+        }
+        contarComuna(actual, venta.getDireccionId());
+        version.incrementAndGet();
+    }
+
+    public PanelVentasDTO obtener() {
+        Dia actual = diaActual();
+        Map<String, Long> porComuna = new TreeMap<>();
+        actual.porComuna.forEach((comuna, cuenta) -> porComuna.put(comuna, cuenta.sum()));
+        return new PanelVentasDTO(actual.fecha, actual.ingresosCentavos.sum() / 100.0, actual.ventas.sum(),
+                entregasPendientes.sum(), porComuna);
+    }
+
+    public SseEmitter suscribir() {
+        return suscribir(new SseEmitter(TIMEOUT_MS));
+    }
+
+    SseEmitter suscribir(SseEmitter emitter) {
+        Suscriptor suscriptor = new Suscriptor(emitter);
+        suscriptores.add(suscriptor);
+        emitter.onCompletion(() -> suscriptores.remove(suscriptor));
+        emitter.onTimeout(() -> suscriptores.remove(suscriptor));
+        emitter.onError(e -> suscriptores.remove(suscriptor));
+        programar(suscriptor, SseEmitter.event().name("panel").data(obtener()).build(), false);
+        return emitter;
+    }
+
+    private void tickSeguro() {
+        try {
+            tick(System.currentTimeMillis());
+        } catch (Exception e) {
+            System.out.println(">>> Error al enviar el panel de ventas: " + e.getMessage());
+        }
+    }
+
+    void tick(long ahoraMs) {
+        diaActual();
+        if (suscriptores.isEmpty()) {
+            return;
+        }
+        long actual = version.get();
+        // El evento se arma una sola vez: build() no es seguro si varios hilos de envío lo llaman a la vez.
+        Set<DataWithMediaType> evento;
+        boolean ping = false;
+        if (actual != versionEnviada) {
+            // Una sola foto por tick, compartida por todos los paneles.
+            evento = SseEmitter.event().name("panel").data(obtener()).build();
+            versionEnviada = actual;
+        } else if (ahoraMs - ultimoEnvioMs >= HEARTBEAT_MS) {
+            evento = SseEmitter.event().comment("ping").build();
+            ping = true;
+        } else {
+            return;
+        }
+        ultimoEnvioMs = ahoraMs;
+        for (Suscriptor suscriptor : suscriptores) {
+            programar(suscriptor, evento, ping);
+        }
+        descartarLentos(ahoraMs);
+    }
+
+    // Cada panel tiene a lo sumo un hilo enviándole; una foto nueva reemplaza a la que aún no salió.
+    private void programar(Suscriptor suscriptor, Set<DataWithMediaType> evento, boolean ping) {
+        if (!suscriptor.encolar(evento, ping)) {
+            return;
+        }
+        try {
+            despachador.execute(() -> drenar(suscriptor));
+        } catch (RejectedExecutionException e) {
+            descartar(suscriptor, e);
+        }
+    }
+
+    private void drenar(Suscriptor suscriptor) {
+        Set<DataWithMediaType> evento;
+        while ((evento = suscriptor.tomar()) != null) {
+            try {
+                suscriptor.iniciarEnvio(System.currentTimeMillis());
+                suscriptor.emitter.send(evento);
+            } catch (IOException | IllegalStateException e) {
+                descartar(suscriptor, e);
+                return;
+            } finally {
+                suscriptor.terminarEnvio();
+            }
+        }
+    }
+
+    void descartarLentos(long ahoraMs) {
+        for (Suscriptor suscriptor : suscriptores) {
+            if (suscriptor.enviandoHace(ahoraMs) > ENVIO_MAX_MS) {
+                descartar(suscriptor, new TimeoutException("Cliente SSE lento"));
+                suscriptor.interrumpirEnvio();
+            }
+        }
+    }
+
+    private void descartar(Suscriptor suscriptor, Throwable causa) {
+        if (suscriptores.remove(suscriptor)) {
+            try {
+                suscriptor.emitter.completeWithError(causa);
+            } catch (Exception e) {
+                // La conexión ya estaba cerrada.
+            }
+        }
+    }
+
+    int cantidadSuscriptores() {
+        return suscriptores.size();
+    }
+
+    private Dia diaActual() {
+        Dia actual = dia;
+        LocalDate hoy = LocalDate.now();
+        if (actual.fecha.equals(hoy)) {
+            return actual;
+        }
+        synchronized (this) {
+            if (!dia.fecha.equals(hoy)) {
+                dia = new Dia(hoy);
+                version.incrementAndGet();
+            }
+            return dia;
+        }
+    }
+
+    private void contarComuna(Dia destino, Long direccionId) {
+        String conocida = direccionId == null ? SIN_COMUNA : comunas.get(direccionId);
+        if (conocida != null) {
+            destino.contar(conocida);
+            return;
+        }
+        try {
+            resolutor.execute(() -> {
+                destino.contar(resolverComuna(direccionId));
+                version.incrementAndGet();
+            });
+        } catch (RejectedExecutionException e) {
+            destino.contar(SIN_COMUNA);
+        }
+    }
+
+    private String resolverComuna(Long direccionId) {
+        try {
+            Direccion direccion = direccionClient.obtenerDireccionPorId(direccionId).block();
+            String nombre = direccion == null || direccion.getComuna() == null ? SIN_COMUNA : direccion.getComuna().getNombre();
+            comunas.put(direccionId, nombre);
+            return nombre;
+        } catch (Exception e) {
+            // No se guarda en caché: el próximo pedido vuelve a intentar.
+            return SIN_COMUNA;
+        }
+    }
+
+    private void despuesDeConfirmar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        ticker.shutdownNow();
+        resolutor.shutdownNow();
+        despachador.shutdownNow();
+        suscriptores.forEach(s -> s.emitter.complete());
+    }
+
+    private static class Suscriptor {
+        private final SseEmitter emitter;
+        private Set<DataWithMediaType> pendiente;
+        private boolean programado;
+        private long enviandoDesde;
+        private Thread hilo;
+
+        Suscriptor(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        // true si hay que programar un envío; si ya hay uno en curso, ese hilo tomará el evento al terminar.
+        // Un ping no reemplaza a una foto que todavía no salió.
+        synchronized boolean encolar(Set<DataWithMediaType> evento, boolean ping) {
+            if (!ping || pendiente == null) {
+                pendiente = evento;
+            }
+            if (programado) {
+                return false;
+            }
+            programado = true;
+            return true;
+        }
+
+        // null cuando no queda nada: el siguiente encolar vuelve a programar un envío.
+        synchronized Set<DataWithMediaType> tomar() {
+            Set<DataWithMediaType> evento = pendiente;
+            pendiente = null;
+            if (evento == null) {
+                programado = false;
+            }
+            return evento;
+        }
+
+        synchronized void iniciarEnvio(long ahora) {
+            enviandoDesde = ahora;
+            hilo = Thread.currentThread();
+        }
+
+        synchronized void terminarEnvio() {
+            enviandoDesde = 0;
+            hilo = null;
+        }
+
+        synchronized long enviandoHace(long ahora) {
+            return enviandoDesde == 0 ? 0 : ahora - enviandoDesde;
+        }
+
+        synchronized void interrumpirEnvio() {
+            if (hilo != null) {
+                hilo.interrupt();
+            }
+        }
+    }
+
+    private static class Dia {
+        private final LocalDate fecha;
+        private final LongAdder ingresosCentavos = new LongAdder();
+        private final LongAdder ventas = new LongAdder();
+        private final Map<String, LongAdder> porComuna = new ConcurrentHashMap<>();
+
+        Dia(LocalDate fecha) {
+            this.fecha = fecha;
+        }
+
+        void contar(String comuna) {
+            porComuna.computeIfAbsent(comuna, c -> new LongAdder()).increment();
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.microservicio.ventas.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.microservicio.ventas.dto.ProductoTopDTO;
+import com.microservicio.ventas.dto.TopVentasDTO;
+import com.microservicio.ventas.model.DetalleVenta;
+import com.microservicio.ventas.ranking.ContadorFrecuentes;
+
+// Más vendidos de la hora y del día en curso, sin GROUP BY sobre detalle_venta: cada venta confirmada
+// suma sus unidades a un ContadorFrecuentes por ventana, que se reinicia al empezar la hora o el día.
+@Service
+public class TopVentasService {
+    public static final String HORA = "hora";
+    public static final String DIA = "dia";
+    static final int N_MAXIMO = 100;
+
+    private final int capacidad;
+    private Ventana hora;
+    private Ventana dia;
+
+    public TopVentasService(@Value("${ventas.top.capacidad:500}") int capacidad) {
+        this.capacidad = capacidad;
+    }
+
+    public void registrar(List<DetalleVenta> detalles) {
+        if (detalles.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    sumar(detalles, LocalDateTime.now());
+                }
+            });
+        } else {
+            sumar(detalles, LocalDateTime.now());
+        }
+    }
+
+    synchronized void sumar(List<DetalleVenta> detalles, LocalDateTime ahora) {
+        rotar(ahora);
+        for (DetalleVenta detalle : detalles) {
+            hora.contador().agregar(detalle.getProductoId(), detalle.getCantidad());
+            dia.contador().agregar(detalle.getProductoId(), detalle.getCantidad());
+        }
+    }
+
+    public TopVentasDTO top(String ventana, int n) {
+        return top(ventana, n, LocalDateTime.now());
+    }
+
+    synchronized TopVentasDTO top(String ventana, int n, LocalDateTime ahora) {
+        if (!HORA.equals(ventana) && !DIA.equals(ventana)) {
+            throw new IllegalArgumentException("Ventana no soportada: " + ventana + ". Use 'hora' o 'dia'.");
+        }
+        rotar(ahora);
+        Ventana elegida = HORA.equals(ventana) ? hora : dia;
+        int limite = Math.max(1, Math.min(n, N_MAXIMO));
+
+        // Se pide uno más para saber qué cuenta hay que superar para estar garantizado en el top.
+        List<ContadorFrecuentes.Frecuente> frecuentes = elegida.contador().top(limite + 1);
+        long umbral = frecuentes.size() > limite
+                ? frecuentes.get(limite).cuenta()
+                : elegida.contador().errorMaximo();
+        List<ProductoTopDTO> productos = new ArrayList<>();
+        for (ContadorFrecuentes.Frecuente f : frecuentes.subList(0, Math.min(limite, frecuentes.size()))) {
+            productos.add(new ProductoTopDTO(f.id(), f.cuenta(), f.minimo(), f.minimo() >= umbral));
+        }
+        return new TopVentasDTO(ventana, elegida.inicio(), elegida.contador().getTotal(),
+                elegida.contador().errorMaximo(), productos);
+    }
+
+    private void rotar(LocalDateTime ahora) {
+        LocalDateTime inicioHora = ahora.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime inicioDia = ahora.truncatedTo(ChronoUnit.DAYS);
+        if (hora == null || !hora.inicio().equals(inicioHora)) {
+            hora = new Ventana(inicioHora, new ContadorFrecuentes(capacidad));
+        }
+        if (dia == null || !dia.inicio().equals(inicioDia)) {
+            dia = new Ventana(inicioDia, new ContadorFrecuentes(capacidad));
+        }
+    }
+
+    private record Ventana(LocalDateTime inicio, ContadorFrecuentes contador) {
+    }
+
+}
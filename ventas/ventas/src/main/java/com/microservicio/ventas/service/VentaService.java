@@ -2,16 +2,25 @@ package com.microservicio.ventas.service;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 import com.microservicio.ventas.client.DireccionClient;
 import com.microservicio.ventas.client.ProductoClient;
 
+import com.microservicio.ventas.dto.DetalleVendidoDTO;
 import com.microservicio.ventas.dto.ProductoDetalleDTO;
 import com.microservicio.ventas.model.DetalleVenta;
 import com.microservicio.ventas.model.Producto;
@@ -19,37 +28,53 @@ import com.microservicio.ventas.model.Producto;
 import com.microservicio.ventas.model.Venta;
 import com.microservicio.ventas.repository.DetalleVentaRepository;
 import com.microservicio.ventas.repository.VentaRepository;
+import com.microservicio.ventas.util.Permiso;
 
 import jakarta.transaction.Transactional;
 
 @Service
 public class VentaService {
+    static final int LIMITE_DETALLES = 5000;
+    private static final LocalDate FECHA_MINIMA = LocalDate.of(1, 1, 1);
+    private static final LocalDate FECHA_MAXIMA = LocalDate.of(9999, 12, 31);
+
     private final VentaRepository ventaRepository;
     private final DetalleVentaRepository detalleVentaRepository;
     private final ProductoClient productoClient;
     
     private final DireccionClient direccionClient;
+    private final TopVentasService topVentasService;
+    private final PanelVentasService panelVentasService;
+    private final ArchivoVentasService archivoVentasService;
 
     public VentaService(VentaRepository ventaRepository,
             DetalleVentaRepository detalleVentaRepository,
             ProductoClient productoClient,
             
-            DireccionClient direccionClient) { 
+            DireccionClient direccionClient,
+            TopVentasService topVentasService,
+            PanelVentasService panelVentasService,
+            ArchivoVentasService archivoVentasService) { 
         this.ventaRepository = ventaRepository;
         this.detalleVentaRepository = detalleVentaRepository;
         this.productoClient = productoClient;
        
         this.direccionClient = direccionClient;
+        this.topVentasService = topVentasService;
+        this.panelVentasService = panelVentasService;
+        this.archivoVentasService = archivoVentasService;
     }
 
     @Transactional
     
-    public ResponseEntity<?> registrarVenta(Long usuarioId, String rol, Map<String, Object> payload) {
+    public ResponseEntity<?> registrarVenta(Long usuarioId, int permisos, Map<String, Object> payload) {
+        // token -> producto de los canjes hechos en esta venta
+        Map<String, Long> canjeados = new LinkedHashMap<>();
         try {
             
 
-            // Validar rol CLIENTE (Autorización)
-            if (!rol.equalsIgnoreCase("CLIENTE")) {
+            // Autorización: un solo AND contra los permisos del usuario
+            if ((permisos & Permiso.VENTAS_COMPRAR.bit()) == 0) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Solo CLIENTES pueden realizar ventas.");
             }
 
@@ -67,9 +92,60 @@ public class VentaService {
             venta.setDireccionId(Long.valueOf(payload.get("direccionId").toString()));
             venta.setFecha(LocalDate.now());
 
-            Venta ventaGuardada = ventaRepository.save(venta);
-
             List<Map<String, Object>> detalles = (List<Map<String, Object>>) payload.get("detalles");
+
+            // Los productos en venta flash solo se venden con un token de compra: sin token se rechazan antes
+            // de canjear nada.
+            Set<Long> sinToken = new LinkedHashSet<>();
+            for (Map<String, Object> detalleMap : detalles) {
+                if (detalleMap.get("tokenCompra") == null) {
+                    sinToken.add(Long.valueOf(detalleMap.get("productoId").toString()));
+                }
+            }
+            for (Long productoId : sinToken) {
+                if (Boolean.TRUE.equals(productoClient.ventaFlashActiva(productoId).block())) {
+                    return ResponseEntity.status(HttpStatus.CONFLICT)
+                            .body("El producto " + productoId + " está en venta flash: requiere un token de compra.");
+                }
+            }
+
+            // Los tokens se canjean antes de guardar y quedan pendientes en productostienda. Si después algo falla
+            // (otro token rechazado, un error al guardar o el rollback de la transacción) se liberan; si la venta se
+            // confirma, se confirman y ya no se pueden liberar.
+            for (Map<String, Object> detalleMap : detalles) {
+                Object tokenCompra = detalleMap.get("tokenCompra");
+                if (tokenCompra == null) {
+                    continue;
+                }
+                Long productoId = Long.valueOf(detalleMap.get("productoId").toString());
+                if (Integer.parseInt(detalleMap.get("cantidad").toString()) != 1) {
+                    liberarCanjes(canjeados);
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                            .body("Cada token de compra flash cubre una sola unidad (producto " + productoId + ").");
+                }
+                try {
+                    productoClient.canjearTokenFlash(productoId, tokenCompra.toString()).block();
+                } catch (WebClientResponseException e) {
+                    liberarCanjes(canjeados);
+                    return ResponseEntity.status(HttpStatus.CONFLICT)
+                            .body("Token de compra rechazado para el producto " + productoId + ": " + e.getResponseBodyAsString());
+                }
+                canjeados.put(tokenCompra.toString(), productoId);
+            }
+            if (!canjeados.isEmpty() && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int estado) {
+                        if (estado == STATUS_COMMITTED) {
+                            confirmarCanjes(canjeados);
+                        } else {
+                            liberarCanjes(canjeados);
+                        }
+                    }
+                });
+            }
+
+            Venta ventaGuardada = ventaRepository.save(venta);
             List<DetalleVenta> detallesGuardados = new ArrayList<>();
 
             for (Map<String, Object> detalleMap : detalles) {
@@ -93,13 +169,46 @@ public class VentaService {
             }
 
             ventaGuardada.setDetalles(detallesGuardados);
+            topVentasService.registrar(detallesGuardados);
+            panelVentasService.registrarVenta(ventaGuardada, detallesGuardados);
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                confirmarCanjes(canjeados);
+            }
             return ResponseEntity.status(HttpStatus.CREATED).body(ventaGuardada);
         } catch (Exception e) {
+            // Sin rollback explícito la venta quedaría a medias, porque la excepción no sale del método.
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            }
+            liberarCanjes(canjeados);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error al registrar la venta: " + e.getMessage());
         }
     }
 
+    // Si la confirmación falla el token queda pendiente: la unidad sigue descontada, nunca se vende dos veces.
+    private void confirmarCanjes(Map<String, Long> canjeados) {
+        for (Map.Entry<String, Long> canje : canjeados.entrySet()) {
+            try {
+                productoClient.confirmarTokenFlash(canje.getValue(), canje.getKey()).block();
+            } catch (Exception e) {
+                System.out.println(">>> Error al confirmar el token flash del producto " + canje.getValue() + ": " + e.getMessage());
+            }
+        }
+        canjeados.clear();
+    }
+
+    private void liberarCanjes(Map<String, Long> canjeados) {
+        for (Map.Entry<String, Long> canje : canjeados.entrySet()) {
+            try {
+                productoClient.liberarTokenFlash(canje.getValue(), canje.getKey()).block();
+            } catch (Exception e) {
+                System.out.println(">>> Error al liberar el token flash del producto " + canje.getValue() + ": " + e.getMessage());
+            }
+        }
+        canjeados.clear();
+    }
+
     
 
     public List<Venta> listarVentas() {
@@ -110,8 +219,29 @@ public class VentaService {
         return detalleVentaRepository.findAll();
     }
 
+    // Detalles con ID mayor a 'desde', en orden, para que otros servicios los consuman por cursor.
+    public List<DetalleVendidoDTO> listarDetallesDesde(Long desde, int limite) {
+        int tamano = Math.max(1, Math.min(limite, LIMITE_DETALLES));
+        return detalleVentaRepository.buscarDesde(desde == null ? 0L : desde, PageRequest.of(0, tamano));
+    }
+
+    // Historial completo: lo archivado (más antiguo) primero y luego lo que sigue en MySQL.
     public List<Venta> listarPorUsuarioId(Long idUsuario) {
-        return ventaRepository.findByUsuarioId(idUsuario);
+        List<Venta> ventas = new ArrayList<>(archivoVentasService.buscarPorUsuario(idUsuario, null, null));
+        ventas.addAll(ventaRepository.findByUsuarioId(idUsuario));
+        return ventas;
+    }
+
+    // Solo abre el archivo si el rango empieza antes del corte de archivado.
+    public List<Venta> listarPorUsuarioId(Long idUsuario, LocalDate desde, LocalDate hasta) {
+        LocalDate inicio = desde == null ? FECHA_MINIMA : desde;
+        LocalDate fin = hasta == null ? FECHA_MAXIMA : hasta;
+        List<Venta> ventas = new ArrayList<>();
+        if (inicio.isBefore(archivoVentasService.corteActual())) {
+            ventas.addAll(archivoVentasService.buscarPorUsuario(idUsuario, desde, hasta));
+        }
+        ventas.addAll(ventaRepository.findByUsuarioIdAndFechaBetween(idUsuario, inicio, fin));
+        return ventas;
     }
 
     public List<Venta> listarPorDireccionId(Long direccionId) {
@@ -139,9 +269,14 @@ public class VentaService {
    
     @Transactional
     public Venta setProofAndMarkDelivered(Long ventaId, String proofUri) {
+        // La transición a entregada la decide el UPDATE condicional, no lo leído antes: así dos entregas
+        // simultáneas no descuentan dos veces la misma venta del panel.
+        if (ventaRepository.marcarEntregada(ventaId, proofUri) > 0) {
+            panelVentasService.registrarEntrega();
+        }
         return ventaRepository.findById(ventaId).map(venta -> {
             venta.setProofUri(proofUri);
-            venta.setDelivered(true); 
+            venta.setDelivered(true);
             return ventaRepository.save(venta);
         }).orElse(null);
     }
@@ -4,8 +4,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.eq;
 
@@ -29,6 +29,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microservicio.ventas.model.Venta;
 import com.microservicio.ventas.service.VentaService;
 import com.microservicio.ventas.util.JwtUtil;
+import com.microservicio.ventas.util.Permiso;
 
 @WebMvcTest(VentaController.class)
 @AutoConfigureMockMvc(addFilters = false) 
@@ -82,12 +83,12 @@ public class VentaControllerTest {
         
         doReturn(ResponseEntity.status(HttpStatus.CREATED).body(venta))
              .when(ventaService)
-             .registrarVenta(eq(CLIENTE_ID), eq("CLIENTE"), anyMap());
+             .registrarVenta(eq(CLIENTE_ID), eq(Permiso.deRol("CLIENTE")), anyMap());
              
        
         doReturn(ResponseEntity.status(HttpStatus.FORBIDDEN).body("Solo CLIENTES pueden realizar ventas."))
              .when(ventaService)
-             .registrarVenta(eq(CLIENTE_ID), eq("ADMINISTRADOR"), anyMap());
+             .registrarVenta(eq(CLIENTE_ID), eq(Permiso.deRol("ADMINISTRADOR")), anyMap());
     }
 
    
@@ -101,7 +102,7 @@ public class VentaControllerTest {
                 
                 .andExpect(status().isCreated());
         
-        verify(ventaService, times(1)).registrarVenta(eq(CLIENTE_ID), eq("CLIENTE"), anyMap());
+        verify(ventaService, times(1)).registrarVenta(eq(CLIENTE_ID), eq(Permiso.deRol("CLIENTE")), anyMap());
     }
 
     @Test
@@ -113,7 +114,7 @@ public class VentaControllerTest {
                 
                 .andExpect(status().isUnauthorized());
         
-        verify(ventaService, never()).registrarVenta(anyLong(), anyString(), anyMap());
+        verify(ventaService, never()).registrarVenta(anyLong(), anyInt(), anyMap());
     }
 
     @Test
@@ -125,7 +126,7 @@ public class VentaControllerTest {
                 
                 .andExpect(status().isForbidden());
         
-        verify(ventaService, times(1)).registrarVenta(eq(CLIENTE_ID), eq("ADMINISTRADOR"), anyMap());
+        verify(ventaService, times(1)).registrarVenta(eq(CLIENTE_ID), eq(Permiso.deRol("ADMINISTRADOR")), anyMap());
     }
 
    
@@ -0,0 +1,50 @@
+package com.microservicio.ventas.ranking;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class ContadorFrecuentesTest {
+
+    @Test
+    void testSinDesborde_CuentasExactas() {
+        ContadorFrecuentes contador = new ContadorFrecuentes(10);
+        contador.agregar(1, 5);
+        contador.agregar(2, 3);
+        contador.agregar(1, 2);
+
+        List<ContadorFrecuentes.Frecuente> top = contador.top(5);
+
+        assertEquals(2, top.size());
+        assertEquals(1, top.get(0).id());
+        assertEquals(7, top.get(0).cuenta());
+        assertEquals(0, top.get(0).error());
+        assertEquals(0, contador.errorMaximo());
+        assertEquals(10, contador.getTotal());
+    }
+
+    @Test
+    void testConDesborde_EncuentraLosFrecuentesDentroDeLaCota() {
+        ContadorFrecuentes contador = new ContadorFrecuentes(20);
+        Random random = new Random(7);
+        long[] reales = new long[1001];
+        // Tres productos dominan; el resto es ruido repartido entre mil productos.
+        for (int i = 0; i < 20_000; i++) {
+            int id = i % 4 == 0 ? 1 + random.nextInt(3) : 4 + random.nextInt(997);
+            reales[id]++;
+            contador.agregar(id, 1);
+        }
+
+        List<ContadorFrecuentes.Frecuente> top = contador.top(3);
+
+        assertEquals(List.of(1L, 2L, 3L), top.stream().map(ContadorFrecuentes.Frecuente::id).sorted().toList());
+        for (ContadorFrecuentes.Frecuente f : top) {
+            assertTrue(f.cuenta() >= reales[(int) f.id()]);
+            assertTrue(f.minimo() <= reales[(int) f.id()]);
+            assertTrue(f.error() <= contador.getTotal() / 20);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.microservicio.ventas.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.microservicio.ventas.archivo.ArchivoColumnar;
+import com.microservicio.ventas.model.DetalleVenta;
+import com.microservicio.ventas.model.Venta;
+import com.microservicio.ventas.repository.DetalleVentaRepository;
+import com.microservicio.ventas.repository.VentaRepository;
+
+public class ArchivoVentasServiceTest {
+
+    @TempDir
+    Path directorio;
+
+    private VentaRepository ventaRepository;
+    private DetalleVentaRepository detalleVentaRepository;
+    private ArchivoVentasService archivoVentasService;
+
+    @BeforeEach
+    void setUp() {
+        ventaRepository = mock(VentaRepository.class);
+        detalleVentaRepository = mock(DetalleVentaRepository.class);
+        archivoVentasService = new ArchivoVentasService(ventaRepository, detalleVentaRepository,
+                mock(PlatformTransactionManager.class), directorio.toString(), 365, 500, 24);
+    }
+
+    private Venta venta(long id, long usuarioId, LocalDate fecha) {
+        Venta venta = new Venta(id, usuarioId, 7L, fecha, true, id % 2 == 0 ? "content://foto/" + id : null, new ArrayList<>());
+        DetalleVenta detalle = new DetalleVenta(id * 10, venta, 3L, 2, 19990.5);
+        venta.getDetalles().add(detalle);
+        return venta;
+    }
+
+    @Test
+    void testArchivar_EscribePorMesBorraYSeLeeDeVuelta() throws Exception {
+        LocalDate hoy = LocalDate.of(2025, 6, 1);
+        Venta marzo = venta(1, 100, LocalDate.of(2024, 3, 15));
+        Venta abril = venta(2, 100, LocalDate.of(2024, 4, 2));
+        Venta otroUsuario = venta(3, 200, LocalDate.of(2024, 4, 20));
+        List<Long> ids = List.of(1L, 2L, 3L);
+        when(ventaRepository.buscarArchivables(eq(LocalDate.of(2024, 6, 1)), any()))
+                .thenReturn(ids).thenReturn(List.of());
+        when(ventaRepository.findAllById(ids)).thenReturn(List.of(abril, marzo, otroUsuario));
+        when(detalleVentaRepository.findByVentaIdIn(ids)).thenReturn(List.of(
+                marzo.getDetalles().get(0), abril.getDetalles().get(0), otroUsuario.getDetalles().get(0)));
+
+        assertEquals(3, archivoVentasService.archivar(hoy));
+
+        assertTrue(Files.exists(directorio.resolve("2024-03").resolve("lote-1.vcol.gz")));
+        assertTrue(Files.exists(directorio.resolve("2024-04").resolve("lote-2.vcol.gz")));
+        verify(detalleVentaRepository).eliminarPorVentas(ids);
+        verify(ventaRepository).eliminarPorIds(ids);
+
+        List<Venta> historial = archivoVentasService.buscarPorUsuario(100L, null, null);
+        assertEquals(List.of(1L, 2L), historial.stream().map(Venta::getId).toList());
+        Venta leida = historial.get(1);
+        assertEquals(LocalDate.of(2024, 4, 2), leida.getFecha());
+        assertEquals("content://foto/2", leida.getProofUri());
+        assertEquals(20L, leida.getDetalles().get(0).getId());
+        assertEquals(19990.5, leida.getDetalles().get(0).getPrecioUnitario());
+        assertSame(leida, leida.getDetalles().get(0).getVenta());
+
+        assertEquals(List.of(2L), archivoVentasService.buscarPorUsuario(100L, LocalDate.of(2024, 4, 1), null)
+                .stream().map(Venta::getId).toList());
+        assertTrue(archivoVentasService.buscarPorUsuario(999L, null, null).isEmpty());
+    }
+
+    @Test
+    void testBuscarPorUsuario_LoteRearchivadoConOtroNombre_NoDuplica() throws Exception {
+        // Caída entre escribir y borrar: el siguiente ciclo archivó las mismas ventas en un lote que empieza en otro ID.
+        LocalDate fecha = LocalDate.of(2024, 3, 15);
+        Path mes = directorio.resolve("2024-03");
+        ArchivoColumnar.escribir(mes.resolve("lote-2.vcol.gz"), List.of(venta(2, 100, fecha), venta(3, 100, fecha)));
+        ArchivoColumnar.escribir(mes.resolve("lote-1.vcol.gz"),
+                List.of(venta(1, 100, fecha), venta(2, 100, fecha), venta(3, 100, fecha), venta(4, 200, fecha)));
+
+        assertEquals(List.of(1L, 2L, 3L), archivoVentasService.buscarPorUsuario(100L, null, null)
+                .stream().map(Venta::getId).toList());
+        assertEquals(List.of(4L), archivoVentasService.buscarPorUsuario(200L, null, null)
+                .stream().map(Venta::getId).toList());
+    }
+
+    @Test
+    void testBuscarPorUsuario_SinArchivo() {
+        assertTrue(new ArchivoVentasService(ventaRepository, detalleVentaRepository, mock(PlatformTransactionManager.class),
+                directorio.resolve("no-existe").toString(), 365, 500, 24).buscarPorUsuario(1L, null, null).isEmpty());
+    }
+
+    @Test
+    void testCorteActual_SaleDelMesArchivadoMasRecienteYNoDeLaEdad() throws Exception {
+        assertEquals(LocalDate.MIN, archivoVentasService.corteActual());
+
+        // Se archivó con una edad menor; luego 'edad-dias' subió a 365 y el corte no puede retroceder por eso.
+        LocalDate fecha = LocalDate.of(2025, 4, 20);
+        ArchivoColumnar.escribir(directorio.resolve("2025-04").resolve("lote-1.vcol.gz"), List.of(venta(1, 100, fecha)));
+        ArchivoColumnar.escribir(directorio.resolve("2025-02").resolve("lote-0.vcol.gz"), List.of(venta(0, 100, fecha)));
+        ArchivoVentasService reiniciado = new ArchivoVentasService(ventaRepository, detalleVentaRepository,
+                mock(PlatformTransactionManager.class), directorio.toString(), 365, 500, 24);
+
+        assertEquals(LocalDate.of(2025, 5, 1), reiniciado.corteActual());
+    }
+}
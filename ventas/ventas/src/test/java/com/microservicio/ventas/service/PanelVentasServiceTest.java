@@ -0,0 +1,145 @@
+package com.microservicio.ventas.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.microservicio.ventas.client.DireccionClient;
+import com.microservicio.ventas.dto.PanelVentasDTO;
+import com.microservicio.ventas.model.Comuna;
+import com.microservicio.ventas.model.DetalleVenta;
+import com.microservicio.ventas.model.Direccion;
+import com.microservicio.ventas.model.Venta;
+import com.microservicio.ventas.repository.DetalleVentaRepository;
+import com.microservicio.ventas.repository.VentaRepository;
+
+import reactor.core.publisher.Mono;
+
+public class PanelVentasServiceTest {
+
+    private VentaRepository ventaRepository;
+    private DetalleVentaRepository detalleVentaRepository;
+    private DireccionClient direccionClient;
+    private PanelVentasService panelVentasService;
+
+    @BeforeEach
+    void setUp() {
+        ventaRepository = mock(VentaRepository.class);
+        detalleVentaRepository = mock(DetalleVentaRepository.class);
+        direccionClient = mock(DireccionClient.class);
+        panelVentasService = new PanelVentasService(ventaRepository, detalleVentaRepository, direccionClient, 1000);
+
+        Comuna comuna = new Comuna();
+        comuna.setNombre("Providencia");
+        Direccion direccion = new Direccion();
+        direccion.setId(5L);
+        direccion.setComuna(comuna);
+        when(direccionClient.obtenerDireccionPorId(5L)).thenReturn(Mono.just(direccion));
+    }
+
+    private Venta venta(Long direccionId) {
+        Venta venta = new Venta();
+        venta.setDireccionId(direccionId);
+        venta.setDelivered(false);
+        return venta;
+    }
+
+    private DetalleVenta detalle(int cantidad, double precio) {
+        DetalleVenta detalle = new DetalleVenta();
+        detalle.setCantidad(cantidad);
+        detalle.setPrecioUnitario(precio);
+        return detalle;
+    }
+
+    @Test
+    void testCargarYSumar_ActualizaContadores() throws Exception {
+        LocalDate hoy = LocalDate.now();
+        when(ventaRepository.findByFecha(hoy)).thenReturn(List.of(venta(5L)));
+        when(detalleVentaRepository.sumarIngresosDe(hoy)).thenReturn(100.5);
+        when(ventaRepository.countByDeliveredFalse()).thenReturn(3L);
+
+        panelVentasService.cargar(hoy);
+        panelVentasService.sumarVenta(venta(5L), List.of(detalle(2, 10.25)));
+        panelVentasService.registrarEntrega();
+        Thread.sleep(200);
+
+        PanelVentasDTO panel = panelVentasService.obtener();
+        assertEquals(121.0, panel.getIngresos(), 0.001);
+        assertEquals(2L, panel.getVentas());
+        assertEquals(3L, panel.getEntregasPendientes());
+        assertEquals(2L, panel.getVentasPorComuna().get("Providencia"));
+        // La comuna se resolvió una sola vez y quedó en caché.
+        verify(direccionClient, atMost(2)).obtenerDireccionPorId(5L);
+    }
+
+    @Test
+    void testSumarVenta_DireccionInaccesible_CuentaSinComuna() throws Exception {
+        when(direccionClient.obtenerDireccionPorId(9L)).thenReturn(Mono.error(new RuntimeException("caído")));
+
+        panelVentasService.sumarVenta(venta(9L), List.of(detalle(1, 5.0)));
+        Thread.sleep(200);
+
+        assertEquals(1L, panelVentasService.obtener().getVentasPorComuna().get(PanelVentasService.SIN_COMUNA));
+    }
+
+    @Test
+    void testSuscribir_EnviaFotoInicialYTickSoloSiCambia() {
+        panelVentasService.suscribir();
+        assertEquals(1, panelVentasService.cantidadSuscriptores());
+
+        panelVentasService.tick(System.currentTimeMillis());
+        panelVentasService.tick(System.currentTimeMillis());
+
+        assertEquals(1, panelVentasService.cantidadSuscriptores());
+    }
+
+    @Test
+    void testTick_PanelLento_NoFrenaALosDemasYSeDescarta() throws Exception {
+        CountDownLatch enviando = new CountDownLatch(1);
+        CountDownLatch nunca = new CountDownLatch(1);
+        SseEmitter lento = new SseEmitter() {
+            @Override
+            public void send(Set<DataWithMediaType> evento) throws IOException {
+                enviando.countDown();
+                try {
+                    nunca.await();
+                } catch (InterruptedException e) {
+                    throw new IOException("interrumpido", e);
+                }
+            }
+        };
+        CountDownLatch recibidas = new CountDownLatch(2);
+        SseEmitter rapido = new SseEmitter() {
+            @Override
+            public void send(Set<DataWithMediaType> evento) {
+                recibidas.countDown();
+            }
+        };
+        long inicio = System.currentTimeMillis();
+        panelVentasService.suscribir(lento);
+        assertTrue(enviando.await(5, TimeUnit.SECONDS));
+        Thread.sleep(200);
+        panelVentasService.suscribir(rapido);
+
+        // Con el envío al panel lento bloqueado, el tick vuelve enseguida y los demás paneles reciben la foto.
+        panelVentasService.sumarVenta(venta(null), List.of(detalle(1, 1000.0)));
+        panelVentasService.tick(System.currentTimeMillis());
+        assertTrue(recibidas.await(5, TimeUnit.SECONDS));
+
+        // Solo el envío al panel lento empezó antes de 'inicio + 200 ms': es el único que pasa de ENVIO_MAX_MS.
+        panelVentasService.descartarLentos(inicio + PanelVentasService.ENVIO_MAX_MS + 100);
+        assertEquals(1, panelVentasService.cantidadSuscriptores());
+        panelVentasService.cerrar();
+    }
+}
@@ -0,0 +1,54 @@
+package com.microservicio.ventas.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.microservicio.ventas.dto.TopVentasDTO;
+import com.microservicio.ventas.model.DetalleVenta;
+
+public class TopVentasServiceTest {
+
+    private DetalleVenta detalle(long productoId, int cantidad) {
+        DetalleVenta detalle = new DetalleVenta();
+        detalle.setProductoId(productoId);
+        detalle.setCantidad(cantidad);
+        return detalle;
+    }
+
+    @Test
+    void testTop_PorHoraYDia() {
+        TopVentasService service = new TopVentasService(50);
+        LocalDateTime nueve = LocalDateTime.of(2024, 5, 1, 9, 30);
+        service.sumar(List.of(detalle(1, 5), detalle(2, 1)), nueve);
+        service.sumar(List.of(detalle(2, 10)), nueve.plusHours(1));
+
+        TopVentasDTO hora = service.top(TopVentasService.HORA, 5, nueve.plusHours(1));
+        TopVentasDTO dia = service.top(TopVentasService.DIA, 1, nueve.plusHours(1));
+
+        assertEquals(1, hora.getProductos().size());
+        assertEquals(10L, hora.getUnidadesTotales());
+        assertEquals(2L, dia.getProductos().get(0).getProductoId());
+        assertEquals(11L, dia.getProductos().get(0).getUnidadesEstimadas());
+        assertTrue(dia.getProductos().get(0).getGarantizado());
+        assertEquals(16L, dia.getUnidadesTotales());
+    }
+
+    @Test
+    void testTop_NuevoDiaReinicia() {
+        TopVentasService service = new TopVentasService(50);
+        service.sumar(List.of(detalle(1, 5)), LocalDateTime.of(2024, 5, 1, 23, 0));
+
+        TopVentasDTO dia = service.top(TopVentasService.DIA, 5, LocalDateTime.of(2024, 5, 2, 0, 1));
+
+        assertTrue(dia.getProductos().isEmpty());
+    }
+
+    @Test
+    void testTop_VentanaInvalida() {
+        assertThrows(IllegalArgumentException.class, () -> new TopVentasService(50).top("semana", 5));
+    }
+}
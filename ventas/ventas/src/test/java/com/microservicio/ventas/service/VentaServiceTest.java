@@ -16,16 +16,20 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 import com.microservicio.ventas.client.DireccionClient;
 import com.microservicio.ventas.client.ProductoClient;
+import com.microservicio.ventas.dto.DetalleVendidoDTO;
 import com.microservicio.ventas.model.DetalleVenta;
 import com.microservicio.ventas.model.Producto;
 import com.microservicio.ventas.model.Venta;
 import com.microservicio.ventas.repository.DetalleVentaRepository;
 import com.microservicio.ventas.repository.VentaRepository;
+import com.microservicio.ventas.util.Permiso;
 
 import reactor.core.publisher.Mono;
 
@@ -44,6 +48,15 @@ public class VentaServiceTest {
     @Mock
     private DireccionClient direccionClient; 
 
+    @Mock
+    private TopVentasService topVentasService;
+
+    @Mock
+    private PanelVentasService panelVentasService;
+
+    @Mock
+    private ArchivoVentasService archivoVentasService;
+
     @InjectMocks
     private VentaService ventaService;
 
@@ -82,6 +95,7 @@ public class VentaServiceTest {
     @Test
     void testRegistrarVenta_RolCliente_Exito() {
        
+        when(productoClient.ventaFlashActiva(PRODUCTO_ID)).thenReturn(Mono.just(false));
         when(productoClient.obtenerProductoPorId(PRODUCTO_ID)).thenReturn(Mono.just(productoMock));
         
         when(ventaRepository.save(any(Venta.class))).thenReturn(ventaGuardada);
@@ -92,7 +106,7 @@ public class VentaServiceTest {
             return dv;
         });
 
-        ResponseEntity<?> response = ventaService.registrarVenta(CLIENTE_ID, "CLIENTE", payload);
+        ResponseEntity<?> response = ventaService.registrarVenta(CLIENTE_ID, Permiso.deRol("CLIENTE"), payload);
 
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
         
@@ -100,12 +114,14 @@ public class VentaServiceTest {
         verify(ventaRepository, times(1)).save(any(Venta.class));
         verify(detalleVentaRepository, times(1)).save(any(DetalleVenta.class));
         verify(productoClient, times(1)).obtenerProductoPorId(PRODUCTO_ID);
+        verify(topVentasService, times(1)).registrar(argThat(detalles -> detalles.size() == 1));
+        verify(panelVentasService, times(1)).registrarVenta(eq(ventaGuardada), anyList());
     }
     
     
     @Test
     void testRegistrarVenta_RolNoCliente_RetornaForbidden() {
-        ResponseEntity<?> response = ventaService.registrarVenta(CLIENTE_ID, "ADMINISTRADOR", payload);
+        ResponseEntity<?> response = ventaService.registrarVenta(CLIENTE_ID, Permiso.deRol("ADMINISTRADOR"), payload);
 
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
         assertTrue(response.getBody().toString().contains("Solo CLIENTES pueden realizar ventas."));
@@ -118,7 +134,7 @@ public class VentaServiceTest {
     void testRegistrarVenta_FaltaDireccionId_RetornaBadRequest() {
         payload.remove("direccionId");
 
-        ResponseEntity<?> response = ventaService.registrarVenta(CLIENTE_ID, "CLIENTE", payload);
+        ResponseEntity<?> response = ventaService.registrarVenta(CLIENTE_ID, Permiso.deRol("CLIENTE"), payload);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertTrue(response.getBody().toString().contains("Falta el campo 'direccionId'"));
@@ -135,4 +151,131 @@ public class VentaServiceTest {
         assertFalse(resultado.isEmpty());
         verify(ventaRepository, times(1)).findByUsuarioId(CLIENTE_ID);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testRegistrarVenta_TokenFlashRechazado_NoGuardaVenta() {
+        Map<String, Object> detalleFlash = new HashMap<>();
+        detalleFlash.put("productoId", PRODUCTO_ID);
+        detalleFlash.put("cantidad", 1);
+        detalleFlash.put("tokenCompra", "vencido");
+        payload.put("detalles", List.of(detalleFlash));
+        when(productoClient.canjearTokenFlash(PRODUCTO_ID, "vencido")).thenReturn(Mono.error(
+                WebClientResponseException.create(409, "Conflict", null, null, null)));
+
+        ResponseEntity<?> response = ventaService.registrarVenta(CLIENTE_ID, Permiso.deRol("CLIENTE"), payload);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        verify(ventaRepository, never()).save(any(Venta.class));
+    }
+
+    @Test
+    void testRegistrarVenta_ProductoFlashSinToken_RetornaConflict() {
+        when(productoClient.ventaFlashActiva(PRODUCTO_ID)).thenReturn(Mono.just(true));
+
+        ResponseEntity<?> response = ventaService.registrarVenta(CLIENTE_ID, Permiso.deRol("CLIENTE"), payload);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertTrue(response.getBody().toString().contains("requiere un token de compra"));
+        verify(ventaRepository, never()).save(any(Venta.class));
+    }
+
+    @Test
+    void testRegistrarVenta_SegundoTokenRechazado_LiberaElPrimero() {
+        Map<String, Object> primero = new HashMap<>(Map.of("productoId", PRODUCTO_ID, "cantidad", 1, "tokenCompra", "bueno"));
+        Map<String, Object> segundo = new HashMap<>(Map.of("productoId", 2L, "cantidad", 1, "tokenCompra", "vencido"));
+        payload.put("detalles", List.of(primero, segundo));
+        when(productoClient.canjearTokenFlash(PRODUCTO_ID, "bueno")).thenReturn(Mono.just(productoMock));
+        when(productoClient.canjearTokenFlash(2L, "vencido")).thenReturn(Mono.error(
+                WebClientResponseException.create(409, "Conflict", null, null, null)));
+        when(productoClient.liberarTokenFlash(PRODUCTO_ID, "bueno")).thenReturn(Mono.just(productoMock));
+
+        ResponseEntity<?> response = ventaService.registrarVenta(CLIENTE_ID, Permiso.deRol("CLIENTE"), payload);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        verify(productoClient, times(1)).liberarTokenFlash(PRODUCTO_ID, "bueno");
+        verify(ventaRepository, never()).save(any(Venta.class));
+    }
+
+    @Test
+    void testRegistrarVenta_ConToken_ConfirmaElCanjeSinLiberarlo() {
+        Map<String, Object> flash = new HashMap<>(Map.of("productoId", PRODUCTO_ID, "cantidad", 1, "tokenCompra", "bueno"));
+        payload.put("detalles", List.of(flash));
+        when(productoClient.canjearTokenFlash(PRODUCTO_ID, "bueno")).thenReturn(Mono.just(productoMock));
+        when(productoClient.confirmarTokenFlash(PRODUCTO_ID, "bueno")).thenReturn(Mono.empty());
+        when(productoClient.obtenerProductoPorId(PRODUCTO_ID)).thenReturn(Mono.just(productoMock));
+        when(ventaRepository.save(any(Venta.class))).thenReturn(ventaGuardada);
+        when(detalleVentaRepository.save(any(DetalleVenta.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ResponseEntity<?> response = ventaService.registrarVenta(CLIENTE_ID, Permiso.deRol("CLIENTE"), payload);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        verify(productoClient, times(1)).confirmarTokenFlash(PRODUCTO_ID, "bueno");
+        verify(productoClient, never()).liberarTokenFlash(anyLong(), anyString());
+    }
+
+    @Test
+    void testRegistrarVenta_ErrorAlGuardar_LiberaTokensCanjeados() {
+        Map<String, Object> flash = new HashMap<>(Map.of("productoId", PRODUCTO_ID, "cantidad", 1, "tokenCompra", "bueno"));
+        payload.put("detalles", List.of(flash));
+        when(productoClient.canjearTokenFlash(PRODUCTO_ID, "bueno")).thenReturn(Mono.just(productoMock));
+        when(ventaRepository.save(any(Venta.class))).thenThrow(new RuntimeException("Conexión perdida"));
+        when(productoClient.liberarTokenFlash(PRODUCTO_ID, "bueno")).thenReturn(Mono.just(productoMock));
+
+        ResponseEntity<?> response = ventaService.registrarVenta(CLIENTE_ID, Permiso.deRol("CLIENTE"), payload);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        verify(productoClient, times(1)).liberarTokenFlash(PRODUCTO_ID, "bueno");
+    }
+
+    @Test
+    void testListarDetallesDesde_AcotaElLimite() {
+        List<DetalleVendidoDTO> detalles = List.of(new DetalleVendidoDTO(11L, 1L, PRODUCTO_ID, 2, LocalDate.now()));
+        when(detalleVentaRepository.buscarDesde(10L, PageRequest.of(0, VentaService.LIMITE_DETALLES))).thenReturn(detalles);
+
+        List<DetalleVendidoDTO> resultado = ventaService.listarDetallesDesde(10L, 1_000_000);
+
+        assertEquals(detalles, resultado);
+    }
+
+    @Test
+    void testSetProofAndMarkDelivered_DescuentaPendienteUnaSolaVez() {
+        // La segunda entrega (o una concurrente) ya no encuentra la fila pendiente.
+        when(ventaRepository.marcarEntregada(eq(10L), anyString())).thenReturn(1).thenReturn(0);
+        when(ventaRepository.findById(10L)).thenReturn(Optional.of(ventaGuardada));
+        when(ventaRepository.save(ventaGuardada)).thenReturn(ventaGuardada);
+
+        ventaService.setProofAndMarkDelivered(10L, "content://foto");
+        ventaService.setProofAndMarkDelivered(10L, "content://foto2");
+
+        assertTrue(ventaGuardada.getDelivered());
+        verify(panelVentasService, times(1)).registrarEntrega();
+    }
+
+    @Test
+    void testListarPorUsuarioId_RangoReciente_NoAbreArchivo() {
+        LocalDate hoy = LocalDate.now();
+        when(archivoVentasService.corteActual()).thenReturn(hoy.minusDays(365));
+        when(ventaRepository.findByUsuarioIdAndFechaBetween(CLIENTE_ID, hoy.minusDays(30), hoy))
+                .thenReturn(List.of(ventaGuardada));
+
+        List<Venta> resultado = ventaService.listarPorUsuarioId(CLIENTE_ID, hoy.minusDays(30), hoy);
+
+        assertEquals(List.of(ventaGuardada), resultado);
+        verify(archivoVentasService, never()).buscarPorUsuario(any(), any(), any());
+    }
+
+    @Test
+    void testListarPorUsuarioId_RangoAntiguo_IncluyeArchivo() {
+        LocalDate hoy = LocalDate.now();
+        Venta archivada = new Venta();
+        archivada.setId(1L);
+        when(archivoVentasService.corteActual()).thenReturn(hoy.minusDays(365));
+        when(archivoVentasService.buscarPorUsuario(CLIENTE_ID, hoy.minusYears(3), hoy)).thenReturn(List.of(archivada));
+        when(ventaRepository.findByUsuarioIdAndFechaBetween(CLIENTE_ID, hoy.minusYears(3), hoy))
+                .thenReturn(List.of(ventaGuardada));
+
+        List<Venta> resultado = ventaService.listarPorUsuarioId(CLIENTE_ID, hoy.minusYears(3), hoy);
+
+        assertEquals(List.of(archivada, ventaGuardada), resultado);
+    }
+}